@@ -0,0 +1,50 @@
+package com.cao.ecommerce.gateway.config;
+
+import com.cao.ecommerce.gateway.filter.AuthenticationFilter;
+import com.cao.ecommerce.gateway.filter.IdentityHeaderFilter;
+import com.cao.ecommerce.gateway.filter.InternalPathFilter;
+import com.cao.ecommerce.gateway.filter.TokenDenylist;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关认证装配
+ *
+ * 内部接口拦截和身份请求头清理始终生效；令牌验证在 ecommerce.gateway.auth.enabled=true 时启用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(AuthProperties.class)
+public class AuthConfig {
+
+    @Bean
+    public InternalPathFilter internalPathFilter() {
+        return new InternalPathFilter();
+    }
+
+    @Bean
+    public IdentityHeaderFilter identityHeaderFilter() {
+        return new IdentityHeaderFilter();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = AuthProperties.PREFIX, name = "enabled", havingValue = "true")
+    static class TokenAuthenticationConfig {
+
+        @Bean
+        public TokenDenylist tokenDenylist() {
+            return new TokenDenylist();
+        }
+
+        @Bean
+        public AuthenticationFilter authenticationFilter(AuthProperties properties, TokenDenylist tokenDenylist,
+                                                         MeterRegistry meterRegistry) {
+            return new AuthenticationFilter(properties, tokenDenylist, meterRegistry);
+        }
+    }
+}
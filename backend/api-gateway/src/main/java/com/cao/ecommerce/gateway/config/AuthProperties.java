@@ -0,0 +1,93 @@
+package com.cao.ecommerce.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网关认证配置
+ *
+ * 签名密钥可以静态配置，也可以从签发方的JWKS地址定时拉取；两者同时存在时按kid合并，JWKS优先。
+ * 路由规则和静态密钥在配置变更后下一个请求重新编译，无需重启
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = AuthProperties.PREFIX)
+public class AuthProperties {
+
+    public static final String PREFIX = "ecommerce.gateway.auth";
+
+    /** 是否启用认证（签发方上线后启用） */
+    private boolean enabled = false;
+
+    /** 期望的签发方（iss），为空时不校验 */
+    private String issuer;
+
+    /** 期望的受众（aud），为空时不校验 */
+    private String audience;
+
+    /** 校验 exp/nbf 时允许的时钟偏差（秒） */
+    private long clockSkewSeconds = 30;
+
+    /** 已验证令牌缓存的槽数（2的幂），0表示不缓存 */
+    private int cacheSize = 16384;
+
+    /** 静态配置的签名密钥 */
+    private List<SigningKey> keys = new ArrayList<>();
+
+    /** 签发方的JWKS地址（http/https，不支持lb://），为空时只使用静态密钥 */
+    private String jwksUri;
+
+    /** 撤销名单全量快照地址，为空时只接收推送 */
+    private String denylistUri;
+
+    /** JWKS和撤销名单快照的拉取间隔（毫秒） */
+    private long refreshIntervalMs = 300000;
+
+    /** 遇到未知kid时触发JWKS拉取的最小间隔（毫秒），防止伪造kid放大请求 */
+    private long unknownKidRefreshMinIntervalMs = 30000;
+
+    /** 撤销名单推送接口的共享密钥（请求头 X-Push-Secret），为空时拒绝推送 */
+    private String pushSecret;
+
+    /** 路由ID -> 认证规则，未配置的路由：携带令牌时校验，未携带时匿名放行 */
+    private Map<String, RouteAuth> routes = new LinkedHashMap<>();
+
+    /**
+     * 签名密钥
+     */
+    @Data
+    public static class SigningKey {
+
+        /** 密钥ID（JWT头部的kid） */
+        private String kid;
+
+        /** 签名算法：HS256 / RS256 / ES256 */
+        private String algorithm = "HS256";
+
+        /** HS256 的密钥（Base64） */
+        private String secret;
+
+        /** RS256/ES256 的公钥（X.509 SubjectPublicKeyInfo，PEM或Base64） */
+        private String publicKey;
+    }
+
+    /**
+     * 单条路由的认证规则
+     */
+    @Data
+    public static class RouteAuth {
+
+        /** 是否必须携带有效令牌 */
+        private boolean required = true;
+
+        /** 无需令牌的路径（PathPattern语法，如 /user/login、/user/public/**，匹配网关收到的原始路径） */
+        private List<String> permitPaths = new ArrayList<>();
+    }
+}
@@ -0,0 +1,40 @@
+package com.cao.ecommerce.gateway.config;
+
+import com.cao.ecommerce.gateway.fallback.CircuitBreakerFilter;
+import com.cao.ecommerce.gateway.filter.ResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关熔断装配
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(CircuitBreakerProperties.class)
+@ConditionalOnProperty(prefix = CircuitBreakerProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CircuitBreakerConfig {
+
+    /**
+     * 响应缓存关闭时降级只返回503
+     */
+    @Bean
+    public CircuitBreakerFilter circuitBreakerFilter(CircuitBreakerProperties properties, MeterRegistry meterRegistry,
+                                                     ObjectProvider<ResponseCacheFilter> responseCacheFilter) {
+        return new CircuitBreakerFilter(properties, meterRegistry, responseCacheFilter.getIfAvailable());
+    }
+
+    /**
+     * 实例级熔断（负载均衡之后），与路由级熔断共用规则
+     */
+    @Bean
+    public GlobalFilter instanceCircuitBreakerFilter(CircuitBreakerFilter circuitBreakerFilter) {
+        return circuitBreakerFilter.instanceFilter();
+    }
+}
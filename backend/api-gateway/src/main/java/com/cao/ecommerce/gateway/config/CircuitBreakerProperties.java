@@ -0,0 +1,69 @@
+package com.cao.ecommerce.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 网关熔断配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = CircuitBreakerProperties.PREFIX)
+public class CircuitBreakerProperties {
+
+    public static final String PREFIX = "ecommerce.gateway.circuit-breaker";
+
+    /** 是否启用熔断 */
+    private boolean enabled = true;
+
+    /** 实例级熔断器空闲多久（毫秒）后清理，实例下线后不再占用内存 */
+    private long instanceIdleMs = 300000;
+
+    /** 路由ID -> 熔断规则，未配置的路由不熔断 */
+    private Map<String, RouteBreaker> routes = new LinkedHashMap<>();
+
+    /**
+     * 单条路由的熔断规则
+     */
+    @Data
+    public static class RouteBreaker {
+
+        /** 滑动窗口长度（毫秒） */
+        private long windowMs = 10000;
+
+        /** 窗口分桶数 */
+        private int buckets = 10;
+
+        /** 失败率阈值（百分比），5xx和转发异常计为失败 */
+        private int failureRateThreshold = 50;
+
+        /** 慢调用率阈值（百分比） */
+        private int slowCallRateThreshold = 80;
+
+        /** 慢调用判定时长（毫秒） */
+        private long slowCallMs = 2000;
+
+        /** 窗口内最少调用次数，低于该值不计算比率 */
+        private int minimumCalls = 20;
+
+        /** 熔断持续时间（毫秒），结束后进入半开状态 */
+        private long openMs = 10000;
+
+        /** 半开状态放行的探测请求数 */
+        private int halfOpenPermits = 5;
+
+        /** 是否同时按实例熔断（单个实例故障时只隔离该实例） */
+        private boolean perInstance = true;
+
+        /** 熔断时是否优先返回响应缓存中的过期数据 */
+        private boolean staleFallback = true;
+
+        /** 熔断时的提示信息（不包含需要JSON转义的字符） */
+        private String fallbackMessage = "服务暂时不可用，请稍后重试";
+    }
+}
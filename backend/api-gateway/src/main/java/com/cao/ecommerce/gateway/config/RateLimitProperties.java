@@ -0,0 +1,72 @@
+package com.cao.ecommerce.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 网关限流配置
+ *
+ * 配置刷新会重新绑定本对象，限流过滤器在刷新完成后比较配置快照、有变化时重新编译规则，无需重启
+ *
+ * 刷新方式：网关未接入配置中心，修改工作目录下的 config/application.yml
+ * （Spring Boot 默认加载，容器部署时挂载该文件）后调用 POST /actuator/refresh；
+ * 接入Nacos配置中心后由配置推送自动触发同一流程
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = RateLimitProperties.PREFIX)
+public class RateLimitProperties {
+
+    public static final String PREFIX = "ecommerce.gateway.rate-limit";
+
+    /** 是否启用限流 */
+    private boolean enabled = true;
+
+    /** 每条路由的令牌桶分片数（2的幂） */
+    private int shards = 16;
+
+    /** 单个分片最多跟踪的key数量，超出后新key共用溢出桶 */
+    private int maxEntriesPerShard = 65536;
+
+    /** 空闲桶清理间隔（毫秒） */
+    private long evictIntervalMs = 10000;
+
+    /** 路由ID -> 限流规则，未配置的路由不限流 */
+    private Map<String, RouteLimit> routes = new LinkedHashMap<>();
+
+    /**
+     * 单条路由的限流规则
+     */
+    @Data
+    public static class RouteLimit {
+
+        /** 限流维度 */
+        private KeyType keyType = KeyType.IP;
+
+        /** 每秒补充的令牌数 */
+        private double replenishRate = 100;
+
+        /** 桶容量（允许的瞬时突发请求数） */
+        private int burstCapacity = 200;
+    }
+
+    /**
+     * 限流维度
+     */
+    public enum KeyType {
+
+        /** 客户端IP */
+        IP,
+
+        /** 用户ID（请求头 X-User-Id，缺失时按IP） */
+        USER,
+
+        /** API Key（请求头 X-Api-Key，缺失时按IP） */
+        API_KEY
+    }
+}
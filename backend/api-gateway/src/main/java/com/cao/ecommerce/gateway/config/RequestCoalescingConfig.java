@@ -0,0 +1,26 @@
+package com.cao.ecommerce.gateway.config;
+
+import com.cao.ecommerce.gateway.filter.RequestCoalescingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关请求合并装配
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(RequestCoalescingProperties.class)
+@ConditionalOnProperty(prefix = RequestCoalescingProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RequestCoalescingConfig {
+
+    @Bean
+    public RequestCoalescingFilter requestCoalescingFilter(RequestCoalescingProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        return new RequestCoalescingFilter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.cao.ecommerce.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网关请求合并配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = RequestCoalescingProperties.PREFIX)
+public class RequestCoalescingProperties {
+
+    public static final String PREFIX = "ecommerce.gateway.coalescing";
+
+    /** 是否启用请求合并 */
+    private boolean enabled = true;
+
+    /** 可共享的响应体上限（字节），超出时等待者各自请求下游 */
+    private int maxBodyBytes = 512 * 1024;
+
+    /** 路由ID -> 合并规则，未配置的路由不合并 */
+    private Map<String, RouteCoalescing> routes = new LinkedHashMap<>();
+
+    /**
+     * 单条路由的合并规则
+     */
+    @Data
+    public static class RouteCoalescing {
+
+        /** 参与请求标识的查询参数，为空表示全部参数 */
+        private List<String> keyQueryParams = new ArrayList<>();
+
+        /** 参与请求标识的请求头 */
+        private List<String> varyHeaders = new ArrayList<>();
+
+        /** 等待者最长等待时间（毫秒），超时后自行请求下游 */
+        private long maxWaitMs = 3000;
+    }
+}
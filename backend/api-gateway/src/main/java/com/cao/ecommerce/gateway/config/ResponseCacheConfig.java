@@ -0,0 +1,25 @@
+package com.cao.ecommerce.gateway.config;
+
+import com.cao.ecommerce.gateway.filter.ResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关响应缓存装配
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = ResponseCacheProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        return new ResponseCacheFilter(properties, meterRegistry);
+    }
+}
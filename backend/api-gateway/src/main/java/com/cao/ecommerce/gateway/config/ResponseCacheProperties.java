@@ -0,0 +1,53 @@
+package com.cao.ecommerce.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网关响应缓存配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = ResponseCacheProperties.PREFIX)
+public class ResponseCacheProperties {
+
+    public static final String PREFIX = "ecommerce.gateway.response-cache";
+
+    /** 是否启用响应缓存 */
+    private boolean enabled = true;
+
+    /** 缓存总容量（字节），超出后按CLOCK算法淘汰 */
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /** 单个响应体上限（字节），超出的响应直接透传不缓存 */
+    private int maxEntryBytes = 512 * 1024;
+
+    /** 过期响应的保留时间（秒），下游熔断时作为降级响应返回，0表示过期即删除 */
+    private long staleIfErrorSeconds = 300;
+
+    /** 路由ID -> 缓存规则，未配置的路由不缓存 */
+    private Map<String, RouteCache> routes = new LinkedHashMap<>();
+
+    /**
+     * 单条路由的缓存规则
+     */
+    @Data
+    public static class RouteCache {
+
+        /** 缓存有效期（秒），上游 Cache-Control 的 max-age 更短时以上游为准 */
+        private long ttlSeconds = 30;
+
+        /** 参与缓存key的查询参数，为空表示全部参数 */
+        private List<String> keyQueryParams = new ArrayList<>();
+
+        /** 参与缓存key的请求头（相当于Vary），上游响应的 Vary 含有未列出的请求头时不缓存 */
+        private List<String> varyHeaders = new ArrayList<>();
+    }
+}
@@ -0,0 +1,350 @@
+package com.cao.ecommerce.gateway.fallback;
+
+import com.cao.ecommerce.common.spring.loadbalancer.PeakEwmaLoadBalancer;
+import com.cao.ecommerce.gateway.config.CircuitBreakerProperties;
+import com.cao.ecommerce.gateway.filter.CachedResponse;
+import com.cao.ecommerce.gateway.filter.ErrorResponseWriter;
+import com.cao.ecommerce.gateway.filter.ResponseCacheFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 网关熔断过滤器
+ *
+ * 技术要点：
+ * 1. 路由级和实例级两层熔断：整个服务故障时按路由熔断，单个实例故障时只隔离该实例；
+ *    路由级判定在负载均衡之前（本过滤器），实例级判定在负载均衡选定实例之后（{@link #instanceFilter()}）
+ * 2. 熔断期间不访问下游，立即降级：优先返回响应缓存中的过期数据（X-Cache: STALE），
+ *    没有缓存时返回503并携带 Retry-After（熔断剩余秒数）
+ * 3. 判定只读一个volatile状态，记录结果一次CAS，不阻塞事件循环线程
+ * 4. 转发异常、5xx计为失败；下游卡死时由 httpclient.response-timeout 结束请求并计为失败
+ *
+ * 面试要点：
+ * - 熔断的价值是"快速失败"：下游已经不可用时，继续等待超时只会占满网关连接和下游线程
+ * - 熔断降级没有真正访问下游，不能计入负载均衡的延迟和失败统计：路由级熔断在选择实例之前就返回，
+ *   实例级熔断降级标记 {@link PeakEwmaLoadBalancer#DISCARD_ATTRIBUTE}，负载均衡器按 DISCARD 处理；
+ *   熔断打开前真实失败的高延迟已计入EWMA，P2C在熔断期间仍会避开该实例
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class CircuitBreakerFilter implements GlobalFilter, Ordered, ApplicationListener<EnvironmentChangeEvent> {
+
+    /** 路由级熔断顺序：负载均衡之前，熔断打开时不选择实例 */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    /** 实例级熔断顺序：负载均衡之后，此时已确定目标实例 */
+    public static final int INSTANCE_ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    /** 请求属性：本次请求使用的路由熔断器，路由级判定时写入，实例级判定读取同一份规则 */
+    private static final String BREAKERS_ATTR = CircuitBreakerFilter.class.getName() + ".breakers";
+
+    private static final String X_CIRCUIT_BREAKER = "X-Circuit-Breaker";
+
+    private static final String SCOPE_ROUTE = "route";
+
+    private static final String SCOPE_INSTANCE = "instance";
+
+    private final CircuitBreakerProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /** 响应缓存过滤器，未启用缓存时为null */
+    private final ResponseCacheFilter responseCacheFilter;
+
+    /** 已注册指标的路由，指标按路由ID查询当前规则，规则重编译后仍然有效 */
+    private final Set<String> instrumentedRoutes = ConcurrentHashMap.newKeySet();
+
+    private volatile Map<String, RouteBreakers> rules;
+
+    private volatile boolean stale = true;
+
+    private final InstanceFilter instanceFilter = new InstanceFilter();
+
+    public CircuitBreakerFilter(CircuitBreakerProperties properties, MeterRegistry meterRegistry,
+                                ResponseCacheFilter responseCacheFilter) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.responseCacheFilter = responseCacheFilter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RouteBreakers breakers = route == null ? null : currentRules().get(route.getId());
+        if (breakers == null) {
+            return chain.filter(exchange);
+        }
+
+        long now = System.currentTimeMillis();
+        long permit = breakers.route.tryAcquire(now);
+        if (permit == SlidingWindowCircuitBreaker.REJECTED) {
+            breakers.routeRejected.increment();
+            return fallback(exchange, breakers, breakers.route, now);
+        }
+        exchange.getAttributes().put(BREAKERS_ATTR, breakers);
+        return guard(exchange, chain, breakers.route, permit);
+    }
+
+    /**
+     * 实例级熔断过滤器，与本过滤器共用规则，需单独注册为 GlobalFilter
+     */
+    public GlobalFilter instanceFilter() {
+        return instanceFilter;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        for (String key : event.getKeys()) {
+            if (key.startsWith(CircuitBreakerProperties.PREFIX)) {
+                stale = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 执行后续过滤器链并记录结果；请求取消或被实例级熔断降级（没有转发）时归还许可，不计入统计
+     */
+    private static Mono<Void> guard(ServerWebExchange exchange, GatewayFilterChain chain,
+                                    SlidingWindowCircuitBreaker breaker, long permit) {
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL || exchange.getAttribute(PeakEwmaLoadBalancer.DISCARD_ATTRIBUTE) != null) {
+                breaker.release(permit);
+                return;
+            }
+            boolean failed = signal == SignalType.ON_ERROR || isServerError(exchange.getResponse().getStatusCode());
+            breaker.onResult(permit, failed, System.nanoTime() - startNanos, System.currentTimeMillis());
+        });
+    }
+
+    private Mono<Void> fallback(ServerWebExchange exchange, RouteBreakers breakers,
+                                SlidingWindowCircuitBreaker breaker, long now) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(X_CIRCUIT_BREAKER, breaker.getState().name());
+        if (breakers.staleFallback && responseCacheFilter != null) {
+            CachedResponse cached = responseCacheFilter.findStale(exchange);
+            if (cached != null) {
+                return responseCacheFilter.writeStale(exchange, cached);
+            }
+        }
+        long retryAfterSeconds = Math.max(1, (breaker.remainingOpenMillis(now) + 999) / 1000);
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return ErrorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, breakers.fallbackMessage);
+    }
+
+    private Map<String, RouteBreakers> currentRules() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    stale = false;
+                    rules = compile();
+                }
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * 编译规则：规则变化后熔断器重新创建，状态归零
+     */
+    private Map<String, RouteBreakers> compile() {
+        Map<String, RouteBreakers> compiled = new HashMap<>();
+        properties.getRoutes().forEach((routeId, rule) -> {
+            try {
+                compiled.put(routeId, new RouteBreakers(routeId, rule));
+            } catch (IllegalArgumentException e) {
+                log.warn("路由 {} 的熔断配置无效，已忽略: {}", routeId, e.getMessage());
+                return;
+            }
+            if (instrumentedRoutes.add(routeId)) {
+                Gauge.builder("gateway.circuitbreaker.state", this, filter -> filter.routeState(routeId))
+                        .tag("route", routeId)
+                        .description("路由熔断器状态：0关闭，1打开，2半开")
+                        .register(meterRegistry);
+                Gauge.builder("gateway.circuitbreaker.instances.open", this, filter -> filter.openInstances(routeId))
+                        .tag("route", routeId)
+                        .description("处于打开或半开状态的实例熔断器数量")
+                        .register(meterRegistry);
+            }
+        });
+        log.info("熔断规则已加载: {}", compiled.keySet());
+        return compiled;
+    }
+
+    private double routeState(String routeId) {
+        RouteBreakers breakers = rules == null ? null : rules.get(routeId);
+        return breakers == null ? 0 : breakers.route.getState().ordinal();
+    }
+
+    private double openInstances(String routeId) {
+        RouteBreakers breakers = rules == null ? null : rules.get(routeId);
+        if (breakers == null) {
+            return 0;
+        }
+        int open = 0;
+        for (SlidingWindowCircuitBreaker breaker : breakers.instances.values()) {
+            if (breaker.getState() != SlidingWindowCircuitBreaker.State.CLOSED) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    private void onTransition(String routeId, String scope, SlidingWindowCircuitBreaker breaker,
+                              SlidingWindowCircuitBreaker.State from, SlidingWindowCircuitBreaker.State to) {
+        Counter.builder("gateway.circuitbreaker.transitions")
+                .tag("route", routeId)
+                .tag("scope", scope)
+                .tag("state", to.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        if (to == SlidingWindowCircuitBreaker.State.OPEN) {
+            log.warn("熔断器打开: {} ({} -> {})", breaker.getName(), from, to);
+        } else {
+            log.info("熔断器状态变化: {} ({} -> {})", breaker.getName(), from, to);
+        }
+    }
+
+    private static boolean isServerError(HttpStatusCode status) {
+        return status != null && status.is5xxServerError();
+    }
+
+    /**
+     * 实例级熔断：负载均衡选定实例之后判定，降级时告知负载均衡器请求未转发
+     */
+    private final class InstanceFilter implements GlobalFilter, Ordered {
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            RouteBreakers breakers = exchange.getAttribute(BREAKERS_ATTR);
+            if (breakers == null || !breakers.perInstance) {
+                return chain.filter(exchange);
+            }
+            long now = System.currentTimeMillis();
+            SlidingWindowCircuitBreaker instance = breakers.instance(exchange, now);
+            if (instance == null) {
+                return chain.filter(exchange);
+            }
+            long permit = instance.tryAcquire(now);
+            if (permit == SlidingWindowCircuitBreaker.REJECTED) {
+                breakers.instanceRejected.increment();
+                exchange.getAttributes().put(PeakEwmaLoadBalancer.DISCARD_ATTRIBUTE, Boolean.TRUE);
+                return fallback(exchange, breakers, instance, now);
+            }
+            return guard(exchange, chain, instance, permit);
+        }
+
+        @Override
+        public int getOrder() {
+            return INSTANCE_ORDER;
+        }
+    }
+
+    /**
+     * 单条路由的熔断器：路由级一个，实例级按 host:port 惰性创建
+     */
+    private final class RouteBreakers {
+
+        private final String routeId;
+
+        private final CircuitBreakerProperties.RouteBreaker rule;
+
+        private final SlidingWindowCircuitBreaker route;
+
+        private final boolean perInstance;
+
+        private final boolean staleFallback;
+
+        private final String fallbackMessage;
+
+        private final ConcurrentHashMap<String, SlidingWindowCircuitBreaker> instances = new ConcurrentHashMap<>();
+
+        private final Counter routeRejected;
+
+        private final Counter instanceRejected;
+
+        private volatile long lastPruneMillis = System.currentTimeMillis();
+
+        private RouteBreakers(String routeId, CircuitBreakerProperties.RouteBreaker rule) {
+            this.routeId = routeId;
+            this.rule = rule;
+            this.route = create(routeId, SCOPE_ROUTE);
+            this.perInstance = rule.isPerInstance();
+            this.staleFallback = rule.isStaleFallback();
+            this.fallbackMessage = rule.getFallbackMessage();
+            this.routeRejected = rejectedCounter(SCOPE_ROUTE);
+            this.instanceRejected = rejectedCounter(SCOPE_INSTANCE);
+        }
+
+        /**
+         * 负载均衡选定的实例对应的熔断器，非 lb:// 路由返回null
+         */
+        private SlidingWindowCircuitBreaker instance(ServerWebExchange exchange, long now) {
+            URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+            if (url == null || url.getHost() == null) {
+                return null;
+            }
+            if (now - lastPruneMillis > properties.getInstanceIdleMs()) {
+                prune(now);
+            }
+            String instanceKey = url.getHost() + ":" + url.getPort();
+            SlidingWindowCircuitBreaker breaker = instances.get(instanceKey);
+            return breaker != null ? breaker
+                    : instances.computeIfAbsent(instanceKey, key -> create(routeId + "@" + key, SCOPE_INSTANCE));
+        }
+
+        private void prune(long now) {
+            lastPruneMillis = now;
+            long idleMs = properties.getInstanceIdleMs();
+            instances.values().removeIf(breaker -> breaker.getState() == SlidingWindowCircuitBreaker.State.CLOSED
+                    && now - breaker.getLastCallMillis() > idleMs);
+        }
+
+        private SlidingWindowCircuitBreaker create(String name, String scope) {
+            return new SlidingWindowCircuitBreaker(name, rule.getWindowMs(), rule.getBuckets(),
+                    rule.getFailureRateThreshold(), rule.getSlowCallRateThreshold(), rule.getSlowCallMs(),
+                    rule.getMinimumCalls(), rule.getOpenMs(), rule.getHalfOpenPermits(),
+                    (breaker, from, to) -> onTransition(routeId, scope, breaker, from, to));
+        }
+
+        private Counter rejectedCounter(String scope) {
+            return Counter.builder("gateway.circuitbreaker.rejected")
+                    .tag("route", routeId)
+                    .tag("scope", scope)
+                    .description("熔断期间直接降级的请求数")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.cao.ecommerce.gateway.fallback;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于时间滑动窗口的熔断器
+ *
+ * 设计要点：
+ * 1. 窗口由固定数量的时间桶组成，每个桶把调用数、失败数、慢调用数打包在一个long中，
+ *    记录结果只需一次CAS，不加锁、不分配对象；桶过期时才加锁重置（每个桶每个周期一次）
+ * 2. 状态机：CLOSED --失败率或慢调用率超阈值--> OPEN --等待期结束--> HALF_OPEN
+ *    --探测请求全部完成且未超阈值--> CLOSED，否则重新 OPEN
+ * 3. HALF_OPEN 只放行固定数量的探测请求，探测许可携带代次号，
+ *    上一轮迟到的结果不会计入本轮探测
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class SlidingWindowCircuitBreaker {
+
+    /** 拒绝调用 */
+    public static final long REJECTED = -1;
+
+    /** 关闭状态下的普通许可 */
+    public static final long PERMIT = 0;
+
+    /** 单个计数占用的位数，每桶每项计数上限约200万 */
+    private static final int COUNT_BITS = 21;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private static final long ONE_CALL = 1L;
+
+    private static final long ONE_FAILURE = 1L << COUNT_BITS;
+
+    private static final long ONE_SLOW = 1L << (2 * COUNT_BITS);
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 状态变化监听器
+     */
+    @FunctionalInterface
+    public interface StateListener {
+
+        void onTransition(SlidingWindowCircuitBreaker breaker, State from, State to);
+    }
+
+    private final String name;
+
+    private final Bucket[] buckets;
+
+    private final long bucketMillis;
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final int minimumCalls;
+
+    private final long openMillis;
+
+    private final int halfOpenPermits;
+
+    private final StateListener listener;
+
+    private volatile State state = State.CLOSED;
+
+    private volatile long openedAtMillis;
+
+    /** HALF_OPEN代次，每次进入 HALF_OPEN 加一 */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicInteger probesIssued = new AtomicInteger();
+
+    /** 本轮探测结果：与窗口桶相同的打包格式 */
+    private final AtomicLong probeResults = new AtomicLong();
+
+    private volatile long lastCallMillis;
+
+    /**
+     * @param name                  熔断器名称
+     * @param windowMillis          滑动窗口长度（毫秒）
+     * @param bucketCount           窗口分桶数
+     * @param failureRateThreshold  失败率阈值（百分比）
+     * @param slowCallRateThreshold 慢调用率阈值（百分比）
+     * @param slowCallMillis        慢调用判定时长（毫秒）
+     * @param minimumCalls          窗口内至少多少次调用才计算比率
+     * @param openMillis            OPEN状态持续时间（毫秒）
+     * @param halfOpenPermits       HALF_OPEN状态放行的探测请求数
+     * @param listener              状态变化监听器
+     */
+    public SlidingWindowCircuitBreaker(String name, long windowMillis, int bucketCount,
+                                       int failureRateThreshold, int slowCallRateThreshold, long slowCallMillis,
+                                       int minimumCalls, long openMillis, int halfOpenPermits,
+                                       StateListener listener) {
+        if (bucketCount <= 0 || windowMillis < bucketCount) {
+            throw new IllegalArgumentException("invalid window: " + windowMillis + "ms / " + bucketCount + " buckets");
+        }
+        this.name = name;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.bucketMillis = windowMillis / bucketCount;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallMillis * 1_000_000L;
+        this.minimumCalls = Math.max(1, minimumCalls);
+        this.openMillis = openMillis;
+        this.halfOpenPermits = Math.max(1, halfOpenPermits);
+        this.listener = listener;
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @return {@link #REJECTED} 表示拒绝；{@link #PERMIT} 为普通许可；正数为HALF_OPEN探测许可
+     */
+    public long tryAcquire(long nowMillis) {
+        // 只用于清理空闲熔断器，秒级精度即可，减少热点路径上的volatile写
+        if (nowMillis - lastCallMillis >= 1000) {
+            lastCallMillis = nowMillis;
+        }
+        State current = state;
+        if (current == State.CLOSED) {
+            return PERMIT;
+        }
+        if (current == State.OPEN) {
+            if (nowMillis - openedAtMillis < openMillis) {
+                return REJECTED;
+            }
+            transition(State.OPEN, State.HALF_OPEN, nowMillis);
+        }
+        long probeGeneration = generation.get();
+        int issued = probesIssued.incrementAndGet();
+        if (issued > halfOpenPermits || state != State.HALF_OPEN) {
+            return REJECTED;
+        }
+        return probeGeneration;
+    }
+
+    /**
+     * 记录调用结果
+     *
+     * @param permit       {@link #tryAcquire} 返回的许可
+     * @param failed       是否失败
+     * @param durationNanos 调用耗时
+     */
+    public void onResult(long permit, boolean failed, long durationNanos, long nowMillis) {
+        long delta = ONE_CALL + (failed ? ONE_FAILURE : 0) + (durationNanos >= slowCallNanos ? ONE_SLOW : 0);
+        if (permit == PERMIT) {
+            bucketFor(nowMillis).add(delta);
+            if (state == State.CLOSED) {
+                evaluateWindow(nowMillis);
+            }
+            return;
+        }
+        if (permit != generation.get() || state != State.HALF_OPEN) {
+            return;
+        }
+        long results = probeResults.addAndGet(delta);
+        long calls = results & COUNT_MASK;
+        if (exceedsThreshold(results)) {
+            transition(State.HALF_OPEN, State.OPEN, nowMillis);
+        } else if (calls >= halfOpenPermits) {
+            transition(State.HALF_OPEN, State.CLOSED, nowMillis);
+        }
+    }
+
+    /**
+     * 放弃许可（调用被取消，没有结果）
+     */
+    public void release(long permit) {
+        if (permit > 0 && permit == generation.get() && state == State.HALF_OPEN) {
+            probesIssued.decrementAndGet();
+        }
+    }
+
+    /**
+     * OPEN状态剩余时间（毫秒），其他状态返回0
+     */
+    public long remainingOpenMillis(long nowMillis) {
+        return state == State.OPEN ? Math.max(0, openMillis - (nowMillis - openedAtMillis)) : 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getLastCallMillis() {
+        return lastCallMillis;
+    }
+
+    private void evaluateWindow(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        long calls = 0;
+        long failures = 0;
+        long slow = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch > epoch - buckets.length) {
+                long counts = bucket.counts.get();
+                calls += counts & COUNT_MASK;
+                failures += (counts >>> COUNT_BITS) & COUNT_MASK;
+                slow += (counts >>> (2 * COUNT_BITS)) & COUNT_MASK;
+            }
+        }
+        if (calls >= minimumCalls
+                && (failures * 100 >= failureRateThreshold * calls || slow * 100 >= slowCallRateThreshold * calls)) {
+            transition(State.CLOSED, State.OPEN, nowMillis);
+        }
+    }
+
+    private boolean exceedsThreshold(long results) {
+        long calls = results & COUNT_MASK;
+        long failures = (results >>> COUNT_BITS) & COUNT_MASK;
+        long slow = (results >>> (2 * COUNT_BITS)) & COUNT_MASK;
+        // 探测阶段按全部许可数计算比率：失败数一旦超过允许值即可提前判定
+        long base = Math.max(calls, halfOpenPermits);
+        return failures * 100 >= failureRateThreshold * base || slow * 100 >= slowCallRateThreshold * base;
+    }
+
+    /**
+     * 状态转换只在阈值触发时发生，加锁保证准备工作（重置计数、推进代次）先于新状态对其他线程可见
+     */
+    private synchronized void transition(State from, State to, long nowMillis) {
+        if (state != from) {
+            return;
+        }
+        if (to == State.OPEN) {
+            openedAtMillis = nowMillis;
+        } else if (to == State.HALF_OPEN) {
+            probeResults.set(0);
+            probesIssued.set(0);
+            generation.incrementAndGet();
+        } else {
+            for (Bucket bucket : buckets) {
+                bucket.reset(Long.MIN_VALUE);
+            }
+        }
+        state = to;
+        if (listener != null) {
+            listener.onTransition(this, from, to);
+        }
+    }
+
+    private Bucket bucketFor(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            bucket.reset(epoch);
+        }
+        return bucket;
+    }
+
+    /**
+     * 时间桶：epoch为桶对应的时间片序号，counts为打包的调用数/失败数/慢调用数
+     */
+    private static final class Bucket {
+
+        private volatile long epoch = Long.MIN_VALUE;
+
+        private final AtomicLong counts = new AtomicLong();
+
+        private void add(long delta) {
+            long current;
+            long next;
+            do {
+                current = counts.get();
+                // 调用数饱和后不再累加，避免进位污染失败数
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    return;
+                }
+                next = current + delta;
+            } while (!counts.compareAndSet(current, next));
+        }
+
+        private synchronized void reset(long newEpoch) {
+            if (epoch == newEpoch && newEpoch != Long.MIN_VALUE) {
+                return;
+            }
+            counts.set(0);
+            epoch = newEpoch;
+        }
+    }
+}
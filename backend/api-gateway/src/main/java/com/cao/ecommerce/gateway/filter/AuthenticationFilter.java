@@ -0,0 +1,365 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.alibaba.fastjson2.JSON;
+import com.cao.ecommerce.gateway.config.AuthProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 网关认证过滤器（本地验证JWT）
+ *
+ * 技术要点：
+ * 1. 令牌在网关本地验签，不在每个请求上调用用户服务：签名密钥静态配置或定时从签发方的JWKS拉取，
+ *    遇到未知 kid（签发方刚轮换密钥）时限频触发一次拉取
+ * 2. 验证结果按令牌缓存在固定槽数的表中，命中时省去Base64解码、JSON解析和验签，只需一次数组访问和字符串比较
+ * 3. 撤销通过签发方推送的紧凑名单实现（jti / 用户级撤销的64位哈希），每个请求都查询，包括缓存命中的请求
+ * 4. 验证通过后向下游转发 X-User-Id 和 X-User-Roles；客户端自带的同名请求头已由 {@link IdentityHeaderFilter}
+ *    在认证之前移除，下游可以直接信任
+ *
+ * 面试要点：
+ * - 集中式会话校验让每个请求多一次内部RPC，认证服务成为全站的单点和瓶颈；
+ *   自包含令牌把校验变成本地CPU计算，代价是撤销需要额外机制
+ * - 认证放在限流之前，按用户限流（X-User-Id）才能使用可信的用户ID
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class AuthenticationFilter implements GlobalFilter, Ordered, ApplicationListener<EnvironmentChangeEvent>, DisposableBean {
+
+    /** 过滤器顺序：身份请求头清理之后、限流之前 */
+    public static final int ORDER = RateLimitFilter.ORDER - 100;
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String WWW_AUTHENTICATE_VALUE = "Bearer error=\"invalid_token\"";
+
+    private static final long DENYLIST_PURGE_INTERVAL_MS = 60000;
+
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final AuthProperties properties;
+
+    private final TokenDenylist denylist;
+
+    private final SigningKeyRing keyRing = new SigningKeyRing();
+
+    private final VerifiedTokenCache cache;
+
+    private final HttpClient httpClient;
+
+    private final ScheduledExecutorService refresher;
+
+    private final AtomicLong lastUnknownKidRefresh = new AtomicLong();
+
+    private final Counter cached;
+
+    private final Counter verified;
+
+    private final Counter anonymous;
+
+    private final Counter missing;
+
+    private final Counter invalid;
+
+    private final Counter revoked;
+
+    private volatile Rules rules;
+
+    private volatile boolean stale = true;
+
+    public AuthenticationFilter(AuthProperties properties, TokenDenylist denylist, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.denylist = denylist;
+        this.cache = new VerifiedTokenCache(properties.getCacheSize());
+        this.httpClient = HttpClient.newBuilder().connectTimeout(FETCH_TIMEOUT).build();
+        this.cached = counter(meterRegistry, "cached");
+        this.verified = counter(meterRegistry, "verified");
+        this.anonymous = counter(meterRegistry, "anonymous");
+        this.missing = counter(meterRegistry, "missing");
+        this.invalid = counter(meterRegistry, "invalid");
+        this.revoked = counter(meterRegistry, "revoked");
+        FunctionCounter.builder("gateway.auth.cache.hits", cache, VerifiedTokenCache::getHitCount)
+                .description("令牌验证缓存命中次数").register(meterRegistry);
+        FunctionCounter.builder("gateway.auth.cache.misses", cache, VerifiedTokenCache::getMissCount)
+                .description("令牌验证缓存未命中次数").register(meterRegistry);
+        Gauge.builder("gateway.auth.keys", keyRing, SigningKeyRing::size)
+                .description("可用的签名密钥数量").register(meterRegistry);
+        Gauge.builder("gateway.auth.denylist.entries", denylist, list -> list.getTokenCount() + list.getUserCount())
+                .description("撤销名单条目数").register(meterRegistry);
+
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auth-key-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getRefreshIntervalMs();
+        if (hasText(properties.getJwksUri())) {
+            refresher.scheduleWithFixedDelay(this::refreshKeys, 0, interval, TimeUnit.MILLISECONDS);
+        }
+        if (hasText(properties.getDenylistUri())) {
+            refresher.scheduleWithFixedDelay(this::refreshDenylist, 0, interval, TimeUnit.MILLISECONDS);
+        }
+        refresher.scheduleWithFixedDelay(() -> denylist.purgeExpired(System.currentTimeMillis() / 1000),
+                DENYLIST_PURGE_INTERVAL_MS, DENYLIST_PURGE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Rules current = currentRules();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RouteRule rule = route == null ? null : current.routes.get(route.getId());
+
+        String token = bearerToken(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        if (token == null) {
+            if (rule != null && rule.requires(request)) {
+                missing.increment();
+                return reject(exchange, "未登录或登录已失效");
+            }
+            anonymous.increment();
+            return chain.filter(exchange);
+        }
+
+        long now = System.currentTimeMillis();
+        VerifiedToken identity = cache.get(token, now);
+        if (identity != null) {
+            cached.increment();
+        } else {
+            try {
+                identity = current.verifier.verify(token, now);
+            } catch (InvalidTokenException e) {
+                if (e.isUnknownKey()) {
+                    requestKeyRefresh(now);
+                }
+                invalid.increment();
+                log.debug("令牌验证失败: {}", e.getMessage());
+                return reject(exchange, "未登录或登录已失效");
+            }
+            cache.put(identity);
+            verified.increment();
+        }
+        if (denylist.isRevoked(identity)) {
+            revoked.increment();
+            return reject(exchange, "登录已失效，请重新登录");
+        }
+
+        String userId = identity.getUserId();
+        String roles = identity.getRoles();
+        ServerHttpRequest forwarded = request.mutate().headers(headers -> {
+            headers.set(USER_ID_HEADER, userId);
+            if (roles.isEmpty()) {
+                headers.remove(USER_ROLES_HEADER);
+            } else {
+                headers.set(USER_ROLES_HEADER, roles);
+            }
+        }).build();
+        return chain.filter(exchange.mutate().request(forwarded).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        for (String key : event.getKeys()) {
+            if (key.startsWith(AuthProperties.PREFIX)) {
+                stale = true;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 从签发方拉取JWKS，密钥变化时清空验证缓存
+     */
+    public void refreshKeys() {
+        try {
+            byte[] jwks = fetch(properties.getJwksUri());
+            if (jwks != null && keyRing.setRemoteKeys(jwks)) {
+                cache.clear();
+            }
+        } catch (RuntimeException e) {
+            log.warn("拉取JWKS失败，继续使用现有密钥: {}", e.getMessage());
+        }
+    }
+
+    private void refreshDenylist() {
+        try {
+            byte[] snapshot = fetch(properties.getDenylistUri());
+            if (snapshot != null) {
+                DenylistUpdate update = JSON.parseObject(snapshot, DenylistUpdate.class);
+                update.setReplace(true);
+                denylist.apply(update, System.currentTimeMillis() / 1000);
+            }
+        } catch (RuntimeException e) {
+            log.warn("拉取撤销名单失败，继续使用现有名单: {}", e.getMessage());
+        }
+    }
+
+    private byte[] fetch(String uri) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri)).timeout(FETCH_TIMEOUT).GET().build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != HttpStatus.OK.value()) {
+                log.warn("拉取 {} 失败: HTTP {}", uri, response.statusCode());
+                return null;
+            }
+            return response.body();
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 未知 kid 触发JWKS拉取，按最小间隔限频，在刷新线程中执行
+     */
+    private void requestKeyRefresh(long now) {
+        if (!hasText(properties.getJwksUri())) {
+            return;
+        }
+        long last = lastUnknownKidRefresh.get();
+        if (now - last >= properties.getUnknownKidRefreshMinIntervalMs()
+                && lastUnknownKidRefresh.compareAndSet(last, now)) {
+            refresher.execute(this::refreshKeys);
+        }
+    }
+
+    private Rules currentRules() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    stale = false;
+                    rules = compile();
+                }
+            }
+        }
+        return rules;
+    }
+
+    private Rules compile() {
+        if (keyRing.setStaticKeys(properties.getKeys())) {
+            cache.clear();
+        }
+        Map<String, RouteRule> routes = new HashMap<>();
+        properties.getRoutes().forEach((routeId, auth) -> routes.put(routeId, new RouteRule(auth)));
+        log.info("认证规则已加载: 必须登录的路由 {}, 签名密钥 {} 个", routes.keySet(), keyRing.size());
+        return new Rules(routes, new JwtVerifier(keyRing, properties.getIssuer(), properties.getAudience(),
+                properties.getClockSkewSeconds()));
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String message) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, WWW_AUTHENTICATE_VALUE);
+        return ErrorResponseWriter.write(exchange, HttpStatus.UNAUTHORIZED, message);
+    }
+
+    private static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        String token = authorization.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.auth.requests").tag("result", result).register(meterRegistry);
+    }
+
+    /**
+     * 编译后的认证规则快照
+     */
+    private static final class Rules {
+
+        private final Map<String, RouteRule> routes;
+
+        private final JwtVerifier verifier;
+
+        private Rules(Map<String, RouteRule> routes, JwtVerifier verifier) {
+            this.routes = routes;
+            this.verifier = verifier;
+        }
+    }
+
+    /**
+     * 单条路由的认证规则
+     */
+    private static final class RouteRule {
+
+        private final boolean required;
+
+        private final List<PathPattern> permitPaths;
+
+        private RouteRule(AuthProperties.RouteAuth auth) {
+            this.required = auth.isRequired();
+            this.permitPaths = auth.getPermitPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        }
+
+        /**
+         * 请求是否必须携带令牌
+         */
+        private boolean requires(ServerHttpRequest request) {
+            if (!required) {
+                return false;
+            }
+            PathContainer path = request.getPath().pathWithinApplication();
+            for (PathPattern pattern : permitPaths) {
+                if (pattern.matches(path)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
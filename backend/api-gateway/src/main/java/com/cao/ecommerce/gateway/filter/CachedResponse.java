@@ -0,0 +1,153 @@
+package com.cao.ecommerce.gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 缓存的下游响应
+ *
+ * 响应头为只读副本、响应体为完整字节数组，可被多个请求并发读取；
+ * 写回客户端时直接包装字节数组，不再复制。响应缓存和请求合并共用该结构
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class CachedResponse {
+
+    /** 不随响应保存的逐跳响应头和与单次响应相关的头 */
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "set-cookie", "date",
+            "x-cache", "x-coalesced");
+
+    /** 条目固定开销估算（对象头、字段、Map节点） */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final String key;
+
+    private final HttpStatusCode status;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    private final String etag;
+
+    private final long storedAtNanos;
+
+    private final long expiresAtNanos;
+
+    private final int weight;
+
+    /** CLOCK淘汰算法的访问位 */
+    private volatile boolean referenced;
+
+    public CachedResponse(String key, HttpStatusCode status, HttpHeaders headers, byte[] body,
+                          String etag, long storedAtNanos, long ttlNanos) {
+        this.key = key;
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.etag = etag;
+        this.storedAtNanos = storedAtNanos;
+        this.expiresAtNanos = storedAtNanos + ttlNanos;
+        int headerBytes = 0;
+        for (var entry : headers.entrySet()) {
+            headerBytes += entry.getKey().length();
+            for (String value : entry.getValue()) {
+                headerBytes += value.length();
+            }
+        }
+        this.weight = ENTRY_OVERHEAD + body.length + 2 * (key.length() + headerBytes);
+    }
+
+    /**
+     * 复制可共享的响应头（去除逐跳头和与单次响应相关的头）
+     */
+    public static HttpHeaders copyHeaders(HttpHeaders source) {
+        HttpHeaders copy = new HttpHeaders();
+        source.forEach((name, values) -> {
+            if (!EXCLUDED_HEADERS.contains(name.toLowerCase())) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return copy;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getStoredAtNanos() {
+        return storedAtNanos;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public boolean isExpired(long nowNanos) {
+        return nowNanos - expiresAtNanos >= 0;
+    }
+
+    boolean isReferenced() {
+        return referenced;
+    }
+
+    void setReferenced(boolean referenced) {
+        this.referenced = referenced;
+    }
+
+    /**
+     * 将响应写回客户端，多个请求共享同一份响应体字节数组
+     */
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * 判断 If-None-Match 是否与本响应的ETag匹配（弱比较）
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        String expected = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (expected.equals(stripWeak(candidate.trim()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
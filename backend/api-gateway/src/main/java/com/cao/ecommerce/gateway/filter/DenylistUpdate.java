@@ -0,0 +1,65 @@
+package com.cao.ecommerce.gateway.filter;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 撤销名单更新（签发方推送的增量或全量快照）
+ *
+ * 示例：{"replace":false,"tokens":[{"jti":"a1b2","exp":1767225600}],
+ * "users":[{"userId":"1001","before":1767139200,"exp":1767225600}]}
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class DenylistUpdate {
+
+    /** 为true时以本次内容替换整个名单（全量快照），否则合并到现有名单 */
+    private boolean replace;
+
+    /** 撤销的单个令牌 */
+    private List<TokenEntry> tokens = new ArrayList<>();
+
+    /** 撤销某个用户在某一时刻之前签发的全部令牌（修改密码、退出所有设备） */
+    private List<UserEntry> users = new ArrayList<>();
+
+    /**
+     * 单个令牌的撤销
+     */
+    @Data
+    public static class TokenEntry {
+
+        /** 令牌ID（jti） */
+        private String jti;
+
+        /** 令牌的过期时间（秒），过期后条目自动移除 */
+        private long exp;
+    }
+
+    /**
+     * 用户级撤销
+     */
+    @Data
+    public static class UserEntry {
+
+        /** 用户ID（sub） */
+        private String userId;
+
+        /** 签发时间（iat）早于该时刻（秒）的令牌视为已撤销 */
+        private long before;
+
+        /** 条目的移除时间（秒），应不早于 before 之前签发的令牌的最晚过期时间 */
+        private long exp;
+    }
+
+    public void setTokens(List<TokenEntry> tokens) {
+        this.tokens = tokens == null ? new ArrayList<>() : tokens;
+    }
+
+    public void setUsers(List<UserEntry> users) {
+        this.users = users == null ? new ArrayList<>() : users;
+    }
+}
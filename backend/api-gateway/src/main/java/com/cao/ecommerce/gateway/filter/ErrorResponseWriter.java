@@ -0,0 +1,41 @@
+package com.cao.ecommerce.gateway.filter;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 网关错误响应输出工具
+ *
+ * 响应体遵循项目统一格式：{"code":...,"message":...,"data":null,"timestamp":...}，
+ * 网关在拒绝请求时直接写出，不经过下游服务
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class ErrorResponseWriter {
+
+    private ErrorResponseWriter() {
+    }
+
+    /**
+     * 写出错误响应
+     *
+     * @param message 错误信息（不包含需要JSON转义的字符）
+     */
+    public static Mono<Void> write(ServerWebExchange exchange, HttpStatus status, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"code\":" + status.value()
+                + ",\"message\":\"" + message
+                + "\",\"data\":null,\"timestamp\":" + System.currentTimeMillis() + "}";
+        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+}
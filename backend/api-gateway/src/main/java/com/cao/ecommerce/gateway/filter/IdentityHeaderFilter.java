@@ -0,0 +1,44 @@
+package com.cao.ecommerce.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 身份请求头清理过滤器
+ *
+ * 移除客户端自带的 X-User-Id / X-User-Roles，防止伪造用户身份；这两个请求头只能由 {@link AuthenticationFilter}
+ * 在验证令牌后写入。始终注册，与认证开关（ecommerce.gateway.auth.enabled）无关：
+ * 认证关闭时下游和按用户限流同样不会收到客户端伪造的身份
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class IdentityHeaderFilter implements GlobalFilter, Ordered {
+
+    /** 过滤器顺序：认证之前 */
+    public static final int ORDER = AuthenticationFilter.ORDER - 10;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (!headers.containsKey(AuthenticationFilter.USER_ID_HEADER)
+                && !headers.containsKey(AuthenticationFilter.USER_ROLES_HEADER)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest stripped = exchange.getRequest().mutate().headers(mutable -> {
+            mutable.remove(AuthenticationFilter.USER_ID_HEADER);
+            mutable.remove(AuthenticationFilter.USER_ROLES_HEADER);
+        }).build();
+        return chain.filter(exchange.mutate().request(stripped).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
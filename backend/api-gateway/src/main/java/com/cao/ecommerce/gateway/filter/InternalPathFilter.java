@@ -0,0 +1,68 @@
+package com.cao.ecommerce.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 内部接口拦截过滤器
+ *
+ * 各服务的 /internal/** 接口（运营后台订单查询、批量授权解析等）只供服务间直接调用，
+ * 经网关转发的请求一律返回404：路由按 /服务前缀/** 匹配并去掉一级前缀（StripPrefix=1），
+ * 因此拦截原始路径中第一或第二个路径段为 internal 的请求。始终注册，与认证开关无关：
+ * 认证开启时任何登录用户也不能通过网关访问内部接口
+ *
+ * 技术要点：
+ * 1. 按解码后的路径段判断（去掉矩阵参数），%69nternal、internal;x=1 等写法同样拦截
+ * 2. 跳过空路径段和 "."：StripPrefix 会丢弃空路径段，/trade//internal/orders 转发后同样是 /internal/orders
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class InternalPathFilter implements GlobalFilter, Ordered {
+
+    /** 过滤器顺序：身份请求头清理和认证之前 */
+    public static final int ORDER = IdentityHeaderFilter.ORDER - 10;
+
+    private static final String INTERNAL_SEGMENT = "internal";
+
+    /** 原始路径中检查的路径段数：服务前缀 + 去掉前缀后的第一段 */
+    private static final int CHECKED_SEGMENTS = 2;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (isInternal(exchange.getRequest().getPath().pathWithinApplication())) {
+            return ErrorResponseWriter.write(exchange, HttpStatus.NOT_FOUND, "Not Found");
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    static boolean isInternal(PathContainer path) {
+        int checked = 0;
+        for (PathContainer.Element element : path.elements()) {
+            if (!(element instanceof PathContainer.PathSegment segment)) {
+                continue;
+            }
+            String value = segment.valueToMatch();
+            if (value.isEmpty() || ".".equals(value)) {
+                continue;
+            }
+            if (INTERNAL_SEGMENT.equalsIgnoreCase(value)) {
+                return true;
+            }
+            if (++checked == CHECKED_SEGMENTS) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,30 @@
+package com.cao.ecommerce.gateway.filter;
+
+/**
+ * 令牌无效
+ *
+ * 无效令牌可能由客户端大量发送，异常不填充堆栈，拒绝路径的开销与正常验证同一量级
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    private final boolean unknownKey;
+
+    public InvalidTokenException(String message) {
+        this(message, false);
+    }
+
+    /**
+     * @param unknownKey 是否因为找不到 kid 对应的密钥（签发方可能刚轮换密钥，需要重新拉取JWKS）
+     */
+    public InvalidTokenException(String message, boolean unknownKey) {
+        super(message, null, false, false);
+        this.unknownKey = unknownKey;
+    }
+
+    public boolean isUnknownKey() {
+        return unknownKey;
+    }
+}
@@ -0,0 +1,178 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * JWT（JWS紧凑格式）本地验证
+ *
+ * 依次校验：格式 → 头部（kid、alg与密钥一致、不支持crit扩展） → 签名 → 声明（exp/nbf/iss/aud/sub）。
+ * 载荷在验签通过后才解析；sub 和角色会写入转发给下游的请求头，只允许有限的字符集
+ *
+ * 支持的声明：sub（用户ID，必填）、exp（必填）、nbf、iat、iss、aud、jti、
+ * roles（字符串数组或以空格/逗号分隔的字符串）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class JwtVerifier {
+
+    /** 用户ID和角色的最大长度 */
+    private static final int MAX_CLAIM_LENGTH = 128;
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SigningKeyRing keyRing;
+
+    private final String issuer;
+
+    private final String audience;
+
+    private final long clockSkewSeconds;
+
+    /**
+     * @param issuer   期望的签发方，为null时不校验
+     * @param audience 期望的受众，为null时不校验
+     */
+    public JwtVerifier(SigningKeyRing keyRing, String issuer, String audience, long clockSkewSeconds) {
+        this.keyRing = keyRing;
+        this.issuer = issuer == null || issuer.isEmpty() ? null : issuer;
+        this.audience = audience == null || audience.isEmpty() ? null : audience;
+        this.clockSkewSeconds = clockSkewSeconds;
+    }
+
+    /**
+     * 验证令牌
+     *
+     * @throws InvalidTokenException 令牌格式错误、签名无效、已过期或声明不符合要求
+     */
+    public VerifiedToken verify(String token, long nowMillis) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new InvalidTokenException("malformed token");
+        }
+
+        JSONObject header = decodeJson(token, 0, headerEnd);
+        if (header.containsKey("crit")) {
+            throw new InvalidTokenException("unsupported critical header");
+        }
+        SigningKeyRing.VerificationKey key = keyRing.get(header.getString("kid"));
+        if (key == null) {
+            throw new InvalidTokenException("unknown key", true);
+        }
+        if (!key.getAlgorithm().equals(header.getString("alg"))) {
+            throw new InvalidTokenException("algorithm mismatch");
+        }
+        byte[] signature = decode(token, payloadEnd + 1, token.length());
+        byte[] signingInput = token.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII);
+        if (!key.verify(signingInput, signature)) {
+            throw new InvalidTokenException("bad signature");
+        }
+
+        JSONObject claims = decodeJson(token, headerEnd + 1, payloadEnd);
+        long nowSeconds = nowMillis / 1000;
+        Long exp = longClaim(claims, "exp");
+        if (exp == null || nowSeconds >= exp + clockSkewSeconds) {
+            throw new InvalidTokenException("token expired");
+        }
+        Long nbf = longClaim(claims, "nbf");
+        if (nbf != null && nowSeconds + clockSkewSeconds < nbf) {
+            throw new InvalidTokenException("token not yet valid");
+        }
+        if (issuer != null && !issuer.equals(claims.getString("iss"))) {
+            throw new InvalidTokenException("issuer mismatch");
+        }
+        if (audience != null && !containsAudience(claims.get("aud"))) {
+            throw new InvalidTokenException("audience mismatch");
+        }
+        String userId = claims.getString("sub");
+        if (!isSafe(userId)) {
+            throw new InvalidTokenException("invalid subject");
+        }
+        Long iat = longClaim(claims, "iat");
+        return new VerifiedToken(token, userId, roles(claims.get("roles")), claims.getString("jti"),
+                iat == null ? 0 : iat, (exp + clockSkewSeconds) * 1000);
+    }
+
+    private static Long longClaim(JSONObject claims, String name) {
+        try {
+            return claims.getLong(name);
+        } catch (JSONException | NumberFormatException e) {
+            throw new InvalidTokenException("invalid claim " + name);
+        }
+    }
+
+    private boolean containsAudience(Object aud) {
+        if (aud instanceof JSONArray array) {
+            return array.contains(audience);
+        }
+        return audience.equals(aud);
+    }
+
+    private static String roles(Object claim) {
+        if (claim == null) {
+            return "";
+        }
+        Iterable<?> values = claim instanceof JSONArray array ? array : List.of(claim.toString().split("[ ,]+"));
+        StringBuilder joined = new StringBuilder();
+        for (Object value : values) {
+            String role = String.valueOf(value);
+            if (role.isEmpty()) {
+                continue;
+            }
+            if (!isSafe(role)) {
+                throw new InvalidTokenException("invalid role");
+            }
+            if (!joined.isEmpty()) {
+                joined.append(',');
+            }
+            joined.append(role);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * 只允许字母、数字和 _-.:@，防止通过声明向下游注入请求头
+     */
+    private static boolean isSafe(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_CLAIM_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '_' || c == '-' || c == '.' || c == ':' || c == '@';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static JSONObject decodeJson(String token, int start, int end) {
+        try {
+            JSONObject json = JSON.parseObject(decode(token, start, end));
+            if (json == null) {
+                throw new InvalidTokenException("malformed token");
+            }
+            return json;
+        } catch (JSONException e) {
+            throw new InvalidTokenException("malformed token");
+        }
+    }
+
+    private static byte[] decode(String token, int start, int end) {
+        try {
+            return DECODER.decode(token.substring(start, end));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("malformed token");
+        }
+    }
+}
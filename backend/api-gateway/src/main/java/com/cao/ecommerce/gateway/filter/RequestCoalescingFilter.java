@@ -0,0 +1,211 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.cao.ecommerce.gateway.config.RequestCoalescingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 网关请求合并过滤器（Single-Flight）
+ *
+ * 技术要点：
+ * 1. 同一时刻相同的GET请求（路由、路径、查询参数、指定请求头均相同）只有第一个（leader）访问下游，
+ *    其余请求（follower）订阅leader的结果
+ * 2. leader的响应体边转发给自己的客户端边复制一份，完成后以同一个字节数组分发给所有follower，
+ *    每个follower只包装该数组，不会按订阅者各缓冲一份
+ * 3. leader失败、被取消、响应体超限或带 Set-Cookie 时不共享，follower回退为各自请求下游；
+ *    follower等待超时同样回退
+ *
+ * 面试要点：
+ * - 缓存解决"重复的读"，请求合并解决"同时的读"：热点key过期瞬间的并发未命中只会产生一次下游调用
+ * - 合并窗口等于一次下游调用的耗时，不引入额外延迟
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class RequestCoalescingFilter implements GlobalFilter, Ordered, ApplicationListener<EnvironmentChangeEvent> {
+
+    /** 过滤器顺序：缓存之后，缓存命中的请求不参与合并 */
+    public static final int ORDER = ResponseCacheFilter.ORDER + 10;
+
+    private static final String X_COALESCED = "X-Coalesced";
+
+    private final RequestCoalescingProperties properties;
+
+    private final ConcurrentHashMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+
+    private final Counter followers;
+
+    private final Counter fallbacks;
+
+    private volatile Map<String, RequestCoalescingProperties.RouteCoalescing> rules;
+
+    private volatile boolean stale = true;
+
+    public RequestCoalescingFilter(RequestCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.leaders = Counter.builder("gateway.coalescing.requests").tag("role", "leader").register(meterRegistry);
+        this.followers = Counter.builder("gateway.coalescing.requests").tag("role", "follower").register(meterRegistry);
+        this.fallbacks = Counter.builder("gateway.coalescing.requests").tag("role", "fallback").register(meterRegistry);
+        Gauge.builder("gateway.coalescing.inflight", inFlight, Map::size)
+                .description("正在进行中的合并请求数").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RequestCoalescingProperties.RouteCoalescing rule = route == null ? null : currentRules().get(route.getId());
+        if (rule == null) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestKeyBuilder.build(route.getId(), request, rule.getKeyQueryParams(), rule.getVaryHeaders());
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> leaderSink = inFlight.putIfAbsent(key, sink);
+        if (leaderSink != null) {
+            return follow(exchange, chain, leaderSink, rule);
+        }
+
+        leaders.increment();
+        LeaderResponseDecorator decorator = new LeaderResponseDecorator(exchange.getResponse(), key, sink);
+        return chain.filter(exchange.mutate().response(decorator).build())
+                .doFinally(signal -> decorator.complete(null));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        for (String key : event.getKeys()) {
+            if (key.startsWith(RequestCoalescingProperties.PREFIX)) {
+                stale = true;
+                return;
+            }
+        }
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain,
+                              Sinks.One<CachedResponse> leaderSink,
+                              RequestCoalescingProperties.RouteCoalescing rule) {
+        followers.increment();
+        return leaderSink.asMono()
+                .timeout(Duration.ofMillis(rule.getMaxWaitMs()))
+                .map(Optional::of)
+                .onErrorResume(TimeoutException.class, e -> Mono.just(Optional.empty()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                    if (shared.isPresent()) {
+                        exchange.getResponse().getHeaders().set(X_COALESCED, "true");
+                        return shared.get().writeTo(exchange.getResponse());
+                    }
+                    fallbacks.increment();
+                    return chain.filter(exchange);
+                });
+    }
+
+    private Map<String, RequestCoalescingProperties.RouteCoalescing> currentRules() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    stale = false;
+                    rules = new HashMap<>(properties.getRoutes());
+                    log.info("请求合并规则已加载: {}", rules.keySet());
+                }
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * leader的响应装饰器：正常转发，同时复制响应体用于分发
+     */
+    private final class LeaderResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final String key;
+
+        private final Sinks.One<CachedResponse> sink;
+
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private LeaderResponseDecorator(ServerHttpResponse delegate, String key, Sinks.One<CachedResponse> sink) {
+            super(delegate);
+            this.key = key;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            if (status == null || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                complete(null);
+                return super.writeWith(body);
+            }
+            ResponseBodyCapture capture = new ResponseBodyCapture(properties.getMaxBodyBytes());
+            Flux<? extends DataBuffer> tee = Flux.from(body)
+                    .doOnNext(capture::append)
+                    .doOnComplete(() -> {
+                        byte[] bytes = capture.toByteArray();
+                        complete(bytes == null ? null : new CachedResponse(key, status,
+                                CachedResponse.copyHeaders(headers), bytes, headers.getETag(), System.nanoTime(), 0));
+                    });
+            return super.writeWith(tee);
+        }
+
+        /**
+         * 结束本次合并：先移出进行中表，之后到达的请求会发起新的一轮
+         *
+         * @param response 可共享的响应，为null时follower各自请求下游
+         */
+        private void complete(CachedResponse response) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.remove(key, sink);
+            if (response != null) {
+                sink.tryEmitValue(response);
+            } else {
+                sink.tryEmitEmpty();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.cao.ecommerce.gateway.filter;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 请求标识构建工具
+ *
+ * 响应缓存和请求合并共用同一套规则判断"两个请求是否相同"：
+ * 路由 + 路径 + 规范化后的查询参数 + 指定的请求头
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class RequestKeyBuilder {
+
+    private RequestKeyBuilder() {
+    }
+
+    /**
+     * 构建请求标识
+     *
+     * @param keyQueryParams 参与标识的查询参数，为空表示全部参数
+     * @param varyHeaders    参与标识的请求头
+     */
+    public static String build(String routeId, ServerHttpRequest request,
+                               List<String> keyQueryParams, List<String> varyHeaders) {
+        StringBuilder key = new StringBuilder(64)
+                .append(routeId).append('|').append(request.getPath().value()).append('?');
+        MultiValueMap<String, String> query = request.getQueryParams();
+        if (!query.isEmpty()) {
+            // 参数按名称排序，?a=1&b=2 与 ?b=2&a=1 视为同一请求
+            Map<String, List<String>> sorted = new TreeMap<>(query);
+            sorted.forEach((name, values) -> {
+                if (keyQueryParams.isEmpty() || keyQueryParams.contains(name)) {
+                    key.append(name).append('=').append(values).append('&');
+                }
+            });
+        }
+        for (String header : varyHeaders) {
+            key.append('|').append(request.getHeaders().getOrDefault(header, List.of()));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.cao.ecommerce.gateway.filter;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.util.Arrays;
+
+/**
+ * 响应体复制缓冲区
+ *
+ * 响应体转发给客户端的同时复制一份，超过上限后放弃复制，
+ * 读取后恢复DataBuffer的读指针，不影响正常转发
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+final class ResponseBodyCapture {
+
+    private final int limit;
+
+    private byte[] bytes = new byte[1024];
+
+    private int size;
+
+    private boolean overflowed;
+
+    ResponseBodyCapture(int limit) {
+        this.limit = limit;
+    }
+
+    void append(DataBuffer buffer) {
+        if (overflowed) {
+            return;
+        }
+        int readable = buffer.readableByteCount();
+        if (size + readable > limit) {
+            overflowed = true;
+            bytes = null;
+            return;
+        }
+        if (size + readable > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.min(limit, Math.max(bytes.length * 2, size + readable)));
+        }
+        int position = buffer.readPosition();
+        buffer.read(bytes, size, readable);
+        buffer.readPosition(position);
+        size += readable;
+    }
+
+    /**
+     * @return 完整的响应体，超过上限时返回null
+     */
+    byte[] toByteArray() {
+        return overflowed ? null : Arrays.copyOf(bytes, size);
+    }
+}
@@ -0,0 +1,330 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.cao.ecommerce.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 网关响应缓存过滤器（幂等GET请求）
+ *
+ * 技术要点：
+ * 1. 命中时直接由网关写回缓存的响应，不经过负载均衡和下游服务
+ * 2. 支持条件请求：If-None-Match 与缓存ETag匹配时返回304，不传输响应体；
+ *    上游未返回ETag时按响应体CRC32C生成弱ETag
+ * 3. 遵循上游 Cache-Control：no-store/private/no-cache 不缓存，max-age/s-maxage 缩短有效期；
+ *    上游 Vary 中的请求头必须都在路由的 vary-headers 中（参与缓存key），否则不缓存
+ * 4. 未命中时响应体边转发边复制，不阻塞首个请求的响应，超过单条上限即放弃缓存
+ * 5. 过期响应在保留期内供熔断降级使用（stale-if-error），见 {@link #findStale}
+ *
+ * 面试要点：
+ * - 网关缓存只适合幂等、与用户身份无关的读请求，带 Set-Cookie 的响应一律不缓存
+ * - 缓存key规则决定命中率：无关的查询参数（如埋点参数）不应参与key
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class ResponseCacheFilter implements GlobalFilter, Ordered, ApplicationListener<EnvironmentChangeEvent> {
+
+    /** 过滤器顺序：限流之后，请求合并之前 */
+    public static final int ORDER = RateLimitFilter.ORDER + 50;
+
+    private static final String X_CACHE = "X-Cache";
+
+    private final ResponseCacheProperties properties;
+
+    private final ResponseCacheStore store;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter notModified;
+
+    private final Counter staleHits;
+
+    private volatile Map<String, ResponseCacheProperties.RouteCache> rules;
+
+    private volatile boolean stale = true;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = new ResponseCacheStore(properties.getMaxBytes(),
+                TimeUnit.SECONDS.toNanos(properties.getStaleIfErrorSeconds()));
+        this.hits = Counter.builder("gateway.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("gateway.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.notModified = Counter.builder("gateway.cache.requests").tag("result", "not_modified").register(meterRegistry);
+        this.staleHits = Counter.builder("gateway.cache.requests").tag("result", "stale").register(meterRegistry);
+        Gauge.builder("gateway.cache.size", store, ResponseCacheStore::size)
+                .description("缓存条目数").register(meterRegistry);
+        Gauge.builder("gateway.cache.memory.used", store, ResponseCacheStore::getUsedBytes)
+                .baseUnit("bytes").description("缓存占用内存估算").register(meterRegistry);
+        FunctionCounter.builder("gateway.cache.evictions", store, ResponseCacheStore::getEvictionCount)
+                .description("容量淘汰次数").register(meterRegistry);
+        Gauge.builder("gateway.cache.hit.ratio", this, ResponseCacheFilter::hitRatio)
+                .description("缓存命中率（含304）").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        ResponseCacheProperties.RouteCache rule = route == null ? null : currentRules().get(route.getId());
+        if (rule == null) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestKeyBuilder.build(route.getId(), request, rule.getKeyQueryParams(), rule.getVaryHeaders());
+        long now = System.nanoTime();
+        if (!hasDirective(request.getHeaders().getCacheControl(), "no-cache")) {
+            CachedResponse cached = store.get(key, now);
+            if (cached != null) {
+                return writeCached(exchange, cached, now);
+            }
+        }
+
+        misses.increment();
+        CachingResponseDecorator decorator = new CachingResponseDecorator(exchange.getResponse(), key, rule);
+        return chain.filter(exchange.mutate().response(decorator).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        for (String key : event.getKeys()) {
+            if (key.startsWith(ResponseCacheProperties.PREFIX)) {
+                stale = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 查找可用于降级的缓存响应（包含保留期内的过期响应）
+     *
+     * @return 缓存响应，路由未启用缓存或没有缓存时返回null
+     */
+    public CachedResponse findStale(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (request.getMethod() != HttpMethod.GET || route == null) {
+            return null;
+        }
+        ResponseCacheProperties.RouteCache rule = currentRules().get(route.getId());
+        if (rule == null) {
+            return null;
+        }
+        String key = RequestKeyBuilder.build(route.getId(), request, rule.getKeyQueryParams(), rule.getVaryHeaders());
+        return store.getStale(key, System.nanoTime());
+    }
+
+    /**
+     * 以降级方式写回缓存响应，X-Cache 标记为 STALE
+     */
+    public Mono<Void> writeStale(ServerWebExchange exchange, CachedResponse cached) {
+        staleHits.increment();
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(HttpHeaders.AGE,
+                Long.toString(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - cached.getStoredAtNanos())));
+        headers.set(X_CACHE, "STALE");
+        return cached.writeTo(exchange.getResponse());
+    }
+
+    private Map<String, ResponseCacheProperties.RouteCache> currentRules() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    stale = false;
+                    rules = new HashMap<>(properties.getRoutes());
+                    // 规则变化后旧key可能不再对应同一份内容，整体失效
+                    store.clear();
+                    log.info("响应缓存规则已加载: {}", rules.keySet());
+                }
+            }
+        }
+        return rules;
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, long now) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        if (cached.matches(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            notModified.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.setETag(cached.getEtag());
+            copyIfPresent(cached.getHeaders(), headers, HttpHeaders.CACHE_CONTROL);
+            copyIfPresent(cached.getHeaders(), headers, HttpHeaders.LAST_MODIFIED);
+            return response.setComplete();
+        }
+        hits.increment();
+        headers.set(HttpHeaders.AGE, Long.toString(TimeUnit.NANOSECONDS.toSeconds(now - cached.getStoredAtNanos())));
+        headers.set(X_CACHE, "HIT");
+        return cached.writeTo(response);
+    }
+
+    private double hitRatio() {
+        double hit = hits.count() + notModified.count();
+        double total = hit + misses.count();
+        return total == 0 ? 0 : hit / total;
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        return cacheControl != null && cacheControl.toLowerCase().contains(directive);
+    }
+
+    /**
+     * 解析 Cache-Control 中的 s-maxage / max-age（秒），不存在时返回-1
+     */
+    private static long maxAgeSeconds(String cacheControl) {
+        if (cacheControl == null) {
+            return -1;
+        }
+        long maxAge = -1;
+        for (String directive : cacheControl.toLowerCase().split(",")) {
+            String trimmed = directive.trim();
+            try {
+                if (trimmed.startsWith("s-maxage=")) {
+                    // 共享缓存优先使用 s-maxage
+                    return Long.parseLong(trimmed.substring("s-maxage=".length()));
+                }
+                if (trimmed.startsWith("max-age=")) {
+                    maxAge = Long.parseLong(trimmed.substring("max-age=".length()));
+                }
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return maxAge;
+    }
+
+    private static void copyIfPresent(HttpHeaders from, HttpHeaders to, String name) {
+        String value = from.getFirst(name);
+        if (value != null) {
+            to.set(name, value);
+        }
+    }
+
+    /**
+     * 边转发边复制响应体的响应装饰器
+     */
+    private final class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final String key;
+
+        private final ResponseCacheProperties.RouteCache rule;
+
+        private CachingResponseDecorator(ServerHttpResponse delegate, String key,
+                                         ResponseCacheProperties.RouteCache rule) {
+            super(delegate);
+            this.key = key;
+            this.rule = rule;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            long ttlSeconds = cacheableTtlSeconds(status, headers);
+            if (ttlSeconds <= 0) {
+                return super.writeWith(body);
+            }
+            headers.set(X_CACHE, "MISS");
+            ResponseBodyCapture capture = new ResponseBodyCapture(properties.getMaxEntryBytes());
+            Flux<? extends DataBuffer> tee = Flux.from(body)
+                    .doOnNext(capture::append)
+                    .doOnComplete(() -> {
+                        byte[] bytes = capture.toByteArray();
+                        if (bytes != null) {
+                            store.put(toCachedResponse(status, headers, bytes, ttlSeconds), System.nanoTime());
+                        }
+                    });
+            return super.writeWith(tee);
+        }
+
+        private long cacheableTtlSeconds(HttpStatusCode status, HttpHeaders headers) {
+            // 已带 X-Cache 的响应由网关自身生成（如熔断降级写回的过期缓存），不能再次入缓存刷新有效期
+            if (status == null || status.value() != HttpStatus.OK.value()
+                    || headers.containsKey(X_CACHE)
+                    || headers.containsKey(HttpHeaders.SET_COOKIE)
+                    || !varyCoveredByKey(headers.getVary())
+                    || headers.getContentLength() > properties.getMaxEntryBytes()) {
+                return 0;
+            }
+            String cacheControl = headers.getCacheControl();
+            if (hasDirective(cacheControl, "no-store") || hasDirective(cacheControl, "private")
+                    || hasDirective(cacheControl, "no-cache")) {
+                return 0;
+            }
+            long upstream = maxAgeSeconds(cacheControl);
+            return upstream < 0 ? rule.getTtlSeconds() : Math.min(upstream, rule.getTtlSeconds());
+        }
+
+        /**
+         * 上游按某个请求头返回不同内容时，该请求头必须参与缓存key，否则会把一种变体返回给所有请求；
+         * Vary: * 不会出现在配置中，永远不缓存
+         */
+        private boolean varyCoveredByKey(List<String> vary) {
+            for (String name : vary) {
+                boolean covered = false;
+                for (String header : rule.getVaryHeaders()) {
+                    if (header.equalsIgnoreCase(name)) {
+                        covered = true;
+                        break;
+                    }
+                }
+                if (!covered) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private CachedResponse toCachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long ttlSeconds) {
+            HttpHeaders copy = CachedResponse.copyHeaders(headers);
+            String etag = copy.getETag();
+            if (etag == null) {
+                CRC32C crc = new CRC32C();
+                crc.update(body);
+                etag = "W/\"" + Integer.toHexString(body.length) + "-" + Long.toHexString(crc.getValue()) + "\"";
+                copy.setETag(etag);
+            }
+            return new CachedResponse(key, status, copy, body, etag, System.nanoTime(), TimeUnit.SECONDS.toNanos(ttlSeconds));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.cao.ecommerce.gateway.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按容量和有效期淘汰的响应缓存存储
+ *
+ * 设计要点：
+ * 1. 条目保存在ConcurrentHashMap中，读路径无锁
+ * 2. 淘汰使用CLOCK（二次机会）算法：条目按写入顺序排队，命中只设置访问位；
+ *    淘汰时访问位为真的条目清零后重新排队，近似LRU但不需要在读路径上调整链表
+ * 3. 每次写入顺带推进两格时钟指针，及时回收已过期或已被替换的队列节点，
+ *    保证队列长度与存活条目数同一量级
+ * 4. 过期条目在保留期（stale-if-error）内不删除，正常读取视为未命中，
+ *    下游熔断时仍可作为降级响应返回
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class ResponseCacheStore {
+
+    /** 每次写入顺带检查的队列节点数 */
+    private static final int SWEEP_PER_PUT = 2;
+
+    private final long maxBytes;
+
+    private final long staleRetentionNanos;
+
+    private final ConcurrentHashMap<String, CachedResponse> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<CachedResponse> clock = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCacheStore(long maxBytes, long staleRetentionNanos) {
+        this.maxBytes = maxBytes;
+        this.staleRetentionNanos = staleRetentionNanos;
+    }
+
+    /**
+     * 读取未过期的缓存
+     */
+    public CachedResponse get(String key, long nowNanos) {
+        CachedResponse entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(nowNanos)) {
+            if (isBeyondRetention(entry, nowNanos)) {
+                remove(entry);
+            }
+            return null;
+        }
+        if (!entry.isReferenced()) {
+            entry.setReferenced(true);
+        }
+        return entry;
+    }
+
+    /**
+     * 读取缓存，已过期但仍在保留期内的条目同样返回（用于降级）
+     */
+    public CachedResponse getStale(String key, long nowNanos) {
+        CachedResponse entry = entries.get(key);
+        return entry == null || isBeyondRetention(entry, nowNanos) ? null : entry;
+    }
+
+    /**
+     * 写入缓存，超出容量时淘汰
+     */
+    public void put(CachedResponse entry, long nowNanos) {
+        if (entry.getWeight() > maxBytes) {
+            return;
+        }
+        CachedResponse previous = entries.put(entry.getKey(), entry);
+        usedBytes.addAndGet(entry.getWeight() - (previous == null ? 0 : previous.getWeight()));
+        clock.offer(entry);
+
+        for (int i = 0; i < SWEEP_PER_PUT; i++) {
+            CachedResponse head = clock.poll();
+            if (head == null) {
+                break;
+            }
+            if (isLive(head) && !isBeyondRetention(head, nowNanos)) {
+                clock.offer(head);
+            } else {
+                remove(head);
+            }
+        }
+
+        // 队列中每个节点最多被跳过一次（清除访问位），两轮之内必然找到可淘汰的条目
+        int budget = 2 * clock.size() + SWEEP_PER_PUT;
+        while (usedBytes.get() > maxBytes && budget-- > 0) {
+            CachedResponse victim = clock.poll();
+            if (victim == null) {
+                break;
+            }
+            if (!isLive(victim)) {
+                continue;
+            }
+            if (victim.isReferenced() && !victim.isExpired(nowNanos)) {
+                victim.setReferenced(false);
+                clock.offer(victim);
+                continue;
+            }
+            if (remove(victim)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        entries.values().forEach(this::remove);
+        clock.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private boolean isBeyondRetention(CachedResponse entry, long nowNanos) {
+        return entry.isExpired(nowNanos - staleRetentionNanos);
+    }
+
+    private boolean isLive(CachedResponse entry) {
+        return entries.get(entry.getKey()) == entry;
+    }
+
+    private boolean remove(CachedResponse entry) {
+        if (entries.remove(entry.getKey(), entry)) {
+            usedBytes.addAndGet(-entry.getWeight());
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,275 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.cao.ecommerce.gateway.config.AuthProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 签名密钥环
+ *
+ * 按 kid 保存验签密钥，静态配置的密钥和从JWKS拉取的密钥合并为一个不可变快照，读路径无锁
+ *
+ * 技术要点：
+ * 1. 密钥轮换：签发方先发布新密钥（新旧密钥同时存在于JWKS），再切换签名密钥，最后在旧令牌全部过期后移除旧密钥；
+ *    网关按 kid 选择密钥，轮换期间新旧令牌都能验证
+ * 2. 算法由密钥决定而不是由令牌头决定，令牌头的 alg 必须与密钥一致，
+ *    防止"alg=none"和用RSA公钥当HMAC密钥的算法混淆攻击
+ * 3. Mac/Signature 实例不是线程安全的，按线程缓存，避免每次验证都查找算法提供者
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class SigningKeyRing {
+
+    /** HS256 密钥的最小长度（字节），与签名长度一致 */
+    private static final int MIN_HMAC_KEY_BYTES = 32;
+
+    private Map<String, VerificationKey> staticKeys = Map.of();
+
+    private Map<String, VerificationKey> remoteKeys = Map.of();
+
+    private volatile Map<String, VerificationKey> keys = Map.of();
+
+    /**
+     * 按 kid 查找密钥，不存在时返回null
+     */
+    public VerificationKey get(String kid) {
+        return kid == null ? null : keys.get(kid);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * 替换静态配置的密钥，无效的密钥记录告警后忽略
+     *
+     * @return 密钥是否发生变化
+     */
+    public synchronized boolean setStaticKeys(List<AuthProperties.SigningKey> configured) {
+        Map<String, VerificationKey> parsed = new HashMap<>();
+        for (AuthProperties.SigningKey key : configured) {
+            try {
+                parsed.put(key.getKid(), fromConfig(key));
+            } catch (GeneralSecurityException | RuntimeException e) {
+                log.warn("签名密钥配置无效，已忽略: kid={}, algorithm={}, error={}",
+                        key.getKid(), key.getAlgorithm(), e.getMessage());
+            }
+        }
+        staticKeys = parsed;
+        return publish();
+    }
+
+    /**
+     * 用JWKS文档替换远程密钥，无效的密钥记录告警后忽略
+     *
+     * @return 密钥是否发生变化
+     */
+    public synchronized boolean setRemoteKeys(byte[] jwks) {
+        JSONArray entries = JSON.parseObject(jwks).getJSONArray("keys");
+        Map<String, VerificationKey> parsed = new HashMap<>();
+        for (int i = 0; entries != null && i < entries.size(); i++) {
+            JSONObject jwk = entries.getJSONObject(i);
+            String use = jwk.getString("use");
+            if (use != null && !"sig".equals(use)) {
+                continue;
+            }
+            try {
+                VerificationKey key = fromJwk(jwk);
+                parsed.put(key.getKid(), key);
+            } catch (GeneralSecurityException | RuntimeException e) {
+                log.warn("JWKS中的密钥无效，已忽略: kid={}, kty={}, error={}",
+                        jwk.getString("kid"), jwk.getString("kty"), e.getMessage());
+            }
+        }
+        remoteKeys = parsed;
+        return publish();
+    }
+
+    private boolean publish() {
+        Map<String, VerificationKey> merged = new HashMap<>(staticKeys);
+        merged.putAll(remoteKeys);
+        Map<String, VerificationKey> previous = keys;
+        boolean changed = merged.size() != previous.size();
+        for (VerificationKey key : merged.values()) {
+            VerificationKey old = previous.get(key.getKid());
+            changed |= old == null || !old.getFingerprint().equals(key.getFingerprint());
+        }
+        keys = Map.copyOf(merged);
+        if (changed) {
+            log.info("签名密钥已更新: {}", keys.keySet());
+        }
+        return changed;
+    }
+
+    private static VerificationKey fromConfig(AuthProperties.SigningKey key) throws GeneralSecurityException {
+        if (key.getKid() == null || key.getKid().isEmpty()) {
+            throw new IllegalArgumentException("kid is required");
+        }
+        return switch (key.getAlgorithm()) {
+            case "HS256" -> hmac(key.getKid(), Base64.getDecoder().decode(key.getSecret()));
+            case "RS256" -> signature(key.getKid(), "RS256", "SHA256withRSA",
+                    KeyFactory.getInstance("RSA").generatePublic(x509(key.getPublicKey())));
+            case "ES256" -> signature(key.getKid(), "ES256", "SHA256withECDSAinP1363Format",
+                    KeyFactory.getInstance("EC").generatePublic(x509(key.getPublicKey())));
+            default -> throw new IllegalArgumentException("unsupported algorithm " + key.getAlgorithm());
+        };
+    }
+
+    private static VerificationKey fromJwk(JSONObject jwk) throws GeneralSecurityException {
+        String kid = jwk.getString("kid");
+        if (kid == null || kid.isEmpty()) {
+            throw new IllegalArgumentException("kid is required");
+        }
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        String kty = jwk.getString("kty");
+        String alg = jwk.getString("alg");
+        if ("oct".equals(kty) && (alg == null || "HS256".equals(alg))) {
+            return hmac(kid, decoder.decode(jwk.getString("k")));
+        }
+        if ("RSA".equals(kty) && (alg == null || "RS256".equals(alg))) {
+            RSAPublicKeySpec spec = new RSAPublicKeySpec(new BigInteger(1, decoder.decode(jwk.getString("n"))),
+                    new BigInteger(1, decoder.decode(jwk.getString("e"))));
+            return signature(kid, "RS256", "SHA256withRSA", KeyFactory.getInstance("RSA").generatePublic(spec));
+        }
+        if ("EC".equals(kty) && "P-256".equals(jwk.getString("crv")) && (alg == null || "ES256".equals(alg))) {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            ECPoint point = new ECPoint(new BigInteger(1, decoder.decode(jwk.getString("x"))),
+                    new BigInteger(1, decoder.decode(jwk.getString("y"))));
+            ECPublicKeySpec spec = new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class));
+            return signature(kid, "ES256", "SHA256withECDSAinP1363Format",
+                    KeyFactory.getInstance("EC").generatePublic(spec));
+        }
+        throw new IllegalArgumentException("unsupported key type " + kty + "/" + alg);
+    }
+
+    private static X509EncodedKeySpec x509(String pemOrBase64) {
+        String base64 = pemOrBase64.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return new X509EncodedKeySpec(Base64.getDecoder().decode(base64));
+    }
+
+    private static VerificationKey hmac(String kid, byte[] secret) throws GeneralSecurityException {
+        if (secret.length < MIN_HMAC_KEY_BYTES) {
+            throw new IllegalArgumentException("HS256 secret must be at least " + MIN_HMAC_KEY_BYTES + " bytes");
+        }
+        SecretKeySpec secretKey = new SecretKeySpec(secret, "HmacSHA256");
+        // 提前初始化一次，配置错误在加载时暴露
+        Mac.getInstance("HmacSHA256").init(secretKey);
+        ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(secretKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return new VerificationKey(kid, "HS256", fingerprint("HS256", secret),
+                (input, signature) -> MessageDigest.isEqual(macs.get().doFinal(input), signature));
+    }
+
+    private static VerificationKey signature(String kid, String algorithm, String jcaName, PublicKey publicKey)
+            throws GeneralSecurityException {
+        Signature.getInstance(jcaName).initVerify(publicKey);
+        ThreadLocal<Signature> signatures = ThreadLocal.withInitial(() -> {
+            try {
+                return Signature.getInstance(jcaName);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return new VerificationKey(kid, algorithm, fingerprint(algorithm, publicKey.getEncoded()),
+                (input, signature) -> {
+                    try {
+                        Signature verifier = signatures.get();
+                        verifier.initVerify(publicKey);
+                        verifier.update(input);
+                        return verifier.verify(signature);
+                    } catch (GeneralSecurityException e) {
+                        // 格式错误的签名（如ECDSA长度不对）按验签失败处理
+                        return false;
+                    }
+                });
+    }
+
+    private static String fingerprint(String algorithm, byte[] material) throws GeneralSecurityException {
+        return algorithm + ':' + Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(material));
+    }
+
+    /**
+     * 验签函数
+     */
+    @FunctionalInterface
+    private interface Verifier {
+
+        boolean verify(byte[] signingInput, byte[] signature);
+    }
+
+    /**
+     * 单个验签密钥
+     */
+    public static final class VerificationKey {
+
+        private final String kid;
+
+        private final String algorithm;
+
+        /** 算法 + 密钥摘要，用于判断密钥是否变化，不暴露密钥本身 */
+        private final String fingerprint;
+
+        private final Verifier verifier;
+
+        private VerificationKey(String kid, String algorithm, String fingerprint, Verifier verifier) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.fingerprint = fingerprint;
+            this.verifier = verifier;
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * 验证签名
+         *
+         * @param signingInput 令牌中 header.payload 部分的ASCII字节
+         * @param signature    Base64URL解码后的签名
+         */
+        public boolean verify(byte[] signingInput, byte[] signature) {
+            return verifier.verify(signingInput, signature);
+        }
+    }
+}
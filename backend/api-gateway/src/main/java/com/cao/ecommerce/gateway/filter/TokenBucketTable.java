@@ -0,0 +1,130 @@
+package com.cao.ecommerce.gateway.filter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分片无锁令牌桶表
+ *
+ * 设计要点：
+ * 1. 令牌桶采用GCRA（通用信元速率算法）等价实现：每个桶只保存一个"理论到达时间"（TAT），
+ *    一次CAS即可完成取令牌，无需保存令牌数和上次补充时间
+ * 2. 按key哈希分片到多个ConcurrentHashMap，读路径无锁，清理时逐个分片进行，避免长时间停顿
+ * 3. TAT早于当前时间即说明桶已补满，此时删除条目与保留条目的限流效果完全相同，
+ *    因此空闲清理不会放大或缩小任何客户端的配额
+ * 4. 单分片条目数超过上限时，新key共用一个溢出桶，保证内存有界
+ *
+ * 面试要点：
+ * - 令牌桶容量 B、速率 r 对应 GCRA 的发放间隔 T = 1/r、突发容忍度 τ = (B - 1) * T
+ * - 相比 Redis + Lua 的分布式限流，本地限流没有网络往返，代价是配额按网关实例数均分
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class TokenBucketTable {
+
+    private final ConcurrentHashMap<String, Bucket>[] shards;
+
+    private final int shardMask;
+
+    private final int maxEntriesPerShard;
+
+    /** 分片满时所有新key共用的溢出桶 */
+    private final Bucket overflow = new Bucket();
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketTable(int shardCount, int maxEntriesPerShard) {
+        if (shardCount <= 0 || Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("shardCount must be a power of two: " + shardCount);
+        }
+        this.shards = new ConcurrentHashMap[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        this.shardMask = shardCount - 1;
+        this.maxEntriesPerShard = maxEntriesPerShard;
+    }
+
+    /**
+     * 尝试取一个令牌
+     *
+     * @param key            限流维度的key（IP、用户ID、API Key）
+     * @param intervalNanos  发放间隔 T（纳秒）
+     * @param toleranceNanos 突发容忍度 τ（纳秒）
+     * @param nowNanos       当前时间（System.nanoTime()）
+     * @return 0表示放行，大于0表示需要等待的纳秒数
+     */
+    public long tryAcquire(String key, long intervalNanos, long toleranceNanos, long nowNanos) {
+        Bucket bucket = bucketFor(key);
+        for (;;) {
+            long tat = bucket.tat;
+            long base = Math.max(tat, nowNanos);
+            long backlog = base - nowNanos;
+            if (backlog > toleranceNanos) {
+                return backlog - toleranceNanos;
+            }
+            if (Bucket.TAT.compareAndSet(bucket, tat, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 清理已补满的桶
+     *
+     * @return 清理的条目数
+     */
+    public int evictIdle(long nowNanos) {
+        int evicted = 0;
+        for (ConcurrentHashMap<String, Bucket> shard : shards) {
+            int before = shard.size();
+            shard.values().removeIf(bucket -> bucket.tat <= nowNanos);
+            evicted += before - shard.size();
+        }
+        return evicted;
+    }
+
+    /**
+     * 当前跟踪的桶数量
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, Bucket> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private Bucket bucketFor(String key) {
+        int hash = key.hashCode();
+        ConcurrentHashMap<String, Bucket> shard = shards[(hash ^ (hash >>> 16)) & shardMask];
+        Bucket bucket = shard.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (shard.size() >= maxEntriesPerShard) {
+            return overflow;
+        }
+        return shard.computeIfAbsent(key, k -> new Bucket());
+    }
+
+    /**
+     * 单个令牌桶，只保存理论到达时间
+     */
+    private static final class Bucket {
+
+        private static final VarHandle TAT;
+
+        static {
+            try {
+                TAT = MethodHandles.lookup().findVarHandle(Bucket.class, "tat", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        /** 初始为最小值，首次请求时按当前时间计算，相当于桶是满的 */
+        private volatile long tat = Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,185 @@
+package com.cao.ecommerce.gateway.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 令牌撤销名单
+ *
+ * 设计要点：
+ * 1. 名单只保存 jti / 用户ID 的64位哈希、撤销时刻和条目过期时间，存放在开放寻址的基本类型数组中，
+ *    负载因子不超过1/2，每个条目约48~96字节，不保存令牌原文
+ * 2. 读路径无锁：名单为不可变快照，推送时复制并合并后整体替换（写少读多）
+ * 3. 条目在对应令牌过期后移除：过期令牌本来就会被拒绝，名单大小只与有效期内的撤销数量有关
+ * 4. 哈希冲突只会误判为已撤销（拒绝而不是放行），64位哈希下概率可忽略
+ *
+ * 面试要点：
+ * - 无状态令牌的代价是无法"删除会话"，撤销名单把需要共享的状态从"所有会话"缩小到"提前作废的少数令牌"
+ * - 用户级撤销（某时刻之前签发的全部令牌）一条记录即可覆盖修改密码、退出所有设备等场景
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class TokenDenylist {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    /** jti哈希 -> Long.MAX_VALUE（任意签发时间均已撤销） */
+    private volatile Table tokens = Table.EMPTY;
+
+    /** 用户ID哈希 -> 撤销时刻（秒），此前签发的令牌均已撤销 */
+    private volatile Table users = Table.EMPTY;
+
+    private volatile long version;
+
+    /**
+     * 令牌是否已撤销
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.getJtiHash() != 0 && tokens.get(token.getJtiHash()) != NONE) {
+            return true;
+        }
+        long before = users.get(token.getUserHash());
+        return before != NONE && token.getIssuedAtSeconds() < before;
+    }
+
+    /**
+     * 合并或替换名单，同时移除已过期的条目
+     */
+    public synchronized void apply(DenylistUpdate update, long nowSeconds) {
+        Map<Long, long[]> mergedTokens = update.isReplace() ? new HashMap<>() : tokens.toMap(nowSeconds);
+        for (DenylistUpdate.TokenEntry entry : update.getTokens()) {
+            if (entry.getJti() != null && entry.getExp() > nowSeconds) {
+                merge(mergedTokens, hash(entry.getJti()), Long.MAX_VALUE, entry.getExp());
+            }
+        }
+        Map<Long, long[]> mergedUsers = update.isReplace() ? new HashMap<>() : users.toMap(nowSeconds);
+        for (DenylistUpdate.UserEntry entry : update.getUsers()) {
+            if (entry.getUserId() != null && entry.getExp() > nowSeconds) {
+                merge(mergedUsers, hash(entry.getUserId()), entry.getBefore(), entry.getExp());
+            }
+        }
+        tokens = Table.of(mergedTokens);
+        users = Table.of(mergedUsers);
+        version++;
+    }
+
+    /**
+     * 移除已过期的条目
+     */
+    public synchronized void purgeExpired(long nowSeconds) {
+        if (tokens.hasExpired(nowSeconds)) {
+            tokens = Table.of(tokens.toMap(nowSeconds));
+        }
+        if (users.hasExpired(nowSeconds)) {
+            users = Table.of(users.toMap(nowSeconds));
+        }
+    }
+
+    public int getTokenCount() {
+        return tokens.size;
+    }
+
+    public int getUserCount() {
+        return users.size;
+    }
+
+    /** 名单的更新次数 */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 字符串的64位哈希（FNV-1a + 混合），结果不为0
+     */
+    public static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static void merge(Map<Long, long[]> entries, long key, long value, long expires) {
+        entries.merge(key, new long[]{value, expires},
+                (existing, added) -> new long[]{Math.max(existing[0], added[0]), Math.max(existing[1], added[1])});
+    }
+
+    /**
+     * 不可变的开放寻址表（线性探测），键0表示空槽
+     */
+    private static final class Table {
+
+        private static final Table EMPTY = new Table(1);
+
+        private final long[] keys;
+
+        private final long[] values;
+
+        private final long[] expires;
+
+        private final int mask;
+
+        private int size;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.expires = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private static Table of(Map<Long, long[]> entries) {
+            if (entries.isEmpty()) {
+                return EMPTY;
+            }
+            Table table = new Table(Integer.highestOneBit(entries.size() * 2 - 1) << 1);
+            entries.forEach((key, entry) -> {
+                int i = (int) key.longValue() & table.mask;
+                while (table.keys[i] != 0) {
+                    i = (i + 1) & table.mask;
+                }
+                table.keys[i] = key;
+                table.values[i] = entry[0];
+                table.expires[i] = entry[1];
+            });
+            table.size = entries.size();
+            return table;
+        }
+
+        private long get(long key) {
+            for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+                long current = keys[i];
+                if (current == key) {
+                    return values[i];
+                }
+                if (current == 0) {
+                    return NONE;
+                }
+            }
+        }
+
+        private boolean hasExpired(long nowSeconds) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0 && expires[i] <= nowSeconds) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Map<Long, long[]> toMap(long nowSeconds) {
+            Map<Long, long[]> entries = new HashMap<>(size * 2);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0 && expires[i] > nowSeconds) {
+                    entries.put(keys[i], new long[]{values[i], expires[i]});
+                }
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.cao.ecommerce.gateway.filter;
+
+/**
+ * 验证通过的令牌
+ *
+ * 只保留转发和撤销判断需要的字段，角色在验证时拼接为请求头的值；
+ * 对象不可变，缓存命中时多个请求直接共用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class VerifiedToken {
+
+    private final String token;
+
+    private final String userId;
+
+    /** 逗号分隔的角色，没有角色时为空串 */
+    private final String roles;
+
+    private final long jtiHash;
+
+    private final long userHash;
+
+    /** 签发时间（秒），令牌未携带 iat 时为0 */
+    private final long issuedAtSeconds;
+
+    private final long expiresAtMillis;
+
+    public VerifiedToken(String token, String userId, String roles, String jti,
+                         long issuedAtSeconds, long expiresAtMillis) {
+        this.token = token;
+        this.userId = userId;
+        this.roles = roles;
+        this.jtiHash = jti == null ? 0 : TokenDenylist.hash(jti);
+        this.userHash = TokenDenylist.hash(userId);
+        this.issuedAtSeconds = issuedAtSeconds;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getRoles() {
+        return roles;
+    }
+
+    /** jti 的哈希，令牌未携带 jti 时为0 */
+    public long getJtiHash() {
+        return jtiHash;
+    }
+
+    public long getUserHash() {
+        return userHash;
+    }
+
+    public long getIssuedAtSeconds() {
+        return issuedAtSeconds;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,81 @@
+package com.cao.ecommerce.gateway.filter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已验证令牌缓存
+ *
+ * 设计要点：
+ * 1. 固定槽数的直接映射表：按令牌字符串的哈希选槽，新条目直接覆盖旧条目，
+ *    内存上限 = 槽数 × 单个令牌大小，不需要淘汰线程，读写都是一次数组访问
+ * 2. 命中时比较令牌原文，哈希相同的伪造令牌不会命中其他令牌的验证结果
+ * 3. 只有验签通过的令牌才会写入，无效令牌无法挤占缓存
+ * 4. 条目在令牌过期后视为未命中；撤销判断不依赖缓存，每个请求都会查询撤销名单
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class VerifiedTokenCache {
+
+    private final AtomicReferenceArray<VerifiedToken> slots;
+
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param size 槽数（向上取整为2的幂），0表示不缓存
+     */
+    public VerifiedTokenCache(int size) {
+        int capacity = size <= 0 ? 0 : 1 << (32 - Integer.numberOfLeadingZeros(size - 1));
+        this.slots = new AtomicReferenceArray<>(Math.max(capacity, 1));
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 读取未过期的验证结果
+     */
+    public VerifiedToken get(String token, long nowMillis) {
+        if (mask < 0) {
+            return null;
+        }
+        VerifiedToken cached = slots.getAcquire(index(token));
+        if (cached != null && !cached.isExpired(nowMillis) && cached.getToken().equals(token)) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(VerifiedToken verified) {
+        if (mask >= 0) {
+            slots.setRelease(index(verified.getToken()), verified);
+        }
+    }
+
+    /**
+     * 清空缓存（签名密钥变更后调用，被移除的密钥签发的令牌需要重新验证）
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setRelease(i, null);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private int index(String token) {
+        int hash = token.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
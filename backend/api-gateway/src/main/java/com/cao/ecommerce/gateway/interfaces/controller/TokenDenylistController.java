@@ -0,0 +1,94 @@
+package com.cao.ecommerce.gateway.interfaces.controller;
+
+import com.cao.ecommerce.gateway.config.AuthProperties;
+import com.cao.ecommerce.gateway.filter.DenylistUpdate;
+import com.cao.ecommerce.gateway.filter.TokenDenylist;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 令牌撤销名单推送接口
+ *
+ * 签发方在用户退出、修改密码或封禁时推送增量（replace=false），
+ * 并定期或在发现新网关实例时推送全量快照（replace=true）；签发方按Nacos中的网关实例列表逐个推送。
+ * 接口与业务路由共用端口，通过共享密钥（请求头 X-Push-Secret）鉴权，未配置密钥时拒绝所有推送
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/auth")
+@ConditionalOnProperty(prefix = AuthProperties.PREFIX, name = "enabled", havingValue = "true")
+public class TokenDenylistController {
+
+    private static final String PUSH_SECRET_HEADER = "X-Push-Secret";
+
+    private final TokenDenylist denylist;
+
+    private final AuthProperties properties;
+
+    public TokenDenylistController(TokenDenylist denylist, AuthProperties properties) {
+        this.denylist = denylist;
+        this.properties = properties;
+    }
+
+    /**
+     * 接收撤销名单推送
+     */
+    @PostMapping("/denylist")
+    public ResponseEntity<Map<String, Object>> push(@RequestHeader(value = PUSH_SECRET_HEADER, required = false) String secret,
+                                                    @RequestBody DenylistUpdate update) {
+        if (!authorized(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        denylist.apply(update, System.currentTimeMillis() / 1000);
+        log.info("撤销名单已更新: replace={}, 令牌 +{}, 用户 +{}, 当前令牌 {} 条, 用户 {} 条",
+                update.isReplace(), update.getTokens().size(), update.getUsers().size(),
+                denylist.getTokenCount(), denylist.getUserCount());
+        return ResponseEntity.ok(stats());
+    }
+
+    /**
+     * 查询撤销名单规模
+     */
+    @GetMapping("/denylist")
+    public ResponseEntity<Map<String, Object>> status(@RequestHeader(value = PUSH_SECRET_HEADER, required = false) String secret) {
+        if (!authorized(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(stats());
+    }
+
+    private Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", denylist.getVersion());
+        result.put("tokens", denylist.getTokenCount());
+        result.put("users", denylist.getUserCount());
+        return result;
+    }
+
+    /**
+     * 常量时间比较，避免通过响应时间逐字节猜测密钥
+     */
+    private boolean authorized(String secret) {
+        String expected = properties.getPushSecret();
+        if (expected == null || expected.isEmpty() || secret == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
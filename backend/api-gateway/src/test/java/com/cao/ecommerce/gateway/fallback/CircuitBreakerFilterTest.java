@@ -0,0 +1,99 @@
+package com.cao.ecommerce.gateway.fallback;
+
+import com.cao.ecommerce.common.spring.loadbalancer.PeakEwmaLoadBalancer;
+import com.cao.ecommerce.gateway.config.CircuitBreakerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 熔断过滤器测试：路由级熔断在负载均衡之前降级，实例级熔断降级时标记请求未转发
+ *
+ * 过滤器链模拟网关的顺序：路由级熔断 → 负载均衡（选定实例） → 实例级熔断 → 下游
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class CircuitBreakerFilterTest {
+
+    private static final String ROUTE = "product-service";
+
+    private int loadBalancerPicks;
+
+    private int downstreamCalls;
+
+    @Test
+    void openRouteBreakerRejectsBeforeLoadBalancing() {
+        CircuitBreakerFilter filter = newFilter(false, 50);
+        send(filter, "10.0.0.1", HttpStatus.INTERNAL_SERVER_ERROR);
+        send(filter, "10.0.0.1", HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(loadBalancerPicks).isEqualTo(2);
+
+        MockServerWebExchange rejected = send(filter, "10.0.0.1", HttpStatus.OK);
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(rejected.getResponse().getHeaders().getFirst("X-Circuit-Breaker")).isEqualTo("OPEN");
+        assertThat(loadBalancerPicks).isEqualTo(2);
+        assertThat(downstreamCalls).isEqualTo(2);
+    }
+
+    @Test
+    void openInstanceBreakerMarksRequestDiscardedForLoadBalancer() {
+        // 路由整体失败率50%，低于阈值；故障实例自身失败率100%
+        CircuitBreakerFilter filter = newFilter(true, 60);
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange healthy = send(filter, "10.0.0.2", HttpStatus.OK);
+            assertThat(healthy.getAttributes()).doesNotContainKey(PeakEwmaLoadBalancer.DISCARD_ATTRIBUTE);
+            send(filter, "10.0.0.1", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        MockServerWebExchange rejected = send(filter, "10.0.0.1", HttpStatus.OK);
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(rejected.<Boolean>getAttribute(PeakEwmaLoadBalancer.DISCARD_ATTRIBUTE)).isTrue();
+        assertThat(downstreamCalls).isEqualTo(4);
+
+        MockServerWebExchange other = send(filter, "10.0.0.2", HttpStatus.OK);
+        assertThat(other.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private CircuitBreakerFilter newFilter(boolean perInstance, int failureRateThreshold) {
+        CircuitBreakerProperties.RouteBreaker rule = new CircuitBreakerProperties.RouteBreaker();
+        rule.setMinimumCalls(2);
+        rule.setFailureRateThreshold(failureRateThreshold);
+        rule.setPerInstance(perInstance);
+        rule.setStaleFallback(false);
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.getRoutes().put(ROUTE, rule);
+        return new CircuitBreakerFilter(properties, new SimpleMeterRegistry(), null);
+    }
+
+    private MockServerWebExchange send(CircuitBreakerFilter filter, String host, HttpStatus downstreamStatus) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/1"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id(ROUTE).uri("lb://" + ROUTE)
+                .predicate(e -> true).build());
+        GatewayFilterChain downstream = e -> {
+            downstreamCalls++;
+            e.getResponse().setStatusCode(downstreamStatus);
+            return Mono.empty();
+        };
+        GatewayFilterChain loadBalancer = e -> {
+            loadBalancerPicks++;
+            e.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("http://" + host + ":8080/api/products/1"));
+            return filter.instanceFilter().filter(e, downstream);
+        };
+        filter.filter(exchange, loadBalancer).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,355 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.cao.ecommerce.gateway.config.AuthProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 认证过滤器测试：身份请求头转发、必须登录的路由和免登录路径、验证缓存、撤销名单（单个令牌、用户级、
+ * 全量替换与增量合并）、密钥轮换和未知 kid 触发的限频拉取
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class AuthenticationFilterTest {
+
+    private static final String ROUTE = "trade-service";
+
+    private static final byte[] SECRET = TestJwts.secret('a');
+
+    private AuthProperties properties;
+
+    private TokenDenylist denylist;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AuthenticationFilter filter;
+
+    private HttpServer jwksServer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuthProperties();
+        properties.setEnabled(true);
+        properties.getKeys().add(TestJwts.hmacKey("k1", SECRET));
+        AuthProperties.RouteAuth routeAuth = new AuthProperties.RouteAuth();
+        routeAuth.setPermitPaths(List.of("/api/orders/public/**"));
+        properties.getRoutes().put(ROUTE, routeAuth);
+        denylist = new TokenDenylist();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (filter != null) {
+            filter.destroy();
+        }
+        if (jwksServer != null) {
+            jwksServer.stop(0);
+        }
+    }
+
+    @Test
+    void forwardsVerifiedIdentity() {
+        filter = newFilter();
+        Map<String, Object> claims = claims("1001");
+        claims.put("roles", List.of("user", "admin"));
+
+        Result result = send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", SECRET, claims));
+
+        assertThat(result.status).isNull();
+        assertThat(result.forwarded.getFirst(AuthenticationFilter.USER_ID_HEADER)).isEqualTo("1001");
+        assertThat(result.forwarded.getFirst(AuthenticationFilter.USER_ROLES_HEADER)).isEqualTo("user,admin");
+        assertThat(count("verified")).isEqualTo(1);
+
+        // 没有角色时不转发角色请求头
+        Result noRoles = send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", SECRET, claims("1002")));
+        assertThat(noRoles.forwarded.getFirst(AuthenticationFilter.USER_ID_HEADER)).isEqualTo("1002");
+        assertThat(noRoles.forwarded.containsKey(AuthenticationFilter.USER_ROLES_HEADER)).isFalse();
+    }
+
+    @Test
+    void requiredRouteRejectsMissingTokenExceptPermitPaths() {
+        filter = newFilter();
+
+        Result missing = send(ROUTE, "/api/orders/1", null);
+        assertThat(missing.status).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(missing.wwwAuthenticate).isEqualTo("Bearer error=\"invalid_token\"");
+        assertThat(count("missing")).isEqualTo(1);
+
+        // 免登录路径和未配置规则的路由匿名放行
+        Result permitted = send(ROUTE, "/api/orders/public/hot", null);
+        assertThat(permitted.status).isNull();
+        assertThat(permitted.forwarded.containsKey(AuthenticationFilter.USER_ID_HEADER)).isFalse();
+        assertThat(send("product-service", "/api/products/1", null).status).isNull();
+        assertThat(count("anonymous")).isEqualTo(2);
+
+        // 非Bearer的Authorization视为未携带令牌
+        MockServerHttpRequest basic = MockServerHttpRequest.get("/api/orders/1")
+                .header(HttpHeaders.AUTHORIZATION, "Basic dXNlcjpwYXNz").build();
+        assertThat(send(ROUTE, basic).status).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void invalidTokenIsRejectedEvenOnPermitPath() {
+        filter = newFilter();
+        String forged = TestJwts.hs256("k1", TestJwts.secret('b'), claims("1001"));
+
+        assertThat(send(ROUTE, "/api/orders/public/hot", forged).status).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(send("product-service", "/api/products/1", forged).status).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(count("invalid")).isEqualTo(2);
+    }
+
+    @Test
+    void cachesVerifiedTokens() {
+        filter = newFilter();
+        String token = TestJwts.hs256("k1", SECRET, claims("1001"));
+
+        assertThat(send(ROUTE, "/api/orders/1", token).status).isNull();
+        Result cached = send(ROUTE, "/api/orders/2", token);
+        assertThat(cached.status).isNull();
+        assertThat(cached.forwarded.getFirst(AuthenticationFilter.USER_ID_HEADER)).isEqualTo("1001");
+
+        assertThat(count("verified")).isEqualTo(1);
+        assertThat(count("cached")).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.auth.cache.hits").functionCounter().count()).isEqualTo(1);
+
+        // 缓存按令牌原文命中，同一用户的另一个令牌仍要验签
+        assertThat(send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", TestJwts.secret('b'), claims("1001"))).status)
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void revokedTokenIsRejectedEvenWhenCached() {
+        filter = newFilter();
+        long now = System.currentTimeMillis() / 1000;
+        Map<String, Object> claims = claims("1001");
+        claims.put("jti", "t-1");
+        String token = TestJwts.hs256("k1", SECRET, claims);
+        assertThat(send(ROUTE, "/api/orders/1", token).status).isNull();
+
+        denylist.apply(update(false, Map.of("t-1", now + 3600), Map.of()), now);
+        assertThat(send(ROUTE, "/api/orders/1", token).status).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(count("revoked")).isEqualTo(1);
+        assertThat(count("cached")).isEqualTo(1);
+
+        claims.put("jti", "t-2");
+        assertThat(send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", SECRET, claims)).status).isNull();
+    }
+
+    @Test
+    void userRevocationRejectsTokensIssuedBefore() {
+        filter = newFilter();
+        long now = System.currentTimeMillis() / 1000;
+        Map<String, Object> before = claims("1001");
+        before.put("iat", now - 60);
+        Map<String, Object> after = claims("1001");
+        after.put("iat", now);
+        Map<String, Object> noIat = claims("1001");
+        noIat.remove("iat");
+
+        // 修改密码：此刻之前签发的令牌全部作废，之后重新登录的令牌有效
+        denylist.apply(update(false, Map.of(), Map.of("1001", new long[]{now, now + 3600})), now);
+
+        assertThat(send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", SECRET, before)).status)
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", SECRET, noIat)).status)
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", SECRET, after)).status).isNull();
+        assertThat(send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", SECRET, claims("1002"))).status).isNull();
+    }
+
+    @Test
+    void denylistDeltaMergesAndReplaceDropsOmittedEntries() {
+        long now = 1_700_000_000L;
+        VerifiedToken first = token("1001", "t-1", now - 10);
+        VerifiedToken second = token("1002", "t-2", now - 10);
+        VerifiedToken third = token("1003", "t-3", now - 10);
+
+        denylist.apply(update(false, Map.of("t-1", now + 100), Map.of()), now);
+        denylist.apply(update(false, Map.of("t-2", now + 100), Map.of("1003", new long[]{now, now + 100})), now);
+        assertThat(denylist.isRevoked(first)).isTrue();
+        assertThat(denylist.isRevoked(second)).isTrue();
+        assertThat(denylist.isRevoked(third)).isTrue();
+        assertThat(denylist.getTokenCount()).isEqualTo(2);
+        assertThat(denylist.getUserCount()).isEqualTo(1);
+
+        // 全量快照只保留快照中的条目
+        denylist.apply(update(true, Map.of("t-2", now + 100), Map.of()), now);
+        assertThat(denylist.isRevoked(first)).isFalse();
+        assertThat(denylist.isRevoked(second)).isTrue();
+        assertThat(denylist.isRevoked(third)).isFalse();
+        assertThat(denylist.getVersion()).isEqualTo(3);
+
+        // 已过期的条目不加入名单，到期的条目被清理
+        denylist.apply(update(false, Map.of("t-1", now), Map.of()), now);
+        assertThat(denylist.isRevoked(first)).isFalse();
+        denylist.purgeExpired(now + 100);
+        assertThat(denylist.getTokenCount()).isZero();
+        assertThat(denylist.isRevoked(second)).isFalse();
+    }
+
+    @Test
+    void keyRotationClearsCacheAndUnknownKidRefreshIsThrottled() throws Exception {
+        byte[] next = TestJwts.secret('n');
+        AtomicReference<String> jwks = new AtomicReference<>("{\"keys\":[" + TestJwts.octJwk("k1", SECRET) + "]}");
+        AtomicInteger fetches = new AtomicInteger();
+        jwksServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        jwksServer.createContext("/jwks", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = jwks.get().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        jwksServer.start();
+        properties.getKeys().clear();
+        properties.setJwksUri("http://127.0.0.1:" + jwksServer.getAddress().getPort() + "/jwks");
+        properties.setUnknownKidRefreshMinIntervalMs(60000);
+        filter = newFilter();
+        awaitTrue(() -> keyCount() == 1);
+        assertThat(fetches.get()).isEqualTo(1);
+        assertThat(send(ROUTE, "/api/orders/1", TestJwts.hs256("k1", SECRET, claims("1001"))).status).isNull();
+
+        // 签发方发布新密钥 k2 后，第一个 k2 令牌触发一次拉取
+        jwks.set("{\"keys\":[" + TestJwts.octJwk("k1", SECRET) + "," + TestJwts.octJwk("k2", next) + "]}");
+        String newToken = TestJwts.hs256("k2", next, claims("1002"));
+        assertThat(send(ROUTE, "/api/orders/1", newToken).status).isEqualTo(HttpStatus.UNAUTHORIZED);
+        awaitTrue(() -> keyCount() == 2);
+        assertThat(send(ROUTE, "/api/orders/1", newToken).status).isNull();
+
+        // 伪造的 kid 在最小间隔内不再触发拉取
+        for (int i = 0; i < 20; i++) {
+            String forged = TestJwts.hs256("kid-" + i, next, claims("1002"));
+            assertThat(send(ROUTE, "/api/orders/1", forged).status).isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+        Thread.sleep(200);
+        assertThat(fetches.get()).isEqualTo(2);
+
+        // 旧密钥下线后清空验证缓存，已缓存的 k1 令牌也被拒绝
+        String oldToken = TestJwts.hs256("k1", SECRET, claims("1001"));
+        assertThat(send(ROUTE, "/api/orders/1", oldToken).status).isNull();
+        jwks.set("{\"keys\":[" + TestJwts.octJwk("k2", next) + "]}");
+        filter.refreshKeys();
+        assertThat(send(ROUTE, "/api/orders/1", oldToken).status).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(send(ROUTE, "/api/orders/1", newToken).status).isNull();
+    }
+
+    @Test
+    void staticKeyChangeAppliesAfterEnvironmentChange() {
+        filter = newFilter();
+        String token = TestJwts.hs256("k1", SECRET, claims("1001"));
+        assertThat(send(ROUTE, "/api/orders/1", token).status).isNull();
+
+        properties.getKeys().set(0, TestJwts.hmacKey("k1", TestJwts.secret('n')));
+        assertThat(send(ROUTE, "/api/orders/1", token).status).isNull();
+
+        filter.onApplicationEvent(new EnvironmentChangeEvent(Set.of(AuthProperties.PREFIX + ".keys[0].secret")));
+        assertThat(send(ROUTE, "/api/orders/1", token).status).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private AuthenticationFilter newFilter() {
+        return new AuthenticationFilter(properties, denylist, meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.auth.requests").tag("result", result).counter().count();
+    }
+
+    private double keyCount() {
+        return meterRegistry.get("gateway.auth.keys").gauge().value();
+    }
+
+    private Result send(String routeId, String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return send(routeId, request.build());
+    }
+
+    private Result send(String routeId, MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id(routeId).uri("http://localhost")
+                .predicate(e -> true).build());
+        AtomicReference<HttpHeaders> forwarded = new AtomicReference<>();
+        GatewayFilterChain chain = forwardedExchange -> {
+            forwarded.set(forwardedExchange.getRequest().getHeaders());
+            return Mono.empty();
+        };
+        filter.filter(exchange, chain).block();
+        return new Result(exchange.getResponse().getStatusCode() == null ? null
+                : HttpStatus.valueOf(exchange.getResponse().getStatusCode().value()),
+                exchange.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE), forwarded.get());
+    }
+
+    private static Map<String, Object> claims(String subject) {
+        return TestJwts.claims(subject, System.currentTimeMillis() / 1000);
+    }
+
+    private static VerifiedToken token(String userId, String jti, long issuedAtSeconds) {
+        return new VerifiedToken("token-" + jti, userId, "", jti, issuedAtSeconds, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param users 用户ID -> {before, exp}
+     */
+    private static DenylistUpdate update(boolean replace, Map<String, Long> tokens, Map<String, long[]> users) {
+        DenylistUpdate update = new DenylistUpdate();
+        update.setReplace(replace);
+        tokens.forEach((jti, exp) -> {
+            DenylistUpdate.TokenEntry entry = new DenylistUpdate.TokenEntry();
+            entry.setJti(jti);
+            entry.setExp(exp);
+            update.getTokens().add(entry);
+        });
+        users.forEach((userId, window) -> {
+            DenylistUpdate.UserEntry entry = new DenylistUpdate.UserEntry();
+            entry.setUserId(userId);
+            entry.setBefore(window[0]);
+            entry.setExp(window[1]);
+            update.getUsers().add(entry);
+        });
+        return update;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("等待条件超时").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * 一次请求的结果：status 为null表示放行到下游
+     */
+    private record Result(HttpStatus status, String wwwAuthenticate, HttpHeaders forwarded) {
+    }
+}
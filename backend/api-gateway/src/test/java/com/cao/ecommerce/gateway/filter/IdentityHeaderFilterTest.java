@@ -0,0 +1,76 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.cao.ecommerce.gateway.config.AuthConfig;
+import com.cao.ecommerce.gateway.config.AuthProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 身份请求头清理测试：客户端伪造的身份请求头在任何认证配置下都不会到达下游
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class IdentityHeaderFilterTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(AuthConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    void stripsSpoofedIdentityHeaders() {
+        HttpHeaders forwarded = forward(new IdentityHeaderFilter(), MockServerHttpRequest.get("/api/orders")
+                .header("x-user-id", "1")
+                .header(AuthenticationFilter.USER_ROLES_HEADER, "admin")
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .build());
+
+        assertThat(forwarded.containsKey(AuthenticationFilter.USER_ID_HEADER)).isFalse();
+        assertThat(forwarded.containsKey(AuthenticationFilter.USER_ROLES_HEADER)).isFalse();
+        assertThat(forwarded.getFirst(HttpHeaders.ACCEPT)).isEqualTo("application/json");
+    }
+
+    @Test
+    void runsBeforeAuthenticationAndRateLimiting() {
+        assertThat(IdentityHeaderFilter.ORDER).isLessThan(AuthenticationFilter.ORDER);
+        assertThat(IdentityHeaderFilter.ORDER).isLessThan(RateLimitFilter.ORDER);
+    }
+
+    @Test
+    void registeredWhenAuthenticationDisabled() {
+        runner.withPropertyValues(AuthProperties.PREFIX + ".enabled=false").run(context -> {
+            assertThat(context).hasSingleBean(IdentityHeaderFilter.class);
+            assertThat(context).doesNotHaveBean(AuthenticationFilter.class);
+        });
+        runner.run(context -> assertThat(context).hasSingleBean(IdentityHeaderFilter.class));
+    }
+
+    @Test
+    void registeredAlongsideAuthentication() {
+        runner.withPropertyValues(AuthProperties.PREFIX + ".enabled=true").run(context -> {
+            assertThat(context).hasSingleBean(IdentityHeaderFilter.class);
+            assertThat(context).hasSingleBean(AuthenticationFilter.class);
+        });
+    }
+
+    private static HttpHeaders forward(IdentityHeaderFilter filter, MockServerHttpRequest request) {
+        AtomicReference<HttpHeaders> forwarded = new AtomicReference<>();
+        GatewayFilterChain chain = exchange -> {
+            forwarded.set(exchange.getRequest().getHeaders());
+            return Mono.empty();
+        };
+        filter.filter(MockServerWebExchange.from(request), chain).block();
+        return forwarded.get();
+    }
+}
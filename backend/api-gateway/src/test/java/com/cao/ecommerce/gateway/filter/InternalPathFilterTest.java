@@ -0,0 +1,97 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.cao.ecommerce.gateway.config.AuthConfig;
+import com.cao.ecommerce.gateway.config.AuthProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 内部接口拦截测试：经网关访问各服务的 /internal/** 一律404，任何认证配置下都生效
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class InternalPathFilterTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(AuthConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    private final InternalPathFilter filter = new InternalPathFilter();
+
+    @Test
+    void rejectsInternalEndpointsBehindRoutePrefix() {
+        String[] blocked = {
+                "/trade/internal/orders",
+                "/trade/internal/orders/1234567890123456789",
+                "/user/internal/authorizations/batch",
+                "/internal/orders",
+                // 编码、矩阵参数、大小写、空路径段和 "." 都不能绕过
+                "/trade/%69nternal/orders",
+                "/trade/internal;v=1/orders",
+                "/trade/INTERNAL/orders",
+                "/trade//internal/orders",
+                "/trade/./internal/orders",
+        };
+        for (String path : blocked) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(
+                    MockServerHttpRequest.method(HttpMethod.GET, URI.create(path)));
+            assertThat(forward(exchange)).as(path).isFalse();
+            assertThat(exchange.getResponse().getStatusCode()).as(path).isEqualTo(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Test
+    void forwardsRegularPaths() {
+        String[] allowed = {
+                "/trade/orders",
+                "/trade/orders/internal",
+                "/trade/internals/orders",
+                "/product/search/internal/x",
+                "/user/login",
+        };
+        for (String path : allowed) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(
+                    MockServerHttpRequest.method(HttpMethod.GET, URI.create(path)));
+            assertThat(forward(exchange)).as(path).isTrue();
+            assertThat(exchange.getResponse().getStatusCode()).as(path).isNull();
+        }
+    }
+
+    @Test
+    void runsBeforeIdentityHeadersAndAuthentication() {
+        assertThat(InternalPathFilter.ORDER).isLessThan(IdentityHeaderFilter.ORDER);
+        assertThat(InternalPathFilter.ORDER).isLessThan(AuthenticationFilter.ORDER);
+    }
+
+    @Test
+    void registeredWhetherAuthenticationIsEnabledOrNot() {
+        runner.withPropertyValues(AuthProperties.PREFIX + ".enabled=false")
+                .run(context -> assertThat(context).hasSingleBean(InternalPathFilter.class));
+        runner.withPropertyValues(AuthProperties.PREFIX + ".enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(InternalPathFilter.class));
+    }
+
+    private boolean forward(MockServerWebExchange exchange) {
+        AtomicBoolean forwarded = new AtomicBoolean();
+        GatewayFilterChain chain = e -> {
+            forwarded.set(true);
+            return Mono.empty();
+        };
+        filter.filter(exchange, chain).block();
+        return forwarded.get();
+    }
+}
@@ -0,0 +1,327 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.cao.ecommerce.gateway.config.AuthProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * JWT验证测试：签名、alg与kid、伪造和算法混淆、exp/nbf与时钟偏差、iss/aud、声明字符白名单、密钥轮换
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class JwtVerifierTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    private static final long NOW_MILLIS = NOW * 1000;
+
+    private static final long SKEW = 30;
+
+    private static final byte[] SECRET = TestJwts.secret('a');
+
+    private SigningKeyRing keyRing;
+
+    private JwtVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new SigningKeyRing();
+        keyRing.setStaticKeys(List.of(TestJwts.hmacKey("k1", SECRET)));
+        verifier = new JwtVerifier(keyRing, null, null, SKEW);
+    }
+
+    @Test
+    void validTokenReturnsIdentity() {
+        Map<String, Object> claims = TestJwts.claims("1001", NOW);
+        claims.put("jti", "t-1");
+        claims.put("roles", List.of("user", "admin"));
+
+        String token = TestJwts.hs256("k1", SECRET, claims);
+        VerifiedToken verified = verifier.verify(token, NOW_MILLIS);
+
+        assertThat(verified.getToken()).isEqualTo(token);
+        assertThat(verified.getUserId()).isEqualTo("1001");
+        assertThat(verified.getRoles()).isEqualTo("user,admin");
+        assertThat(verified.getJtiHash()).isEqualTo(TokenDenylist.hash("t-1"));
+        assertThat(verified.getIssuedAtSeconds()).isEqualTo(NOW);
+        // 缓存的有效期包含时钟偏差，与 exp 的判定一致
+        assertThat(verified.getExpiresAtMillis()).isEqualTo((NOW + 3600 + SKEW) * 1000);
+    }
+
+    @Test
+    void rolesMayBeDelimitedString() {
+        Map<String, Object> claims = TestJwts.claims("1001", NOW);
+        claims.put("roles", "user, admin  ops");
+        assertThat(verify(claims).getRoles()).isEqualTo("user,admin,ops");
+
+        claims.remove("roles");
+        claims.remove("iat");
+        VerifiedToken verified = verify(claims);
+        assertThat(verified.getRoles()).isEmpty();
+        assertThat(verified.getIssuedAtSeconds()).isZero();
+        assertThat(verified.getJtiHash()).isZero();
+    }
+
+    @Test
+    void rejectsTamperedPayloadAndForeignSignature() {
+        String token = TestJwts.hs256("k1", SECRET, TestJwts.claims("1001", NOW));
+        String signature = token.substring(token.lastIndexOf('.'));
+        String tampered = TestJwts.signingInput(TestJwts.header("HS256", "k1"), TestJwts.claims("1", NOW)) + signature;
+        assertRejected(tampered, "bad signature");
+
+        String forged = TestJwts.hs256("k1", TestJwts.secret('b'), TestJwts.claims("1001", NOW));
+        assertRejected(forged, "bad signature");
+
+        assertRejected(token.substring(0, token.lastIndexOf('.') + 1), "bad signature");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        String token = TestJwts.hs256("k1", SECRET, TestJwts.claims("1001", NOW));
+        assertRejected("abc", "malformed token");
+        assertRejected("a.b", "malformed token");
+        assertRejected(token + ".extra", "malformed token");
+        assertRejected("!!!." + token.substring(token.indexOf('.') + 1), "malformed token");
+        assertRejected(TestJwts.encode("not json") + token.substring(token.indexOf('.')), "malformed token");
+        assertRejected(TestJwts.encode("null") + token.substring(token.indexOf('.')), "malformed token");
+
+        String badSignature = token.substring(0, token.lastIndexOf('.') + 1) + "%%%";
+        assertRejected(badSignature, "malformed token");
+    }
+
+    @Test
+    void algorithmIsDictatedByKeyNotByHeader() {
+        // alg=none：不带签名
+        String none = TestJwts.signingInput(TestJwts.header("none", "k1"), TestJwts.claims("1001", NOW)) + '.';
+        assertRejected(none, "algorithm mismatch");
+
+        // 头部声称RS256，但 k1 是HMAC密钥
+        Map<String, Object> header = TestJwts.header("RS256", "k1");
+        assertRejected(TestJwts.hs256(header, SECRET, TestJwts.claims("1001", NOW)), "algorithm mismatch");
+    }
+
+    @Test
+    void rejectsHmacSignedWithRsaPublicKey() throws Exception {
+        KeyPair rsa = generate("RSA");
+        AuthProperties.SigningKey rsaKey = new AuthProperties.SigningKey();
+        rsaKey.setKid("rsa");
+        rsaKey.setAlgorithm("RS256");
+        rsaKey.setPublicKey(pem(rsa.getPublic().getEncoded()));
+        keyRing.setStaticKeys(List.of(TestJwts.hmacKey("k1", SECRET), rsaKey));
+
+        String valid = TestJwts.sign(TestJwts.header("RS256", "rsa"), "SHA256withRSA", rsa.getPrivate(),
+                TestJwts.claims("1001", NOW));
+        assertThat(verifier.verify(valid, NOW_MILLIS).getUserId()).isEqualTo("1001");
+
+        // 经典的算法混淆：公钥是公开的，攻击者把它当作HMAC密钥签名
+        String swapped = TestJwts.hs256(TestJwts.header("HS256", "rsa"), rsa.getPublic().getEncoded(),
+                TestJwts.claims("admin", NOW));
+        assertRejected(swapped, "algorithm mismatch");
+        String pemSwapped = TestJwts.hs256(TestJwts.header("HS256", "rsa"),
+                rsaKey.getPublicKey().getBytes(StandardCharsets.US_ASCII), TestJwts.claims("admin", NOW));
+        assertRejected(pemSwapped, "algorithm mismatch");
+    }
+
+    @Test
+    void verifiesEs256AndRejectsWrongLengthSignature() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair ec = generator.generateKeyPair();
+        AuthProperties.SigningKey ecKey = new AuthProperties.SigningKey();
+        ecKey.setKid("ec");
+        ecKey.setAlgorithm("ES256");
+        ecKey.setPublicKey(Base64.getEncoder().encodeToString(ec.getPublic().getEncoded()));
+        keyRing.setStaticKeys(List.of(ecKey));
+
+        String token = TestJwts.sign(TestJwts.header("ES256", "ec"), "SHA256withECDSAinP1363Format",
+                ec.getPrivate(), TestJwts.claims("1001", NOW));
+        assertThat(verifier.verify(token, NOW_MILLIS).getUserId()).isEqualTo("1001");
+
+        // DER格式的ECDSA签名长度不是64字节，按验签失败处理而不是抛出异常
+        String der = TestJwts.sign(TestJwts.header("ES256", "ec"), "SHA256withECDSA",
+                ec.getPrivate(), TestJwts.claims("1001", NOW));
+        assertRejected(der, "bad signature");
+    }
+
+    @Test
+    void unknownOrMissingKidIsFlaggedForRefresh() {
+        String unknown = TestJwts.hs256("k9", SECRET, TestJwts.claims("1001", NOW));
+        assertThatThrownBy(() -> verifier.verify(unknown, NOW_MILLIS))
+                .isInstanceOfSatisfying(InvalidTokenException.class, e -> {
+                    assertThat(e.getMessage()).isEqualTo("unknown key");
+                    assertThat(e.isUnknownKey()).isTrue();
+                });
+        String noKid = TestJwts.hs256(TestJwts.header("HS256", null), SECRET, TestJwts.claims("1001", NOW));
+        assertRejected(noKid, "unknown key");
+
+        String badSignature = TestJwts.hs256("k1", TestJwts.secret('b'), TestJwts.claims("1001", NOW));
+        assertThatThrownBy(() -> verifier.verify(badSignature, NOW_MILLIS))
+                .isInstanceOfSatisfying(InvalidTokenException.class, e -> assertThat(e.isUnknownKey()).isFalse());
+    }
+
+    @Test
+    void rejectsCriticalHeader() {
+        Map<String, Object> header = TestJwts.header("HS256", "k1");
+        header.put("crit", List.of("exp"));
+        assertRejected(TestJwts.hs256(header, SECRET, TestJwts.claims("1001", NOW)), "unsupported critical header");
+    }
+
+    @Test
+    void expiryHonoursClockSkew() {
+        Map<String, Object> claims = TestJwts.claims("1001", NOW - 7200);
+        claims.put("exp", NOW - SKEW + 1);
+        assertThat(verify(claims).getUserId()).isEqualTo("1001");
+
+        claims.put("exp", NOW - SKEW);
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "token expired");
+
+        claims.remove("exp");
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "token expired");
+
+        claims.put("exp", "tomorrow");
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "invalid claim exp");
+    }
+
+    @Test
+    void notBeforeHonoursClockSkew() {
+        Map<String, Object> claims = TestJwts.claims("1001", NOW);
+        claims.put("nbf", NOW + SKEW);
+        assertThat(verify(claims).getUserId()).isEqualTo("1001");
+
+        claims.put("nbf", NOW + SKEW + 1);
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "token not yet valid");
+
+        claims.put("nbf", "soon");
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "invalid claim nbf");
+    }
+
+    @Test
+    void checksIssuerAndAudienceWhenConfigured() {
+        verifier = new JwtVerifier(keyRing, "https://auth.example.com", "ecommerce", SKEW);
+        Map<String, Object> claims = TestJwts.claims("1001", NOW);
+        claims.put("iss", "https://auth.example.com");
+        claims.put("aud", "ecommerce");
+        assertThat(verify(claims).getUserId()).isEqualTo("1001");
+
+        claims.put("aud", List.of("admin-portal", "ecommerce"));
+        assertThat(verify(claims).getUserId()).isEqualTo("1001");
+
+        claims.put("aud", List.of("admin-portal"));
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "audience mismatch");
+        claims.remove("aud");
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "audience mismatch");
+
+        claims.put("aud", "ecommerce");
+        claims.put("iss", "https://evil.example.com");
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "issuer mismatch");
+        claims.remove("iss");
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "issuer mismatch");
+
+        // 未配置时不校验
+        verifier = new JwtVerifier(keyRing, "", "", SKEW);
+        claims.put("iss", "https://evil.example.com");
+        claims.put("aud", "other");
+        assertThat(verify(claims).getUserId()).isEqualTo("1001");
+    }
+
+    @Test
+    void subjectAndRolesMustMatchHeaderSafeCharacters() {
+        Map<String, Object> claims = TestJwts.claims("user_1-a.b:c@d", NOW);
+        claims.put("roles", List.of("ROLE_admin"));
+        assertThat(verify(claims).getUserId()).isEqualTo("user_1-a.b:c@d");
+
+        for (String subject : new String[]{"1001\r\nX-User-Roles: admin", "1001 2", "用户", "a,b", ""}) {
+            claims.put("sub", subject);
+            assertRejected(TestJwts.hs256("k1", SECRET, claims), "invalid subject");
+        }
+        claims.put("sub", "x".repeat(129));
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "invalid subject");
+        claims.put("sub", "x".repeat(128));
+        assertThat(verify(claims).getUserId()).hasSize(128);
+        claims.remove("sub");
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "invalid subject");
+
+        claims.put("sub", "1001");
+        claims.put("roles", List.of("user", "admin;drop"));
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "invalid role");
+        claims.put("roles", "user,admin\nX-Evil:1");
+        assertRejected(TestJwts.hs256("k1", SECRET, claims), "invalid role");
+    }
+
+    @Test
+    void keyRotationThroughJwks() {
+        byte[] next = TestJwts.secret('n');
+        String oldToken = TestJwts.hs256("k1", SECRET, TestJwts.claims("1001", NOW));
+        String newToken = TestJwts.hs256("k2", next, TestJwts.claims("1002", NOW));
+        assertRejected(newToken, "unknown key");
+
+        // 轮换期间新旧密钥同时发布，两代令牌都能验证
+        assertThat(keyRing.setRemoteKeys(jwks(TestJwts.octJwk("k2", next)))).isTrue();
+        assertThat(verifier.verify(oldToken, NOW_MILLIS).getUserId()).isEqualTo("1001");
+        assertThat(verifier.verify(newToken, NOW_MILLIS).getUserId()).isEqualTo("1002");
+        assertThat(keyRing.setRemoteKeys(jwks(TestJwts.octJwk("k2", next)))).isFalse();
+
+        // JWKS中的同名密钥覆盖静态配置
+        assertThat(keyRing.setRemoteKeys(jwks(TestJwts.octJwk("k1", next), TestJwts.octJwk("k2", next)))).isTrue();
+        assertRejected(oldToken, "bad signature");
+
+        // 静态密钥移除、JWKS不再发布 k1 后，旧令牌的 kid 找不到密钥
+        keyRing.setStaticKeys(List.of());
+        assertThat(keyRing.setRemoteKeys(jwks(TestJwts.octJwk("k2", next)))).isTrue();
+        assertRejected(oldToken, "unknown key");
+        assertThat(keyRing.size()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresInvalidKeys() {
+        AuthProperties.SigningKey shortSecret = TestJwts.hmacKey("short", new byte[16]);
+        AuthProperties.SigningKey unsupported = TestJwts.hmacKey("hs512", SECRET);
+        unsupported.setAlgorithm("HS512");
+        keyRing.setStaticKeys(List.of(shortSecret, unsupported, TestJwts.hmacKey("k1", SECRET)));
+        assertThat(keyRing.size()).isEqualTo(1);
+
+        String encryption = "{\"kty\":\"oct\",\"use\":\"enc\",\"kid\":\"enc\",\"k\":\""
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(SECRET) + "\"}";
+        keyRing.setRemoteKeys(jwks(encryption, "{\"kty\":\"oct\",\"kid\":\"weak\",\"k\":\"AAAA\"}"));
+        assertThat(keyRing.get("enc")).isNull();
+        assertThat(keyRing.get("weak")).isNull();
+        assertThat(keyRing.get("k1")).isNotNull();
+    }
+
+    private VerifiedToken verify(Map<String, Object> claims) {
+        return verifier.verify(TestJwts.hs256("k1", SECRET, claims), NOW_MILLIS);
+    }
+
+    private void assertRejected(String token, String reason) {
+        assertThatThrownBy(() -> verifier.verify(token, NOW_MILLIS))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage(reason);
+    }
+
+    private static byte[] jwks(String... keys) {
+        return ("{\"keys\":[" + String.join(",", keys) + "]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static KeyPair generate(String algorithm) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String pem(byte[] encoded) {
+        return "-----BEGIN PUBLIC KEY-----\n" + Base64.getMimeEncoder().encodeToString(encoded)
+                + "\n-----END PUBLIC KEY-----\n";
+    }
+}
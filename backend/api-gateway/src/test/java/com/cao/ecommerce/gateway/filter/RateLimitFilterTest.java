@@ -0,0 +1,130 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.cao.ecommerce.gateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 限流过滤器测试：配置刷新后按新规则限流，删除的路由注销指标，未解析的客户端地址按主机名限流
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class RateLimitFilterTest {
+
+    private static final GatewayFilterChain PASS = exchange -> Mono.empty();
+
+    private RateLimitProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.getRoutes().put("product-service", limit(1, 2));
+        properties.getRoutes().put("user-service", limit(1, 1));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.destroy();
+    }
+
+    @Test
+    void rejectsBeyondBurstWithRetryAfter() {
+        assertThat(send("product-service")).isNull();
+        assertThat(send("product-service")).isNull();
+
+        MockServerWebExchange rejected = exchange("product-service");
+        filter.filter(rejected, PASS).block();
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("1");
+        assertThat(meterRegistry.get("gateway.ratelimit.requests")
+                .tag("route", "product-service").tag("result", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshAppliesReboundPropertiesOnlyWhenChanged() {
+        assertThat(send("user-service")).isNull();
+        assertThat(send("user-service")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        // 属性对象原地重新绑定后才发布刷新完成事件
+        properties.getRoutes().get("user-service").setBurstCapacity(100);
+        filter.onApplicationEvent(new RefreshScopeRefreshedEvent());
+        assertThat(send("user-service")).isNull();
+
+        assertThat(filter.refreshRules()).isFalse();
+    }
+
+    @Test
+    void removedRouteIsNoLongerLimitedAndItsMetersAreRemoved() {
+        send("user-service");
+        assertThat(meterRegistry.find("gateway.ratelimit.buckets").tag("route", "user-service").gauge()).isNotNull();
+
+        properties.getRoutes().remove("user-service");
+        filter.onApplicationEvent(new RefreshScopeRefreshedEvent());
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(send("user-service")).isNull();
+        }
+        assertThat(meterRegistry.find("gateway.ratelimit.buckets").tag("route", "user-service").meters()).isEmpty();
+        assertThat(meterRegistry.find("gateway.ratelimit.requests").tag("route", "user-service").meters()).isEmpty();
+        assertThat(meterRegistry.find("gateway.ratelimit.buckets").tag("route", "product-service").gauge()).isNotNull();
+    }
+
+    @Test
+    void unresolvedRemoteAddressIsLimitedByHostString() {
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = exchange("user-service",
+                    InetSocketAddress.createUnresolved("client.example", 40000));
+            filter.filter(exchange, PASS).block();
+            assertThat(exchange.getResponse().getStatusCode())
+                    .isEqualTo(i == 0 ? null : HttpStatus.TOO_MANY_REQUESTS);
+        }
+        // 其他地址的令牌桶不受影响
+        assertThat(send("user-service")).isNull();
+    }
+
+    private HttpStatus send(String routeId) {
+        MockServerWebExchange exchange = exchange(routeId);
+        filter.filter(exchange, PASS).block();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+
+    private static MockServerWebExchange exchange(String routeId) {
+        return exchange(routeId, new InetSocketAddress("10.0.0.1", 40000));
+    }
+
+    private static MockServerWebExchange exchange(String routeId, InetSocketAddress remoteAddress) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/test")
+                .remoteAddress(remoteAddress));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id(routeId).uri("http://localhost")
+                .predicate(e -> true).build());
+        return exchange;
+    }
+
+    private static RateLimitProperties.RouteLimit limit(double replenishRate, int burstCapacity) {
+        RateLimitProperties.RouteLimit limit = new RateLimitProperties.RouteLimit();
+        limit.setReplenishRate(replenishRate);
+        limit.setBurstCapacity(burstCapacity);
+        return limit;
+    }
+}
@@ -0,0 +1,249 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.cao.ecommerce.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 响应缓存过滤器测试：未命中后命中、If-None-Match 返回304、遵循 no-store、单条大小上限、
+ * 上游 Vary 与路由 vary-headers 的一致性
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class ResponseCacheFilterTest {
+
+    private static final String ROUTE = "product-service";
+
+    private static final String BODY = "{\"id\":1,\"name\":\"商品1\"}";
+
+    private ResponseCacheProperties properties;
+
+    private ResponseCacheProperties.RouteCache rule;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ResponseCacheFilter filter;
+
+    private int downstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        properties.setMaxEntryBytes(256);
+        rule = new ResponseCacheProperties.RouteCache();
+        properties.getRoutes().put(ROUTE, rule);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCacheFilter(properties, meterRegistry);
+    }
+
+    @Test
+    void missThenHit() {
+        MockServerWebExchange miss = send(get("/api/products/1"), BODY, headers -> { });
+        assertThat(miss.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(miss.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+
+        MockServerWebExchange hit = send(get("/api/products/1"), "changed", headers -> { });
+        assertThat(downstreamCalls).isEqualTo(1);
+        assertThat(hit.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(hit.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(hit.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("0");
+        assertThat(hit.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+
+        // 其他路径、非GET请求、未配置缓存的路由都不命中
+        send(get("/api/products/2"), BODY, headers -> { });
+        send(MockServerHttpRequest.post("/api/products/1").build(), BODY, headers -> { });
+        send("user-service", get("/api/products/1"), BODY, headers -> { });
+        assertThat(downstreamCalls).isEqualTo(4);
+        assertThat(count("hit")).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void requestNoCacheBypassesLookupAndRefreshes() {
+        send(get("/api/products/1"), BODY, headers -> { });
+
+        MockServerHttpRequest revalidate = MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache").build();
+        MockServerWebExchange refreshed = send(revalidate, "v2", headers -> { });
+        assertThat(refreshed.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(send(get("/api/products/1"), "v3", headers -> { }).getResponse().getBodyAsString().block())
+                .isEqualTo("v2");
+        assertThat(downstreamCalls).isEqualTo(2);
+    }
+
+    @Test
+    void ifNoneMatchReturnsNotModified() {
+        MockServerWebExchange miss = send(get("/api/products/1"), BODY, headers -> { });
+        String etag = miss.getResponse().getHeaders().getETag();
+        // 上游没有ETag时按响应体生成弱ETag（首个响应在写入时还没有，命中后才带上）
+        assertThat(etag).isNull();
+        String generated = send(get("/api/products/1"), BODY, headers -> { }).getResponse().getHeaders().getETag();
+        assertThat(generated).startsWith("W/\"");
+
+        MockServerWebExchange notModified = send(MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, generated).build(), BODY, headers -> { });
+        assertThat(notModified.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getResponse().getHeaders().getETag()).isEqualTo(generated);
+        assertThat(notModified.getResponse().getBodyAsString().block()).isEmpty();
+        assertThat(count("not_modified")).isEqualTo(1);
+
+        MockServerWebExchange otherTag = send(MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"other\"").build(), BODY, headers -> { });
+        assertThat(otherTag.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(otherTag.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(downstreamCalls).isEqualTo(1);
+    }
+
+    @Test
+    void upstreamEtagIsKeptForConditionalRequests() {
+        send(get("/api/products/1"), BODY, headers -> headers.setETag("\"v1\""));
+
+        MockServerWebExchange notModified = send(MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"v1\"").build(), BODY, headers -> { });
+        assertThat(notModified.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void honoursUpstreamCacheControl() {
+        for (String directive : List.of("no-store", "private, max-age=60", "no-cache", "max-age=0")) {
+            send(get("/api/products/1"), BODY, headers -> headers.setCacheControl(directive));
+            MockServerWebExchange second = send(get("/api/products/1"), BODY, headers -> { });
+            assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).as(directive).isNotEqualTo("HIT");
+            filter = new ResponseCacheFilter(properties, new SimpleMeterRegistry());
+        }
+        assertThat(downstreamCalls).isEqualTo(8);
+
+        // Set-Cookie 与用户相关，不缓存；非200不缓存
+        send(get("/api/products/3"), BODY, headers -> headers.add(HttpHeaders.SET_COOKIE, "sid=1"));
+        send(get("/api/products/3"), BODY, headers -> { });
+        assertThat(downstreamCalls).isEqualTo(10);
+        send(get("/api/products/4"), HttpStatus.NOT_FOUND, BODY, headers -> { });
+        send(get("/api/products/4"), HttpStatus.NOT_FOUND, BODY, headers -> { });
+        assertThat(downstreamCalls).isEqualTo(12);
+    }
+
+    @Test
+    void responsesOverEntryLimitAreNotCached() {
+        String large = "x".repeat(properties.getMaxEntryBytes() + 1);
+
+        // 声明了长度的在写入前放弃，分块传输的在复制超过上限时放弃；响应体照常转发
+        MockServerWebExchange declared = send(get("/api/products/1"), large,
+                headers -> headers.setContentLength(large.length()));
+        assertThat(declared.getResponse().getHeaders().containsKey("X-Cache")).isFalse();
+        assertThat(declared.getResponse().getBodyAsString().block()).isEqualTo(large);
+        send(get("/api/products/1"), large, headers -> { });
+
+        MockServerWebExchange chunked = send(get("/api/products/2"), large, headers -> { });
+        assertThat(chunked.getResponse().getBodyAsString().block()).isEqualTo(large);
+        send(get("/api/products/2"), large, headers -> { });
+        assertThat(downstreamCalls).isEqualTo(4);
+
+        String fits = "x".repeat(properties.getMaxEntryBytes());
+        send(get("/api/products/3"), fits, headers -> { });
+        assertThat(send(get("/api/products/3"), fits, headers -> { }).getResponse().getBodyAsString().block())
+                .isEqualTo(fits);
+        assertThat(downstreamCalls).isEqualTo(5);
+    }
+
+    @Test
+    void varyOnHeaderOutsideKeyIsNotCached() {
+        send(english(), "hello", headers -> headers.setVary(List.of("Accept-Language")));
+        MockServerWebExchange chinese = send(MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "zh-CN").build(), "你好", headers -> { });
+        assertThat(chinese.getResponse().getBodyAsString().block()).isEqualTo("你好");
+        assertThat(downstreamCalls).isEqualTo(2);
+
+        send(get("/api/products/2"), BODY, headers -> headers.setVary(List.of("*")));
+        send(get("/api/products/2"), BODY, headers -> { });
+        assertThat(downstreamCalls).isEqualTo(4);
+    }
+
+    @Test
+    void varyOnKeyHeaderIsCachedPerVariant() {
+        rule.setVaryHeaders(List.of("accept-language"));
+        send(english(), "hello", headers -> headers.set(HttpHeaders.VARY, "Accept-Language"));
+        send(MockServerHttpRequest.get("/api/products/1").header(HttpHeaders.ACCEPT_LANGUAGE, "zh-CN").build(),
+                "你好", headers -> headers.set(HttpHeaders.VARY, "Accept-Language"));
+        assertThat(downstreamCalls).isEqualTo(2);
+
+        assertThat(send(english(), "changed", headers -> { }).getResponse().getBodyAsString().block())
+                .isEqualTo("hello");
+        assertThat(send(MockServerHttpRequest.get("/api/products/1").header(HttpHeaders.ACCEPT_LANGUAGE, "zh-CN")
+                .build(), "changed", headers -> { }).getResponse().getBodyAsString().block()).isEqualTo("你好");
+        assertThat(downstreamCalls).isEqualTo(2);
+
+        // 只要有一个请求头不在key中就不缓存
+        send(get("/api/products/2"), BODY, headers -> headers.setVary(List.of("Accept-Language", "Accept-Encoding")));
+        send(get("/api/products/2"), BODY, headers -> { });
+        assertThat(downstreamCalls).isEqualTo(4);
+    }
+
+    private static MockServerHttpRequest get(String path) {
+        return MockServerHttpRequest.get(path).build();
+    }
+
+    private static MockServerHttpRequest english() {
+        return MockServerHttpRequest.get("/api/products/1").header(HttpHeaders.ACCEPT_LANGUAGE, "en").build();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.cache.requests").tag("result", result).counter().count();
+    }
+
+    private MockServerWebExchange send(MockServerHttpRequest request, String body, Consumer<HttpHeaders> headers) {
+        return send(ROUTE, request, HttpStatus.OK, body, headers);
+    }
+
+    private MockServerWebExchange send(MockServerHttpRequest request, HttpStatus status, String body,
+                                       Consumer<HttpHeaders> headers) {
+        return send(ROUTE, request, status, body, headers);
+    }
+
+    private MockServerWebExchange send(String routeId, MockServerHttpRequest request, String body,
+                                       Consumer<HttpHeaders> headers) {
+        return send(routeId, request, HttpStatus.OK, body, headers);
+    }
+
+    /**
+     * 下游按给定的状态码、响应头和响应体（分两块）写回
+     */
+    private MockServerWebExchange send(String routeId, MockServerHttpRequest request, HttpStatus status,
+                                       String body, Consumer<HttpHeaders> headers) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id(routeId).uri("http://localhost")
+                .predicate(e -> true).build());
+        GatewayFilterChain downstream = e -> {
+            downstreamCalls++;
+            e.getResponse().setStatusCode(status);
+            headers.accept(e.getResponse().getHeaders());
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            int half = bytes.length / 2;
+            DataBuffer first = DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOf(bytes, half));
+            DataBuffer second = DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(bytes, half, bytes.length));
+            return e.getResponse().writeWith(Flux.just(first, second));
+        };
+        filter.filter(exchange, downstream).block();
+        return exchange;
+    }
+}
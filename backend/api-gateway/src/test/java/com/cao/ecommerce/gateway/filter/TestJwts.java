@@ -0,0 +1,117 @@
+package com.cao.ecommerce.gateway.filter;
+
+import com.alibaba.fastjson2.JSON;
+import com.cao.ecommerce.gateway.config.AuthProperties;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 测试用的JWT签发工具：按指定的头部和声明生成JWS紧凑格式令牌
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+final class TestJwts {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private TestJwts() {
+    }
+
+    /**
+     * 32字节的HS256密钥
+     */
+    static byte[] secret(char fill) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, (byte) fill);
+        return secret;
+    }
+
+    static AuthProperties.SigningKey hmacKey(String kid, byte[] secret) {
+        AuthProperties.SigningKey key = new AuthProperties.SigningKey();
+        key.setKid(kid);
+        key.setAlgorithm("HS256");
+        key.setSecret(Base64.getEncoder().encodeToString(secret));
+        return key;
+    }
+
+    /**
+     * JWKS中的对称密钥
+     */
+    static String octJwk(String kid, byte[] secret) {
+        return "{\"kty\":\"oct\",\"use\":\"sig\",\"alg\":\"HS256\",\"kid\":\"" + kid + "\",\"k\":\""
+                + ENCODER.encodeToString(secret) + "\"}";
+    }
+
+    static Map<String, Object> header(String alg, String kid) {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", alg);
+        if (kid != null) {
+            header.put("kid", kid);
+        }
+        header.put("typ", "JWT");
+        return header;
+    }
+
+    /**
+     * sub、exp（一小时后）、iat（现在）齐全的声明
+     */
+    static Map<String, Object> claims(String subject, long nowSeconds) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", subject);
+        claims.put("iat", nowSeconds);
+        claims.put("exp", nowSeconds + 3600);
+        return claims;
+    }
+
+    static String hs256(String kid, byte[] secret, Map<String, Object> claims) {
+        return hs256(header("HS256", kid), secret, claims);
+    }
+
+    static String hs256(Map<String, Object> header, byte[] secret, Map<String, Object> claims) {
+        String signingInput = signingInput(header, claims);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return signingInput + '.' + ENCODER.encodeToString(mac.doFinal(ascii(signingInput)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param jcaName 如 SHA256withRSA、SHA256withECDSAinP1363Format
+     */
+    static String sign(Map<String, Object> header, String jcaName, PrivateKey key, Map<String, Object> claims) {
+        String signingInput = signingInput(header, claims);
+        try {
+            Signature signature = Signature.getInstance(jcaName);
+            signature.initSign(key);
+            signature.update(ascii(signingInput));
+            return signingInput + '.' + ENCODER.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String signingInput(Map<String, Object> header, Map<String, Object> claims) {
+        return encode(JSON.toJSONString(header)) + '.' + encode(JSON.toJSONString(claims));
+    }
+
+    static String encode(String json) {
+        return ENCODER.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,88 @@
+#!/usr/bin/env python3
+# ===================================
+# 电商微服务项目 - JMH基准测试回归比对脚本
+# 版本: v1.0
+# 作用: 将本次JMH JSON结果与基线比对，超过阈值的退化返回非零退出码
+#
+# 用法:
+#   python3 compare-baseline.py <当前结果.json> [--baseline <基线.json>] [--threshold 10]
+#   python3 compare-baseline.py <当前结果.json> --update   # 用本次结果覆盖基线
+# ===================================
+
+import argparse
+import json
+import os
+import shutil
+import sys
+
+DEFAULT_BASELINE = os.path.join(os.path.dirname(os.path.abspath(__file__)), "..", "baseline", "baseline.json")
+
+# 吞吐量类模式数值越大越好，其余（平均耗时、采样、单次）数值越小越好
+HIGHER_IS_BETTER = {"thrpt"}
+
+
+def load(path):
+    with open(path, encoding="utf-8") as f:
+        results = {}
+        for item in json.load(f):
+            params = ",".join(f"{k}={v}" for k, v in sorted((item.get("params") or {}).items()))
+            key = (item["benchmark"], params, item["mode"], item.get("threads", 1))
+            metric = item["primaryMetric"]
+            results[key] = (metric["score"], metric.get("scoreError") or 0.0, metric["scoreUnit"])
+        return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description="JMH基准测试回归比对")
+    parser.add_argument("current", help="本次运行的JMH JSON结果（-rf json -rff 输出）")
+    parser.add_argument("--baseline", default=DEFAULT_BASELINE, help="基线JSON文件")
+    parser.add_argument("--threshold", type=float, default=10.0, help="判定为退化的百分比阈值，默认10")
+    parser.add_argument("--update", action="store_true", help="用本次结果覆盖基线")
+    args = parser.parse_args()
+
+    if args.update:
+        os.makedirs(os.path.dirname(os.path.abspath(args.baseline)), exist_ok=True)
+        shutil.copyfile(args.current, args.baseline)
+        print(f"[信息] 基线已更新: {args.baseline}")
+        return 0
+
+    if not os.path.exists(args.baseline):
+        print(f"[警告] 基线不存在: {args.baseline}，请先使用 --update 生成")
+        return 0
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+    regressions = 0
+
+    print(f"{'基准测试':<70} {'基线':>14} {'本次':>14} {'变化':>9}")
+    print("-" * 110)
+    for key, (score, error, unit) in sorted(current.items()):
+        name = key[0].split(".")[-2] + "." + key[0].split(".")[-1]
+        label = f"{name}[{key[1]}]" if key[1] else name
+        label = f"{label} ({key[2]}, {key[3]}t)"
+        if key not in baseline:
+            print(f"{label:<70} {'-':>14} {score:>14.3f} {'新增':>9}")
+            continue
+        base_score, base_error, _ = baseline[key]
+        change = (score - base_score) / base_score * 100 if base_score else 0.0
+        worse = -change if key[2] in HIGHER_IS_BETTER else change
+        # 两次结果的误差区间重叠时视为噪声
+        overlaps = abs(score - base_score) <= error + base_error
+        flag = ""
+        if worse > args.threshold and not overlaps:
+            flag = "  <-- 退化"
+            regressions += 1
+        print(f"{label:<70} {base_score:>14.3f} {score:>14.3f} {change:>+8.1f}%{flag}  {unit}")
+
+    for key in sorted(set(baseline) - set(current)):
+        print(f"[警告] 本次结果缺少基准测试: {key[0]} [{key[1]}]")
+
+    if regressions:
+        print(f"\n[错误] 发现 {regressions} 项性能退化（阈值 {args.threshold}%）")
+        return 1
+    print("\n[成功] 未发现性能退化")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
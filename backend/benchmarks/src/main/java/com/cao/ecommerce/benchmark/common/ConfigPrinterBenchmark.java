@@ -0,0 +1,83 @@
+package com.cao.ecommerce.benchmark.common;
+
+import com.cao.ecommerce.common.util.ConfigPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConfigPrinter 配置过滤基准测试
+ *
+ * 配置Map与各服务启动类 getConfigurationMap() 的键保持一致
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigPrinterBenchmark {
+
+    private Map<String, Object> configs;
+
+    @Setup
+    public void setUp() {
+        configs = new HashMap<>();
+        configs.put("server.port", "28083");
+        configs.put("spring.application.name", "trade-service");
+        configs.put("spring.cloud.nacos.discovery.server-addr", "localhost:18848");
+        configs.put("spring.cloud.nacos.discovery.namespace", "public");
+        configs.put("spring.cloud.nacos.discovery.group", "DEFAULT_GROUP");
+        configs.put("spring.cloud.nacos.discovery.username", "nacos");
+        configs.put("spring.cloud.nacos.discovery.password", "nacos");
+        configs.put("spring.cloud.nacos.discovery.enabled", "true");
+        configs.put("spring.cloud.nacos.discovery.register-enabled", "true");
+        configs.put("spring.datasource.driver-class-name", "com.mysql.cj.jdbc.Driver");
+        configs.put("spring.datasource.url", "jdbc:mysql://localhost:3306/ecommerce");
+        configs.put("spring.datasource.username", "root");
+        configs.put("spring.datasource.password", "root123456");
+        configs.put("spring.data.redis.host", "localhost");
+        configs.put("spring.data.redis.port", "6379");
+        configs.put("spring.data.redis.password", "");
+        configs.put("spring.data.redis.database", "2");
+        configs.put("mybatis-plus.configuration.map-underscore-to-camel-case", "true");
+        configs.put("mybatis-plus.configuration.log-impl", "org.apache.ibatis.logging.stdout.StdOutImpl");
+        configs.put("mybatis-plus.global-config.db-config.logic-delete-field", "deleted");
+        configs.put("mybatis-plus.global-config.db-config.logic-delete-value", "1");
+        configs.put("mybatis-plus.global-config.db-config.logic-not-delete-value", "0");
+        configs.put("logging.level.com.cao.ecommerce", "DEBUG");
+        configs.put("logging.level.com.cao.ecommerce.trade.mapper", "DEBUG");
+        configs.put("logging.pattern.console", "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n");
+        configs.put("management.endpoints.web.exposure.include", "health,info");
+        configs.put("management.endpoint.health.show-details", "always");
+    }
+
+    @Benchmark
+    public Map<String, Object> filterSinglePrefix() {
+        return ConfigPrinter.filterConfigs(configs, "spring.cloud.nacos");
+    }
+
+    @Benchmark
+    public Map<String, Object> filterMultiplePrefixes() {
+        return ConfigPrinter.filterConfigs(configs, "spring.datasource", "spring.data");
+    }
+
+    @Benchmark
+    public Map<String, Object> filterNoMatch() {
+        return ConfigPrinter.filterConfigs(configs, "spring.rocketmq");
+    }
+}
@@ -0,0 +1,71 @@
+package com.cao.ecommerce.benchmark.common;
+
+import com.cao.ecommerce.common.loadbalance.PeakEwmaBalancer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * P2C负载均衡选择开销基准测试
+ *
+ * 每次操作包含一次选择和一次完成回调，衡量单次请求在负载均衡上的额外开销
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PeakEwmaBalancerBenchmark {
+
+    @Param({"3", "32"})
+    public int instanceCount;
+
+    private List<String> instances;
+
+    private PeakEwmaBalancer<String> balancer;
+
+    @Setup
+    public void setUp() {
+        instances = new ArrayList<>(instanceCount);
+        for (int i = 0; i < instanceCount; i++) {
+            instances.add("10.0.0." + i + ":28082");
+        }
+        balancer = new PeakEwmaBalancer<>(instance -> instance, instance -> 1.0, 10000, 30000, 0.1, 1000);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String chooseSingleThread() {
+        return chooseAndComplete();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String chooseContended() {
+        return chooseAndComplete();
+    }
+
+    private String chooseAndComplete() {
+        String chosen = balancer.choose(instances);
+        balancer.onStart(chosen);
+        balancer.onComplete(chosen, 5_000_000L, true);
+        return chosen;
+    }
+}
@@ -0,0 +1,196 @@
+package com.cao.ecommerce.benchmark.common;
+
+import com.cao.ecommerce.common.datasource.ReadConsistency;
+import com.cao.ecommerce.common.datasource.ReadWriteRoutingDataSource;
+import com.cao.ecommerce.common.datasource.ReplicaLagMonitor;
+import com.cao.ecommerce.common.datasource.ReplicaNode;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读写分离数据源基准测试：主库和从库各是一个独立的H2内存库（MySQL兼容模式）
+ *
+ * 对照组：
+ * 1. direct：只读事务直接使用主库连接池（未启用读写分离）
+ * 2. routed：只读事务经 {@link ReadWriteRoutingDataSource} 路由到从库（延迟连接 + 加权选择 + 从库上省去事务语句）
+ *
+ * 准备阶段另做一次演练：从库心跳直接写入各从库模拟复制进度，依次验证延迟超限摘除、
+ * 写入后读己之写回退主库、从库追上后重新读从库，输出每一步的路由结果
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadWriteRoutingBenchmark {
+
+    private static final String INSTANCE_ID = "bench";
+
+    private static final int ROWS = 10000;
+
+    @Param({"direct", "routed"})
+    public String mode;
+
+    @Param({"2"})
+    public int replicaCount;
+
+    private final List<JdbcConnectionPool> pools = new ArrayList<>();
+
+    private ReadWriteRoutingDataSource routing;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setUp() {
+        JdbcConnectionPool primary = createDatabase("primary");
+        List<ReplicaNode> replicas = new ArrayList<>(replicaCount);
+        for (int i = 0; i < replicaCount; i++) {
+            replicas.add(new ReplicaNode("replica-" + i, createDatabase("replica-" + i), 1));
+        }
+        routing = new ReadWriteRoutingDataSource(primary, replicas);
+        rehearse();
+
+        // 从库始终追上，测量的是路由本身的开销
+        for (ReplicaNode replica : replicas) {
+            setHeartbeat(replica.getDataSource(), Long.MAX_VALUE / 2);
+        }
+        new ReplicaLagMonitor(routing, INSTANCE_ID, 500, 1000).probeOnce();
+
+        DataSource dataSource = "routed".equals(mode) ? routing : primary;
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (JdbcConnectionPool pool : pools) {
+            new JdbcTemplate(pool).execute("SHUTDOWN");
+            pool.dispose();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object readOnlyQuery() {
+        return query();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object readOnlyQueryContended() {
+        return query();
+    }
+
+    private Object query() {
+        long id = ThreadLocalRandom.current().nextLong(1, ROWS + 1);
+        return readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForObject("SELECT name FROM item WHERE id = ?", String.class, id));
+    }
+
+    /**
+     * 演练：延迟摘除 → 读己之写回退主库 → 追上后读从库
+     */
+    private void rehearse() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, INSTANCE_ID, 500, 1000);
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        JdbcTemplate template = new JdbcTemplate(routing);
+        List<ReplicaNode> replicas = routing.getReplicas();
+
+        long now = System.currentTimeMillis();
+        setHeartbeat(replicas.get(0).getDataSource(), now);
+        for (int i = 1; i < replicas.size(); i++) {
+            setHeartbeat(replicas.get(i).getDataSource(), now - 5000);
+        }
+        monitor.probeOnce();
+        System.out.printf("%n从库延迟：%s%n", describe(replicas));
+
+        long[] token = new long[1];
+        ReadConsistency.begin(0, written -> token[0] = written);
+        try {
+            readWrite.executeWithoutResult(status ->
+                    template.update("UPDATE item SET name = 'updated' WHERE id = 1"));
+            String before = readOnly.execute(status -> routedName(template));
+            long fallback = routing.getFallbackCount();
+            System.out.printf("写入后读（令牌 %d，从库尚未追上）：%s，回退主库 %d 次%n", token[0], before, fallback);
+
+            for (ReplicaNode replica : replicas) {
+                setHeartbeat(replica.getDataSource(), System.currentTimeMillis());
+            }
+            monitor.probeOnce();
+            String after = readOnly.execute(status -> routedName(template));
+            System.out.printf("从库追上后读：%s，从库状态：%s%n", after, describe(replicas));
+        } finally {
+            ReadConsistency.end();
+        }
+    }
+
+    /**
+     * 各库的 item.name 不同（primary / replica-i），读到的值即路由到的库
+     */
+    private static String routedName(JdbcTemplate template) {
+        return template.queryForObject("SELECT db FROM item WHERE id = 1", String.class);
+    }
+
+    private static String describe(List<ReplicaNode> replicas) {
+        StringBuilder builder = new StringBuilder();
+        for (ReplicaNode replica : replicas) {
+            builder.append(replica.getName()).append("(lag=").append(replica.getLagMillis()).append("ms, ")
+                    .append(replica.isAvailable() ? "可用" : "已摘除").append(", 摘除")
+                    .append(replica.getEvictedCount()).append("次) ");
+        }
+        return builder.toString().trim();
+    }
+
+    private JdbcConnectionPool createDatabase(String name) {
+        JdbcConnectionPool pool = JdbcConnectionPool.create("jdbc:h2:mem:rw-" + name
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        pools.add(pool);
+        JdbcTemplate template = new JdbcTemplate(pool);
+        template.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(50), db VARCHAR(20))");
+        template.execute("CREATE TABLE replication_heartbeat (id VARCHAR(64) PRIMARY KEY, ts BIGINT NOT NULL)");
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            rows.add(new Object[]{i, "item-" + i, name});
+        }
+        template.batchUpdate("INSERT INTO item (id, name, db) VALUES (?, ?, ?)", rows);
+        return pool;
+    }
+
+    /**
+     * 模拟复制进度：直接改写从库上的心跳
+     */
+    private static void setHeartbeat(DataSource replica, long ts) {
+        new JdbcTemplate(replica).update("MERGE INTO replication_heartbeat (id, ts) KEY (id) VALUES (?, ?)",
+                INSTANCE_ID, ts);
+    }
+}
@@ -0,0 +1,54 @@
+package com.cao.ecommerce.benchmark.common;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 雪花ID生成器吞吐量基准测试
+ *
+ * 单线程衡量CAS路径本身的开销，32线程衡量高竞争下的吞吐量
+ * （单节点上限为每毫秒4096个，超出后借用下一毫秒，逻辑时间戳最多领先系统时钟
+ * {@link SnowflakeIdGenerator#DEFAULT_MAX_DRIFT_MILLIS}，之后等待时钟追上，持续压测时吞吐量收敛到该上限）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+
+    @Benchmark
+    @Threads(1)
+    public long nextIdSingleThread() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String nextOrderNo() {
+        return generator.nextOrderNo();
+    }
+}
@@ -0,0 +1,231 @@
+package com.cao.ecommerce.benchmark.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * 服务启动时间基准测试：从启动JVM到第一个请求（/actuator/health）返回200的时间
+ *
+ * 每次调用启动一个独立的服务进程，需要先在 backend 目录执行 mvn clean package（或 -Pfast-startup），
+ * 通过 -Dbenchmark.backend.dir 指定 backend 目录（默认为当前目录的上级目录）。三种启动方式：
+ * 1. jar：java -jar 可执行jar，与原Dockerfile相同
+ * 2. cds：与Dockerfile相同的CDS方式，平铺类路径 + 构建时训练运行生成的CDS归档，jar中包含AOT产物时启用AOT
+ * 3. fast：在 cds 基础上开启延迟初始化（spring.main.lazy-initialization=true）
+ *
+ * 服务进程关闭Nacos注册，不依赖外部服务
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final String JVM_OPTIONS = "-Xms256m -Xmx512m -XX:+UseG1GC";
+
+    @Param({"api-gateway", "user-service", "product-service", "trade-service"})
+    public String service;
+
+    @Param({"jar", "cds", "fast"})
+    public String mode;
+
+    private Path workDir;
+
+    private List<String> launchArguments;
+
+    private HttpClient httpClient;
+
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        Path backendDir = Path.of(System.getProperty("benchmark.backend.dir", "..")).toAbsolutePath().normalize();
+        Path jar = findExecutableJar(backendDir.resolve(service).resolve("target"));
+        workDir = Files.createTempDirectory("startup-" + service);
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        launchArguments = new ArrayList<>();
+        if ("jar".equals(mode)) {
+            launchArguments.add("-jar");
+            launchArguments.add(jar.toString());
+            return;
+        }
+        List<String> classpathArguments = explode(jar);
+        List<String> training = new ArrayList<>(javaCommand());
+        training.add("-XX:ArchiveClassesAtExit=" + workDir.resolve("app.jsa"));
+        training.add("-Dspring.context.exit=onRefresh");
+        training.addAll(classpathArguments);
+        int exitCode = new ProcessBuilder(training).redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("training.log").toFile()).start().waitFor();
+        System.out.printf("%n%s CDS训练运行结束，退出码 %d，归档 %s%n", service, exitCode,
+                Files.exists(workDir.resolve("app.jsa")) ? "已生成" : "未生成");
+        launchArguments.add("-XX:SharedArchiveFile=" + workDir.resolve("app.jsa"));
+        if ("fast".equals(mode)) {
+            launchArguments.add("-Dspring.main.lazy-initialization=true");
+        }
+        launchArguments.addAll(classpathArguments);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopService() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(javaCommand());
+        command.addAll(launchArguments);
+        command.add("--server.port=" + port);
+        command.add("--spring.cloud.nacos.discovery.enabled=false");
+        command.add("--spring.cloud.nacos.discovery.register-enabled=false");
+        command.add("--spring.cloud.nacos.discovery.fail-fast=false");
+        process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("service.log").toFile()).start();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(service + " exited with " + process.exitValue()
+                        + ", see " + workDir.resolve("service.log"));
+            }
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (ConnectException e) {
+                // 端口尚未监听
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException(service + " did not answer within " + STARTUP_TIMEOUT);
+    }
+
+    /**
+     * 与Dockerfile相同：应用类打成 application.jar，依赖平铺，返回类路径和启动类参数；
+     * jar中包含AOT产物时加上 -Dspring.aot.enabled=true
+     */
+    private List<String> explode(Path jar) throws IOException {
+        Path libDir = Files.createDirectories(workDir.resolve("lib"));
+        Path applicationJar = workDir.resolve("application.jar");
+        StringBuilder classpath = new StringBuilder(applicationJar.toString());
+        boolean aot = false;
+        String startClass;
+        try (JarFile source = new JarFile(jar.toFile());
+             JarOutputStream application = new JarOutputStream(Files.newOutputStream(applicationJar))) {
+            startClass = source.getManifest().getMainAttributes().getValue("Start-Class");
+            Enumeration<JarEntry> entries = source.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (name.startsWith("BOOT-INF/lib/")) {
+                    Path target = libDir.resolve(name.substring("BOOT-INF/lib/".length()));
+                    try (InputStream in = source.getInputStream(entry)) {
+                        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    classpath.append(File.pathSeparatorChar).append(target);
+                } else if (name.startsWith("BOOT-INF/classes/")) {
+                    aot |= name.endsWith("__ApplicationContextInitializer.class");
+                    application.putNextEntry(new JarEntry(name.substring("BOOT-INF/classes/".length())));
+                    try (InputStream in = source.getInputStream(entry)) {
+                        in.transferTo(application);
+                    }
+                    application.closeEntry();
+                }
+            }
+        }
+        List<String> arguments = new ArrayList<>();
+        arguments.add("-Dspring.aot.enabled=" + aot);
+        arguments.add("-cp");
+        arguments.add(classpath.toString());
+        arguments.add(startClass);
+        return arguments;
+    }
+
+    private static Path findExecutableJar(Path targetDir) {
+        try (Stream<Path> files = Files.list(targetDir)) {
+            List<Path> jars = files.filter(path -> path.toString().endsWith(".jar"))
+                    .filter(path -> !path.toString().endsWith("-sources.jar"))
+                    .sorted(Comparator.comparing((Path path) -> !path.toString().endsWith("-exec.jar")))
+                    .toList();
+            if (jars.isEmpty()) {
+                throw new IllegalStateException("no jar in " + targetDir + ", run mvn package first");
+            }
+            return jars.get(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot list " + targetDir + ", run mvn package first", e);
+        }
+    }
+
+    private static List<String> javaCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(JVM_OPTIONS.split(" ")));
+        return command;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.cao.ecommerce.benchmark.common;
+
+import com.cao.ecommerce.common.concurrent.Bulkhead;
+import com.cao.ecommerce.common.concurrent.VirtualThreadPinningMonitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 平台线程 vs 虚拟线程的请求处理基准测试
+ *
+ * 模拟servlet服务的典型请求：一次约20毫秒的远程调用，再在数据源舱壁（50并发）内执行一次约2毫秒的数据库调用。
+ * JMH的400个线程作为客户端，把请求提交给"容器"执行器并等待结果：
+ * 1. platform：200线程的固定线程池，与Tomcat默认的 server.tomcat.threads.max 相同
+ * 2. virtual：每个请求一个虚拟线程，与 spring.threads.virtual.enabled=true 相同
+ *
+ * driverLock 模拟JDBC驱动内部的锁：reentrant 为 ReentrantLock；synchronized 在持锁期间阻塞，
+ * JDK 21 下会钉住虚拟线程的载体线程，可以观察到 virtual 模式吞吐下降，准备阶段同时开启钉住监控并在结束时输出统计。
+ * Throughput 结果对比吞吐，SampleTime 结果中的 p0.99 对比尾延迟
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(400)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    private static final int DB_MAX_CONCURRENT = 50;
+
+    /** 驱动锁的分段数，每个连接一把锁 */
+    private static final int LOCK_STRIPES = DB_MAX_CONCURRENT;
+
+    private static final long REMOTE_CALL_MICROS = 20_000;
+
+    private static final long DB_CALL_MICROS = 2_000;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"reentrant", "synchronized"})
+    public String driverLock;
+
+    private ExecutorService container;
+
+    private Bulkhead dbBulkhead;
+
+    private Object[] monitors;
+
+    private ReentrantLock[] locks;
+
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Setup
+    public void setUp() {
+        container = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+        dbBulkhead = new Bulkhead("db", DB_MAX_CONCURRENT, TimeUnit.SECONDS.toMillis(5));
+        monitors = new Object[LOCK_STRIPES];
+        locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            monitors[i] = new Object();
+            locks[i] = new ReentrantLock();
+        }
+        pinningMonitor = new VirtualThreadPinningMonitor(Duration.ofMillis(1), "com.cao.ecommerce", Long.MAX_VALUE,
+                (frame, duration) -> { });
+        pinningMonitor.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        container.shutdown();
+        container.awaitTermination(10, TimeUnit.SECONDS);
+        pinningMonitor.stop();
+        System.out.printf("%n舱壁拒绝 %d 次，钉住 %d 次，累计 %d 毫秒，位置 %s%n",
+                dbBulkhead.getRejectedCount(), pinningMonitor.getPinnedCount(),
+                TimeUnit.NANOSECONDS.toMillis(pinningMonitor.getPinnedNanos()), pinningMonitor.getTopFrames(3));
+    }
+
+    @Benchmark
+    public Integer handleRequest() throws Exception {
+        return container.submit(this::process).get();
+    }
+
+    private Integer process() throws Exception {
+        sleepMicros(REMOTE_CALL_MICROS);
+        return dbBulkhead.call(this::queryDatabase);
+    }
+
+    private Integer queryDatabase() throws InterruptedException {
+        int stripe = ThreadLocalRandom.current().nextInt(LOCK_STRIPES);
+        if ("synchronized".equals(driverLock)) {
+            synchronized (monitors[stripe]) {
+                sleepMicros(DB_CALL_MICROS);
+            }
+        } else {
+            ReentrantLock lock = locks[stripe];
+            lock.lock();
+            try {
+                sleepMicros(DB_CALL_MICROS);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return stripe;
+    }
+
+    private static void sleepMicros(long micros) throws InterruptedException {
+        TimeUnit.MICROSECONDS.sleep(micros);
+    }
+}
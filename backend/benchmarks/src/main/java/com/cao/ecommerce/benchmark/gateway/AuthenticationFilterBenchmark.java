@@ -0,0 +1,165 @@
+package com.cao.ecommerce.benchmark.gateway;
+
+import com.cao.ecommerce.gateway.config.AuthProperties;
+import com.cao.ecommerce.gateway.filter.AuthenticationFilter;
+import com.cao.ecommerce.gateway.filter.TokenDenylist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 网关认证过滤器基准测试：每个请求的认证开销
+ *
+ * 过滤器链尾不转发请求，只消费转发给下游的 X-User-Id。对照组：
+ * 1. anonymous：不携带令牌，只有读取请求头和剥离身份头的开销
+ * 2. cacheSize=0：每个请求都完整验证（Base64解码、JSON解析、验签）
+ * 3. cacheSize=16384：活跃令牌数（activeTokens）小于缓存槽数时，绝大多数请求命中缓存
+ * 构造请求的成本见 {@link GatewayFilterChainBenchmark#createExchange}，过滤器净开销为两者之差。
+ * 每次请求调用用户服务校验会话的方案至少增加一次内部RPC（局域网内通常为毫秒级），作为数量级参照
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    @Param({"0", "16384"})
+    public int cacheSize;
+
+    @Param({"1000"})
+    public int activeTokens;
+
+    private AuthenticationFilter filter;
+
+    private Route route;
+
+    private String[] tokens;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        AuthProperties properties = new AuthProperties();
+        properties.setEnabled(true);
+        properties.setCacheSize(cacheSize);
+        AuthProperties.SigningKey key = new AuthProperties.SigningKey();
+        key.setKid("k1");
+        key.setAlgorithm(algorithm);
+        properties.getKeys().add(key);
+        AuthProperties.RouteAuth routeAuth = new AuthProperties.RouteAuth();
+        properties.getRoutes().put("trade-service", routeAuth);
+
+        Signer signer;
+        if ("HS256".equals(algorithm)) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            key.setSecret(Base64.getEncoder().encodeToString(secret));
+            signer = input -> {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+                return mac.doFinal(input);
+            };
+        } else {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            key.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+            signer = input -> {
+                Signature signature = Signature.getInstance("SHA256withRSA");
+                signature.initSign(keyPair.getPrivate());
+                signature.update(input);
+                return signature.sign();
+            };
+        }
+
+        long now = System.currentTimeMillis() / 1000;
+        tokens = new String[activeTokens];
+        for (int i = 0; i < activeTokens; i++) {
+            String header = encode("{\"alg\":\"" + algorithm + "\",\"kid\":\"k1\",\"typ\":\"JWT\"}");
+            String payload = encode("{\"sub\":\"" + (100000 + i) + "\",\"iat\":" + now + ",\"exp\":" + (now + 3600)
+                    + ",\"jti\":\"jti-" + i + "\",\"roles\":[\"USER\"]}");
+            String signingInput = header + '.' + payload;
+            tokens[i] = signingInput + '.' + ENCODER.encodeToString(signer.sign(signingInput.getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        filter = new AuthenticationFilter(properties, new TokenDenylist(), new SimpleMeterRegistry());
+        route = Route.async().id("trade-service").uri("lb://trade-service").predicate(exchange -> true).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        filter.destroy();
+    }
+
+    @Benchmark
+    public void anonymous(Blackhole blackhole) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/product/detail/1001").build());
+        filter.filter(exchange, forwarded -> consume(forwarded, blackhole)).block();
+    }
+
+    @Benchmark
+    public void authenticated(Blackhole blackhole) {
+        String token = tokens[ThreadLocalRandom.current().nextInt(tokens.length)];
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/trade/order/list")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token).build());
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+        filter.filter(exchange, forwarded -> consume(forwarded, blackhole)).block();
+    }
+
+    private static Mono<Void> consume(ServerWebExchange exchange, Blackhole blackhole) {
+        blackhole.consume(exchange.getRequest().getHeaders().getFirst(AuthenticationFilter.USER_ID_HEADER));
+        return Mono.empty();
+    }
+
+    private static String encode(String json) {
+        return ENCODER.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 生成测试令牌的签名函数
+     */
+    @FunctionalInterface
+    private interface Signer {
+
+        byte[] sign(byte[] input) throws GeneralSecurityException;
+    }
+}
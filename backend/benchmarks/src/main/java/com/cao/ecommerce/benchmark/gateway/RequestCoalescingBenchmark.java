@@ -0,0 +1,116 @@
+package com.cao.ecommerce.benchmark.gateway;
+
+import com.cao.ecommerce.gateway.config.RequestCoalescingProperties;
+import com.cao.ecommerce.gateway.filter.RequestCoalescingFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 请求合并压测
+ *
+ * 每次操作同时发起 concurrency 个相同的GET请求，模拟下游耗时 upstreamLatencyMs。
+ * 辅助计数器 upstreamCalls / requests 即为每个请求平均触发的下游调用次数：
+ * 关闭合并时为1，开启合并后接近 1 / concurrency
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestCoalescingBenchmark {
+
+    @Param({"true", "false"})
+    public boolean coalescing;
+
+    @Param({"64", "512"})
+    public int concurrency;
+
+    @Param({"2"})
+    public long upstreamLatencyMs;
+
+    private final AtomicLong upstreamCalls = new AtomicLong();
+
+    private final byte[] body = new byte[4096];
+
+    private RequestCoalescingFilter filter;
+
+    private Route route;
+
+    private GatewayFilterChain upstream;
+
+    @Setup
+    public void setUp() {
+        RequestCoalescingProperties properties = new RequestCoalescingProperties();
+        properties.getRoutes().put("product-service", new RequestCoalescingProperties.RouteCoalescing());
+        filter = new RequestCoalescingFilter(properties, new SimpleMeterRegistry());
+        route = Route.async()
+                .id("product-service")
+                .uri("lb://product-service")
+                .predicate(exchange -> true)
+                .build();
+        upstream = exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            return Mono.delay(Duration.ofMillis(upstreamLatencyMs)).then(Mono.defer(() -> {
+                response.setStatusCode(HttpStatus.OK);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+            }));
+        };
+    }
+
+    @Benchmark
+    public void burst(UpstreamCounters counters) {
+        long before = upstreamCalls.get();
+        Flux.range(0, concurrency)
+                .flatMap(i -> {
+                    MockServerWebExchange exchange = MockServerWebExchange.from(
+                            MockServerHttpRequest.get("/product/detail/1001").build());
+                    exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+                    return coalescing ? filter.filter(exchange, upstream) : upstream.filter(exchange);
+                }, concurrency)
+                .blockLast();
+        counters.upstreamCalls += upstreamCalls.get() - before;
+        counters.requests += concurrency;
+    }
+
+    /**
+     * 下游调用次数与请求次数
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class UpstreamCounters {
+
+        public long upstreamCalls;
+
+        public long requests;
+    }
+}
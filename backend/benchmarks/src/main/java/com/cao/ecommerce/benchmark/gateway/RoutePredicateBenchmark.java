@@ -0,0 +1,69 @@
+package com.cao.ecommerce.benchmark.gateway;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 网关路由谓词匹配基准测试
+ *
+ * 路由表与 api-gateway 的 application.yml 保持一致，按声明顺序逐个匹配，
+ * 模拟 RoutePredicateHandlerMapping 的查找过程
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutePredicateBenchmark {
+
+    /** 首个路由命中、末个路由命中、全部未命中 */
+    @Param({"/user/info/1", "/trade/order/1001", "/unknown/path"})
+    public String path;
+
+    private final List<Predicate<ServerWebExchange>> routes = new ArrayList<>();
+
+    private ServerWebExchange exchange;
+
+    @Setup
+    public void setUp() {
+        PathRoutePredicateFactory factory = new PathRoutePredicateFactory();
+        for (String pattern : List.of("/user/**", "/product/**", "/trade/**")) {
+            PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config();
+            config.setPatterns(List.of(pattern));
+            routes.add(factory.apply(config));
+        }
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+    }
+
+    @Benchmark
+    public int matchRoute() {
+        for (int i = 0; i < routes.size(); i++) {
+            if (routes.get(i).test(exchange)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
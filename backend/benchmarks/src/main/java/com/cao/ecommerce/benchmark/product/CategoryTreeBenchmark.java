@@ -0,0 +1,156 @@
+package com.cao.ecommerce.benchmark.product;
+
+import com.alibaba.fastjson2.JSON;
+import com.cao.ecommerce.product.domain.model.Category;
+import com.cao.ecommerce.product.domain.service.CategoryTreeSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品分类树基准测试：不可变快照 vs 按 parent_id 逐层查询
+ *
+ * 逐层查询基准在内存中模拟递归SQL（WITH RECURSIVE 或应用层逐层 WHERE parent_id IN (...)）的执行方式：
+ * 每一层按 idx_parent_id 查找子节点；菜单基准模拟每次请求组装树并序列化。
+ * 不包含网络和数据库开销，是SQL方案的下限
+ *
+ * 数据规模：20个一级分类 × 20个二级分类 × 25个三级分类，共10420个分类
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryTreeBenchmark {
+
+    private CategoryTreeSnapshot snapshot;
+
+    /** 模拟 idx_parent_id 索引 */
+    private Map<Long, List<Category>> childrenByParent;
+
+    /** 模拟主键索引 */
+    private Map<Long, Category> byId;
+
+    private long rootId;
+
+    private long leafId;
+
+    @Setup
+    public void setUp() {
+        List<Category> categories = new ArrayList<>();
+        long nextId = 1;
+        for (int i = 0; i < 20; i++) {
+            Category root = category(nextId++, Category.ROOT_PARENT_ID, 1, i);
+            categories.add(root);
+            for (int j = 0; j < 20; j++) {
+                Category second = category(nextId++, root.getId(), 2, j);
+                categories.add(second);
+                for (int k = 0; k < 25; k++) {
+                    categories.add(category(nextId++, second.getId(), 3, k));
+                }
+            }
+        }
+        snapshot = CategoryTreeSnapshot.build(categories, "benchmark");
+        childrenByParent = new HashMap<>();
+        byId = new HashMap<>();
+        for (Category category : categories) {
+            childrenByParent.computeIfAbsent(category.getParentId(), key -> new ArrayList<>()).add(category);
+            byId.put(category.getId(), category);
+        }
+        rootId = categories.get(0).getId();
+        leafId = categories.get(categories.size() - 1).getId();
+    }
+
+    @Benchmark
+    public long[] snapshotSubtreeIds() {
+        return snapshot.subtreeIds(rootId);
+    }
+
+    @Benchmark
+    public List<Long> recursiveSubtreeIds() {
+        List<Long> result = new ArrayList<>();
+        Deque<Long> level = new ArrayDeque<>();
+        level.add(rootId);
+        while (!level.isEmpty()) {
+            long id = level.poll();
+            result.add(id);
+            for (Category child : childrenByParent.getOrDefault(id, List.of())) {
+                level.add(child.getId());
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public boolean snapshotIsInSubtree() {
+        return snapshot.isInSubtree(rootId, leafId);
+    }
+
+    @Benchmark
+    public boolean recursiveIsInSubtree() {
+        // 沿 parent_id 向上查找，每层一次主键查询
+        long current = leafId;
+        while (current != Category.ROOT_PARENT_ID) {
+            if (current == rootId) {
+                return true;
+            }
+            current = byId.get(current).getParentId();
+        }
+        return false;
+    }
+
+    @Benchmark
+    public byte[] snapshotMenu() {
+        return snapshot.getMenuJson();
+    }
+
+    @Benchmark
+    public byte[] recursiveMenu() {
+        return JSON.toJSONBytes(menuOf(Category.ROOT_PARENT_ID));
+    }
+
+    private List<Map<String, Object>> menuOf(long parentId) {
+        List<Category> children = new ArrayList<>(childrenByParent.getOrDefault(parentId, List.of()));
+        children.sort(Comparator.comparingInt(Category::getSort).thenComparingLong(Category::getId));
+        List<Map<String, Object>> nodes = new ArrayList<>(children.size());
+        for (Category child : children) {
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("id", child.getId());
+            node.put("name", child.getName());
+            node.put("children", menuOf(child.getId()));
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private static Category category(long id, long parentId, int level, int sort) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName("分类" + id);
+        category.setParentId(parentId);
+        category.setLevel(level);
+        category.setSort(sort);
+        return category;
+    }
+}
@@ -0,0 +1,163 @@
+package com.cao.ecommerce.benchmark.product;
+
+import com.cao.ecommerce.product.domain.model.Product;
+import com.cao.ecommerce.product.domain.service.ProductSearchIndex;
+import com.cao.ecommerce.product.domain.service.ProductSearchQuery;
+import com.cao.ecommerce.product.domain.service.ProductSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品搜索基准测试：内存倒排索引 vs LIKE '%kw%' 全表扫描
+ *
+ * 全表扫描基准在内存中模拟 SELECT ... WHERE (name LIKE ? OR title LIKE ? OR brand LIKE ?) AND ...
+ * ORDER BY sales DESC LIMIT 20 的执行方式：逐行做子串匹配，命中行整体排序后取前20条。
+ * 不包含网络和磁盘IO，是数据库方案的下限，实际差距更大
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProductSearchBenchmark {
+
+    private static final String[] BRANDS = {
+            "华为", "小米", "Apple", "OPPO", "vivo", "联想", "戴尔", "索尼", "海尔", "美的",
+            "格力", "李宁", "安踏", "Nike", "Adidas", "优衣库", "三只松鼠", "良品铺子", "农夫山泉", "伊利"};
+
+    private static final String[] NOUNS = {
+            "手机", "耳机", "笔记本电脑", "平板", "手表", "充电器", "显示器", "键盘", "鼠标", "音箱",
+            "冰箱", "空调", "洗衣机", "电饭煲", "运动鞋", "卫衣", "羽绒服", "T恤", "坚果", "牛奶"};
+
+    private static final String[] ADJECTIVES = {
+            "新款", "旗舰", "轻薄", "无线", "降噪", "智能", "超长续航", "大容量", "官方正品", "限量版",
+            "Pro", "Max", "Lite", "5G", "2024款", "家用", "便携", "高性能", "男士", "女士"};
+
+    private static final int LIMIT = 20;
+
+    @Param({"1000000"})
+    public int productCount;
+
+    private ProductSearchIndex index;
+
+    private Product[] table;
+
+    private ProductSearchQuery keywordQuery;
+
+    private ProductSearchQuery filteredQuery;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ProductSearchIndex();
+        table = new Product[productCount];
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            String brand = BRANDS[random.nextInt(BRANDS.length)];
+            String noun = NOUNS[random.nextInt(NOUNS.length)];
+            product.setId((long) i + 1);
+            product.setBrand(brand);
+            product.setName(brand + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + noun);
+            product.setTitle(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " 第" + (i % 1000) + "号");
+            product.setCategoryId((long) random.nextInt(50) + 1);
+            product.setPrice(BigDecimal.valueOf(random.nextInt(1000000), 2));
+            product.setSales(random.nextInt(100000));
+            product.setStatus(random.nextInt(10) == 0 ? Product.STATUS_OFF_SALE : Product.STATUS_ON_SALE);
+            table[i] = product;
+            index.upsert(product);
+        }
+
+        keywordQuery = new ProductSearchQuery();
+        keywordQuery.setKeyword("无线耳机");
+        keywordQuery.setLimit(LIMIT);
+
+        filteredQuery = new ProductSearchQuery();
+        filteredQuery.setKeyword("华为 手机");
+        filteredQuery.setCategoryId(7L);
+        filteredQuery.setMinPrice(new BigDecimal("1000"));
+        filteredQuery.setMaxPrice(new BigDecimal("5000"));
+        filteredQuery.setStatus(Product.STATUS_ON_SALE);
+        filteredQuery.setLimit(LIMIT);
+    }
+
+    @Benchmark
+    public ProductSearchResult invertedIndexKeyword() {
+        return index.search(keywordQuery);
+    }
+
+    @Benchmark
+    public ProductSearchResult invertedIndexKeywordWithFilters() {
+        return index.search(filteredQuery);
+    }
+
+    @Benchmark
+    public List<Long> likeScanKeyword() {
+        return likeScan(keywordQuery, new String[]{"无线耳机"});
+    }
+
+    @Benchmark
+    public List<Long> likeScanKeywordWithFilters() {
+        return likeScan(filteredQuery, new String[]{"华为", "手机"});
+    }
+
+    /**
+     * 每个关键词都需要出现在 name/title/brand 之一中（多个 LIKE 条件 AND 连接）
+     */
+    private List<Long> likeScan(ProductSearchQuery query, String[] keywords) {
+        List<Product> matched = new ArrayList<>();
+        for (Product product : table) {
+            if (query.getCategoryId() != null && !query.getCategoryId().equals(product.getCategoryId())) {
+                continue;
+            }
+            if (query.getStatus() != null && !query.getStatus().equals(product.getStatus())) {
+                continue;
+            }
+            if (query.getMinPrice() != null && product.getPrice().compareTo(query.getMinPrice()) < 0) {
+                continue;
+            }
+            if (query.getMaxPrice() != null && product.getPrice().compareTo(query.getMaxPrice()) > 0) {
+                continue;
+            }
+            if (containsAll(product, keywords)) {
+                matched.add(product);
+            }
+        }
+        matched.sort(Comparator.comparing(Product::getSales).reversed());
+        List<Long> result = new ArrayList<>(LIMIT);
+        for (int i = 0; i < matched.size() && i < LIMIT; i++) {
+            result.add(matched.get(i).getId());
+        }
+        return result;
+    }
+
+    private static boolean containsAll(Product product, String[] keywords) {
+        for (String keyword : keywords) {
+            if (!product.getName().contains(keyword) && !product.getTitle().contains(keyword)
+                    && !product.getBrand().contains(keyword)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
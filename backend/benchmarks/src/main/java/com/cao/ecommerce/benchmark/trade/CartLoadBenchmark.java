@@ -0,0 +1,83 @@
+package com.cao.ecommerce.benchmark.trade;
+
+import com.cao.ecommerce.trade.application.service.CartService;
+import com.cao.ecommerce.trade.domain.model.CartItem;
+import com.cao.ecommerce.trade.domain.repository.CartRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.InMemoryCartRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 购物车加载基准测试
+ *
+ * 使用 SampleTime 模式采样每次调用耗时，结果中的 p0.99 即加载50件商品购物车的p99延迟。
+ * 仓储使用进程内实现（InMemoryCartRepository），衡量的是服务层和Hash解码的开销，
+ * Redis部署时还需加上一次 HGETALL 的网络往返
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class CartLoadBenchmark {
+
+    @Param({"50"})
+    public int itemsPerCart;
+
+    @Param({"10000"})
+    public int userCount;
+
+    private CartRepository cartRepository;
+
+    private CartService cartService;
+
+    @Setup
+    public void setUp() {
+        cartRepository = new InMemoryCartRepository();
+        cartService = new CartService(cartRepository, null);
+        for (long userId = 1; userId <= userCount; userId++) {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (int i = 0; i < itemsPerCart; i++) {
+                quantities.put(userId * 1000 + i, i % 5 + 1);
+            }
+            cartService.addUserItems(userId, quantities);
+        }
+    }
+
+    @Benchmark
+    public List<CartItem> loadUserCart() {
+        return cartService.getUserCart(randomUser());
+    }
+
+    @Benchmark
+    public void addThenLoadUserCart() {
+        long userId = randomUser();
+        cartService.addUserItems(userId, Map.of(userId * 1000, 1));
+        cartService.getUserCart(userId);
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextLong(1, userCount + 1);
+    }
+}
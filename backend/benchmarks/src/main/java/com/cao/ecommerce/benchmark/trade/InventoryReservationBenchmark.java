@@ -0,0 +1,99 @@
+package com.cao.ecommerce.benchmark.trade;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.domain.model.ReservationResult;
+import com.cao.ecommerce.trade.domain.service.InventoryReservationService;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcInventoryRepository;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀库存扣减基准测试：16个线程争抢同一个SKU，订单号与线上一致由雪花ID生成
+ *
+ * 对照组：
+ * 1. rowLock：每次下单一条 UPDATE product SET stock = stock - 1 WHERE id = ? AND stock >= 1（H2，MySQL兼容模式）
+ * 2. reservation：内存CAS预占 + 确认，增量批量回写落库；每个线程每 FLUSH_EVERY 次下单回写一次，
+ *    回写同时清理墓碑。不用定时回写：压测速率下一个回写周期内的墓碑有数百万条，少核机器上回写线程抢不到CPU，
+ *    墓碑会无限增长，测到的是GC而不是扣减
+ *
+ * 库存足够大，测量的是扣减本身的吞吐而不是售罄后的失败路径；不超卖的正确性由单元测试保证
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class InventoryReservationBenchmark {
+
+    private static final long SKU = 1L;
+
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    private static final int FLUSH_EVERY = 1024;
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private InventoryReservationService service;
+
+    @Setup
+    public void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:inventory;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", "sa", "");
+        dataSource.setMaxConnections(32);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, stock INT NOT NULL, "
+                + "deleted TINYINT DEFAULT 0)");
+        jdbcTemplate.update("INSERT INTO product (id, stock) VALUES (?, ?)", SKU, STOCK);
+        service = new InventoryReservationService(new JdbcInventoryRepository(jdbcTemplate), 500);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.flush();
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Benchmark
+    public int rowLock() {
+        return jdbcTemplate.update("UPDATE product SET stock = stock - 1 WHERE id = ? AND stock >= 1", SKU);
+    }
+
+    @Benchmark
+    public boolean reservation(OrderCounter counter) {
+        if (++counter.orders % FLUSH_EVERY == 0) {
+            service.flush();
+        }
+        String orderNo = SnowflakeIdGenerator.toOrderNo(idGenerator.nextId());
+        return service.reserve(orderNo, SKU, 1) == ReservationResult.SUCCESS && service.confirm(orderNo);
+    }
+
+    @State(Scope.Thread)
+    public static class OrderCounter {
+
+        private long orders;
+    }
+}
@@ -0,0 +1,103 @@
+package com.cao.ecommerce.benchmark.trade;
+
+import com.cao.ecommerce.trade.infrastructure.observability.LatencyHistogram;
+import com.cao.ecommerce.trade.infrastructure.observability.LatencyMetrics;
+import com.cao.ecommerce.trade.infrastructure.observability.LatencySnapshot;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟直方图记录开销基准测试
+ *
+ * 每次操作为一对 System.nanoTime() 加一次记录，与只调用 nanoTime 的基线相减即为埋点本身的开销；
+ * 对照组为开启分位数直方图的 Micrometer Timer。
+ * 单线程和16线程分别测量，16线程下可以看出分段计数是否有争用；
+ * 以 -prof gc 运行可确认记录路径没有对象分配（gc.alloc.rate.norm 与基线相同）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatencyHistogramBenchmark {
+
+    private LatencyMetrics latencyMetrics;
+
+    private LatencyHistogram histogram;
+
+    private Timer micrometerTimer;
+
+    @Setup
+    public void setUp() {
+        latencyMetrics = new LatencyMetrics(Runtime.getRuntime().availableProcessors(), 60000);
+        histogram = latencyMetrics.histogram("repository", "OrderRepository.insertBatch");
+        micrometerTimer = Timer.builder("trade.latency").publishPercentiles(0.5, 0.99, 0.999)
+                .register(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long baselineNanoTime() {
+        long start = System.nanoTime();
+        return System.nanoTime() - start;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordSingleThread() {
+        histogram.recordSince(System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void recordContended() {
+        histogram.recordSince(System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void lookupAndRecordContended() {
+        latencyMetrics.histogram("repository", "OrderRepository.insertBatch").recordSince(System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void micrometerTimerSingleThread() {
+        long start = System.nanoTime();
+        micrometerTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void micrometerTimerContended() {
+        long start = System.nanoTime();
+        micrometerTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 抓取时合并所有分段并计算分位数的开销
+     */
+    @Benchmark
+    @Threads(1)
+    public long snapshotAndQuantile() {
+        LatencySnapshot snapshot = histogram.snapshot();
+        return snapshot.valueAt(0.99);
+    }
+}
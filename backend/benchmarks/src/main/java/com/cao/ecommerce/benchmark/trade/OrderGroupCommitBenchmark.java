@@ -0,0 +1,156 @@
+package com.cao.ecommerce.benchmark.trade;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOrderRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderGroupCommitter;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 订单组提交基准测试：逐单提交 vs 不同收集窗口的组提交
+ *
+ * 数据库为H2文件库（MySQL兼容模式），每个订单3条明细，32个线程并发下单。
+ * batchWindowMicros=-1 表示调用线程直接写入、每单一个事务；其余取值为组提交的收集窗口。
+ * Throughput 结果对比吞吐，SampleTime 结果中的 p0.99 对比单次下单延迟。
+ * H2不经过网络、刷盘代价也低于InnoDB，组提交的实际收益在MySQL上更明显
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class OrderGroupCommitBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Param({"-1", "0", "200", "1000"})
+    public long batchWindowMicros;
+
+    private Path dataDir;
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcOrderRepository orderRepository;
+
+    private OrderGroupCommitter orderGroupCommitter;
+
+    private SnowflakeIdGenerator idGenerator;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("order-group-commit");
+        dataSource = JdbcConnectionPool.create(
+                "jdbc:h2:file:" + dataDir.resolve("orders") + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "");
+        dataSource.setMaxConnections(64);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE `order` (id BIGINT PRIMARY KEY, order_no VARCHAR(50) NOT NULL, "
+                + "user_id BIGINT NOT NULL, total_amount DECIMAL(10,2) NOT NULL, pay_amount DECIMAL(10,2) NOT NULL, "
+                + "status TINYINT, receiver_name VARCHAR(50), receiver_phone VARCHAR(20), "
+                + "receiver_address VARCHAR(255), remark VARCHAR(500), create_time TIMESTAMP)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_order_no ON `order` (order_no)");
+        jdbcTemplate.execute("CREATE INDEX idx_user_id ON `order` (user_id)");
+        jdbcTemplate.execute("CREATE TABLE order_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, product_name VARCHAR(100) NOT NULL, "
+                + "product_image VARCHAR(255), price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL, "
+                + "total_price DECIMAL(10,2) NOT NULL, create_time TIMESTAMP)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_id ON order_item (order_id)");
+
+        orderRepository = new JdbcOrderRepository(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), null);
+        idGenerator = new SnowflakeIdGenerator(1);
+        if (batchWindowMicros >= 0) {
+            orderGroupCommitter = new OrderGroupCommitter(orderRepository, batchWindowMicros, 128, 10000, 2);
+            orderGroupCommitter.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (orderGroupCommitter != null) {
+            orderGroupCommitter.stop();
+            System.out.printf("%n平均批大小: %.1f%n",
+                    (double) orderGroupCommitter.getOrderCount() / Math.max(1, orderGroupCommitter.getCommitCount()));
+        }
+        dataSource.dispose();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        Order order = newOrder();
+        if (orderGroupCommitter == null) {
+            orderRepository.insertBatch(List.of(order));
+            return order;
+        }
+        return orderGroupCommitter.submit(order).join();
+    }
+
+    private Order newOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = idGenerator.nextId();
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderItem> items = new ArrayList<>(ITEMS_PER_ORDER);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrderId(id);
+            item.setProductId(random.nextLong(1, 100000));
+            item.setProductName("商品" + item.getProductId());
+            item.setPrice(BigDecimal.valueOf(random.nextInt(100, 100000), 2));
+            item.setQuantity(random.nextInt(1, 4));
+            item.setTotalPrice(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            item.setCreateTime(now);
+            total = total.add(item.getTotalPrice());
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNo(SnowflakeIdGenerator.toOrderNo(id));
+        order.setUserId(random.nextLong(1, 1000000));
+        order.setTotalAmount(total);
+        order.setPayAmount(total);
+        order.setStatus(Order.STATUS_PENDING_PAYMENT);
+        order.setReceiverName("张三");
+        order.setReceiverPhone("13800000000");
+        order.setReceiverAddress("北京市海淀区");
+        order.setCreateTime(now);
+        order.setItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,203 @@
+package com.cao.ecommerce.benchmark.trade;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.application.service.OrderQueryService;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.domain.model.OrderPage;
+import com.cao.ecommerce.trade.domain.model.OrderSummary;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOrderRepository;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单列表分页基准测试：OFFSET + 逐单查询明细 vs 游标分页 + 整页批量查询明细
+ *
+ * 数据库为H2内存库（MySQL兼容模式），userCount 个用户各有 ordersPerUser 个订单，每单2条明细，
+ * 每秒3个订单（下单时间相同的订单由ID区分先后）。page 为页码，每页 pageSize 个订单：
+ * 1. offsetPage：LIMIT ? OFFSET ? 读取订单头，再按订单逐个查询明细（N+1）
+ * 2. keysetPage：从上一页的游标开始读取，明细一次 IN 查询取回（{@link OrderQueryService}）
+ *
+ * 游标分页的正确性（同一秒下单的平局、末页、非法游标）由 trade-service 的 OrderQueryServiceTest 覆盖
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class OrderHistoryBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 2;
+
+    private static final String SELECT_OFFSET_PAGE = "SELECT id, order_no, status, pay_amount, create_time "
+            + "FROM `order` WHERE user_id = ? AND deleted = 0 ORDER BY create_time DESC, id DESC LIMIT ? OFFSET ?";
+
+    private static final String SELECT_ITEMS_BY_ORDER_ID = "SELECT id, order_id, product_id, product_name, "
+            + "product_image, price, quantity, total_price FROM order_item WHERE order_id = ? ORDER BY id";
+
+    @Param({"5"})
+    public int userCount;
+
+    @Param({"10000"})
+    public int ordersPerUser;
+
+    @Param({"10"})
+    public int pageSize;
+
+    @Param({"1", "100", "900"})
+    public int page;
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private OrderQueryService orderQueryService;
+
+    /** 每个用户第 page 页的游标 */
+    private String[] cursors;
+
+    @Setup
+    public void setUp() {
+        dataSource = JdbcConnectionPool.create(
+                "jdbc:h2:mem:order-history;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE `order` (id BIGINT PRIMARY KEY, order_no VARCHAR(50) NOT NULL, "
+                + "user_id BIGINT NOT NULL, total_amount DECIMAL(10,2) NOT NULL, pay_amount DECIMAL(10,2) NOT NULL, "
+                + "status TINYINT, receiver_name VARCHAR(50), receiver_phone VARCHAR(20), "
+                + "receiver_address VARCHAR(255), remark VARCHAR(500), create_time TIMESTAMP, "
+                + "deleted TINYINT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE INDEX idx_user_create_time ON `order` (user_id, deleted, create_time, id)");
+        jdbcTemplate.execute("CREATE TABLE order_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, product_name VARCHAR(100) NOT NULL, "
+                + "product_image VARCHAR(255), price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL, "
+                + "total_price DECIMAL(10,2) NOT NULL, create_time TIMESTAMP)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_id ON order_item (order_id)");
+
+        JdbcOrderRepository orderRepository = new JdbcOrderRepository(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), null);
+        insertOrders(orderRepository);
+        orderQueryService = new OrderQueryService(orderRepository, pageSize);
+
+        cursors = new String[userCount + 1];
+        for (int userId = 1; userId <= userCount; userId++) {
+            String cursor = null;
+            for (int i = 1; i < page; i++) {
+                cursor = orderQueryService.listByUser(userId, cursor, pageSize).getNextCursor();
+            }
+            cursors[userId] = cursor;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Benchmark
+    public List<OrderSummary> offsetPage() {
+        long userId = randomUserId();
+        List<OrderSummary> orders = jdbcTemplate.query(SELECT_OFFSET_PAGE, (rs, rowNum) -> {
+            OrderSummary summary = new OrderSummary();
+            summary.setId(rs.getLong("id"));
+            summary.setOrderNo(rs.getString("order_no"));
+            summary.setStatus(rs.getInt("status"));
+            summary.setPayAmount(rs.getBigDecimal("pay_amount"));
+            summary.setCreateTime(rs.getTimestamp("create_time").toLocalDateTime());
+            return summary;
+        }, userId, pageSize, (page - 1) * pageSize);
+        for (OrderSummary order : orders) {
+            order.setItems(jdbcTemplate.query(SELECT_ITEMS_BY_ORDER_ID, (rs, rowNum) -> {
+                OrderItem item = new OrderItem();
+                item.setId(rs.getLong("id"));
+                item.setOrderId(rs.getLong("order_id"));
+                item.setProductId(rs.getLong("product_id"));
+                item.setProductName(rs.getString("product_name"));
+                item.setProductImage(rs.getString("product_image"));
+                item.setPrice(rs.getBigDecimal("price"));
+                item.setQuantity(rs.getInt("quantity"));
+                item.setTotalPrice(rs.getBigDecimal("total_price"));
+                return item;
+            }, order.getId()));
+        }
+        return orders;
+    }
+
+    @Benchmark
+    public OrderPage keysetPage() {
+        int userId = (int) randomUserId();
+        return orderQueryService.listByUser(userId, cursors[userId], pageSize);
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextInt(1, userCount + 1);
+    }
+
+    private void insertOrders(JdbcOrderRepository orderRepository) {
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+        LocalDateTime start = LocalDateTime.now().withNano(0).minusSeconds(ordersPerUser);
+        List<Order> batch = new ArrayList<>(1000);
+        for (int userId = 1; userId <= userCount; userId++) {
+            for (int i = 0; i < ordersPerUser; i++) {
+                batch.add(newOrder(idGenerator.nextId(), userId, start.plusSeconds(i / 3)));
+                if (batch.size() == 1000) {
+                    orderRepository.insertBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        orderRepository.insertBatch(batch);
+    }
+
+    private static Order newOrder(long id, long userId, LocalDateTime createTime) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<OrderItem> items = new ArrayList<>(ITEMS_PER_ORDER);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrderId(id);
+            item.setProductId(random.nextLong(1, 100000));
+            item.setProductName("商品" + item.getProductId());
+            item.setPrice(BigDecimal.valueOf(random.nextInt(100, 100000), 2));
+            item.setQuantity(random.nextInt(1, 4));
+            item.setTotalPrice(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            total = total.add(item.getTotalPrice());
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNo(SnowflakeIdGenerator.toOrderNo(id));
+        order.setUserId(userId);
+        order.setTotalAmount(total);
+        order.setPayAmount(total);
+        order.setStatus(Order.STATUS_PAID);
+        order.setCreateTime(createTime);
+        order.setItems(items);
+        return order;
+    }
+}
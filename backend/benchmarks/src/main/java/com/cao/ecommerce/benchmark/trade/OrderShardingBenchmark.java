@@ -0,0 +1,196 @@
+package com.cao.ecommerce.benchmark.trade;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.application.service.OrderQueryService;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.domain.model.OrderPage;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOrderRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderShard;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderShards;
+import com.cao.ecommerce.trade.infrastructure.persistence.ShardedOrderRepository;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单分片基准测试：每个分片是一个独立的H2内存库（MySQL兼容模式）
+ *
+ * 对照组（shardCount=1 即不分片）：
+ * 1. userPage：我的订单第一页，只访问用户所在分片
+ * 2. adminPage：运营后台全量列表的第 page 页，并行查询所有分片后k路归并
+ * 3. orderNoLookup：按订单号查询，由订单号中的基因定位分片
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class OrderShardingBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 2;
+
+    @Param({"1", "4"})
+    public int shardCount;
+
+    @Param({"1000"})
+    public int userCount;
+
+    @Param({"100"})
+    public int ordersPerUser;
+
+    @Param({"20"})
+    public int pageSize;
+
+    @Param({"1", "50"})
+    public int page;
+
+    private final List<JdbcConnectionPool> dataSources = new ArrayList<>();
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+
+    private ShardedOrderRepository orderRepository;
+
+    private OrderQueryService orderQueryService;
+
+    private String adminCursor;
+
+    private List<String> orderNos;
+
+    @Setup
+    public void setUp() {
+        OrderShards shards = createShards("bench", shardCount);
+        orderRepository = new ShardedOrderRepository(shards, null, 3000);
+        orderQueryService = new OrderQueryService(orderRepository, pageSize);
+
+        orderNos = new ArrayList<>(userCount * ordersPerUser);
+        LocalDateTime start = LocalDateTime.now().withNano(0).minusSeconds(ordersPerUser);
+        List<Order> batch = new ArrayList<>(1000);
+        for (int i = 0; i < ordersPerUser; i++) {
+            for (int userId = 1; userId <= userCount; userId++) {
+                Order order = newOrder(userId, start.plusSeconds(i));
+                orderNos.add(order.getOrderNo());
+                batch.add(order);
+                if (batch.size() == 1000) {
+                    orderRepository.insertBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        orderRepository.insertBatch(batch);
+
+        String cursor = null;
+        for (int i = 1; i < page; i++) {
+            cursor = orderQueryService.listAll(null, cursor, pageSize).getNextCursor();
+        }
+        adminCursor = cursor;
+    }
+
+    @TearDown
+    public void tearDown() {
+        orderRepository.shutdown();
+        for (JdbcConnectionPool dataSource : dataSources) {
+            new JdbcTemplate(dataSource).execute("SHUTDOWN");
+            dataSource.dispose();
+        }
+    }
+
+    @Benchmark
+    public OrderPage userPage() {
+        return orderQueryService.listByUser(ThreadLocalRandom.current().nextInt(1, userCount + 1), null, pageSize);
+    }
+
+    @Benchmark
+    public OrderPage adminPage() {
+        return orderQueryService.listAll(null, adminCursor, pageSize);
+    }
+
+    @Benchmark
+    public Object orderNoLookup() {
+        return orderQueryService.getByOrderNo(orderNos.get(ThreadLocalRandom.current().nextInt(orderNos.size())));
+    }
+
+    private OrderShards createShards(String prefix, int count) {
+        List<OrderShard> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JdbcConnectionPool dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + prefix + "-" + i
+                    + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+            dataSources.add(dataSource);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            createTables(jdbcTemplate);
+            shards.add(new OrderShard(prefix + "-" + i, new JdbcOrderRepository(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)), null)));
+        }
+        return new OrderShards(shards, List.of(), List.of());
+    }
+
+    private static void createTables(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE `order` (id BIGINT PRIMARY KEY, order_no VARCHAR(50) NOT NULL, "
+                + "user_id BIGINT NOT NULL, total_amount DECIMAL(10,2) NOT NULL, pay_amount DECIMAL(10,2) NOT NULL, "
+                + "status TINYINT, pay_type TINYINT, pay_time TIMESTAMP, delivery_time TIMESTAMP, "
+                + "finish_time TIMESTAMP, cancel_time TIMESTAMP, receiver_name VARCHAR(50), "
+                + "receiver_phone VARCHAR(20), receiver_address VARCHAR(255), remark VARCHAR(500), "
+                + "create_time TIMESTAMP, deleted TINYINT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_order_no ON `order` (order_no)");
+        jdbcTemplate.execute("CREATE INDEX idx_user_create_time ON `order` (user_id, deleted, create_time, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_status ON `order` (status)");
+        jdbcTemplate.execute("CREATE INDEX idx_create_time ON `order` (create_time)");
+        jdbcTemplate.execute("CREATE TABLE order_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, product_name VARCHAR(100) NOT NULL, "
+                + "product_image VARCHAR(255), price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL, "
+                + "total_price DECIMAL(10,2) NOT NULL, create_time TIMESTAMP)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_id ON order_item (order_id)");
+    }
+
+    private Order newOrder(long userId, LocalDateTime createTime) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = idGenerator.nextId(userId);
+        List<OrderItem> items = new ArrayList<>(ITEMS_PER_ORDER);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrderId(id);
+            item.setProductId(random.nextLong(1, 100000));
+            item.setProductName("商品" + item.getProductId());
+            item.setPrice(BigDecimal.valueOf(random.nextInt(100, 100000), 2));
+            item.setQuantity(random.nextInt(1, 4));
+            item.setTotalPrice(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            total = total.add(item.getTotalPrice());
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNo(SnowflakeIdGenerator.toOrderNo(id));
+        order.setUserId(userId);
+        order.setTotalAmount(total);
+        order.setPayAmount(total);
+        order.setStatus(Order.STATUS_PENDING_PAYMENT);
+        order.setCreateTime(createTime);
+        order.setItems(items);
+        return order;
+    }
+}
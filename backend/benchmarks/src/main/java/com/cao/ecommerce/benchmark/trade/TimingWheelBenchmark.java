@@ -0,0 +1,111 @@
+package com.cao.ecommerce.benchmark.trade;
+
+import com.cao.ecommerce.trade.infrastructure.util.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分层时间轮基准测试：500万个待支付订单定时器
+ *
+ * 准备阶段输出两项结果（触发精度和内存上限的断言见 HierarchicalTimingWheelTest）：
+ * 1. 内存：登记500万个定时器前后的堆占用差，以及时间轮自身统计的数组占用
+ * 2. 对照：相同数量的 PriorityQueue（ScheduledThreadPoolExecutor 的实现方式）的堆占用
+ *
+ * 基准方法衡量在500万定时器规模下登记、取消、推进一个刻度的耗时，与定时器数量无关
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class TimingWheelBenchmark {
+
+    private static final long TICK_MILLIS = 100;
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    @Param({"5000000"})
+    public int timerCount;
+
+    private HierarchicalTimingWheel wheel;
+
+    private long now;
+
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        measurePriorityQueueMemory();
+
+        long before = usedHeap();
+        now = 0;
+        wheel = new HierarchicalTimingWheel(TICK_MILLIS, now);
+        for (nextId = 0; nextId < timerCount; nextId++) {
+            // 下单时间均匀分布在最近30分钟内
+            wheel.schedule(nextId, TIMEOUT_MILLIS - nextId * TIMEOUT_MILLIS / timerCount);
+        }
+        long used = usedHeap() - before;
+        System.out.printf("%n时间轮：%d 个定时器，堆占用 %.1f MB（%.1f 字节/个），数组统计 %.1f MB%n",
+                wheel.size(), used / 1048576.0, (double) used / timerCount,
+                wheel.getFootprintBytes() / 1048576.0);
+    }
+
+    @Benchmark
+    public boolean scheduleThenCancel() {
+        long id = nextId++;
+        wheel.schedule(id, now + TIMEOUT_MILLIS);
+        return wheel.cancel(id);
+    }
+
+    @Benchmark
+    public int cancelExistingThenReschedule() {
+        long id = ThreadLocalRandom.current().nextLong(timerCount);
+        wheel.cancel(id);
+        wheel.schedule(id, now + TIMEOUT_MILLIS);
+        return wheel.size();
+    }
+
+    @Benchmark
+    public int advanceOneTick() {
+        // 到期的定时器立即以新的截止时间重新登记，保持定时器总数不变
+        now += TICK_MILLIS;
+        long deadline = now + TIMEOUT_MILLIS;
+        return wheel.advance(now, id -> wheel.schedule(id, deadline));
+    }
+
+    private void measurePriorityQueueMemory() {
+        long before = usedHeap();
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[1], b[1]));
+        for (long i = 0; i < timerCount; i++) {
+            queue.add(new long[]{i, TIMEOUT_MILLIS - i * TIMEOUT_MILLIS / timerCount});
+        }
+        long used = usedHeap() - before;
+        System.out.printf("%n对照PriorityQueue：%d 个定时器，堆占用 %.1f MB（%.1f 字节/个）%n",
+                queue.size(), used / 1048576.0, (double) used / timerCount);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,112 @@
+package com.cao.ecommerce.benchmark.user;
+
+import com.cao.ecommerce.user.domain.model.Role;
+import com.cao.ecommerce.user.domain.service.AuthorizationIndex;
+import com.cao.ecommerce.user.domain.service.UserAuthorization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户授权索引基准测试：百万用户的查询耗时（内存占用由 AuthorizationIndexTest 校验）
+ *
+ * 准备阶段按 user_role 的行顺序逐行加载；角色分布：每个用户都有 USER 角色，每100个用户中有一个额外拥有 ADMIN 角色
+ *
+ * 基准方法衡量单个权限判断、整批解析（batchSize个用户，对应一页列表）和替换单个用户角色的耗时
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class AuthorizationIndexBenchmark {
+
+    private static final long ADMIN_ROLE_ID = 1;
+
+    private static final long USER_ROLE_ID = 2;
+
+    @Param({"1000000"})
+    public int userCount;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private AuthorizationIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new AuthorizationIndex(roles(), rolePermissions(), 0);
+        for (long userId = 1; userId <= userCount; userId++) {
+            index.grant(userId, USER_ROLE_ID);
+            if (userId % 100 == 0) {
+                index.grant(userId, ADMIN_ROLE_ID);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean hasPermission() {
+        return index.hasPermission(randomUserId(), "order:write");
+    }
+
+    @Benchmark
+    public List<UserAuthorization> resolveBatch() {
+        long[] userIds = new long[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            userIds[i] = randomUserId();
+        }
+        return index.resolveAll(userIds);
+    }
+
+    @Benchmark
+    public long setUserRoles() {
+        long userId = randomUserId();
+        index.setUserRoles(userId, new long[]{USER_ROLE_ID});
+        return index.roleMask(userId);
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, userCount + 1);
+    }
+
+    private static List<Role> roles() {
+        List<Role> roles = new ArrayList<>();
+        roles.add(role(ADMIN_ROLE_ID, "ADMIN"));
+        roles.add(role(USER_ROLE_ID, "USER"));
+        return roles;
+    }
+
+    private static Role role(long id, String name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setRoleName(name);
+        role.setStatus(Role.STATUS_ENABLED);
+        return role;
+    }
+
+    private static Map<String, List<String>> rolePermissions() {
+        Map<String, List<String>> rolePermissions = new HashMap<>();
+        rolePermissions.put("ADMIN", List.of("user:read", "user:write", "product:write", "order:read", "order:write"));
+        rolePermissions.put("USER", List.of("order:read"));
+        return rolePermissions;
+    }
+}
@@ -0,0 +1,139 @@
+package com.cao.ecommerce.benchmark.user;
+
+import com.cao.ecommerce.user.infrastructure.util.PasswordHasher;
+import com.cao.ecommerce.user.infrastructure.util.PasswordHashingExecutor;
+import com.cao.ecommerce.user.infrastructure.util.PasswordHashingRejectedException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 密码哈希线程池压测：撞库流量下的登录延迟和其他接口延迟
+ *
+ * 同一组内三类线程同时运行（线程数模拟Tomcat请求线程）：
+ * 1. stuffing：32个线程持续提交错误密码，被拒绝后等待1毫秒再重试（模拟攻击客户端）
+ * 2. login：正常用户登录，SampleTime 输出 p99，辅助计数器 accepted / rejected 为成功处理和被拒绝的次数
+ * 3. otherEndpoint：与登录无关的轻量请求（一次SHA-256），衡量撞库对其他接口的影响
+ *
+ * isolated=false 时直接在请求线程上计算哈希（对照组），请求线程数远大于CPU核数，
+ * 所有接口的延迟一起上升；isolated=true 时哈希进入CPU核数大小的线程池，超出队列的请求快速失败
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"true", "false"})
+    public boolean isolated;
+
+    @Param({"600000"})
+    public int minIterations;
+
+    @Param({"250"})
+    public long targetLatencyMs;
+
+    @Param({"64"})
+    public int queueCapacity;
+
+    private PasswordHashingExecutor executor;
+
+    private String storedHash;
+
+    private byte[] otherPayload;
+
+    @Setup
+    public void setUp() {
+        executor = new PasswordHashingExecutor(0, queueCapacity, 1000, minIterations, minIterations * 10,
+                targetLatencyMs);
+        storedHash = executor.hash(PASSWORD);
+        otherPayload = "{\"productId\":1001,\"quantity\":1}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n工作因子 %d，哈希 %d 次，队列满拒绝 %d 次，排队超时 %d 次%n",
+                executor.getIterations(), executor.getHashCount(), executor.getRejectedCount(),
+                executor.getExpiredCount());
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @Group("attack")
+    @GroupThreads(32)
+    public boolean stuffing() {
+        String guess = "guess-" + ThreadLocalRandom.current().nextLong();
+        try {
+            return verify(guess);
+        } catch (PasswordHashingRejectedException e) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("attack")
+    @GroupThreads(2)
+    public boolean login(LoginCounters counters) {
+        try {
+            boolean matched = verify(PASSWORD);
+            counters.accepted++;
+            return matched;
+        } catch (PasswordHashingRejectedException e) {
+            counters.rejected++;
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("attack")
+    @GroupThreads(2)
+    public byte[] otherEndpoint() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(otherPayload);
+    }
+
+    private boolean verify(String password) {
+        if (isolated) {
+            return executor.verify(password, storedHash).isMatched();
+        }
+        return PasswordHasher.matches(password, storedHash);
+    }
+
+    /**
+     * 正常登录成功处理和被拒绝的次数
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LoginCounters {
+
+        public long accepted;
+
+        public long rejected;
+    }
+}
@@ -0,0 +1,135 @@
+package com.cao.ecommerce.common.spring.concurrent;
+
+import com.cao.ecommerce.common.concurrent.Bulkhead;
+import com.cao.ecommerce.common.concurrent.BulkheadDataSource;
+import com.cao.ecommerce.common.concurrent.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程模式自动装配
+ *
+ * 通过 spring.threads.virtual.enabled=true（环境变量 APP_VIRTUAL_THREADS）开启，关闭时保持Tomcat默认的平台线程池；
+ * 指标名前缀由 ecommerce.virtual-threads.metric-prefix 指定
+ *
+ * 设计要点：
+ * 1. 钉住监控：JFR事件流订阅 jdk.VirtualThreadPinned，按业务代码位置汇总并输出告警，注册 {prefix}.virtual.pinned 指标
+ * 2. 数据源舱壁：请求线程不再受Tomcat线程池限制，所有 DataSource Bean 包装为 {@link BulkheadDataSource}，
+ *    超出舱壁并发的请求在舱壁上等待、超时快速失败，而不是挤进连接池排队
+ * 3. 舱壁在其他数据源后置处理之后执行，包在读写分离等路由数据源的最外层，一个连接只占一个许可；
+ *    内部已经包含舱壁的数据源（如主库已带舱壁的读写分离数据源）不再重复包装，否则一次获取连接会占用两个许可
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+@ConditionalOnProperty(prefix = "spring.threads.virtual", name = "enabled", havingValue = "true")
+public class VirtualThreadAutoConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(VirtualThreadProperties properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(
+                Duration.ofMillis(properties.getPinningThresholdMs()), "com.cao.ecommerce",
+                properties.getPinningReportEvery(),
+                (frame, duration) -> log.warn("虚拟线程被钉住: 位置={}, 时长={}ms", frame, duration.toMillis()));
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            String prefix = properties.getMetricPrefix();
+            FunctionCounter.builder(prefix + ".virtual.pinned", monitor, VirtualThreadPinningMonitor::getPinnedCount)
+                    .description("虚拟线程钉住次数").register(registry);
+            FunctionCounter.builder(prefix + ".virtual.pinned.time", monitor,
+                            m -> (double) m.getPinnedNanos() / TimeUnit.MILLISECONDS.toNanos(1))
+                    .description("虚拟线程累计钉住时长").baseUnit("milliseconds").register(registry);
+        }
+        return monitor;
+    }
+
+    /**
+     * 静态方法，避免配置类过早实例化影响其他Bean的后置处理
+     */
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor(
+            ObjectProvider<VirtualThreadProperties> properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BulkheadDataSourcePostProcessor(properties, meterRegistry);
+    }
+
+    /**
+     * 把数据源包装为带舱壁的数据源
+     */
+    private static final class BulkheadDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<VirtualThreadProperties> properties;
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        private BulkheadDataSourcePostProcessor(ObjectProvider<VirtualThreadProperties> properties,
+                                                ObjectProvider<MeterRegistry> meterRegistry) {
+            this.properties = properties;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || hasBulkhead(dataSource)) {
+                return bean;
+            }
+            VirtualThreadProperties config = properties.getObject();
+            Bulkhead bulkhead = new Bulkhead(beanName, config.getDbBulkheadMaxConcurrent(),
+                    config.getDbBulkheadMaxWaitMs());
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                String prefix = config.getMetricPrefix();
+                Gauge.builder(prefix + ".db.bulkhead.active", bulkhead, Bulkhead::getActiveCount)
+                        .tag("name", beanName).description("占用的舱壁许可数").register(registry);
+                Gauge.builder(prefix + ".db.bulkhead.waiting", bulkhead, Bulkhead::getWaitingCount)
+                        .tag("name", beanName).description("等待舱壁许可的线程数").register(registry);
+                FunctionCounter.builder(prefix + ".db.bulkhead.rejected", bulkhead, Bulkhead::getRejectedCount)
+                        .tag("name", beanName).description("等待超时被拒绝的次数").register(registry);
+            }
+            log.info("数据源 {} 启用舱壁: 最大并发={}, 最长等待={}ms", beanName,
+                    config.getDbBulkheadMaxConcurrent(), config.getDbBulkheadMaxWaitMs());
+            return new BulkheadDataSource(dataSource, bulkhead);
+        }
+
+        /**
+         * 最后执行，读写分离等路由数据源先完成包装
+         */
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        /**
+         * 数据源本身或其包装的数据源（读写分离数据源的主库等）已带舱壁
+         */
+        private static boolean hasBulkhead(DataSource dataSource) {
+            if (dataSource instanceof BulkheadDataSource) {
+                return true;
+            }
+            try {
+                return dataSource.isWrapperFor(BulkheadDataSource.class);
+            } catch (SQLException | RuntimeException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.cao.ecommerce.common.spring.concurrent;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 虚拟线程模式配置（各服务共用）
+ *
+ * 模式开关为 Spring Boot 的 spring.threads.virtual.enabled，开启后Tomcat请求处理、@Async 和任务调度器
+ * 都改为虚拟线程；这里只配置开启后的钉住监控和数据源舱壁
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = VirtualThreadProperties.PREFIX)
+public class VirtualThreadProperties {
+
+    public static final String PREFIX = "ecommerce.virtual-threads";
+
+    /** 指标名前缀，如 trade 对应 trade.virtual.pinned、trade.db.bulkhead.active */
+    private String metricPrefix = "app";
+
+    /** 钉住时长阈值（毫秒），超过时记录 */
+    private long pinningThresholdMs = 20;
+
+    /** 同一位置每累计多少次钉住输出一次告警 */
+    private long pinningReportEvery = 100;
+
+    /** 数据源舱壁的最大并发，不应超过连接池大小 */
+    private int dbBulkheadMaxConcurrent = 20;
+
+    /** 等待数据源舱壁许可的最长时间（毫秒），超时快速失败 */
+    private long dbBulkheadMaxWaitMs = 1000;
+}
@@ -0,0 +1,50 @@
+package com.cao.ecommerce.common.spring.datasource;
+
+import com.cao.ecommerce.common.datasource.ReadConsistency;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 读己之写令牌的传递
+ *
+ * 从请求头恢复客户端上次拿到的令牌；请求中写入主库时把新令牌写入响应头，客户端在后续请求中原样带回
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+
+    private final String header;
+
+    public ReadConsistencyFilter(String header) {
+        this.header = header;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadConsistency.begin(parseToken(request.getHeader(header)),
+                token -> response.setHeader(header, Long.toString(token)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadConsistency.end();
+        }
+    }
+
+    private static long parseToken(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.cao.ecommerce.common.spring.datasource;
+
+import com.cao.ecommerce.common.datasource.ReadWriteRoutingDataSource;
+import com.cao.ecommerce.common.datasource.ReplicaLagMonitor;
+import com.cao.ecommerce.common.datasource.ReplicaNode;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离自动装配
+ *
+ * 默认关闭，开启数据源并配置从库后通过 ecommerce.read-write-splitting.enabled=true 启用；
+ * 指标名前缀由 ecommerce.read-write-splitting.metric-prefix 指定
+ *
+ * 设计要点：
+ * 1. 默认数据源（dataSource）包装为 {@link ReadWriteRoutingDataSource}：只读事务读从库，其余走主库；
+ *    服务自行创建的其他数据源（如订单分片）不在此列
+ * 2. {@link ReplicaLagMonitor} 通过 replication_heartbeat 表测量每个从库的复制延迟，超过阈值自动摘除
+ * 3. {@link ReadConsistencyFilter} 通过 X-Read-After 头传递读己之写令牌：写入后立即查询（下单后查看订单、
+ *    运营修改商品后查看），只会读到已追上这次写入的从库，没有时读主库；只在Servlet应用中注册
+ * 4. 指标：{prefix}.db.routing（按 target=primary/replica/fallback 统计路由的连接数）、
+ *    {prefix}.db.replica.lag、{prefix}.db.replica.available、{prefix}.db.replica.evicted（按 replica 标签）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+@AutoConfiguration
+@ConditionalOnClass({DataSourceTransactionManager.class, HikariDataSource.class, MeterRegistry.class})
+@EnableConfigurationProperties(ReadWriteSplittingProperties.class)
+@ConditionalOnProperty(prefix = ReadWriteSplittingProperties.PREFIX, name = "enabled", havingValue = "true")
+public class ReadWriteSplittingAutoConfiguration {
+
+    private static final String PRIMARY_DATA_SOURCE = "dataSource";
+
+    /**
+     * 读路径使用的事务：数据源启用了读写分离时为只读事务（路由到从库），否则不开启事务，
+     * 避免未启用时平白多出 SET autocommit、COMMIT 的往返
+     */
+    public static TransactionOperations readOnlyTransaction(DataSource dataSource) throws SQLException {
+        if (!dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+            return TransactionOperations.withoutTransaction();
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    /**
+     * 静态方法，避免配置类过早实例化影响其他Bean的后置处理；
+     * 先于舱壁包装执行，舱壁（虚拟线程模式）包在路由数据源外层，同时限制主库和从库的并发
+     */
+    @Bean
+    public static BeanPostProcessor readWriteRoutingDataSourcePostProcessor(
+            ObjectProvider<ReadWriteSplittingProperties> properties) {
+        return new RoutingDataSourcePostProcessor(properties);
+    }
+
+    /**
+     * 按名称注入默认数据源：服务还可能定义其他数据源（如订单分片），按类型注入会有歧义
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier(PRIMARY_DATA_SOURCE) DataSource dataSource, ReadWriteSplittingProperties properties,
+                                               ObjectProvider<MeterRegistry> meterRegistry) throws SQLException {
+        ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        String instanceId = StringUtils.hasText(properties.getInstanceId()) ? properties.getInstanceId()
+                : ManagementFactory.getRuntimeMXBean().getName();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registerMetrics(routing, properties.getMetricPrefix(), registry);
+        }
+        return new ReplicaLagMonitor(routing, instanceId, properties.getProbeIntervalMs(), properties.getMaxLagMs());
+    }
+
+    private static void registerMetrics(ReadWriteRoutingDataSource routing, String prefix, MeterRegistry registry) {
+        FunctionCounter.builder(prefix + ".db.routing", routing, ReadWriteRoutingDataSource::getPrimaryCount)
+                .tag("target", "primary").description("路由到主库的连接数").register(registry);
+        FunctionCounter.builder(prefix + ".db.routing", routing, ReadWriteRoutingDataSource::getFallbackCount)
+                .tag("target", "fallback").description("只读事务因没有可用从库回退主库的连接数").register(registry);
+        for (ReplicaNode replica : routing.getReplicas()) {
+            FunctionCounter.builder(prefix + ".db.routing", replica, ReplicaNode::getSelectedCount)
+                    .tag("target", "replica").tag("replica", replica.getName())
+                    .description("路由到从库的连接数").register(registry);
+            Gauge.builder(prefix + ".db.replica.lag", replica, ReplicaNode::getLagMillis)
+                    .tag("replica", replica.getName()).description("从库复制延迟，-1表示尚未测得")
+                    .baseUnit("milliseconds").register(registry);
+            Gauge.builder(prefix + ".db.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .tag("replica", replica.getName()).description("从库是否参与读路由").register(registry);
+            FunctionCounter.builder(prefix + ".db.replica.evicted", replica, ReplicaNode::getEvictedCount)
+                    .tag("replica", replica.getName()).description("从库被摘除的次数").register(registry);
+        }
+    }
+
+    /**
+     * 读己之写令牌的请求头传递（Servlet应用）
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ReadConsistencyFilterConfiguration {
+
+        @Bean
+        public FilterRegistrationBean<ReadConsistencyFilter> readConsistencyFilter(
+                ReadWriteSplittingProperties properties) {
+            return new FilterRegistrationBean<>(new ReadConsistencyFilter(properties.getTokenHeader()));
+        }
+    }
+
+    /**
+     * 把默认数据源包装为读写分离数据源
+     */
+    private static final class RoutingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ReadWriteSplittingProperties> properties;
+
+        private RoutingDataSourcePostProcessor(ObjectProvider<ReadWriteSplittingProperties> properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!PRIMARY_DATA_SOURCE.equals(beanName) || !(bean instanceof DataSource primary)) {
+                return bean;
+            }
+            ReadWriteSplittingProperties config = properties.getObject();
+            List<ReplicaNode> replicas = new ArrayList<>(config.getReplicas().size());
+            for (int i = 0; i < config.getReplicas().size(); i++) {
+                ReadWriteSplittingProperties.Replica replica = config.getReplicas().get(i);
+                String name = StringUtils.hasText(replica.getName()) ? replica.getName() : "replica-" + i;
+                replicas.add(new ReplicaNode(name, createDataSource(name, replica), replica.getWeight()));
+            }
+            log.info("数据源 {} 启用读写分离: 从库={}, 最大延迟={}ms", beanName,
+                    replicas.stream().map(ReplicaNode::getName).toList(), config.getMaxLagMs());
+            return new ReadWriteRoutingDataSource(primary, replicas);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        private static DataSource createDataSource(String name, ReadWriteSplittingProperties.Replica config) {
+            HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(config.getUrl()).username(config.getUsername()).password(config.getPassword()).build();
+            dataSource.setPoolName(name);
+            dataSource.setMaximumPoolSize(config.getMaxPoolSize());
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.cao.ecommerce.common.spring.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置（各服务共用）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = ReadWriteSplittingProperties.PREFIX)
+public class ReadWriteSplittingProperties {
+
+    public static final String PREFIX = "ecommerce.read-write-splitting";
+
+    /** 是否启用读写分离（依赖数据源） */
+    private boolean enabled = false;
+
+    /** 指标名前缀，如 trade 对应 trade.db.routing、trade.db.replica.lag */
+    private String metricPrefix = "app";
+
+    /** 从库列表 */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** 复制延迟的探测间隔（毫秒） */
+    private long probeIntervalMs = 500;
+
+    /** 最大允许的复制延迟（毫秒），超过时摘除从库，回落到一半以下时重新加入 */
+    private long maxLagMs = 1000;
+
+    /** 本实例在心跳表中的标识，为空时使用 进程号@主机名 */
+    private String instanceId;
+
+    /** 携带读己之写令牌的请求头/响应头 */
+    private String tokenHeader = "X-Read-After";
+
+    /**
+     * 单个从库
+     */
+    @Data
+    public static class Replica {
+
+        /** 从库名称，用作指标标签 */
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /** 读流量权重 */
+        private int weight = 1;
+
+        /** 连接池最大连接数 */
+        private int maxPoolSize = 20;
+    }
+}
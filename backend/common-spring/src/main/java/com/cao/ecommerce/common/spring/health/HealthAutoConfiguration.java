@@ -0,0 +1,92 @@
+package com.cao.ecommerce.common.spring.health;
+
+import com.cao.ecommerce.common.health.DataSourceHealthProbe;
+import com.cao.ecommerce.common.health.HealthMonitor;
+import com.cao.ecommerce.common.health.HealthProbe;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 健康检查自动装配
+ *
+ * 探测列表：每个 DataSource Bean 一个数据库探测（网关等没有数据源的服务为空），加上容器中的其他 {@link HealthProbe} Bean；
+ * Servlet服务注册 {@link HealthController}，WebFlux服务（网关）注册 {@link ReactiveHealthController}
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(HealthProperties.class)
+public class HealthAutoConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    public HealthMonitor healthMonitor(ObjectProvider<HealthProbe> healthProbes, ListableBeanFactory beanFactory,
+                                       HealthProperties properties, Environment environment) {
+        List<HealthProbe> probes = new ArrayList<>();
+        int validationTimeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(properties.getProbeTimeoutMs()));
+        beanFactory.getBeansOfType(DataSource.class).forEach((name, dataSource) ->
+                probes.add(new DataSourceHealthProbe("db:" + name, dataSource, validationTimeoutSeconds)));
+        healthProbes.orderedStream().forEach(probes::add);
+        Map<String, Object> baseFields = new LinkedHashMap<>();
+        baseFields.put("service", environment.getProperty("spring.application.name"));
+        baseFields.put("port", environment.getProperty("server.port"));
+        return new HealthMonitor(baseFields, probes, properties.getProbeTimeoutMs(),
+                properties.getRefreshIntervalMs(), properties.getDeepRefreshMinIntervalMs());
+    }
+
+    /**
+     * 服务信息：启动时确定，由控制器序列化一次
+     */
+    static Map<String, Object> serviceInfo(HealthProperties properties, Environment environment) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("service", environment.getProperty("spring.application.name"));
+        info.put("port", environment.getProperty("server.port"));
+        info.put("description", properties.getDescription());
+        info.put("version", "1.0.0");
+        info.put("timestamp", LocalDateTime.now().toString());
+        return info;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletHealthControllerConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public HealthController healthController(HealthMonitor healthMonitor, HealthProperties properties,
+                                                 Environment environment) {
+            return new HealthController(healthMonitor, serviceInfo(properties, environment));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "reactor.core.publisher.Mono")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveHealthControllerConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveHealthController reactiveHealthController(HealthMonitor healthMonitor,
+                                                                 HealthProperties properties,
+                                                                 Environment environment) {
+            return new ReactiveHealthController(healthMonitor, serviceInfo(properties, environment));
+        }
+    }
+}
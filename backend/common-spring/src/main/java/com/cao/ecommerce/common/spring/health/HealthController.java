@@ -0,0 +1,66 @@
+package com.cao.ecommerce.common.spring.health;
+
+import com.alibaba.fastjson2.JSON;
+import com.cao.ecommerce.common.health.HealthMonitor;
+import com.cao.ecommerce.common.health.HealthSnapshot;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 健康检查控制器（Servlet服务）
+ *
+ * 探活接口返回 {@link HealthMonitor} 后台刷新的缓存快照（预序列化的字节数组），依赖不可用时返回503；
+ * 服务信息在启动时序列化一次
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/actuator")
+public class HealthController {
+
+    private final HealthMonitor healthMonitor;
+
+    private final byte[] info;
+
+    public HealthController(HealthMonitor healthMonitor, Map<String, Object> info) {
+        this.healthMonitor = healthMonitor;
+        this.info = JSON.toJSONBytes(info);
+    }
+
+    /**
+     * 健康检查接口
+     */
+    @GetMapping(value = "/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> health() {
+        HealthSnapshot snapshot = healthMonitor.getSnapshot();
+        return respond(snapshot, snapshot.getSummary());
+    }
+
+    /**
+     * 深度检查接口：按需刷新（限频），返回每个依赖的状态、耗时和错误
+     */
+    @GetMapping(value = "/health-deep", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> healthDeep() {
+        HealthSnapshot snapshot = healthMonitor.refreshIfStale();
+        return respond(snapshot, snapshot.getDetail());
+    }
+
+    /**
+     * 服务信息接口
+     */
+    @GetMapping(value = "/info", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] info() {
+        return info;
+    }
+
+    static ResponseEntity<byte[]> respond(HealthSnapshot snapshot, byte[] body) {
+        return ResponseEntity.status(snapshot.isUp() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+}
@@ -0,0 +1,29 @@
+package com.cao.ecommerce.common.spring.health;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 健康检查配置（各服务共用）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = HealthProperties.PREFIX)
+public class HealthProperties {
+
+    public static final String PREFIX = "ecommerce.health";
+
+    /** 服务描述，/actuator/info 返回 */
+    private String description = "";
+
+    /** 单个依赖探测的超时时间（毫秒） */
+    private long probeTimeoutMs = 1000;
+
+    /** 后台刷新间隔（毫秒），即探活结果的最大滞后 */
+    private long refreshIntervalMs = 5000;
+
+    /** 深度检查触发刷新的最小间隔（毫秒） */
+    private long deepRefreshMinIntervalMs = 2000;
+}
@@ -0,0 +1,63 @@
+package com.cao.ecommerce.common.spring.health;
+
+import com.alibaba.fastjson2.JSON;
+import com.cao.ecommerce.common.health.HealthMonitor;
+import com.cao.ecommerce.common.health.HealthSnapshot;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+
+/**
+ * 健康检查控制器（WebFlux服务，如网关）
+ *
+ * 与 {@link HealthController} 相同，深度检查的探测在弹性线程池中执行，不阻塞事件循环
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/actuator")
+public class ReactiveHealthController {
+
+    private final HealthMonitor healthMonitor;
+
+    private final byte[] info;
+
+    public ReactiveHealthController(HealthMonitor healthMonitor, Map<String, Object> info) {
+        this.healthMonitor = healthMonitor;
+        this.info = JSON.toJSONBytes(info);
+    }
+
+    /**
+     * 健康检查接口
+     */
+    @GetMapping(value = "/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> health() {
+        HealthSnapshot snapshot = healthMonitor.getSnapshot();
+        return HealthController.respond(snapshot, snapshot.getSummary());
+    }
+
+    /**
+     * 深度检查接口：按需刷新（限频）
+     */
+    @GetMapping(value = "/health-deep", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> healthDeep() {
+        return Mono.fromCallable(healthMonitor::refreshIfStale)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(snapshot -> HealthController.respond(snapshot, snapshot.getDetail()));
+    }
+
+    /**
+     * 服务信息接口
+     */
+    @GetMapping(value = "/info", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] info() {
+        return info;
+    }
+}
@@ -0,0 +1,155 @@
+package com.cao.ecommerce.common.spring.loadbalancer;
+
+import com.cao.ecommerce.common.config.NacosDiscoveryConstants;
+import com.cao.ecommerce.common.loadbalance.PeakEwmaBalancer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 延迟感知的P2C负载均衡器（替换默认轮询）
+ *
+ * 技术要点：
+ * 1. 选择算法见 {@link PeakEwmaBalancer}：按权重抽取两个实例，比较 EWMA延迟 × 在途请求数
+ * 2. 权重取自Nacos实例元数据 nacos.weight（控制台可在线调整），新注册实例在预热窗口内逐步放量
+ * 3. 同时实现 LoadBalancerLifecycle：网关的负载均衡过滤器、服务间调用的 BlockingLoadBalancerClient
+ *    在请求开始和结束时回调，
+ *    用于维护在途请求数和采集延迟；5xx和异常按失败计入
+ * 4. 选定实例后在本地被拒绝、没有真正转发的请求（如网关实例级熔断降级）在请求属性中标记 {@link #DISCARD_ATTRIBUTE}，
+ *    完成时按 DISCARD 处理，只减在途数，不计入延迟和失败
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    /** 请求属性：请求未转发到选定实例，完成时不计入该实例的延迟和失败 */
+    public static final String DISCARD_ATTRIBUTE = PeakEwmaLoadBalancer.class.getName() + ".discard";
+
+    /** Nacos实例元数据中的权重键 */
+    private static final String NACOS_WEIGHT_METADATA_KEY = "nacos.weight";
+
+    private final String serviceId;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+
+    private final PeakEwmaBalancer<ServiceInstance> balancer;
+
+    public PeakEwmaLoadBalancer(String serviceId, ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                PeakEwmaLoadBalancerProperties properties) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.balancer = new PeakEwmaBalancer<>(PeakEwmaLoadBalancer::instanceKey, PeakEwmaLoadBalancer::weight,
+                properties.getDecayMs(), properties.getSlowStartMs(), properties.getSlowStartMinFactor(),
+                properties.getFailurePenaltyMs());
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> select(supplier, instances));
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context && context.getRequestStartTime() == 0) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        balancer.onStart(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (completionContext.status() == CompletionContext.Status.DISCARD || isDiscarded(completionContext)) {
+            balancer.onComplete(lbResponse.getServer(), -1, true);
+            return;
+        }
+        long latencyNanos = -1;
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext context
+                && context.getRequestStartTime() > 0) {
+            latencyNanos = System.nanoTime() - context.getRequestStartTime();
+        }
+        balancer.onComplete(lbResponse.getServer(), latencyNanos, isSuccess(completionContext));
+    }
+
+    private Response<ServiceInstance> select(ServiceInstanceListSupplier supplier, List<ServiceInstance> instances) {
+        ServiceInstance chosen = balancer.choose(instances);
+        if (chosen == null) {
+            log.warn("服务 {} 没有可用实例", serviceId);
+            return new EmptyResponse();
+        }
+        if (supplier instanceof SelectedInstanceCallback callback) {
+            callback.selectedServiceInstance(chosen);
+        }
+        return new DefaultResponse(chosen);
+    }
+
+    private static boolean isDiscarded(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        return completionContext.getClientResponse() instanceof ResponseData responseData
+                && responseData.getRequestData() != null
+                && responseData.getRequestData().getAttributes() != null
+                && Boolean.TRUE.equals(responseData.getRequestData().getAttributes().get(DISCARD_ATTRIBUTE));
+    }
+
+    private static boolean isSuccess(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() != CompletionContext.Status.SUCCESS) {
+            return false;
+        }
+        return !(completionContext.getClientResponse() instanceof ResponseData responseData)
+                || responseData.getHttpStatus() == null
+                || !responseData.getHttpStatus().is5xxServerError();
+    }
+
+    private static String instanceKey(ServiceInstance instance) {
+        String instanceId = instance.getInstanceId();
+        return instanceId != null ? instanceId : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static double weight(ServiceInstance instance) {
+        String weight = instance.getMetadata() == null ? null : instance.getMetadata().get(NACOS_WEIGHT_METADATA_KEY);
+        if (weight == null) {
+            return NacosDiscoveryConstants.DEFAULT_WEIGHT;
+        }
+        try {
+            return Double.parseDouble(weight);
+        } catch (NumberFormatException e) {
+            return NacosDiscoveryConstants.DEFAULT_WEIGHT;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.cao.ecommerce.common.spring.loadbalancer;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+
+/**
+ * 延迟感知负载均衡自动装配
+ *
+ * 网关的 lb:// 路由和交易服务按服务名发起的调用都经由Spring Cloud LoadBalancer选择实例，
+ * 引入本模块且类路径上有LoadBalancer时，把默认的轮询替换为P2C；
+ * 所有下游服务共用同一份默认配置，每个服务在各自的LoadBalancer子容器中创建独立的负载均衡器，实例统计互不干扰
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@AutoConfiguration
+@ConditionalOnClass(LoadBalancerClientFactory.class)
+@EnableConfigurationProperties(PeakEwmaLoadBalancerProperties.class)
+@ConditionalOnProperty(prefix = PeakEwmaLoadBalancerProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerClientConfiguration.class)
+public class PeakEwmaLoadBalancerAutoConfiguration {
+}
@@ -0,0 +1,30 @@
+package com.cao.ecommerce.common.spring.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * LoadBalancer子容器配置
+ *
+ * 注意：不加 @Configuration，避免被主容器扫描；由 @LoadBalancerClients 注册到每个服务的子容器
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class PeakEwmaLoadBalancerClientConfiguration {
+
+    /**
+     * 返回具体类型：网关负载均衡过滤器和 BlockingLoadBalancerClient 按 LoadBalancerLifecycle 类型查找生命周期回调
+     */
+    @Bean
+    public PeakEwmaLoadBalancer peakEwmaLoadBalancer(Environment environment,
+                                                     LoadBalancerClientFactory loadBalancerClientFactory,
+                                                     PeakEwmaLoadBalancerProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(serviceId,
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                properties);
+    }
+}
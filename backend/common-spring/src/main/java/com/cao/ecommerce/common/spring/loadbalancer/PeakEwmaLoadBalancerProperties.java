@@ -0,0 +1,32 @@
+package com.cao.ecommerce.common.spring.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 延迟感知负载均衡配置（网关 lb:// 路由和服务间调用共用）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = PeakEwmaLoadBalancerProperties.PREFIX)
+public class PeakEwmaLoadBalancerProperties {
+
+    public static final String PREFIX = "ecommerce.load-balancer";
+
+    /** 是否启用，关闭后回退为Spring Cloud LoadBalancer默认的轮询 */
+    private boolean enabled = true;
+
+    /** EWMA衰减时间常数（毫秒），越小对延迟变化越敏感 */
+    private long decayMs = 10000;
+
+    /** 新实例预热窗口（毫秒），0表示不预热 */
+    private long slowStartMs = 30000;
+
+    /** 预热开始时的权重系数 */
+    private double slowStartMinFactor = 0.1;
+
+    /** 失败请求计入EWMA的最小延迟（毫秒） */
+    private long failurePenaltyMs = 1000;
+}
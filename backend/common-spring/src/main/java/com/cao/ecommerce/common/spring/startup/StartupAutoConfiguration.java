@@ -0,0 +1,38 @@
+package com.cao.ecommerce.common.spring.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 快速启动装配：延迟初始化的排除规则和启动配置打印
+ *
+ * spring.main.lazy-initialization=true（环境变量 APP_LAZY_INIT）时，Bean在第一次被使用时才创建，
+ * 缩短启动到注册Nacos、开始接收流量的时间，代价是首个请求承担相关Bean的创建
+ *
+ * 设计要点：
+ * 声明了 initMethod 的Bean（调度器、写入器、中继、健康监控等后台组件）没有其他Bean依赖时永远不会被创建，
+ * 因此始终在启动时创建；BeanPostProcessor、SmartInitializingSingleton 由Spring Boot自行排除，
+ * 过滤器在Web服务器启动时按类型获取，同样在启动时创建
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(StartupProperties.class)
+public class StartupAutoConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundComponentExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanDefinition.getInitMethodName() != null;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = StartupProperties.PREFIX, name = "print-config", havingValue = "true",
+            matchIfMissing = true)
+    public StartupConfigPrinter startupConfigPrinter(StartupProperties properties) {
+        return new StartupConfigPrinter(properties);
+    }
+}
@@ -0,0 +1,88 @@
+package com.cao.ecommerce.common.spring.startup;
+
+import com.cao.ecommerce.common.util.ConfigPrinter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动配置打印：应用就绪后取值，由后台线程打印，不占用启动时间
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class StartupConfigPrinter implements ApplicationListener<ApplicationReadyEvent> {
+
+    /**
+     * 打印的配置项，ConfigPrinter 按前缀分组显示
+     */
+    static final List<String> KEYS = List.of(
+            // 基础配置
+            "server.port",
+            "spring.application.name",
+            // Nacos配置
+            "spring.cloud.nacos.discovery.server-addr",
+            "spring.cloud.nacos.discovery.namespace",
+            "spring.cloud.nacos.discovery.group",
+            "spring.cloud.nacos.discovery.username",
+            "spring.cloud.nacos.discovery.password",
+            "spring.cloud.nacos.discovery.enabled",
+            "spring.cloud.nacos.discovery.register-enabled",
+            // 数据库配置
+            "spring.datasource.driver-class-name",
+            "spring.datasource.url",
+            "spring.datasource.username",
+            "spring.datasource.password",
+            // Redis配置
+            "spring.data.redis.host",
+            "spring.data.redis.port",
+            "spring.data.redis.password",
+            "spring.data.redis.database",
+            // MyBatis配置
+            "mybatis-plus.configuration.map-underscore-to-camel-case",
+            "mybatis-plus.configuration.log-impl",
+            "mybatis-plus.global-config.db-config.logic-delete-field",
+            "mybatis-plus.global-config.db-config.logic-delete-value",
+            "mybatis-plus.global-config.db-config.logic-not-delete-value",
+            // 日志配置
+            "logging.level.com.cao.ecommerce",
+            "logging.pattern.console",
+            // 管理端点配置
+            "management.endpoints.web.exposure.include",
+            "management.endpoint.health.show-details");
+
+    private final StartupProperties properties;
+
+    public StartupConfigPrinter(StartupProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        String displayName = StringUtils.hasText(properties.getDisplayName())
+                ? properties.getDisplayName() : environment.getProperty("spring.application.name");
+        ConfigPrinter.printConfigAsync(displayName,
+                getConfigurationMap(environment, event.getSpringApplication().getMainApplicationClass()));
+    }
+
+    /**
+     * 获取配置信息Map，包含启动类所在包的 mapper 日志级别
+     */
+    static Map<String, Object> getConfigurationMap(Environment environment, Class<?> mainApplicationClass) {
+        Map<String, Object> configMap = new HashMap<>();
+        for (String key : KEYS) {
+            configMap.put(key, environment.getProperty(key));
+        }
+        if (mainApplicationClass != null) {
+            String mapperLogger = "logging.level." + mainApplicationClass.getPackageName() + ".mapper";
+            configMap.put(mapperLogger, environment.getProperty(mapperLogger));
+        }
+        return configMap;
+    }
+}
@@ -0,0 +1,23 @@
+package com.cao.ecommerce.common.spring.startup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 启动配置（各服务共用）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = StartupProperties.PREFIX)
+public class StartupProperties {
+
+    public static final String PREFIX = "ecommerce.startup";
+
+    /** 启动日志中的服务名称，如 交易服务；为空时使用 spring.application.name */
+    private String displayName;
+
+    /** 应用就绪后是否在后台打印配置信息 */
+    private boolean printConfig = true;
+}
@@ -0,0 +1,119 @@
+package com.cao.ecommerce.common.spring.concurrent;
+
+import com.cao.ecommerce.common.concurrent.Bulkhead;
+import com.cao.ecommerce.common.concurrent.BulkheadDataSource;
+import com.cao.ecommerce.common.concurrent.VirtualThreadPinningMonitor;
+import com.cao.ecommerce.common.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 虚拟线程模式自动装配测试：开关、按前缀注册指标、数据源舱壁只包装一层
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class VirtualThreadAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(VirtualThreadAutoConfiguration.class))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    private final ApplicationContextRunner enabled = runner.withPropertyValues(
+            "spring.threads.virtual.enabled=true", VirtualThreadProperties.PREFIX + ".metric-prefix=trade");
+
+    @Test
+    void disabledByDefault() {
+        runner.withBean("dataSource", DataSource.class, VirtualThreadAutoConfigurationTest::stubDataSource)
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class);
+                    assertThat(context.getBean(DataSource.class)).isNotInstanceOf(BulkheadDataSource.class);
+                });
+    }
+
+    @Test
+    void wrapsDataSourceAndRegistersMetersUnderPrefix() {
+        enabled.withBean("dataSource", DataSource.class, VirtualThreadAutoConfigurationTest::stubDataSource)
+                .run(context -> {
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    DataSource dataSource = context.getBean(DataSource.class);
+
+                    assertThat(context).hasSingleBean(VirtualThreadPinningMonitor.class);
+                    assertThat(dataSource).isInstanceOf(BulkheadDataSource.class);
+                    assertThat(registry.find("trade.virtual.pinned").meter()).isNotNull();
+                    assertThat(registry.find("trade.db.bulkhead.active").tag("name", "dataSource").gauge())
+                            .isNotNull();
+
+                    Bulkhead bulkhead = ((BulkheadDataSource) dataSource).getBulkhead();
+                    try (Connection ignored = dataSource.getConnection()) {
+                        assertThat(bulkhead.getActiveCount()).isEqualTo(1);
+                    }
+                    assertThat(bulkhead.getActiveCount()).isZero();
+                });
+    }
+
+    @Test
+    void bulkheadWrapsRoutingDataSourceOnce() {
+        enabled.withBean("dataSource", DataSource.class,
+                        () -> new ReadWriteRoutingDataSource(stubDataSource(), List.of()))
+                .run(context -> {
+                    DataSource dataSource = context.getBean(DataSource.class);
+
+                    assertThat(dataSource).isInstanceOf(BulkheadDataSource.class);
+                    assertThat(((BulkheadDataSource) dataSource).getDelegate())
+                            .isInstanceOf(ReadWriteRoutingDataSource.class);
+                });
+    }
+
+    @Test
+    void skipsRoutingDataSourceWhosePrimaryAlreadyHasBulkhead() {
+        Bulkhead bulkhead = new Bulkhead("primary", 4, 100);
+        enabled.withBean("dataSource", DataSource.class, () -> new ReadWriteRoutingDataSource(
+                        new BulkheadDataSource(stubDataSource(), bulkhead), List.of()))
+                .run(context -> {
+                    DataSource dataSource = context.getBean(DataSource.class);
+                    assertThat(dataSource).isInstanceOf(ReadWriteRoutingDataSource.class);
+
+                    // 路由连接延迟获取物理连接：创建语句时才占用主库舱壁，且只占一个许可
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.createStatement();
+                        assertThat(bulkhead.getActiveCount()).isEqualTo(1);
+                    }
+                    assertThat(bulkhead.getActiveCount()).isZero();
+                });
+    }
+
+    /**
+     * 不连接数据库的数据源：返回的连接除 close 外都是空操作
+     */
+    private static DataSource stubDataSource() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> "getConnection".equals(method.getName())
+                        ? stubConnection() : defaultValue(method.getReturnType()));
+    }
+
+    private static Connection stubConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> defaultValue(method.getReturnType()));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return null;
+    }
+}
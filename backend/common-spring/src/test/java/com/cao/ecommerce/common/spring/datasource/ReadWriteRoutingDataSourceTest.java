@@ -0,0 +1,299 @@
+package com.cao.ecommerce.common.spring.datasource;
+
+import com.cao.ecommerce.common.datasource.ReadConsistency;
+import com.cao.ecommerce.common.datasource.ReadWriteRoutingDataSource;
+import com.cao.ecommerce.common.datasource.ReplicaLagMonitor;
+import com.cao.ecommerce.common.datasource.ReplicaNode;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读写分离数据源测试：主库和两个从库各是一个H2内存库（MySQL兼容模式），
+ * 从库的复制进度通过直接写入从库心跳表模拟，经 DataSourceTransactionManager 验证延迟连接的路由、
+ * 读己之写令牌、回退主库，以及延迟监控的摘除和重新加入
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String INSTANCE_ID = "test-instance";
+
+    private static final long MAX_LAG_MILLIS = 10_000;
+
+    private final List<JdbcConnectionPool> pools = new ArrayList<>();
+
+    private JdbcTemplate primaryJdbc;
+
+    private JdbcTemplate freshJdbc;
+
+    private JdbcTemplate laggingJdbc;
+
+    private ReplicaNode fresh;
+
+    private ReplicaNode lagging;
+
+    private ReadWriteRoutingDataSource routing;
+
+    private ReplicaLagMonitor monitor;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        JdbcConnectionPool primary = database("primary");
+        JdbcConnectionPool freshPool = database("fresh");
+        JdbcConnectionPool laggingPool = database("lagging");
+        primaryJdbc = new JdbcTemplate(primary);
+        freshJdbc = new JdbcTemplate(freshPool);
+        laggingJdbc = new JdbcTemplate(laggingPool);
+        fresh = new ReplicaNode("fresh", freshPool, 1);
+        lagging = new ReplicaNode("lagging", laggingPool, 1);
+        routing = new ReadWriteRoutingDataSource(primary, List.of(fresh, lagging));
+        monitor = new ReplicaLagMonitor(routing, INSTANCE_ID, 1_000, MAX_LAG_MILLIS);
+        jdbcTemplate = new JdbcTemplate(routing);
+        transactionManager = new DataSourceTransactionManager(routing);
+        ReadConsistency.begin(0, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadConsistency.end();
+        for (JdbcConnectionPool pool : pools) {
+            new JdbcTemplate(pool).execute("SHUTDOWN");
+            pool.dispose();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        replicate(freshJdbc, 0);
+        replicate(laggingJdbc, 0);
+        monitor.probeOnce();
+
+        Set<String> servedBy = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            servedBy.add(readOnlyNodeName());
+        }
+
+        // 两个从库权重相同，随机选择
+        assertThat(servedBy).containsExactlyInAnyOrder("fresh", "lagging");
+        assertThat(fresh.getSelectedCount() + lagging.getSelectedCount()).isEqualTo(50);
+        assertThat(routing.getPrimaryCount()).isZero();
+        assertThat(routing.getFallbackCount()).isZero();
+    }
+
+    @Test
+    void writesAndNonTransactionalReadsGoToPrimary() {
+        replicate(freshJdbc, 0);
+        replicate(laggingJdbc, 0);
+        monitor.probeOnce();
+
+        assertThat(nodeName()).isEqualTo("primary");
+        String inWriteTransaction = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.update("INSERT INTO item (id, name) VALUES (1, 'a')");
+            return nodeName();
+        });
+
+        assertThat(inWriteTransaction).isEqualTo("primary");
+        assertThat(primaryJdbc.queryForObject("SELECT COUNT(*) FROM item", Integer.class)).isEqualTo(1);
+        assertThat(routing.getPrimaryCount()).isEqualTo(2);
+        assertThat(fresh.getSelectedCount() + lagging.getSelectedCount()).isZero();
+    }
+
+    @Test
+    void readOnlyTransactionFallsBackToPrimaryWhenNoReplicaQualifies() {
+        // 首次探测之前从库不参与路由
+        assertThat(readOnlyNodeName()).isEqualTo("primary");
+        assertThat(routing.getFallbackCount()).isEqualTo(1);
+
+        // 两个从库都落后超过阈值
+        replicate(freshJdbc, -2 * MAX_LAG_MILLIS);
+        replicate(laggingJdbc, -2 * MAX_LAG_MILLIS);
+        monitor.probeOnce();
+        assertThat(readOnlyNodeName()).isEqualTo("primary");
+        assertThat(routing.getFallbackCount()).isEqualTo(2);
+        assertThat(routing.getPrimaryCount()).isZero();
+    }
+
+    @Test
+    void writeTokenExcludesReplicasThatHaveNotCaughtUp() {
+        // fresh 已应用到未来的心跳（必然覆盖本次写入），lagging 落后3秒但仍在阈值内
+        replicate(freshJdbc, MAX_LAG_MILLIS);
+        replicate(laggingJdbc, -3_000);
+        monitor.probeOnce();
+        assertThat(fresh.isAvailable()).isTrue();
+        assertThat(lagging.isAvailable()).isTrue();
+
+        List<Long> tokens = new ArrayList<>();
+        ReadConsistency.begin(0, tokens::add);
+        jdbcTemplate.update("INSERT INTO item (id, name) VALUES (1, 'a')");
+        assertThat(tokens).singleElement().isEqualTo(ReadConsistency.currentToken());
+        assertThat(ReadConsistency.currentToken()).isGreaterThan(lagging.getCaughtUpToMillis());
+
+        for (int i = 0; i < 30; i++) {
+            assertThat(readOnlyNodeName()).isEqualTo("fresh");
+        }
+        assertThat(lagging.getSelectedCount()).isZero();
+
+        // 令牌晚于所有从库的复制进度时读主库
+        ReadConsistency.begin(Long.MAX_VALUE, null);
+        assertThat(readOnlyNodeName()).isEqualTo("primary");
+        assertThat(routing.getFallbackCount()).isEqualTo(1);
+    }
+
+    @Test
+    void monitorEvictsLaggingReplicaAndReadmitsBelowHalfThreshold() {
+        replicate(freshJdbc, 0);
+        monitor.probeOnce();
+        assertThat(fresh.isAvailable()).isTrue();
+        assertThat(fresh.getLagMillis()).isLessThan(MAX_LAG_MILLIS / 2);
+        // 没有心跳行的从库不加入
+        assertThat(lagging.isAvailable()).isFalse();
+        assertThat(lagging.getLagMillis()).isEqualTo(-1);
+
+        replicate(freshJdbc, -2 * MAX_LAG_MILLIS);
+        monitor.probeOnce();
+        assertThat(fresh.isAvailable()).isFalse();
+        assertThat(fresh.getLagMillis()).isGreaterThanOrEqualTo(2 * MAX_LAG_MILLIS);
+        assertThat(fresh.getEvictedCount()).isEqualTo(1);
+
+        // 延迟回落到阈值以内但高于一半，仍不加入
+        replicate(freshJdbc, -MAX_LAG_MILLIS * 3 / 4);
+        monitor.probeOnce();
+        assertThat(fresh.isAvailable()).isFalse();
+
+        replicate(freshJdbc, 0);
+        monitor.probeOnce();
+        assertThat(fresh.isAvailable()).isTrue();
+        assertThat(fresh.getEvictedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void monitorEvictsUnreachableReplicaAndKeepsStateWhenPrimaryHeartbeatFails() {
+        replicate(freshJdbc, 0);
+        replicate(laggingJdbc, 0);
+        monitor.probeOnce();
+
+        laggingJdbc.execute("DROP TABLE replication_heartbeat");
+        monitor.probeOnce();
+        assertThat(lagging.isAvailable()).isFalse();
+        assertThat(lagging.getEvictedCount()).isEqualTo(1);
+
+        // 主库心跳写入失败：无法判断从库状态，保持上一轮的路由
+        primaryJdbc.execute("DROP TABLE replication_heartbeat");
+        replicate(freshJdbc, -2 * MAX_LAG_MILLIS);
+        monitor.probeOnce();
+        assertThat(fresh.isAvailable()).isTrue();
+    }
+
+    @Test
+    void primaryHeartbeatIsUpserted() {
+        monitor.probeOnce();
+        long first = primaryJdbc.queryForObject("SELECT ts FROM replication_heartbeat WHERE id = ?",
+                Long.class, INSTANCE_ID);
+        monitor.probeOnce();
+
+        assertThat(primaryJdbc.queryForObject("SELECT COUNT(*) FROM replication_heartbeat", Integer.class))
+                .isEqualTo(1);
+        assertThat(primaryJdbc.queryForObject("SELECT ts FROM replication_heartbeat WHERE id = ?",
+                Long.class, INSTANCE_ID)).isGreaterThanOrEqualTo(first);
+    }
+
+    @Test
+    void transactionManagerCommitsAndRollsBackThroughProxy() {
+        TransactionTemplate writes = new TransactionTemplate(transactionManager);
+        writes.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        writes.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO item (id, name) VALUES (1, 'a')"));
+        writes.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO item (id, name) VALUES (2, 'b')");
+            status.setRollbackOnly();
+        });
+
+        assertThat(primaryJdbc.queryForList("SELECT id FROM item", Long.class)).containsExactly(1L);
+        assertThat(routing.getPrimaryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void replicaConnectionAppliesIsolationAndIgnoresTransactionControl() {
+        replicate(freshJdbc, 0);
+        monitor.probeOnce();
+        TransactionTemplate reads = readOnly();
+        reads.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        String servedBy = reads.execute(status -> jdbcTemplate.execute((Connection connection) -> {
+            assertThat(connection.getTransactionIsolation()).isEqualTo(Connection.TRANSACTION_READ_COMMITTED);
+            // 从库连接按自动提交执行，事务的 setAutoCommit(false) 只记录在代理上
+            assertThat(connection.getAutoCommit()).isFalse();
+            assertThat(connection.isReadOnly()).isTrue();
+            return nodeName();
+        }));
+
+        assertThat(servedBy).isEqualTo("fresh");
+    }
+
+    @Test
+    void transactionWithoutStatementsNeverAcquiresConnection() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+        });
+        readOnly().executeWithoutResult(status -> {
+        });
+
+        assertThat(routing.getPrimaryCount()).isZero();
+        assertThat(routing.getFallbackCount()).isZero();
+        // 没有写入主库，不产生读己之写令牌
+        assertThat(ReadConsistency.currentToken()).isZero();
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private String readOnlyNodeName() {
+        return readOnly().execute(status -> nodeName());
+    }
+
+    private String nodeName() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    /**
+     * 模拟复制：把本实例的心跳以相对当前时刻的偏移写入从库
+     */
+    private static void replicate(JdbcTemplate replica, long offsetMillis) {
+        replica.update("DELETE FROM replication_heartbeat WHERE id = ?", INSTANCE_ID);
+        replica.update("INSERT INTO replication_heartbeat (id, ts) VALUES (?, ?)",
+                INSTANCE_ID, System.currentTimeMillis() + offsetMillis);
+    }
+
+    private JdbcConnectionPool database(String name) {
+        JdbcConnectionPool pool = JdbcConnectionPool.create("jdbc:h2:mem:rw-" + name + "-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        pools.add(pool);
+        JdbcTemplate jdbc = new JdbcTemplate(pool);
+        jdbc.execute("CREATE TABLE replication_heartbeat (id VARCHAR(64) NOT NULL PRIMARY KEY, ts BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE node (name VARCHAR(32) NOT NULL)");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        jdbc.execute("CREATE TABLE item (id BIGINT NOT NULL PRIMARY KEY, name VARCHAR(32) NOT NULL)");
+        return pool;
+    }
+}
@@ -0,0 +1,164 @@
+package com.cao.ecommerce.common.spring.datasource;
+
+import com.cao.ecommerce.common.datasource.ReadConsistency;
+import com.cao.ecommerce.common.datasource.ReadWriteRoutingDataSource;
+import com.cao.ecommerce.common.datasource.ReplicaLagMonitor;
+import com.cao.ecommerce.common.datasource.ReplicaNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读写分离自动装配测试：默认数据源包装、从库和指标前缀、只在Servlet应用中注册令牌过滤器、令牌的请求头传递
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class ReadWriteSplittingAutoConfigurationTest {
+
+    private static final String PREFIX = ReadWriteSplittingProperties.PREFIX;
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ReadWriteSplittingAutoConfiguration.class))
+            .withBean("dataSource", DataSource.class, () -> h2("rw-config-primary"))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    void disabledByDefault() {
+        runner.run(context -> {
+            assertThat(context).doesNotHaveBean(ReplicaLagMonitor.class);
+            DataSource dataSource = context.getBean("dataSource", DataSource.class);
+            assertThat(dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)).isFalse();
+            assertThat(ReadWriteSplittingAutoConfiguration.readOnlyTransaction(dataSource))
+                    .isSameAs(TransactionOperations.withoutTransaction());
+        });
+    }
+
+    @Test
+    void wrapsDefaultDataSourceAndRegistersMetricsWithPrefix() {
+        runner.withPropertyValues(PREFIX + ".enabled=true", PREFIX + ".metric-prefix=trade",
+                        PREFIX + ".instance-id=test-instance", PREFIX + ".probe-interval-ms=60000",
+                        PREFIX + ".replicas[0].name=replica-a",
+                        PREFIX + ".replicas[0].url=" + h2Url("rw-config-replica-a"),
+                        PREFIX + ".replicas[0].username=sa", PREFIX + ".replicas[0].weight=3",
+                        PREFIX + ".replicas[1].url=" + h2Url("rw-config-replica-b"),
+                        PREFIX + ".replicas[1].username=sa")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(ReplicaLagMonitor.class);
+                    // 非Web应用不注册令牌过滤器
+                    assertThat(context).doesNotHaveBean(FilterRegistrationBean.class);
+
+                    DataSource dataSource = context.getBean("dataSource", DataSource.class);
+                    ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+                    assertThat(routing.getReplicas()).extracting(ReplicaNode::getName)
+                            .containsExactly("replica-a", "replica-1");
+                    assertThat(routing.getReplicas()).extracting(ReplicaNode::getWeight).containsExactly(3, 1);
+                    assertThat(ReadWriteSplittingAutoConfiguration.readOnlyTransaction(dataSource))
+                            .isInstanceOf(TransactionTemplate.class);
+
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    assertThat(registry.find("trade.db.routing").tag("target", "primary").functionCounter())
+                            .isNotNull();
+                    assertThat(registry.find("trade.db.routing").tag("replica", "replica-a").functionCounter())
+                            .isNotNull();
+                    assertThat(registry.find("trade.db.replica.lag").tag("replica", "replica-1").gauge())
+                            .isNotNull();
+                    assertThat(registry.find("trade.db.replica.available").gauges()).hasSize(2);
+                    assertThat(registry.find("trade.db.replica.evicted").functionCounters()).hasSize(2);
+                });
+    }
+
+    @Test
+    void otherDataSourcesAreNotWrapped() {
+        runner.withPropertyValues(PREFIX + ".enabled=true", PREFIX + ".probe-interval-ms=60000")
+                .withBean("orderShardDataSource", DataSource.class, () -> h2("rw-config-shard"))
+                .run(context -> {
+                    assertThat(context.getBean("dataSource", DataSource.class)
+                            .isWrapperFor(ReadWriteRoutingDataSource.class)).isTrue();
+                    assertThat(context.getBean("orderShardDataSource", DataSource.class))
+                            .isInstanceOf(JdbcConnectionPool.class);
+                });
+    }
+
+    @Test
+    void registersTokenFilterInServletApplication() {
+        new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(ReadWriteSplittingAutoConfiguration.class))
+                .withBean("dataSource", DataSource.class, () -> h2("rw-config-web"))
+                .withPropertyValues(PREFIX + ".enabled=true", PREFIX + ".probe-interval-ms=60000",
+                        PREFIX + ".token-header=X-Read-Token")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(FilterRegistrationBean.class);
+                    assertThat(context.getBean(FilterRegistrationBean.class).getFilter())
+                            .isInstanceOf(ReadConsistencyFilter.class);
+                });
+    }
+
+    @Test
+    void filterRestoresTokenAndReturnsNewTokenAfterWrite() throws Exception {
+        JdbcConnectionPool primary = h2("rw-config-filter");
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of());
+        ReadConsistencyFilter filter = new ReadConsistencyFilter("X-Read-After");
+        AtomicLong seen = new AtomicLong();
+        try {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/1");
+            request.addHeader("X-Read-After", "12345");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest req, ServletResponse res) {
+                    seen.set(ReadConsistency.currentToken());
+                }
+            });
+            assertThat(seen.get()).isEqualTo(12345);
+            assertThat(response.getHeader("X-Read-After")).isNull();
+
+            MockHttpServletRequest write = new MockHttpServletRequest("POST", "/orders");
+            write.addHeader("X-Read-After", "not-a-number");
+            MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+            filter.doFilter(write, writeResponse, new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest req, ServletResponse res) {
+                    seen.set(ReadConsistency.currentToken());
+                    new JdbcTemplate(routing).execute("SELECT 1");
+                }
+            });
+            assertThat(seen.get()).isZero();
+            assertThat(Long.parseLong(writeResponse.getHeader("X-Read-After"))).isPositive();
+            // 请求结束后令牌被清除，不会串到线程上的下一个请求
+            assertThat(ReadConsistency.currentToken()).isZero();
+        } finally {
+            primary.dispose();
+        }
+    }
+
+    private static JdbcConnectionPool h2(String name) {
+        JdbcConnectionPool pool = JdbcConnectionPool.create(h2Url(name), "sa", "");
+        new JdbcTemplate(pool).execute("CREATE TABLE IF NOT EXISTS replication_heartbeat "
+                + "(id VARCHAR(64) NOT NULL PRIMARY KEY, ts BIGINT NOT NULL)");
+        return pool;
+    }
+
+    private static String h2Url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    }
+}
@@ -0,0 +1,152 @@
+package com.cao.ecommerce.common.spring.health;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.cao.ecommerce.common.health.HealthMonitor;
+import com.cao.ecommerce.common.health.HealthProbe;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 健康检查自动装配测试：探测列表（每个数据源一个 + HealthProbe Bean）、按应用类型注册控制器、状态码
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class HealthAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(HealthAutoConfiguration.class))
+            .withPropertyValues("spring.application.name=trade-service", "server.port=28083",
+                    HealthProperties.PREFIX + ".description=电商微服务交易服务");
+
+    @Test
+    void probesEveryDataSourceAndHealthProbeBean() {
+        runner.withBean("primaryDataSource", DataSource.class, () -> h2("health-primary"))
+                .withBean("orderDataSource", DataSource.class, () -> h2("health-order"))
+                .withBean("redisHealthProbe", HealthProbe.class, () -> probe("redis", null))
+                .run(context -> {
+                    HealthMonitor monitor = context.getBean(HealthMonitor.class);
+                    JSONObject detail = JSON.parseObject(monitor.refresh().getDetail());
+
+                    assertThat(detail.getString("status")).isEqualTo(HealthMonitor.UP);
+                    assertThat(detail.getString("service")).isEqualTo("trade-service");
+                    assertThat(detail.getString("port")).isEqualTo("28083");
+                    JSONObject checks = detail.getJSONObject("checks");
+                    assertThat(checks.keySet()).containsExactlyInAnyOrder(
+                            "db:primaryDataSource", "db:orderDataSource", "redis");
+                    assertThat(checks.getJSONObject("db:orderDataSource").getJSONObject("details")
+                            .getString("database")).isEqualTo("H2");
+                });
+    }
+
+    @Test
+    void unreachableDataSourceReportsDown() {
+        runner.withBean("dataSource", DataSource.class, HealthAutoConfigurationTest::unreachableDataSource)
+                .run(context -> {
+                    JSONObject detail = JSON.parseObject(context.getBean(HealthMonitor.class).refresh().getDetail());
+
+                    assertThat(detail.getString("status")).isEqualTo(HealthMonitor.DOWN);
+                    assertThat(detail.getJSONObject("checks").getJSONObject("db:dataSource").getString("error"))
+                            .contains("connection refused");
+                });
+    }
+
+    @Test
+    void noControllerOutsideWebApplication() {
+        runner.run(context -> {
+            assertThat(context).hasSingleBean(HealthMonitor.class);
+            assertThat(context).doesNotHaveBean(HealthController.class);
+            assertThat(context).doesNotHaveBean(ReactiveHealthController.class);
+        });
+    }
+
+    @Test
+    void applicationMonitorTakesPrecedence() {
+        HealthMonitor custom = new HealthMonitor(Map.of(), List.of(), 1000, 5000, 2000);
+        runner.withBean(HealthMonitor.class, () -> custom)
+                .run(context -> assertThat(context.getBean(HealthMonitor.class)).isSameAs(custom));
+    }
+
+    @Test
+    void reactiveApplicationGetsNonBlockingController() {
+        new ReactiveWebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(HealthAutoConfiguration.class))
+                .withPropertyValues(HealthProperties.PREFIX + ".description=电商微服务API网关")
+                .withBean(HealthProbe.class, () -> probe("nacos", "unreachable"))
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(HealthController.class);
+                    ReactiveHealthController controller = context.getBean(ReactiveHealthController.class);
+
+                    ResponseEntity<byte[]> deep = controller.healthDeep().block();
+                    assertThat(deep.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(JSON.parseObject(deep.getBody()).getJSONObject("checks")
+                            .getJSONObject("nacos").getString("error")).contains("unreachable");
+                    assertThat(controller.health().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(JSON.parseObject(controller.info()).getString("description"))
+                            .isEqualTo("电商微服务API网关");
+                });
+    }
+
+    @Test
+    void servletControllerMapsSnapshotToStatus() {
+        HealthMonitor up = new HealthMonitor(Map.of(), List.of(probe("db", null)), 1000, 5000, 0);
+        HealthMonitor down = new HealthMonitor(Map.of(), List.of(probe("db", "timeout")), 1000, 5000, 0);
+        HealthController upController = new HealthController(up, Map.of("description", "电商微服务用户服务"));
+        HealthController downController = new HealthController(down, Map.of());
+
+        // 首次探测完成前报告UP，深度检查立即刷新
+        assertThat(downController.health().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(downController.healthDeep().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(downController.health().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(upController.healthDeep().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(JSON.parseObject(upController.info()).getString("description")).isEqualTo("电商微服务用户服务");
+    }
+
+    private static DataSource h2(String name) {
+        return JdbcConnectionPool.create("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    /**
+     * 取连接失败的数据源
+     */
+    private static DataSource unreachableDataSource() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    throw new SQLException("connection refused");
+                });
+    }
+
+    /**
+     * 固定结果的探测：error 为空时成功，否则抛出异常
+     */
+    private static HealthProbe probe(String name, String error) {
+        return new HealthProbe() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Map<String, Object> check() {
+                if (error != null) {
+                    throw new IllegalStateException(error);
+                }
+                return Map.of();
+            }
+        };
+    }
+}
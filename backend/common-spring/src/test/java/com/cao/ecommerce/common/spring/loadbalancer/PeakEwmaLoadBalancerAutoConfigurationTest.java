@@ -0,0 +1,44 @@
+package com.cao.ecommerce.common.spring.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.loadbalancer.config.LoadBalancerAutoConfiguration;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 延迟感知负载均衡自动装配测试：每个服务的LoadBalancer子容器使用P2C负载均衡器，关闭后回退默认轮询
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class PeakEwmaLoadBalancerAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(PeakEwmaLoadBalancerAutoConfiguration.class,
+                    LoadBalancerAutoConfiguration.class));
+
+    @Test
+    void eachServiceGetsItsOwnPeakEwmaLoadBalancer() {
+        runner.run(context -> {
+            LoadBalancerClientFactory factory = context.getBean(LoadBalancerClientFactory.class);
+            ReactiveLoadBalancer<ServiceInstance> user = factory.getInstance("user-service");
+            ReactiveLoadBalancer<ServiceInstance> product = factory.getInstance("product-service");
+
+            assertThat(user).isInstanceOf(PeakEwmaLoadBalancer.class);
+            assertThat(product).isInstanceOf(PeakEwmaLoadBalancer.class).isNotSameAs(user);
+        });
+    }
+
+    @Test
+    void disabledFallsBackToRoundRobin() {
+        runner.withPropertyValues(PeakEwmaLoadBalancerProperties.PREFIX + ".enabled=false").run(context -> {
+            LoadBalancerClientFactory factory = context.getBean(LoadBalancerClientFactory.class);
+            assertThat(factory.getInstance("user-service")).isNotInstanceOf(PeakEwmaLoadBalancer.class);
+        });
+    }
+}
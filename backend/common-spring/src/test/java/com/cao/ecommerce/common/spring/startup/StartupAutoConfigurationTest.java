@@ -0,0 +1,78 @@
+package com.cao.ecommerce.common.spring.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 快速启动装配测试：延迟初始化时后台组件仍在启动时创建、配置打印开关和打印内容
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class StartupAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(StartupAutoConfiguration.class));
+
+    @Test
+    void backgroundComponentsStayEagerUnderLazyInitialization() {
+        AtomicInteger created = new AtomicInteger();
+        runner.withInitializer(context -> context.addBeanFactoryPostProcessor(
+                        new LazyInitializationBeanFactoryPostProcessor()))
+                .withBean("relay", Component.class, () -> new Component(created),
+                        definition -> definition.setInitMethodName("start"))
+                .withBean("service", Component.class, () -> new Component(created))
+                .run(context -> {
+                    assertThat(created).hasValue(1);
+                    assertThat(context.getBean("relay", Component.class).started).isTrue();
+
+                    context.getBean("service");
+                    assertThat(created).hasValue(2);
+                });
+    }
+
+    @Test
+    void configPrinterRegisteredUnlessDisabled() {
+        runner.run(context -> assertThat(context).hasSingleBean(StartupConfigPrinter.class));
+        runner.withPropertyValues(StartupProperties.PREFIX + ".print-config=false")
+                .run(context -> assertThat(context).doesNotHaveBean(StartupConfigPrinter.class));
+    }
+
+    @Test
+    void configurationMapIncludesMapperLoggerOfMainPackage() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("server.port", "28083")
+                .withProperty("logging.level.com.cao.ecommerce.common.spring.startup.mapper", "DEBUG");
+
+        Map<String, Object> configMap = StartupConfigPrinter.getConfigurationMap(environment,
+                StartupAutoConfigurationTest.class);
+
+        assertThat(configMap).containsKeys(StartupConfigPrinter.KEYS.toArray(String[]::new))
+                .containsEntry("server.port", "28083")
+                .containsEntry("spring.application.name", null)
+                .containsEntry("logging.level.com.cao.ecommerce.common.spring.startup.mapper", "DEBUG");
+        assertThat(StartupConfigPrinter.getConfigurationMap(environment, null))
+                .hasSize(StartupConfigPrinter.KEYS.size());
+    }
+
+    static class Component {
+
+        boolean started;
+
+        Component(AtomicInteger created) {
+            created.incrementAndGet();
+        }
+
+        public void start() {
+            started = true;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.cao.ecommerce.common.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于信号量的舱壁（并发隔离）
+ *
+ * 技术要点：
+ * 1. 限制同时访问某个下游资源（数据库连接池、远程服务）的线程数，超出的线程在信号量上等待，
+ *    等待超过 maxWaitMillis 时快速失败，而不是在连接池内部无限排队
+ * 2. 虚拟线程模式下请求线程数不再受Tomcat线程池约束，上万个虚拟线程可能同时访问连接池；
+ *    舱壁把并发收敛到下游能承受的水平，Semaphore 基于AQS，等待时只挂起虚拟线程，不占用载体线程
+ * 3. 公平模式，先等待的线程先获得许可，避免长尾
+ * 4. 纯Java实现，不依赖Spring
+ *
+ * 面试要点：
+ * - 线程池隔离（Hystrix）通过独立线程池实现隔离，有线程切换开销；虚拟线程下线程本身不再稀缺，
+ *   信号量隔离即可
+ * - 舱壁与熔断互补：舱壁限制并发，熔断在下游持续失败时直接拒绝
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class Bulkhead {
+
+    private final String name;
+
+    private final int maxConcurrent;
+
+    private final long maxWaitMillis;
+
+    private final Semaphore permits;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param name          名称（用于日志和指标）
+     * @param maxConcurrent 最大并发数
+     * @param maxWaitMillis 获取许可的最长等待时间（毫秒），0表示不等待
+     */
+    public Bulkhead(String name, int maxConcurrent, long maxWaitMillis) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * 获取许可，成功后必须调用 {@link #release()}
+     *
+     * @throws BulkheadFullException 等待超时
+     */
+    public void acquire() {
+        boolean acquired;
+        try {
+            acquired = maxWaitMillis <= 0
+                    ? permits.tryAcquire()
+                    : permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCount.increment();
+            throw new BulkheadFullException(name, maxWaitMillis);
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * 在舱壁内执行
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        acquire();
+        try {
+            return task.call();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 在舱壁内执行（不抛出受检异常的任务）
+     */
+    public void run(Runnable task) {
+        acquire();
+        try {
+            task.run();
+        } finally {
+            release();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /** 当前占用的许可数 */
+    public int getActiveCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /** 正在等待许可的线程数（估计值） */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+}
@@ -0,0 +1,14 @@
+package com.cao.ecommerce.common.concurrent;
+
+/**
+ * 舱壁已满：等待超时仍未获得许可
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String name, long maxWaitMillis) {
+        super("bulkhead '" + name + "' is full, waited " + maxWaitMillis + "ms");
+    }
+}
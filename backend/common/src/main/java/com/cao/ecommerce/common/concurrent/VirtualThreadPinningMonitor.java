@@ -0,0 +1,146 @@
+package com.cao.ecommerce.common.concurrent;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * 虚拟线程钉住（pinning）监控
+ *
+ * 通过JFR事件流订阅 jdk.VirtualThreadPinned 事件：虚拟线程在 synchronized 块内或本地方法中阻塞时，
+ * 无法从载体线程卸载，载体线程被钉住，阻塞时长超过阈值时JVM产生该事件
+ *
+ * 技术要点：
+ * 1. 进程内事件流（RecordingStream），不需要 -Djdk.tracePinnedThreads 也不写文件，开销只在事件发生时产生
+ * 2. 按栈上第一个应用帧（包名前缀匹配）归并，定位是哪段业务代码或哪个驱动调用造成钉住
+ * 3. 每个位置首次出现以及每累计 reportEvery 次时回调一次报告函数，避免日志刷屏
+ * 4. 累计次数和总时长供指标采集
+ *
+ * 面试要点：
+ * - JDK 21 中 synchronized 内的阻塞会钉住载体线程，载体线程数默认等于CPU核数，
+ *   少量钉住就可能让全部虚拟线程停顿；JDK 24（JEP 491）起 synchronized 不再钉住
+ * - 修复方式：把持锁期间的IO改为 ReentrantLock，或升级使用 ReentrantLock 的驱动版本
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class VirtualThreadPinningMonitor {
+
+    private static final String EVENT_NAME = "jdk.VirtualThreadPinned";
+
+    private static final String UNKNOWN_FRAME = "<unknown>";
+
+    private final Duration threshold;
+
+    private final String applicationPackage;
+
+    private final long reportEvery;
+
+    private final BiConsumer<String, Duration> reporter;
+
+    private final LongAdder pinnedCount = new LongAdder();
+
+    private final LongAdder pinnedNanos = new LongAdder();
+
+    private final Map<String, LongAdder> countByFrame = new ConcurrentHashMap<>();
+
+    private RecordingStream stream;
+
+    /**
+     * @param threshold          钉住时长阈值，短于该值的不记录
+     * @param applicationPackage 应用包名前缀，用于定位栈上的业务代码
+     * @param reportEvery        同一位置每累计多少次报告一次
+     * @param reporter           报告回调：位置（类名.方法名:行号）和本次钉住时长
+     */
+    public VirtualThreadPinningMonitor(Duration threshold, String applicationPackage, long reportEvery,
+                                       BiConsumer<String, Duration> reporter) {
+        this.threshold = threshold;
+        this.applicationPackage = applicationPackage;
+        this.reportEvery = Math.max(1, reportEvery);
+        this.reporter = reporter;
+    }
+
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT_NAME).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT_NAME, this::onPinned);
+        stream.startAsync();
+    }
+
+    public synchronized void stop() {
+        if (stream == null) {
+            return;
+        }
+        stream.close();
+        stream = null;
+    }
+
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    /** 累计钉住时长（纳秒） */
+    public long getPinnedNanos() {
+        return pinnedNanos.sum();
+    }
+
+    /**
+     * 钉住次数最多的位置
+     *
+     * @param limit 返回的位置数
+     */
+    public Map<String, Long> getTopFrames(int limit) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        countByFrame.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(limit)
+                .forEach(e -> top.put(e.getKey(), e.getValue().sum()));
+        return top;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        Duration duration = event.getDuration();
+        pinnedCount.increment();
+        pinnedNanos.add(duration.toNanos());
+        String frame = locate(event.getStackTrace());
+        LongAdder counter = countByFrame.computeIfAbsent(frame, key -> new LongAdder());
+        counter.increment();
+        long count = counter.sum();
+        if (count == 1 || count % reportEvery == 0) {
+            reporter.accept(frame, duration);
+        }
+    }
+
+    /**
+     * 栈上第一个应用帧；没有应用帧时取栈顶
+     */
+    private String locate(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return UNKNOWN_FRAME;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(applicationPackage)) {
+                return describe(frame);
+            }
+        }
+        return describe(frames.get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + '.' + frame.getMethod().getName() + ':' + frame.getLineNumber();
+    }
+}
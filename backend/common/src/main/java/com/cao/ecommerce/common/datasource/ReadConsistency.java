@@ -0,0 +1,72 @@
+package com.cao.ecommerce.common.datasource;
+
+import java.util.function.LongConsumer;
+
+/**
+ * 读己之写的一致性令牌
+ *
+ * 令牌是本会话最近一次写入主库的时刻（毫秒）。读路由只选择已应用该时刻之前全部写入的从库，
+ * 没有这样的从库时读主库。令牌保存在线程本地变量中：
+ * 1. HTTP请求：入口过滤器从请求头恢复客户端上次拿到的令牌（{@link #begin}），请求中发生写入时通过回调把新令牌写入响应头，
+ *    客户端在后续请求中带回，跨请求、跨实例都能读到自己的写入
+ * 2. 后台线程：令牌一直保留在线程上，同一线程写后读自然一致
+ *
+ * 令牌与从库心跳都使用应用服务器时钟，跨实例传递时的误差即NTP校时误差
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class ReadConsistency {
+
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    private ReadConsistency() {
+    }
+
+    /**
+     * 开始一次请求
+     *
+     * @param token    客户端带回的令牌，没有时传0
+     * @param onWrite  请求中写入主库时的回调（参数为新令牌），可为null
+     */
+    public static void begin(long token, LongConsumer onWrite) {
+        Context context = CONTEXT.get();
+        context.token = token;
+        context.onWrite = onWrite;
+    }
+
+    /**
+     * 结束请求，清除令牌和回调（线程池复用线程时不会串到下一个请求）
+     */
+    public static void end() {
+        CONTEXT.remove();
+    }
+
+    /**
+     * 当前令牌，0表示没有需要读到的写入
+     */
+    public static long currentToken() {
+        return CONTEXT.get().token;
+    }
+
+    /**
+     * 记录一次主库写入
+     */
+    static void recordWrite(long millis) {
+        Context context = CONTEXT.get();
+        if (millis <= context.token) {
+            return;
+        }
+        context.token = millis;
+        if (context.onWrite != null) {
+            context.onWrite.accept(millis);
+        }
+    }
+
+    private static final class Context {
+
+        private long token;
+
+        private LongConsumer onWrite;
+    }
+}
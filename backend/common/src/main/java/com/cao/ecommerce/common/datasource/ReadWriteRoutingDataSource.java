@@ -0,0 +1,315 @@
+package com.cao.ecommerce.common.datasource;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 读写分离数据源：只读事务路由到从库，其余路由到主库
+ *
+ * 返回的连接是延迟连接：事务开始时的 setReadOnly / setAutoCommit / setTransactionIsolation 只记录下来，
+ * 第一次真正使用连接（创建语句等）时才根据只读标记选择主库或从库，再把设置应用到物理连接上
+ *
+ * 技术要点：
+ * 1. 只读事务（Spring 在事务开始时调用 setReadOnly(true)）读从库，读写事务和不在事务中的语句一律走主库，
+ *    启动恢复、发件箱等依赖最新数据的读取不会意外读到从库
+ * 2. 从库按权重随机选择，只在可用（探测成功、延迟未超过阈值）的从库中选；没有可用从库时回退主库
+ * 3. 读己之写：主库的读写连接关闭时记录写入时刻（{@link ReadConsistency}），
+ *    之后的只读事务只选择已应用该时刻之前写入的从库
+ * 4. 只读事务在从库上按自动提交执行，省去 SET autocommit、COMMIT 等往返；
+ *    同一连接上的多次读取看到的数据只会前进不会回退，一次写入的订单和明细要么都读到要么都读不到
+ *
+ * 面试要点：
+ * - 主从延迟下读写分离的常见问题：刚写完就读不到。解决方案有强制读主、按会话记录写入位置（GTID/时间戳）、
+ *   等待从库追上（WAIT_FOR_EXECUTED_GTID_SET）；这里用时间戳令牌 + 心跳表测得的从库位置
+ * - 为什么要延迟获取连接：事务开始时还不知道要读从库还是写主库，Spring 的 LazyConnectionDataSourceProxy 是同一思路
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class ReadWriteRoutingDataSource implements DataSource, AutoCloseable {
+
+    private final DataSource primary;
+
+    private final List<ReplicaNode> replicas;
+
+    private final LongAdder primaryCount = new LongAdder();
+
+    private final LongAdder fallbackCount = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<ReplicaNode> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new RoutingConnection());
+    }
+
+    /**
+     * 指定账号时不做路由，直接使用主库
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    /** 路由到主库的连接数（读写事务和非事务语句） */
+    public long getPrimaryCount() {
+        return primaryCount.sum();
+    }
+
+    /** 只读事务因没有可用从库而回退主库的次数 */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * 关闭主库和从库中可关闭的数据源
+     */
+    @Override
+    public void close() throws Exception {
+        for (ReplicaNode replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * 按权重随机选择一个能读到 token 之前写入的从库，没有时返回null
+     */
+    ReplicaNode selectReplica(long token) {
+        int totalWeight = 0;
+        for (ReplicaNode replica : replicas) {
+            if (replica.canServe(token)) {
+                totalWeight += replica.getWeight();
+            }
+        }
+        if (totalWeight == 0) {
+            return null;
+        }
+        int point = ThreadLocalRandom.current().nextInt(totalWeight);
+        ReplicaNode last = null;
+        for (ReplicaNode replica : replicas) {
+            if (replica.canServe(token)) {
+                last = replica;
+                point -= replica.getWeight();
+                if (point < 0) {
+                    return replica;
+                }
+            }
+        }
+        // 选择期间有从库状态变化时，退回最后一个可用的从库
+        return last;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        return type.isInstance(this) ? type.cast(this) : primary.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException {
+        return type.isInstance(this) || primary.isWrapperFor(type);
+    }
+
+    /**
+     * 延迟连接：第一次使用时才获取物理连接
+     */
+    private final class RoutingConnection implements InvocationHandler {
+
+        private boolean autoCommit = true;
+
+        private boolean readOnly;
+
+        /** 未设置时为-1 */
+        private int isolation = -1;
+
+        private boolean closed;
+
+        private Connection target;
+
+        /** 物理连接是从库连接 */
+        private boolean replica;
+
+        /** 物理连接是主库的读写连接，关闭时记录写入时刻 */
+        private boolean writable;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "RoutingConnection[" + (target == null ? "unresolved" : target) + "]";
+                case "setAutoCommit":
+                    if (target == null || replica) {
+                        autoCommit = (Boolean) args[0];
+                        return null;
+                    }
+                    break;
+                case "getAutoCommit":
+                    if (target == null || replica) {
+                        return autoCommit;
+                    }
+                    break;
+                case "setReadOnly":
+                    if (target == null || replica) {
+                        readOnly = (Boolean) args[0];
+                        return null;
+                    }
+                    break;
+                case "isReadOnly":
+                    if (target == null || replica) {
+                        return readOnly;
+                    }
+                    break;
+                case "setTransactionIsolation":
+                    if (target == null) {
+                        isolation = (Integer) args[0];
+                        return null;
+                    }
+                    break;
+                case "getTransactionIsolation":
+                    if (target == null && isolation != -1) {
+                        return isolation;
+                    }
+                    break;
+                case "commit":
+                case "rollback":
+                    if (target == null || replica) {
+                        return null;
+                    }
+                    break;
+                case "isClosed":
+                    return closed;
+                case "close":
+                    close();
+                    return null;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("connection is closed");
+            }
+            if (target == null) {
+                resolve();
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void resolve() throws SQLException {
+            if (readOnly) {
+                ReplicaNode node = selectReplica(ReadConsistency.currentToken());
+                if (node != null) {
+                    try {
+                        target = node.getDataSource().getConnection();
+                        if (isolation != -1) {
+                            target.setTransactionIsolation(isolation);
+                        }
+                        replica = true;
+                        node.recordSelected();
+                        return;
+                    } catch (SQLException e) {
+                        if (target != null) {
+                            target.close();
+                            target = null;
+                        }
+                    }
+                }
+                fallbackCount.increment();
+            } else {
+                primaryCount.increment();
+                writable = true;
+            }
+            target = primary.getConnection();
+            try {
+                if (readOnly) {
+                    target.setReadOnly(true);
+                }
+                if (isolation != -1) {
+                    target.setTransactionIsolation(isolation);
+                }
+                if (!autoCommit) {
+                    target.setAutoCommit(false);
+                }
+            } catch (SQLException | RuntimeException e) {
+                target.close();
+                target = null;
+                throw e;
+            }
+        }
+
+        private void close() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (target == null) {
+                return;
+            }
+            try {
+                target.close();
+            } finally {
+                if (writable) {
+                    ReadConsistency.recordWrite(System.currentTimeMillis());
+                }
+            }
+        }
+    }
+}
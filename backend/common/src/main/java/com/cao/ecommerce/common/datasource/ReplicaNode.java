@@ -0,0 +1,107 @@
+package com.cao.ecommerce.common.datasource;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 从库节点及其复制状态
+ *
+ * 状态由 {@link ReplicaLagMonitor} 定期更新：首次探测成功前不参与路由
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class ReplicaNode {
+
+    private final String name;
+
+    private final DataSource dataSource;
+
+    private final int weight;
+
+    /** 是否参与读路由（探测成功且延迟未超过阈值） */
+    private volatile boolean available;
+
+    /** 最近一次测得的复制延迟（毫秒），尚未测得时为-1 */
+    private volatile long lagMillis = -1;
+
+    /** 从库已应用的主库写入时刻（心跳时间戳，毫秒） */
+    private volatile long caughtUpToMillis;
+
+    private final LongAdder selectedCount = new LongAdder();
+
+    private final LongAdder evictedCount = new LongAdder();
+
+    public ReplicaNode(String name, DataSource dataSource, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("replica weight must be positive: " + name);
+        }
+        this.name = name;
+        this.dataSource = dataSource;
+        this.weight = weight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public long getCaughtUpToMillis() {
+        return caughtUpToMillis;
+    }
+
+    /** 被路由的读连接数 */
+    public long getSelectedCount() {
+        return selectedCount.sum();
+    }
+
+    /** 被摘除的次数 */
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    /**
+     * 是否可以读取：可用，且已应用 token 时刻之前的全部写入
+     */
+    boolean canServe(long token) {
+        return available && caughtUpToMillis >= token;
+    }
+
+    void recordSelected() {
+        selectedCount.increment();
+    }
+
+    void updateLag(long caughtUpToMillis, long lagMillis) {
+        this.caughtUpToMillis = caughtUpToMillis;
+        this.lagMillis = lagMillis;
+    }
+
+    /**
+     * @return 状态是否变化
+     */
+    boolean setAvailable(boolean available) {
+        if (this.available == available) {
+            return false;
+        }
+        this.available = available;
+        if (!available) {
+            evictedCount.increment();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.cao.ecommerce.common.health;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * 数据库健康探测：取一个连接并用 Connection.isValid 校验（MySQL驱动发送 COM_PING，不执行SQL）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class DataSourceHealthProbe implements HealthProbe {
+
+    private final String name;
+
+    private final DataSource dataSource;
+
+    private final int validationTimeoutSeconds;
+
+    public DataSourceHealthProbe(String name, DataSource dataSource, int validationTimeoutSeconds) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Object> check() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(validationTimeoutSeconds)) {
+                throw new SQLException("connection validation failed");
+            }
+            return Map.of("database", connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
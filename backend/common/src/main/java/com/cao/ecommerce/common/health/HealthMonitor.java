@@ -0,0 +1,205 @@
+package com.cao.ecommerce.common.health;
+
+import com.alibaba.fastjson2.JSON;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 健康监控：后台并行探测依赖，缓存预序列化的健康快照
+ *
+ * 技术要点：
+ * 1. 探活请求（负载均衡、容器探针每秒都会调用）直接返回缓存的字节数组，不创建Map、不序列化、不访问依赖
+ * 2. 后台线程按固定间隔刷新：各依赖的探测并行执行，每个探测单独超时，慢依赖不会拖慢其他依赖的结果；
+ *    上一次探测仍未返回的依赖不再重复发起，直接判定为DOWN，避免卡死的连接不断堆积探测线程
+ * 3. 深度检查按需刷新，但两次刷新的间隔不小于 deepRefreshMinIntervalMillis；
+ *    间隔内的请求直接返回最近的快照，并发的深度检查只会触发一次刷新
+ * 4. 探测在虚拟线程中执行，阻塞式的驱动调用不占用平台线程
+ *
+ * 面试要点：
+ * - 存活探针（liveness）只应反映进程自身是否卡死，依赖故障时重启实例无济于事；
+ *   就绪探针（readiness）才应反映依赖状态，让流量暂时绕开该实例
+ * - 探测结果缓存把探针的频率与对依赖的访问频率解耦：N个副本 × 每秒探测，不会变成对数据库的N倍压力
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class HealthMonitor {
+
+    public static final String UP = "UP";
+
+    public static final String DOWN = "DOWN";
+
+    private static final System.Logger LOGGER = System.getLogger(HealthMonitor.class.getName());
+
+    private final Map<String, Object> baseFields;
+
+    private final List<HealthProbe> probes;
+
+    private final long probeTimeoutMillis;
+
+    private final long refreshIntervalMillis;
+
+    private final long deepRefreshMinIntervalNanos;
+
+    /** 各探测正在执行的任务，与 probes 一一对应 */
+    private final CompletableFuture<?>[] running;
+
+    private final ExecutorService probeExecutor;
+
+    private final Object refreshLock = new Object();
+
+    private volatile HealthSnapshot snapshot;
+
+    private long lastRefreshNanos;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param baseFields                  每个快照都包含的固定字段（服务名、端口等）
+     * @param probes                      依赖探测
+     * @param probeTimeoutMillis          单个探测的超时时间（毫秒）
+     * @param refreshIntervalMillis       后台刷新间隔（毫秒）
+     * @param deepRefreshMinIntervalMillis 深度检查触发刷新的最小间隔（毫秒）
+     */
+    public HealthMonitor(Map<String, Object> baseFields, List<HealthProbe> probes, long probeTimeoutMillis,
+                         long refreshIntervalMillis, long deepRefreshMinIntervalMillis) {
+        this.baseFields = new LinkedHashMap<>(baseFields);
+        this.probes = List.copyOf(probes);
+        this.probeTimeoutMillis = probeTimeoutMillis;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.deepRefreshMinIntervalNanos = TimeUnit.MILLISECONDS.toNanos(deepRefreshMinIntervalMillis);
+        this.running = new CompletableFuture<?>[this.probes.size()];
+        this.probeExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("health-probe-", 0).factory());
+        // 首次探测完成前报告UP，避免启动阶段被探针判定失败
+        this.snapshot = build(UP, Map.of());
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "health-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        probeExecutor.shutdownNow();
+    }
+
+    /**
+     * 最近一次刷新的快照
+     */
+    public HealthSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 深度检查：距上次刷新超过最小间隔时立即刷新，否则返回最近的快照
+     */
+    public HealthSnapshot refreshIfStale() {
+        synchronized (refreshLock) {
+            if (System.nanoTime() - lastRefreshNanos >= deepRefreshMinIntervalNanos) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 并行执行所有探测并生成新快照
+     */
+    public HealthSnapshot refresh() {
+        synchronized (refreshLock) {
+            lastRefreshNanos = System.nanoTime();
+            @SuppressWarnings("unchecked")
+            CompletableFuture<Map<String, Object>>[] results = new CompletableFuture[probes.size()];
+            for (int i = 0; i < probes.size(); i++) {
+                results[i] = launch(i);
+            }
+            CompletableFuture.allOf(results).join();
+
+            String status = UP;
+            Map<String, Object> checks = new LinkedHashMap<>();
+            for (int i = 0; i < probes.size(); i++) {
+                Map<String, Object> result = results[i].join();
+                if (!UP.equals(result.get("status"))) {
+                    status = DOWN;
+                }
+                checks.put(probes.get(i).getName(), result);
+            }
+            snapshot = build(status, checks);
+            return snapshot;
+        }
+    }
+
+    private CompletableFuture<Map<String, Object>> launch(int index) {
+        HealthProbe probe = probes.get(index);
+        if (running[index] != null && !running[index].isDone()) {
+            return CompletableFuture.completedFuture(result(DOWN, 0, "previous check still running", null));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Map<String, Object>> task = CompletableFuture.supplyAsync(() -> {
+            try {
+                Map<String, Object> details = probe.check();
+                return result(UP, System.nanoTime() - start, null, details);
+            } catch (Exception e) {
+                return result(DOWN, System.nanoTime() - start, e.toString(), null);
+            }
+        }, probeExecutor);
+        running[index] = task;
+        // 超时不取消探测任务：阻塞中的驱动调用无法被中断，任务保留在 running 中直到自行结束
+        return task.copy().completeOnTimeout(
+                result(DOWN, TimeUnit.MILLISECONDS.toNanos(probeTimeoutMillis), "timeout", null),
+                probeTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static Map<String, Object> result(String status, long elapsedNanos, String error,
+                                              Map<String, Object> details) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", status);
+        result.put("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        if (error != null) {
+            result.put("error", error);
+        }
+        if (details != null && !details.isEmpty()) {
+            result.put("details", details);
+        }
+        return result;
+    }
+
+    private HealthSnapshot build(String status, Map<String, Object> checks) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("status", status);
+        summary.putAll(baseFields);
+        summary.put("timestamp", LocalDateTime.now().toString());
+        Map<String, Object> detail = new LinkedHashMap<>(summary);
+        detail.put("checks", checks);
+        return new HealthSnapshot(UP.equals(status), JSON.toJSONBytes(summary), JSON.toJSONBytes(detail));
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // 保留上一次的快照，下次继续
+            LOGGER.log(System.Logger.Level.WARNING, "健康状态刷新失败", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.cao.ecommerce.common.health;
+
+import java.util.Map;
+
+/**
+ * 依赖健康探测（数据库、Redis、消息队列等）
+ *
+ * 由 {@link HealthMonitor} 在后台线程中调用，可以阻塞；超时由监控器控制，实现中不需要处理
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface HealthProbe {
+
+    /**
+     * 探测名称，如 db、redis
+     */
+    String getName();
+
+    /**
+     * 执行一次探测，依赖不可用时抛出异常
+     *
+     * @return 附加信息（如版本、连接池状态），可以为空
+     */
+    Map<String, Object> check() throws Exception;
+}
@@ -0,0 +1,43 @@
+package com.cao.ecommerce.common.health;
+
+/**
+ * 健康状态快照，响应体已预先序列化
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class HealthSnapshot {
+
+    private final boolean up;
+
+    private final byte[] summary;
+
+    private final byte[] detail;
+
+    HealthSnapshot(boolean up, byte[] summary, byte[] detail) {
+        this.up = up;
+        this.summary = summary;
+        this.detail = detail;
+    }
+
+    /** 所有探测均成功 */
+    public boolean isUp() {
+        return up;
+    }
+
+    /**
+     * 探活响应（JSON）：状态、服务、端口、探测时间，供负载均衡和容器探针使用
+     * 返回内部数组，调用方不得修改
+     */
+    public byte[] getSummary() {
+        return summary;
+    }
+
+    /**
+     * 深度检查响应（JSON）：在探活响应基础上附带每个依赖的状态、耗时和错误
+     * 返回内部数组，调用方不得修改
+     */
+    public byte[] getDetail() {
+        return detail;
+    }
+}
@@ -0,0 +1,303 @@
+package com.cao.ecommerce.common.loadbalance;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 延迟感知的两次随机选择（P2C）负载均衡算法
+ *
+ * 算法说明：
+ * 1. 每个实例维护峰值敏感的指数加权移动平均延迟（Peak EWMA）和在途请求数：
+ *    新样本高于当前值时直接取新样本，低于时按距上次更新的时间指数衰减后加权，
+ *    慢实例被立刻识别，恢复后逐步回收流量
+ * 2. 每次按有效权重随机抽取两个不同实例，选择开销（EWMA延迟 × (在途请求数 + 1)）较小者
+ * 3. 有效权重 = 注册中心权重 × 预热系数；新出现的实例在预热窗口内
+ *    系数从 slowStartMinFactor 线性增长到1，避免冷启动（JIT、连接池未就绪）时被流量打满；
+ *    权重只影响被抽中的概率，不参与开销比较，权重0.1的实例约获得十分之一的候选机会
+ * 4. 纯Java实现，不依赖Spring，实例类型由调用方通过函数适配
+ *
+ * 面试要点：
+ * - 轮询对所有实例一视同仁，GC停顿或慢盘的实例仍分到等量流量；P2C只需两次随机和一次比较，
+ *   既避免全量排序的开销，又避免"所有请求同时涌向当前最快实例"的羊群效应
+ * - 失败请求按惩罚延迟计入EWMA，快速失败的实例不会因为"响应快"而吸走流量
+ *
+ * @param <T> 实例类型
+ * @author cao
+ * @version 1.0.0
+ */
+public class PeakEwmaBalancer<T> {
+
+    /** 无延迟样本且已有在途请求的实例开销，保证未测量过的实例同时只承接一个探测请求 */
+    private static final double UNMEASURED_PENALTY = 1e12;
+
+    /** 统计表清理的最小间隔 */
+    private static final long PRUNE_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final Function<T, String> idFunction;
+
+    private final ToDoubleFunction<T> weightFunction;
+
+    private final double decayNanos;
+
+    private final long slowStartNanos;
+
+    private final double slowStartMinFactor;
+
+    private final long failurePenaltyNanos;
+
+    private final ConcurrentHashMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    /** 首次选择时已存在的实例视为已预热，只有之后新注册的实例才需要预热 */
+    private volatile boolean initialized;
+
+    private volatile long lastPruneNanos = System.nanoTime();
+
+    /**
+     * @param idFunction          实例唯一标识（如 host:port）
+     * @param weightFunction      注册中心权重，小于等于0表示不接收流量
+     * @param decayMillis         EWMA衰减时间常数（毫秒）
+     * @param slowStartMillis     新实例预热窗口（毫秒），0表示不预热
+     * @param slowStartMinFactor  预热开始时的权重系数（0-1]
+     * @param failurePenaltyMillis 失败请求计入EWMA的最小延迟（毫秒）
+     */
+    public PeakEwmaBalancer(Function<T, String> idFunction, ToDoubleFunction<T> weightFunction,
+                            long decayMillis, long slowStartMillis, double slowStartMinFactor,
+                            long failurePenaltyMillis) {
+        if (decayMillis <= 0) {
+            throw new IllegalArgumentException("decayMillis must be positive: " + decayMillis);
+        }
+        if (slowStartMinFactor <= 0 || slowStartMinFactor > 1) {
+            throw new IllegalArgumentException("slowStartMinFactor must be in (0, 1]: " + slowStartMinFactor);
+        }
+        this.idFunction = idFunction;
+        this.weightFunction = weightFunction;
+        this.decayNanos = decayMillis * 1_000_000.0;
+        this.slowStartNanos = Math.max(0, slowStartMillis) * 1_000_000L;
+        this.slowStartMinFactor = slowStartMinFactor;
+        this.failurePenaltyNanos = Math.max(0, failurePenaltyMillis) * 1_000_000L;
+    }
+
+    /**
+     * 从候选实例中选择一个
+     *
+     * @return 选中的实例，候选为空时返回null
+     */
+    public T choose(List<T> candidates) {
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        long now = System.nanoTime();
+        if (!initialized) {
+            initialize(candidates, now);
+        }
+        prune(candidates, now);
+
+        // 按有效权重抽取两个不同的候选：权重决定被考虑的概率，延迟和在途数决定两者之间的胜负
+        InstanceStats[] instanceStats = new InstanceStats[size];
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            T candidate = candidates.get(i);
+            instanceStats[i] = statsOf(candidate, now);
+            total += Math.max(0, weightFunction.applyAsDouble(candidate)) * slowStartFactor(instanceStats[i], now);
+            cumulative[i] = total;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first;
+        int second;
+        if (total <= 0) {
+            // 全部权重为0时退化为等概率，宁可分配流量也不直接失败
+            first = random.nextInt(size);
+            second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+        } else {
+            first = pick(cumulative, random.nextDouble(total));
+            double firstWeight = cumulative[first] - (first == 0 ? 0 : cumulative[first - 1]);
+            if (firstWeight >= total) {
+                return candidates.get(first);
+            }
+            // 在剩余权重上抽样并跳过第一个候选所占的区间，保证两个候选不同
+            double point = random.nextDouble(total - firstWeight);
+            double firstStart = first == 0 ? 0 : cumulative[first - 1];
+            if (point >= firstStart) {
+                point += firstWeight;
+            }
+            second = pick(cumulative, point);
+            if (second == first) {
+                second = first == size - 1 ? first - 1 : first + 1;
+            }
+        }
+        return cost(instanceStats[first], now) <= cost(instanceStats[second], now)
+                ? candidates.get(first) : candidates.get(second);
+    }
+
+    /**
+     * 请求开始，在途数加一
+     */
+    public void onStart(T instance) {
+        statsOf(instance, System.nanoTime()).inFlight.incrementAndGet();
+    }
+
+    /**
+     * 请求结束，在途数减一并记录延迟
+     *
+     * @param latencyNanos 请求耗时，未知时传负数只扣减在途数
+     * @param success      是否成功，失败按惩罚延迟计入
+     */
+    public void onComplete(T instance, long latencyNanos, boolean success) {
+        InstanceStats instanceStats = statsOf(instance, System.nanoTime());
+        // 在途数不小于0：统计被清理后迟到的完成回调不应产生负数
+        instanceStats.inFlight.getAndUpdate(value -> value > 0 ? value - 1 : 0);
+        if (latencyNanos < 0 && success) {
+            return;
+        }
+        long sample = success ? latencyNanos : Math.max(Math.max(latencyNanos, 0), failurePenaltyNanos);
+        instanceStats.observe(sample, System.nanoTime(), decayNanos);
+    }
+
+    /**
+     * 实例当前开销，仅用于监控和调试
+     */
+    public double cost(T instance) {
+        long now = System.nanoTime();
+        return cost(statsOf(instance, now), now);
+    }
+
+    private double cost(InstanceStats instanceStats, long now) {
+        double latency = instanceStats.decayedEwma(now, decayNanos);
+        int inFlight = instanceStats.inFlight.get();
+        if (latency == 0 && inFlight > 0) {
+            return UNMEASURED_PENALTY + inFlight;
+        }
+        return (latency + 1) * (inFlight + 1);
+    }
+
+    private double slowStartFactor(InstanceStats instanceStats, long now) {
+        if (slowStartNanos == 0) {
+            return 1;
+        }
+        long age = now - instanceStats.firstSeenNanos;
+        if (age >= slowStartNanos) {
+            return 1;
+        }
+        return slowStartMinFactor + (1 - slowStartMinFactor) * age / slowStartNanos;
+    }
+
+    /**
+     * 在累积权重数组上二分查找point所在的区间
+     */
+    private static int pick(double[] cumulative, double point) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] > point) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private InstanceStats statsOf(T instance, long now) {
+        String id = idFunction.apply(instance);
+        InstanceStats instanceStats = stats.get(id);
+        if (instanceStats != null) {
+            return instanceStats;
+        }
+        double initialEwma = minimumEwma(now);
+        return stats.computeIfAbsent(id, key -> new InstanceStats(now, initialEwma));
+    }
+
+    /**
+     * 新实例以现有实例中最低的延迟作为初始值：与最快的实例公平竞争，
+     * 流量份额由预热系数控制，而不是因为"没有样本"被当作最快实例或最慢实例
+     */
+    private double minimumEwma(long now) {
+        double min = 0;
+        for (InstanceStats instanceStats : stats.values()) {
+            double ewma = instanceStats.decayedEwma(now, decayNanos);
+            if (ewma > 0 && (min == 0 || ewma < min)) {
+                min = ewma;
+            }
+        }
+        return min;
+    }
+
+    private synchronized void initialize(List<T> candidates, long now) {
+        if (initialized) {
+            return;
+        }
+        long warm = now - slowStartNanos;
+        for (T candidate : candidates) {
+            stats.putIfAbsent(idFunction.apply(candidate), new InstanceStats(warm, 0));
+        }
+        initialized = true;
+    }
+
+    /**
+     * 定期移除已下线实例的统计，实例重新上线时重新预热
+     */
+    private void prune(List<T> candidates, long now) {
+        if (now - lastPruneNanos < PRUNE_INTERVAL_NANOS || stats.size() <= candidates.size()) {
+            return;
+        }
+        lastPruneNanos = now;
+        Set<String> live = new HashSet<>(candidates.size() * 2);
+        for (T candidate : candidates) {
+            live.add(idFunction.apply(candidate));
+        }
+        stats.keySet().retainAll(live);
+    }
+
+    /**
+     * 单实例统计
+     */
+    private static final class InstanceStats {
+
+        private final long firstSeenNanos;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /** 写入在锁内完成，读取不加锁：两个字段偶尔读到不同批次的值只影响一次比较 */
+        private volatile double ewmaNanos;
+
+        private volatile long lastObservedNanos;
+
+        private InstanceStats(long firstSeenNanos, double initialEwmaNanos) {
+            this.firstSeenNanos = firstSeenNanos;
+            this.ewmaNanos = initialEwmaNanos;
+            this.lastObservedNanos = System.nanoTime();
+        }
+
+        private synchronized void observe(long sampleNanos, long now, double decayNanos) {
+            if (sampleNanos > ewmaNanos) {
+                ewmaNanos = sampleNanos;
+            } else {
+                double w = Math.exp(-Math.max(0, now - lastObservedNanos) / decayNanos);
+                ewmaNanos = ewmaNanos * w + sampleNanos * (1 - w);
+            }
+            lastObservedNanos = now;
+        }
+
+        /**
+         * 读取时按空闲时长衰减，长时间未被选中的慢实例开销逐步下降，获得重新探测的机会
+         */
+        private double decayedEwma(long now, double decayNanos) {
+            return ewmaNanos * Math.exp(-Math.max(0, now - lastObservedNanos) / decayNanos);
+        }
+    }
+}
@@ -60,6 +60,18 @@ public class ConfigPrinter {
         System.out.println("=".repeat(80) + "\n");
     }
 
+    /**
+     * 在后台守护线程中打印应用配置信息，调用方立即返回
+     *
+     * @param appName 应用名称
+     * @param configs 配置信息（键值对），调用前已取值，打印期间不再访问环境
+     */
+    public static void printConfigAsync(String appName, Map<String, Object> configs) {
+        Thread printer = new Thread(() -> printConfig(appName, configs), "config-printer");
+        printer.setDaemon(true);
+        printer.start();
+    }
+
     /**
      * 打印特定类别的配置
      */
@@ -79,7 +91,7 @@ public class ConfigPrinter {
     /**
      * 根据前缀过滤配置
      */
-    private static Map<String, Object> filterConfigs(Map<String, Object> configs, String... prefixes) {
+    public static Map<String, Object> filterConfigs(Map<String, Object> configs, String... prefixes) {
         Map<String, Object> filtered = new TreeMap<>();
 
         for (Map.Entry<String, Object> entry : configs.entrySet()) {
@@ -0,0 +1,235 @@
+package com.cao.ecommerce.common.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 无锁雪花ID生成器
+ *
+ * ID结构（64位）：
+ * 1位符号位（恒为0） | 41位毫秒时间戳（相对EPOCH） | 10位工作节点ID | 12位序列号
+ *
+ * 设计原则：
+ * 1. 纯Java实现，不依赖Spring Boot，工作节点ID由各服务从Nacos元数据或环境变量传入
+ * 2. 时间戳和序列号打包在一个AtomicLong中，通过CAS推进，不使用synchronized
+ * 3. 时钟回拨时继续沿用上一次的逻辑时间戳递增，序列号溢出时借用下一毫秒，
+ *    保证同一进程内ID严格递增、不重复
+ * 4. 逻辑时间戳最多领先系统时钟 maxDriftMillis（默认 {@link #DEFAULT_MAX_DRIFT_MILLIS}）：
+ *    持续超过每毫秒 2^SEQUENCE_BITS 的速率、或时钟回拨超过该值时，等待系统时钟追上再分配，
+ *    ID中的时间戳与真实生成时间的偏差有上限
+ * 5. 生成订单号时只分配结果字符串本身
+ * 6. 基因法：{@link #nextId(long)} 把路由键（如用户ID）的低 GENE_BITS 位写入序列号的低位，
+ *    按用户分片时只凭订单ID（订单号）就能算出所在分片；此时每毫秒可分配 2^(SEQUENCE_BITS-GENE_BITS) 个ID
+ *
+ * 面试要点：
+ * - 数据库自增主键依赖单点序列，雪花算法把ID生成下放到各节点本地
+ * - 时钟回拨的常见处理：拒绝服务、等待追平、逻辑时钟，这里小幅回拨用逻辑时钟吸收，超过上限时等待追平
+ * - 进程重启期间发生的回拨无法在进程内感知，需依赖NTP平滑校时（slew模式）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class SnowflakeIdGenerator {
+
+    /** 起始时间：2025-01-01 00:00:00 UTC */
+    public static final long EPOCH = 1735689600000L;
+
+    /** 工作节点ID位数 */
+    public static final int WORKER_ID_BITS = 10;
+
+    /** 序列号位数 */
+    public static final int SEQUENCE_BITS = 12;
+
+    /** 最大工作节点ID */
+    public static final long MAX_WORKER_ID = (1L << WORKER_ID_BITS) - 1;
+
+    /** 工作节点ID环境变量名 */
+    public static final String WORKER_ID_ENV = "ECOMMERCE_WORKER_ID";
+
+    /** 基因位数（序列号的低位），按基因路由时最多 2^GENE_BITS 个分片 */
+    public static final int GENE_BITS = 6;
+
+    /** 基因掩码 */
+    public static final long GENE_MASK = (1L << GENE_BITS) - 1;
+
+    /** Nacos实例元数据中的工作节点ID键 */
+    public static final String WORKER_ID_METADATA_KEY = "worker-id";
+
+    /** 逻辑时间戳默认最多领先系统时钟的毫秒数 */
+    public static final long DEFAULT_MAX_DRIFT_MILLIS = 1000L;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int TIMESTAMP_SHIFT = WORKER_ID_BITS + SEQUENCE_BITS;
+
+    /** 订单号固定长度（long最大值为19位十进制数），左侧补零保证字典序与时间序一致 */
+    private static final int ORDER_NO_DIGITS = 19;
+
+    private final long workerBits;
+
+    private final long maxDriftMillis;
+
+    /** 高位为相对时间戳，低SEQUENCE_BITS位为序列号 */
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long workerId) {
+        this(workerId, DEFAULT_MAX_DRIFT_MILLIS);
+    }
+
+    /**
+     * @param workerId       工作节点ID
+     * @param maxDriftMillis 逻辑时间戳最多领先系统时钟的毫秒数，0表示不借用未来时间
+     */
+    public SnowflakeIdGenerator(long workerId, long maxDriftMillis) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        if (maxDriftMillis < 0) {
+            throw new IllegalArgumentException("maxDriftMillis must not be negative: " + maxDriftMillis);
+        }
+        this.workerBits = workerId << SEQUENCE_BITS;
+        this.maxDriftMillis = maxDriftMillis;
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public long nextId() {
+        long next;
+        for (;;) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            // 时钟前进则序列号归零；时钟未动或回拨则在逻辑时间戳上递增，溢出时自然进位到下一毫秒
+            next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (!withinDrift(next, now)) {
+                continue;
+            }
+            if (state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | workerBits | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * 生成带基因的ID：序列号低 GENE_BITS 位取自路由键，与路由键的低位相同
+     *
+     * 每次占用序列号的一整段（2^GENE_BITS 个），与 {@link #nextId()} 混用时也不会重复
+     *
+     * @param routingKey 路由键，如用户ID
+     */
+    public long nextId(long routingKey) {
+        long next;
+        for (;;) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            // 时钟前进则占用第一段；否则占用当前段之后的一段，溢出时进位到下一毫秒
+            next = now > (current >>> SEQUENCE_BITS)
+                    ? (now << SEQUENCE_BITS) | GENE_MASK
+                    : (current | GENE_MASK) + GENE_MASK + 1;
+            if (!withinDrift(next, now)) {
+                continue;
+            }
+            if (state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | workerBits
+                | (next & SEQUENCE_MASK & ~GENE_MASK) | (routingKey & GENE_MASK);
+    }
+
+    /**
+     * 逻辑时间戳超出领先上限时等待系统时钟追上
+     *
+     * @return 未超出上限时返回true；超出时等待后返回false，由调用方重新读取时钟和状态
+     */
+    private boolean withinDrift(long next, long now) {
+        long excess = (next >>> SEQUENCE_BITS) - now - maxDriftMillis;
+        if (excess <= 0) {
+            return true;
+        }
+        // 序列号溢出时只差不到1毫秒，自旋即可；时钟大幅回拨时按差值挂起，不空转CPU
+        if (excess == 1) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(excess - 1));
+        }
+        return false;
+    }
+
+    /**
+     * 本生成器的工作节点ID
+     */
+    public long getWorkerId() {
+        return workerBits >>> SEQUENCE_BITS;
+    }
+
+    /**
+     * 生成订单号（19位定长十进制字符串）
+     */
+    public String nextOrderNo() {
+        return toOrderNo(nextId());
+    }
+
+    /**
+     * 将ID格式化为19位定长十进制字符串
+     */
+    public static String toOrderNo(long id) {
+        byte[] digits = new byte[ORDER_NO_DIGITS];
+        long value = id;
+        for (int i = ORDER_NO_DIGITS - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 从ID中解析生成时间（毫秒时间戳）
+     */
+    public static long extractTimestamp(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    /**
+     * 从ID中解析工作节点ID
+     */
+    public static long extractWorkerId(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_WORKER_ID;
+    }
+
+    /**
+     * 从ID中解析基因（{@link #nextId(long)} 传入的路由键的低 GENE_BITS 位）
+     */
+    public static long extractGene(long id) {
+        return id & GENE_MASK;
+    }
+
+    /**
+     * 解析工作节点ID
+     *
+     * 优先级：Nacos实例元数据 > 环境变量 ECOMMERCE_WORKER_ID > 本机IPv4地址低10位
+     *
+     * @param metadataValue Nacos实例元数据中的 worker-id，可为空
+     */
+    public static long resolveWorkerId(String metadataValue) {
+        if (metadataValue != null && !metadataValue.isBlank()) {
+            return Long.parseLong(metadataValue.trim());
+        }
+        String env = System.getenv(WORKER_ID_ENV);
+        if (env != null && !env.isBlank()) {
+            return Long.parseLong(env.trim());
+        }
+        // 兜底方案：同一网段内IP低10位不同即可避免冲突，多副本部署时应显式配置
+        try {
+            byte[] address = InetAddress.getLocalHost().getAddress();
+            return ((address[address.length - 2] & 0x03L) << 8) | (address[address.length - 1] & 0xFFL);
+        } catch (UnknownHostException e) {
+            return 0L;
+        }
+    }
+}
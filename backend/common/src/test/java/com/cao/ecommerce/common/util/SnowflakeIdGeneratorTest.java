@@ -0,0 +1,139 @@
+package com.cao.ecommerce.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 雪花ID生成器测试：32线程生成1000万个ID全部唯一且吞吐量不低于下限、时间戳领先系统时钟不超过上限
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final int TOTAL_IDS = 10_000_000;
+
+    private static final int THREADS = 32;
+
+    /** 吞吐量下限：单节点上限（每毫秒4096个）的十分之一 */
+    private static final long MIN_IDS_PER_SECOND = 409_600;
+
+    @Test
+    void tenMillionIdsFromConcurrentThreadsAreUnique() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        // 混入带基因的ID：每个占用序列号的一整段，与普通ID交错时也不能重复
+        long start = System.nanoTime();
+        long[] ids = generateConcurrently(TOTAL_IDS, THREADS, index -> index % 64 == 0
+                ? generator.nextId(index) : generator.nextId());
+        long elapsedNanos = System.nanoTime() - start;
+        assertThat(TOTAL_IDS * 1_000_000_000L / elapsedNanos).as("ids per second")
+                .isGreaterThanOrEqualTo(MIN_IDS_PER_SECOND);
+
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i] == ids[i - 1]) {
+                throw new AssertionError("duplicate id at " + i + ": " + ids[i]);
+            }
+        }
+        assertThat(ids[0]).isPositive();
+        assertThat(SnowflakeIdGenerator.extractWorkerId(ids[0])).isEqualTo(7);
+        assertThat(SnowflakeIdGenerator.extractWorkerId(ids[ids.length - 1])).isEqualTo(7);
+    }
+
+    @Test
+    void idsFromOneThreadAreStrictlyIncreasing() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        long previous = generator.nextId();
+        for (int i = 0; i < 1_000_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void geneIdCarriesLowBitsOfRoutingKey() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        for (long userId = 0; userId < 1000; userId++) {
+            assertThat(SnowflakeIdGenerator.extractGene(generator.nextId(userId)))
+                    .isEqualTo(userId & SnowflakeIdGenerator.GENE_MASK);
+        }
+    }
+
+    @Test
+    void timestampNeverRunsAheadOfClockBeyondMaxDrift() throws Exception {
+        long maxDrift = 2;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, maxDrift);
+        // 生成速率远超每毫秒4096个，不设上限时逻辑时间戳会越借越远
+        long[] aheads = generateConcurrently(2_000_000, THREADS, index -> {
+            long id = generator.nextId();
+            return SnowflakeIdGenerator.extractTimestamp(id) - System.currentTimeMillis();
+        });
+
+        assertThat(Arrays.stream(aheads).max().orElseThrow()).isLessThanOrEqualTo(maxDrift);
+    }
+
+    @Test
+    void orderNoIsFixedLengthAndOrderedLikeId() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        long first = generator.nextId();
+        long second = generator.nextId();
+        String firstNo = SnowflakeIdGenerator.toOrderNo(first);
+        String secondNo = SnowflakeIdGenerator.toOrderNo(second);
+
+        assertThat(firstNo).hasSize(19).isEqualTo(String.format("%019d", first));
+        assertThat(firstNo.compareTo(secondNo)).isNegative();
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(1, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 多个线程共同生成 total 个值，按线程切分结果数组
+     */
+    private static long[] generateConcurrently(int total, int threads, IndexedSupplier supplier) throws Exception {
+        long[] values = new long[total];
+        int perThread = total / threads;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int from = t * perThread;
+                int to = t == threads - 1 ? total : from + perThread;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    for (int i = from; i < to; i++) {
+                        values[i] = supplier.get(i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return values;
+    }
+
+    @FunctionalInterface
+    private interface IndexedSupplier {
+
+        long get(int index);
+    }
+}
@@ -0,0 +1,45 @@
+#!/bin/sh
+# ==========================================
+# 快速启动：CDS归档（类数据共享）的准备和启动，各服务 Dockerfile 共用
+# 构建时由Maven复制到各服务的 target/cds.sh
+#
+# 用法：
+#   cds.sh prepare <可执行jar>   构建镜像时执行：解压jar并训练运行生成 /app/app.jsa
+#   cds.sh run                   容器启动命令：使用归档启动（JVM参数取自 JAVA_OPTS）
+#
+# 1. CDS只能归档从普通jar加载的类：应用类重新打成 application.jar，依赖平铺在 lib 下，类路径和启动类写入参数文件
+# 2. 检测到AOT产物（mvn clean package -Pfast-startup）时启用 spring.aot.enabled
+# 3. 训练运行：上下文刷新完成即退出（spring.context.exit=onRefresh），不启动Web服务器、不注册Nacos，
+#    退出时把加载过的类写入 app.jsa；训练失败不影响镜像构建，启动时找不到归档会退回普通类加载
+# ==========================================
+set -e
+
+APP_DIR=/app
+CDS_DIR=$APP_DIR/cds
+
+case "$1" in
+    prepare)
+        mkdir -p "$CDS_DIR" && cd "$CDS_DIR" && jar xf "$2"
+        jar cf application.jar -C BOOT-INF/classes .
+        echo "-cp $CDS_DIR/application.jar:$(ls "$CDS_DIR"/BOOT-INF/lib/*.jar | tr '\n' ':' | sed 's/:$//')" \
+            > "$APP_DIR/classpath.args"
+        sed -n 's/^Start-Class: *//p' META-INF/MANIFEST.MF | tr -d '\r' >> "$APP_DIR/classpath.args"
+        if find BOOT-INF/classes -name '*__ApplicationContextInitializer.class' | grep -q .; then
+            echo "-Dspring.aot.enabled=true" > "$APP_DIR/aot.args"
+        else
+            echo "-Dspring.aot.enabled=false" > "$APP_DIR/aot.args"
+        fi
+        rm -rf BOOT-INF/classes "$2"
+        # shellcheck disable=SC2086
+        java $JAVA_OPTS -XX:ArchiveClassesAtExit="$APP_DIR/app.jsa" -Dspring.context.exit=onRefresh \
+            @"$APP_DIR/aot.args" @"$APP_DIR/classpath.args" || true
+        ;;
+    run)
+        # shellcheck disable=SC2086
+        exec java $JAVA_OPTS -XX:SharedArchiveFile="$APP_DIR/app.jsa" @"$APP_DIR/aot.args" @"$APP_DIR/classpath.args"
+        ;;
+    *)
+        echo "usage: $0 prepare <jar> | run" >&2
+        exit 1
+        ;;
+esac
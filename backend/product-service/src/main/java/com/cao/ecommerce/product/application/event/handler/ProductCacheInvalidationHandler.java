@@ -0,0 +1,29 @@
+package com.cao.ecommerce.product.application.event.handler;
+
+import com.cao.ecommerce.product.domain.event.ProductChangedEvent;
+import com.cao.ecommerce.product.infrastructure.cache.TwoLevelProductCache;
+import org.springframework.context.event.EventListener;
+
+/**
+ * 商品变更后失效缓存
+ *
+ * 只处理本节点的变更：失效远程缓存并广播，其他节点收到广播后只删除自己的近端缓存
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class ProductCacheInvalidationHandler {
+
+    private final TwoLevelProductCache productCache;
+
+    public ProductCacheInvalidationHandler(TwoLevelProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.isRemote()) {
+            productCache.invalidate(event.getProductId());
+        }
+    }
+}
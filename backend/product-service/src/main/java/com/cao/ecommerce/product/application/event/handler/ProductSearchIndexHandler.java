@@ -0,0 +1,36 @@
+package com.cao.ecommerce.product.application.event.handler;
+
+import com.cao.ecommerce.product.application.service.ProductSearchService;
+import com.cao.ecommerce.product.domain.event.ProductChangedEvent;
+import com.cao.ecommerce.product.infrastructure.mq.producer.ProductSearchUpdateProducer;
+import org.springframework.context.event.EventListener;
+
+/**
+ * 商品变更后增量更新搜索索引（本节点和其他节点的变更都需要处理）
+ *
+ * 本节点的变更更新索引后广播给其他节点；其他节点的变更由 ProductSearchUpdateConsumer
+ * 转发为远程事件，只更新本地索引，不再广播
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class ProductSearchIndexHandler {
+
+    private final ProductSearchService productSearchService;
+
+    private final ProductSearchUpdateProducer updateProducer;
+
+    public ProductSearchIndexHandler(ProductSearchService productSearchService,
+                                     ProductSearchUpdateProducer updateProducer) {
+        this.productSearchService = productSearchService;
+        this.updateProducer = updateProducer;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        productSearchService.onProductChanged(event.getProductId());
+        if (!event.isRemote()) {
+            updateProducer.send(event.getProductId());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.cao.ecommerce.product.application.scheduler;
+
+import com.cao.ecommerce.product.application.service.CategoryTreeService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品分类树刷新调度器
+ *
+ * 每个周期只查询一次分类表指纹，分类没有变化时不重建快照；
+ * 启动时同步加载一次，保证服务就绪时分类树已可用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class CategoryTreeRefreshScheduler {
+
+    private final CategoryTreeService categoryTreeService;
+
+    private final long refreshIntervalMs;
+
+    private ScheduledExecutorService executor;
+
+    public CategoryTreeRefreshScheduler(CategoryTreeService categoryTreeService, long refreshIntervalMs) {
+        this.categoryTreeService = categoryTreeService;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    public void start() {
+        categoryTreeService.refresh();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "category-tree-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        try {
+            categoryTreeService.refresh();
+        } catch (RuntimeException e) {
+            // 刷新失败时继续使用旧快照
+            log.warn("商品分类树刷新失败，继续使用当前快照", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.cao.ecommerce.product.application.service;
+
+import com.cao.ecommerce.product.domain.model.Category;
+import com.cao.ecommerce.product.domain.repository.CategoryRepository;
+import com.cao.ecommerce.product.domain.service.CategoryTreeSnapshot;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 商品分类树服务
+ *
+ * 读操作直接访问当前快照（volatile读，无锁）；刷新时先比较分类表指纹，
+ * 有变化才重新加载并构建新快照，构建完成后一次性替换引用，读者要么看到旧快照要么看到新快照
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class CategoryTreeService {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTreeSnapshot snapshot = CategoryTreeSnapshot.empty();
+
+    public CategoryTreeService(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * 当前分类树快照
+     */
+    public CategoryTreeSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * 分类表有变化时重建快照
+     *
+     * @return 是否替换了快照
+     */
+    public synchronized boolean refresh() {
+        String fingerprint = categoryRepository.fingerprint();
+        if (fingerprint != null && fingerprint.equals(snapshot.getVersion())) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        List<Category> categories = categoryRepository.findAllEnabled();
+        CategoryTreeSnapshot rebuilt = CategoryTreeSnapshot.build(categories, fingerprint);
+        snapshot = rebuilt;
+        if (rebuilt.size() < categories.size()) {
+            log.warn("{} 个分类无法从一级分类到达（父分类已禁用或存在环），未加入分类树",
+                    categories.size() - rebuilt.size());
+        }
+        log.info("商品分类树已更新: 分类数={}, 版本={}, ETag={}, 耗时={}ms",
+                rebuilt.size(), fingerprint, rebuilt.getEtag(), System.currentTimeMillis() - start);
+        return true;
+    }
+}
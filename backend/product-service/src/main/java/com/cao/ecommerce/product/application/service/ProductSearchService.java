@@ -0,0 +1,81 @@
+package com.cao.ecommerce.product.application.service;
+
+import com.cao.ecommerce.product.domain.model.Product;
+import com.cao.ecommerce.product.domain.repository.ProductRepository;
+import com.cao.ecommerce.product.domain.service.ProductSearchIndex;
+import com.cao.ecommerce.product.domain.service.ProductSearchQuery;
+import com.cao.ecommerce.product.domain.service.ProductSearchResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 商品搜索应用服务
+ *
+ * 技术要点：
+ * 1. 启动时流式遍历商品表构建索引，构建期间旧索引（或空索引）继续提供服务，完成后整体替换
+ * 2. 商品变更事件到达时按ID重新查询商品并增量更新索引；
+ *    重建期间到达的变更记录下来，新索引替换后重放，避免被全量数据覆盖丢失
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class ProductSearchService {
+
+    private final ProductRepository productRepository;
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+
+    /** 重建期间发生变更的商品ID，不在重建时为null */
+    private volatile Set<Long> changedDuringRebuild;
+
+    public ProductSearchService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        ProductSearchIndex rebuilt = new ProductSearchIndex();
+        try {
+            productRepository.forEachForSearch(rebuilt::upsert);
+            index = rebuilt;
+        } finally {
+            changedDuringRebuild = null;
+        }
+        for (Long productId : changed) {
+            onProductChanged(productId);
+        }
+        log.info("商品搜索索引构建完成: 商品数={}, 词条数={}, 耗时={}ms",
+                rebuilt.size(), rebuilt.termCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 商品变更后增量更新索引
+     */
+    public void onProductChanged(long productId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(productId);
+        }
+        Product product = productRepository.findById(productId);
+        if (product == null) {
+            index.remove(productId);
+        } else {
+            index.upsert(product);
+        }
+    }
+
+    /**
+     * 搜索商品
+     */
+    public ProductSearchResult search(ProductSearchQuery query) {
+        return index.search(query);
+    }
+}
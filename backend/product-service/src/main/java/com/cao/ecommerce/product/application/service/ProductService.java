@@ -0,0 +1,72 @@
+package com.cao.ecommerce.product.application.service;
+
+import com.cao.ecommerce.product.domain.event.ProductChangedEvent;
+import com.cao.ecommerce.product.domain.model.Product;
+import com.cao.ecommerce.product.domain.repository.ProductRepository;
+import com.cao.ecommerce.product.infrastructure.cache.TwoLevelProductCache;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品应用服务
+ *
+ * 读走两级缓存（未启用缓存时直接查库），写先更新数据库再发布商品变更事件，
+ * 由事件处理器失效缓存、更新搜索索引
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class ProductService {
+
+    private final ProductRepository productRepository;
+
+    /** 为null时未启用缓存 */
+    private final TwoLevelProductCache productCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductService(ProductRepository productRepository, TwoLevelProductCache productCache,
+                          ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 查询商品详情
+     *
+     * @return 商品，不存在时返回null
+     */
+    public Product getProduct(long productId) {
+        return productCache != null ? productCache.get(productId) : productRepository.findById(productId);
+    }
+
+    /**
+     * 修改价格
+     */
+    public boolean updatePrice(long productId, BigDecimal price) {
+        return changed(productId, productRepository.updatePrice(productId, price));
+    }
+
+    /**
+     * 修改库存
+     */
+    public boolean updateStock(long productId, int stock) {
+        return changed(productId, productRepository.updateStock(productId, stock));
+    }
+
+    /**
+     * 上下架
+     */
+    public boolean updateStatus(long productId, int status) {
+        return changed(productId, productRepository.updateStatus(productId, status));
+    }
+
+    private boolean changed(long productId, boolean updated) {
+        if (updated) {
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, false));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,21 @@
+package com.cao.ecommerce.product.domain.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 商品变更事件（价格、库存、状态等字段修改后发布）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    /** 商品ID */
+    private final long productId;
+
+    /** 是否由其他节点广播而来：本节点的变更需要失效缓存并广播，其他节点的变更只需更新本地状态 */
+    private final boolean remote;
+}
@@ -0,0 +1,31 @@
+package com.cao.ecommerce.product.domain.model;
+
+import lombok.Data;
+
+/**
+ * 商品分类
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class Category {
+
+    /** 一级分类的父ID */
+    public static final long ROOT_PARENT_ID = 0L;
+
+    private Long id;
+
+    private String name;
+
+    /** 父分类ID，0表示一级分类 */
+    private Long parentId;
+
+    /** 分类级别：1-一级，2-二级，3-三级 */
+    private Integer level;
+
+    /** 排序值，越小越靠前 */
+    private Integer sort;
+
+    private String icon;
+}
@@ -0,0 +1,53 @@
+package com.cao.ecommerce.product.domain.model;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class Product {
+
+    /** 上架 */
+    public static final int STATUS_ON_SALE = 1;
+
+    /** 下架 */
+    public static final int STATUS_OFF_SALE = 0;
+
+    private Long id;
+
+    private String name;
+
+    private String title;
+
+    private String description;
+
+    private Long categoryId;
+
+    private String brand;
+
+    private BigDecimal price;
+
+    private Integer stock;
+
+    private Integer sales;
+
+    /** 主图 */
+    private String image;
+
+    /** 商品图片列表，JSON格式 */
+    private String images;
+
+    /** 状态：1-上架，0-下架 */
+    private Integer status;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,24 @@
+package com.cao.ecommerce.product.domain.repository;
+
+import com.cao.ecommerce.product.domain.model.Category;
+
+import java.util.List;
+
+/**
+ * 商品分类仓储
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface CategoryRepository {
+
+    /**
+     * 查询全部启用且未删除的分类
+     */
+    List<Category> findAllEnabled();
+
+    /**
+     * 分类表的变更指纹（记录数 + 最后修改时间），指纹不变时无需重建分类树
+     */
+    String fingerprint();
+}
@@ -0,0 +1,48 @@
+package com.cao.ecommerce.product.domain.repository;
+
+import com.cao.ecommerce.product.domain.model.Product;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+/**
+ * 商品仓储
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface ProductRepository {
+
+    /**
+     * 按ID查询未删除的商品
+     *
+     * @return 商品，不存在时返回null
+     */
+    Product findById(long id);
+
+    /**
+     * 流式遍历全部未删除的商品（只填充搜索索引需要的字段），不会把整表加载到内存
+     */
+    void forEachForSearch(Consumer<Product> consumer);
+
+    /**
+     * 修改价格
+     *
+     * @return 是否有记录被修改
+     */
+    boolean updatePrice(long id, BigDecimal price);
+
+    /**
+     * 修改库存
+     *
+     * @return 是否有记录被修改
+     */
+    boolean updateStock(long id, int stock);
+
+    /**
+     * 修改上下架状态
+     *
+     * @return 是否有记录被修改
+     */
+    boolean updateStatus(long id, int status);
+}
@@ -0,0 +1,277 @@
+package com.cao.ecommerce.product.domain.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.cao.ecommerce.product.domain.model.Category;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品分类树快照（不可变）
+ *
+ * category 表是 parent_id 邻接表，查询"某分类下的全部子孙分类"需要递归查询或逐层查询
+ *
+ * 设计要点：
+ * 1. 构建时对整棵树做一次深度优先遍历，按先序编号排列节点并记录后序编号：
+ *    a 是 b 的祖先 当且仅当 pre(a) ≤ pre(b) 且 post(b) ≤ post(a)，判断为O(1)；
+ *    子树在先序数组中是连续区间 [pre, pre + size)，取全部子孙分类只需一次数组拷贝
+ * 2. 快照构建完成后不再修改，读操作无锁；分类变更时构建新快照整体替换（写时复制）
+ * 3. 导航菜单在构建时序列化为JSON字节数组并计算ETag，请求只需直接写出字节，
+ *    客户端携带 If-None-Match 时可直接返回304
+ * 4. 父分类被禁用或删除、以及存在环的节点无法从一级分类到达，不进入快照
+ *
+ * 面试要点：
+ * - 读多写少的配置类数据适合"不可变快照 + 原子替换"：读路径没有锁和可见性问题，
+ *   写路径重建整个快照，分类数量在万级以内时重建只需毫秒级
+ * - 先序/后序编号（嵌套集合模型）是树形数据判断祖先关系的经典方法，代价是结构变化时需要整体重新编号，
+ *   正好与快照整体重建契合
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class CategoryTreeSnapshot {
+
+    private static final Comparator<Category> SIBLING_ORDER = Comparator
+            .comparingInt((Category category) -> category.getSort() == null ? 0 : category.getSort())
+            .thenComparingLong(Category::getId);
+
+    private static final CategoryTreeSnapshot EMPTY = build(List.of(), "empty");
+
+    /** 先序排列的分类ID */
+    private final long[] ids;
+
+    private final String[] names;
+
+    private final String[] icons;
+
+    /** 父节点的先序下标，一级分类为-1 */
+    private final int[] parents;
+
+    /** 后序编号 */
+    private final int[] posts;
+
+    /** 子树在先序数组中的结束下标（不含） */
+    private final int[] subtreeEnds;
+
+    /** 分类ID → 先序下标 */
+    private final Map<Long, Integer> preById;
+
+    private final byte[] menuJson;
+
+    private final String etag;
+
+    private final String version;
+
+    private CategoryTreeSnapshot(long[] ids, String[] names, String[] icons, int[] parents, int[] posts,
+                                 int[] subtreeEnds, Map<Long, Integer> preById, String version) {
+        this.ids = ids;
+        this.names = names;
+        this.icons = icons;
+        this.parents = parents;
+        this.posts = posts;
+        this.subtreeEnds = subtreeEnds;
+        this.preById = preById;
+        this.version = version;
+        this.menuJson = JSON.toJSONBytes(buildMenu());
+        this.etag = computeEtag(menuJson);
+    }
+
+    /**
+     * 空快照（首次加载完成前使用）
+     */
+    public static CategoryTreeSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由分类列表构建快照
+     *
+     * @param categories 启用的分类（顺序任意）
+     * @param version    数据版本（分类表指纹）
+     */
+    public static CategoryTreeSnapshot build(List<Category> categories, String version) {
+        Map<Long, List<Category>> childrenByParent = new HashMap<>();
+        for (Category category : categories) {
+            long parentId = category.getParentId() == null ? Category.ROOT_PARENT_ID : category.getParentId();
+            childrenByParent.computeIfAbsent(parentId, key -> new ArrayList<>()).add(category);
+        }
+        childrenByParent.values().forEach(children -> children.sort(SIBLING_ORDER));
+
+        int capacity = categories.size();
+        long[] ids = new long[capacity];
+        String[] names = new String[capacity];
+        String[] icons = new String[capacity];
+        int[] parents = new int[capacity];
+        int[] posts = new int[capacity];
+        int[] subtreeEnds = new int[capacity];
+        Map<Long, Integer> preById = new HashMap<>(capacity * 2);
+
+        // 迭代式深度优先遍历：栈中元素为 {先序下标, 下一个待访问子节点的序号}，避免深层递归
+        int pre = 0;
+        int post = 0;
+        Deque<int[]> stack = new ArrayDeque<>();
+        List<List<Category>> childrenOfPre = new ArrayList<>(capacity);
+        List<Category> roots = childrenByParent.getOrDefault(Category.ROOT_PARENT_ID, List.of());
+        for (Category root : roots) {
+            pre = visit(root, -1, pre, ids, names, icons, parents, preById, childrenByParent, childrenOfPre);
+            if (pre < 0) {
+                pre = -pre - 1;
+                continue;
+            }
+            stack.push(new int[]{pre - 1, 0});
+            while (!stack.isEmpty()) {
+                int[] frame = stack.peek();
+                List<Category> children = childrenOfPre.get(frame[0]);
+                if (frame[1] < children.size()) {
+                    Category child = children.get(frame[1]++);
+                    int next = visit(child, frame[0], pre, ids, names, icons, parents, preById,
+                            childrenByParent, childrenOfPre);
+                    if (next >= 0) {
+                        pre = next;
+                        stack.push(new int[]{pre - 1, 0});
+                    }
+                } else {
+                    stack.pop();
+                    posts[frame[0]] = post++;
+                    subtreeEnds[frame[0]] = pre;
+                }
+            }
+        }
+        return new CategoryTreeSnapshot(Arrays.copyOf(ids, pre), Arrays.copyOf(names, pre),
+                Arrays.copyOf(icons, pre), Arrays.copyOf(parents, pre), Arrays.copyOf(posts, pre),
+                Arrays.copyOf(subtreeEnds, pre), preById, version);
+    }
+
+    /**
+     * 分配先序下标
+     *
+     * @return 下一个先序下标；节点已访问过（存在环或重复ID）时返回 -(pre + 1)
+     */
+    private static int visit(Category category, int parent, int pre, long[] ids, String[] names, String[] icons,
+                             int[] parents, Map<Long, Integer> preById,
+                             Map<Long, List<Category>> childrenByParent, List<List<Category>> childrenOfPre) {
+        if (preById.putIfAbsent(category.getId(), pre) != null) {
+            return -(pre + 1);
+        }
+        ids[pre] = category.getId();
+        names[pre] = category.getName();
+        icons[pre] = category.getIcon();
+        parents[pre] = parent;
+        childrenOfPre.add(childrenByParent.getOrDefault(category.getId(), List.of()));
+        return pre + 1;
+    }
+
+    /**
+     * 分类是否存在于快照中（启用且可从一级分类到达）
+     */
+    public boolean contains(long categoryId) {
+        return preById.containsKey(categoryId);
+    }
+
+    /**
+     * categoryId 是否为 ancestorId 本身或其子孙分类
+     */
+    public boolean isInSubtree(long ancestorId, long categoryId) {
+        Integer ancestor = preById.get(ancestorId);
+        Integer node = preById.get(categoryId);
+        return ancestor != null && node != null && ancestor <= node && posts[node] <= posts[ancestor];
+    }
+
+    /**
+     * 分类本身及全部子孙分类ID（先序），用于"某分类下的全部商品"查询；分类不存在时返回空数组
+     */
+    public long[] subtreeIds(long categoryId) {
+        Integer node = preById.get(categoryId);
+        return node == null ? new long[0] : Arrays.copyOfRange(ids, node, subtreeEnds[node]);
+    }
+
+    /**
+     * 从一级分类到该分类的路径（面包屑）；分类不存在时返回空数组
+     */
+    public long[] pathOf(long categoryId) {
+        Integer node = preById.get(categoryId);
+        if (node == null) {
+            return new long[0];
+        }
+        int depth = 0;
+        for (int i = node; i >= 0; i = parents[i]) {
+            depth++;
+        }
+        long[] path = new long[depth];
+        for (int i = node; i >= 0; i = parents[i]) {
+            path[--depth] = ids[i];
+        }
+        return path;
+    }
+
+    /**
+     * 分类名称，分类不存在时返回null
+     */
+    public String nameOf(long categoryId) {
+        Integer node = preById.get(categoryId);
+        return node == null ? null : names[node];
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 序列化后的导航菜单，调用方不得修改返回的数组
+     */
+    public byte[] getMenuJson() {
+        return menuJson;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * 按先序数组生成嵌套菜单：先序保证父节点先于子节点出现，同级节点已按排序值排列
+     */
+    private List<Map<String, Object>> buildMenu() {
+        List<Map<String, Object>> roots = new ArrayList<>();
+        List<List<Map<String, Object>>> childLists = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("id", ids[i]);
+            node.put("name", names[i]);
+            if (icons[i] != null) {
+                node.put("icon", icons[i]);
+            }
+            List<Map<String, Object>> children = new ArrayList<>();
+            node.put("children", children);
+            childLists.add(children);
+            (parents[i] < 0 ? roots : childLists.get(parents[i])).add(node);
+        }
+        return roots;
+    }
+
+    private static String computeEtag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder builder = new StringBuilder(34).append('"');
+            for (int i = 0; i < 16; i++) {
+                builder.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+                        .append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return builder.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
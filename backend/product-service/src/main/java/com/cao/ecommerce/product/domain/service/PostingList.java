@@ -0,0 +1,118 @@
+package com.cao.ecommerce.product.domain.service;
+
+import java.util.Arrays;
+
+/**
+ * 倒排列表：包含某个词条的文档编号集合
+ *
+ * 设计要点：
+ * 1. 文档编号按写入顺序递增分配，倒排列表只在尾部追加，天然有序，无需排序和插入
+ * 2. 稀疏时用有序int数组存储（每个文档4字节），查找用二分；
+ *    元素数超过 文档编号上限/32 时改为位图（每个文档1位），此时位图更小且查找为O(1)
+ * 3. 只存储原始类型数组，不装箱：百万级文档下避免Integer对象和对象头的内存开销
+ *
+ * 非线程安全，由 {@link ProductSearchIndex} 的读写锁保护
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+final class PostingList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** 有序数组形式，转为位图后置为null */
+    private int[] docs = new int[INITIAL_CAPACITY];
+
+    /** 位图形式 */
+    private long[] bits;
+
+    private int size;
+
+    /**
+     * 追加文档编号，编号必须大于已有编号
+     */
+    void add(int doc) {
+        if (bits != null) {
+            int word = doc >>> 6;
+            if (word >= bits.length) {
+                bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length + (bits.length >> 1)));
+            }
+            bits[word] |= 1L << doc;
+            size++;
+            return;
+        }
+        if (size == docs.length) {
+            // 数组扩容前判断是否改用位图：元素数 × 32 > 编号范围时位图更省内存
+            if ((long) size * 32 > doc) {
+                toBitmap(doc);
+                add(doc);
+                return;
+            }
+            docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+        }
+        docs[size++] = doc;
+    }
+
+    boolean contains(int doc) {
+        if (bits != null) {
+            int word = doc >>> 6;
+            return word < bits.length && (bits[word] & (1L << doc)) != 0;
+        }
+        return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 按编号升序遍历
+     */
+    void forEach(DocConsumer consumer) {
+        if (bits != null) {
+            for (int word = 0; word < bits.length; word++) {
+                long value = bits[word];
+                while (value != 0) {
+                    consumer.accept((word << 6) + Long.numberOfTrailingZeros(value));
+                    value &= value - 1;
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            consumer.accept(docs[i]);
+        }
+    }
+
+    /**
+     * 按新编号重写（索引压缩时使用），remap[旧编号] 为新编号，-1表示删除；新编号保持原有顺序
+     */
+    PostingList remap(int[] remap) {
+        PostingList result = new PostingList();
+        forEach(doc -> {
+            int target = remap[doc];
+            if (target >= 0) {
+                result.add(target);
+            }
+        });
+        return result;
+    }
+
+    private void toBitmap(int maxDoc) {
+        long[] bitmap = new long[(maxDoc >>> 6) + 1];
+        for (int i = 0; i < size; i++) {
+            bitmap[docs[i] >>> 6] |= 1L << docs[i];
+        }
+        bits = bitmap;
+        docs = null;
+    }
+
+    /**
+     * 文档编号回调，避免装箱
+     */
+    @FunctionalInterface
+    interface DocConsumer {
+
+        void accept(int doc);
+    }
+}
@@ -0,0 +1,422 @@
+package com.cao.ecommerce.product.domain.service;
+
+import com.cao.ecommerce.product.domain.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品内存倒排索引
+ *
+ * 替代 name/title/brand 上的 LIKE '%kw%' 查询：前置通配符无法使用索引，每次搜索都是全表扫描
+ *
+ * 设计要点：
+ * 1. 每个商品分配一个内部文档编号（递增），词条 → 文档编号的倒排列表只在尾部追加；
+ *    商品更新时旧文档标记删除、以新编号重新写入，删除的文档积累到一定比例后压缩重排
+ * 2. 过滤字段（分类、品牌、价格、状态、销量）按列存储在原始类型数组中，
+ *    过滤只做数组下标访问，不回查商品对象
+ * 3. 多个关键词取交集：从最短的倒排列表出发，逐个到其余列表中查找
+ * 4. 按销量取Top-K使用大小为K的小顶堆，复杂度O(N·logK)，不对全部结果排序
+ * 5. 读写锁：搜索并发执行，写入（增量更新、压缩）互斥
+ *
+ * 面试要点：
+ * - 倒排索引是全文检索的核心结构，ES/Lucene的posting同样按文档编号有序存储，
+ *   交集运算依赖有序性；稀疏列表用数组、稠密列表用位图是RoaringBitmap的基本思想
+ * - 内存索引适合单机可容纳的商品规模（百万级），更大规模或需要相关性打分时应引入ES
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class ProductSearchIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** 已删除文档数超过该值且超过存活文档的1/4时压缩 */
+    private static final int COMPACT_MIN_DELETED = 1024;
+
+    private static final int NO_BRAND = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    /** 商品ID → 当前文档编号 */
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+
+    /** 品牌（小写） → 品牌序号 */
+    private final Map<String, Integer> brandOrdinals = new HashMap<>();
+
+    private long[] productIds = new long[INITIAL_CAPACITY];
+
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+
+    private int[] brands = new int[INITIAL_CAPACITY];
+
+    /** 价格（分） */
+    private long[] prices = new long[INITIAL_CAPACITY];
+
+    private int[] statuses = new int[INITIAL_CAPACITY];
+
+    private int[] sales = new int[INITIAL_CAPACITY];
+
+    /** 存活文档 */
+    private BitSet live = new BitSet(INITIAL_CAPACITY);
+
+    /** 已分配的文档编号数（含已删除） */
+    private int docCount;
+
+    /**
+     * 新增或更新商品
+     */
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = docByProduct.get(product.getId());
+            if (previous != null) {
+                live.clear(previous);
+            }
+            int doc = append(product);
+            docByProduct.put(product.getId(), doc);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除商品
+     */
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = docByProduct.remove(productId);
+            if (previous != null) {
+                live.clear(previous);
+                maybeCompact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索商品
+     */
+    public ProductSearchResult search(ProductSearchQuery query) {
+        Set<String> terms = ProductTokenizer.queryTerms(query.getKeyword());
+        lock.readLock().lock();
+        try {
+            Filter filter = compileFilter(query);
+            if (filter == null) {
+                return new ProductSearchResult(0, List.of());
+            }
+            TopK topK = new TopK(Math.max(0, query.getLimit()), sales);
+            if (terms.isEmpty()) {
+                for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+                    if (filter.matches(doc)) {
+                        topK.offer(doc);
+                    }
+                }
+            } else {
+                PostingList[] lists = lookup(terms);
+                if (lists == null) {
+                    return new ProductSearchResult(0, List.of());
+                }
+                PostingList smallest = lists[0];
+                smallest.forEach(doc -> {
+                    if (!live.get(doc)) {
+                        return;
+                    }
+                    for (int i = 1; i < lists.length; i++) {
+                        if (!lists[i].contains(doc)) {
+                            return;
+                        }
+                    }
+                    if (filter.matches(doc)) {
+                        topK.offer(doc);
+                    }
+                });
+            }
+            return new ProductSearchResult(topK.total(), topK.productIds(productIds));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 存活商品数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 词条数
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int append(Product product) {
+        int doc = docCount;
+        if (doc == productIds.length) {
+            grow(doc + (doc >> 1));
+        }
+        productIds[doc] = product.getId();
+        categoryIds[doc] = product.getCategoryId() == null ? 0 : product.getCategoryId();
+        brands[doc] = brandOrdinal(product.getBrand());
+        prices[doc] = toCents(product.getPrice());
+        statuses[doc] = product.getStatus() == null ? Product.STATUS_OFF_SALE : product.getStatus();
+        sales[doc] = product.getSales() == null ? 0 : product.getSales();
+        live.set(doc);
+        docCount++;
+
+        Set<String> terms = ProductTokenizer.indexTerms(product.getName());
+        terms.addAll(ProductTokenizer.indexTerms(product.getTitle()));
+        terms.addAll(ProductTokenizer.indexTerms(product.getBrand()));
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new PostingList()).add(doc);
+        }
+        return doc;
+    }
+
+    private int brandOrdinal(String brand) {
+        if (brand == null || brand.isEmpty()) {
+            return NO_BRAND;
+        }
+        return brandOrdinals.computeIfAbsent(brand.toLowerCase(Locale.ROOT), key -> brandOrdinals.size());
+    }
+
+    /**
+     * 查询词条对应的倒排列表，按长度升序；任一词条不存在时返回null
+     */
+    private PostingList[] lookup(Set<String> terms) {
+        PostingList[] lists = new PostingList[terms.size()];
+        int i = 0;
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                return null;
+            }
+            lists[i++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+        return lists;
+    }
+
+    /**
+     * 编译过滤条件；条件不可能满足时（如品牌不存在）返回null
+     */
+    private Filter compileFilter(ProductSearchQuery query) {
+        int brand = NO_BRAND;
+        if (query.getBrand() != null) {
+            Integer ordinal = brandOrdinals.get(query.getBrand().toLowerCase(Locale.ROOT));
+            if (ordinal == null) {
+                return null;
+            }
+            brand = ordinal;
+        }
+        return new Filter(query.getCategoryId(), query.getBrand() != null, brand,
+                query.getMinPrice() == null ? Long.MIN_VALUE : toCents(query.getMinPrice()),
+                query.getMaxPrice() == null ? Long.MAX_VALUE : toCents(query.getMaxPrice()),
+                query.getStatus());
+    }
+
+    /**
+     * 删除的文档过多时按存活文档重新编号，回收列存储和倒排列表中的空洞
+     */
+    private void maybeCompact() {
+        int deleted = docCount - docByProduct.size();
+        if (deleted < COMPACT_MIN_DELETED || deleted * 4 < docByProduct.size()) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (live.get(doc)) {
+                remap[doc] = next;
+                productIds[next] = productIds[doc];
+                categoryIds[next] = categoryIds[doc];
+                brands[next] = brands[doc];
+                prices[next] = prices[doc];
+                statuses[next] = statuses[doc];
+                sales[next] = sales[doc];
+                next++;
+            } else {
+                remap[doc] = -1;
+            }
+        }
+        postings.replaceAll((term, list) -> list.remap(remap));
+        postings.values().removeIf(list -> list.size() == 0);
+        docByProduct.replaceAll((productId, doc) -> remap[doc]);
+        live = new BitSet(next);
+        live.set(0, next);
+        docCount = next;
+        grow(Math.max(INITIAL_CAPACITY, next + (next >> 1)));
+    }
+
+    private void grow(int capacity) {
+        productIds = Arrays.copyOf(productIds, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        brands = Arrays.copyOf(brands, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        sales = Arrays.copyOf(sales, capacity);
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price == null ? 0 : price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /**
+     * 编译后的过滤条件，直接访问列存储数组
+     */
+    private final class Filter {
+
+        private final boolean filterCategory;
+
+        private final long categoryId;
+
+        private final boolean filterBrand;
+
+        private final int brand;
+
+        private final long minPrice;
+
+        private final long maxPrice;
+
+        private final boolean filterStatus;
+
+        private final int status;
+
+        private Filter(Long categoryId, boolean filterBrand, int brand, long minPrice, long maxPrice,
+                       Integer status) {
+            this.filterCategory = categoryId != null;
+            this.categoryId = filterCategory ? categoryId : 0;
+            this.filterBrand = filterBrand;
+            this.brand = brand;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.filterStatus = status != null;
+            this.status = filterStatus ? status : 0;
+        }
+
+        private boolean matches(int doc) {
+            return (!filterCategory || categoryIds[doc] == categoryId)
+                    && (!filterBrand || brands[doc] == brand)
+                    && prices[doc] >= minPrice && prices[doc] <= maxPrice
+                    && (!filterStatus || statuses[doc] == status);
+        }
+    }
+
+    /**
+     * 按销量取前K个文档的小顶堆，堆顶为当前第K名
+     */
+    private static final class TopK {
+
+        private final int[] heap;
+
+        private final int[] sales;
+
+        private int size;
+
+        private int total;
+
+        private TopK(int k, int[] sales) {
+            this.heap = new int[k];
+            this.sales = sales;
+        }
+
+        private void offer(int doc) {
+            total++;
+            if (heap.length == 0) {
+                return;
+            }
+            if (size < heap.length) {
+                heap[size] = doc;
+                siftUp(size++);
+            } else if (less(heap[0], doc)) {
+                heap[0] = doc;
+                siftDown(0);
+            }
+        }
+
+        private int total() {
+            return total;
+        }
+
+        /**
+         * 依次弹出堆顶得到升序，倒序写入即为销量降序
+         */
+        private List<Long> productIds(long[] productIds) {
+            Long[] result = new Long[size];
+            while (size > 0) {
+                int doc = heap[0];
+                heap[0] = heap[--size];
+                siftDown(0);
+                result[size] = productIds[doc];
+            }
+            return new ArrayList<>(Arrays.asList(result));
+        }
+
+        /**
+         * 销量相同时文档编号大者（更晚写入）排在后面，结果稳定
+         */
+        private boolean less(int a, int b) {
+            return sales[a] != sales[b] ? sales[a] < sales[b] : a > b;
+        }
+
+        private void siftUp(int index) {
+            int doc = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!less(doc, heap[parent])) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = doc;
+        }
+
+        private void siftDown(int index) {
+            if (size == 0) {
+                return;
+            }
+            int doc = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!less(heap[child], doc)) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = doc;
+        }
+    }
+}
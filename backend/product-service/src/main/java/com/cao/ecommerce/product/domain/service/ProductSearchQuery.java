@@ -0,0 +1,36 @@
+package com.cao.ecommerce.product.domain.service;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品搜索条件，为null的条件不过滤
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class ProductSearchQuery {
+
+    /** 关键词，匹配商品名称、标题、品牌 */
+    private String keyword;
+
+    /** 分类ID */
+    private Long categoryId;
+
+    /** 品牌（精确匹配，忽略大小写） */
+    private String brand;
+
+    /** 最低价（含） */
+    private BigDecimal minPrice;
+
+    /** 最高价（含） */
+    private BigDecimal maxPrice;
+
+    /** 商品状态 */
+    private Integer status;
+
+    /** 返回条数，按销量从高到低 */
+    private int limit = 20;
+}
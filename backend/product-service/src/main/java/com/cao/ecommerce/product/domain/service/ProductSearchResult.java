@@ -0,0 +1,23 @@
+package com.cao.ecommerce.product.domain.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 商品搜索结果
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class ProductSearchResult {
+
+    /** 满足条件的商品总数 */
+    private final int total;
+
+    /** 销量最高的商品ID，按销量降序 */
+    private final List<Long> productIds;
+}
@@ -0,0 +1,93 @@
+package com.cao.ecommerce.product.domain.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 商品搜索分词器
+ *
+ * 设计要点：
+ * 1. 英文、数字按连续字母数字切分为单词并转小写（iPhone15 → iphone15）
+ * 2. 中日韩文字没有空格分隔，采用二元切分（Bigram）：小米手机 → 小米 / 米手 / 手机；
+ *    建索引时额外写入单字，查询时连续两个字以上的片段只用二元词，单字片段才用单字
+ * 3. 其余字符（空格、标点、符号）作为分隔符
+ *
+ * 面试要点：
+ * - 二元切分不需要词典，召回率高，代价是索引词条多、会出现"米手"这类无意义词条；
+ *   查询"手机"只需要一次posting查找，不会像单字切分那样把"手"和"机"分开的商品也召回
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class ProductTokenizer {
+
+    private ProductTokenizer() {
+    }
+
+    /**
+     * 建索引时的分词：单词 + 二元词 + 单字
+     */
+    public static Set<String> indexTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(text, true, terms);
+        return terms;
+    }
+
+    /**
+     * 查询时的分词：单词 + 二元词（单字片段使用单字）
+     */
+    public static Set<String> queryTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(text, false, terms);
+        return terms;
+    }
+
+    private static void tokenize(String text, boolean indexing, Set<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isWordChar(c)) {
+                int start = i;
+                while (i < length && isWordChar(text.charAt(i))) {
+                    i++;
+                }
+                terms.add(text.substring(start, i).toLowerCase());
+            } else if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                addCjkRun(text, start, i, indexing, terms);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void addCjkRun(String text, int start, int end, boolean indexing, Set<String> terms) {
+        if (end - start == 1 || indexing) {
+            for (int i = start; i < end; i++) {
+                terms.add(String.valueOf(text.charAt(i)));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            terms.add(text.substring(i, i + 2));
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return c < 0x80 && Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
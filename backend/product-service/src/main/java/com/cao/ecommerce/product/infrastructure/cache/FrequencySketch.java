@@ -0,0 +1,91 @@
+package com.cao.ecommerce.product.infrastructure.cache;
+
+/**
+ * Count-Min Sketch 访问频率估算（TinyLFU准入策略使用）
+ *
+ * 设计要点：
+ * 1. 4行计数器，每行用不同的种子散列，估算值取4行中的最小值，只会高估不会低估
+ * 2. 计数器上限15（与4位计数器一致），总增量达到采样阈值后所有计数器减半，
+ *    使频率随时间衰减，过去的热点不会永久占据缓存
+ * 3. 计数器读写不加锁：并发下偶尔丢失一次自增只影响估算精度，不影响正确性
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private static final int MAX_COUNT = 15;
+
+    private final byte[][] table;
+
+    private final int mask;
+
+    private final int sampleSize;
+
+    private int additions;
+
+    public FrequencySketch(int maximumSize) {
+        int width = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1;
+        this.table = new byte[SEEDS.length][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * Math.max(16, maximumSize);
+    }
+
+    /**
+     * 估算访问频率（0-15）
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            min = Math.min(min, table[i][indexOf(hash, i)]);
+        }
+        return min;
+    }
+
+    /**
+     * 记录一次访问
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            byte[] row = table[i];
+            int index = indexOf(hash, i);
+            if (row[index] < MAX_COUNT) {
+                row[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 所有计数器减半
+     */
+    private void reset() {
+        additions = 0;
+        for (byte[] row : table) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = (byte) (row[j] >>> 1);
+            }
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
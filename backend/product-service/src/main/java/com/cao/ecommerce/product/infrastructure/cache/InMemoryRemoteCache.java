@@ -0,0 +1,52 @@
+package com.cao.ecommerce.product.infrastructure.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内的远程缓存替身
+ *
+ * 未启用Redis（单节点开发、本地调试）时使用，语义与Redis的 GET / SET PX / DEL 一致；
+ * 每写入一定次数顺带清理一次过期条目
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class InMemoryRemoteCache implements RemoteCache {
+
+    private static final int CLEANUP_INTERVAL = 1024;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Override
+    public String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAtMillis) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public void set(String key, String value, long ttlMillis) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+        if (writes.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> now >= entry.expiresAtMillis);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        entries.remove(key);
+    }
+
+    private record Entry(String value, long expiresAtMillis) {
+    }
+}
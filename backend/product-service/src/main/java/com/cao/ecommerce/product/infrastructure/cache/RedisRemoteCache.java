@@ -0,0 +1,35 @@
+package com.cao.ecommerce.product.infrastructure.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Redis的远程缓存
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class RedisRemoteCache implements RemoteCache {
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisRemoteCache(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public void set(String key, String value, long ttlMillis) {
+        redisTemplate.opsForValue().set(key, value, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void delete(String key) {
+        redisTemplate.delete(key);
+    }
+}
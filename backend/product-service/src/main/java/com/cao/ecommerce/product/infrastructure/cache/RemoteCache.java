@@ -0,0 +1,27 @@
+package com.cao.ecommerce.product.infrastructure.cache;
+
+/**
+ * 远程缓存（各节点共享的二级缓存）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface RemoteCache {
+
+    /**
+     * 读取缓存
+     *
+     * @return 缓存值，不存在或已过期时返回null
+     */
+    String get(String key);
+
+    /**
+     * 写入缓存
+     */
+    void set(String key, String value, long ttlMillis);
+
+    /**
+     * 删除缓存
+     */
+    void delete(String key);
+}
@@ -0,0 +1,252 @@
+package com.cao.ecommerce.product.infrastructure.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 容量受限的进程内缓存（W-TinyLFU淘汰策略）
+ *
+ * 设计要点：
+ * 1. 数据保存在ConcurrentHashMap中，读路径无锁
+ * 2. 淘汰策略维护三个LRU段：窗口段（1%）、试用段和保护段（主区域的80%）。
+ *    新条目先进入窗口段；被挤出窗口的条目与试用段队首比较访问频率，频率更高者留下，
+ *    突发的一次性访问（如爬虫遍历）无法冲掉真正的热点
+ * 3. 试用段中再次被访问的条目晋升到保护段，保护段满时队首降级回试用段
+ * 4. 读命中时只尝试获取策略锁（tryLock），竞争时放弃本次LRU调整，读不会被写阻塞
+ *
+ * 面试要点：
+ * - LRU只看最近一次访问，扫描型流量会把热点数据全部挤出；
+ *   LFU记录全量计数成本高且无法适应热点变化，TinyLFU用衰减的Count-Min Sketch近似频率
+ * - 窗口段保留LRU对突发新热点的友好性，这是W-TinyLFU相对TinyLFU的改进
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author cao
+ * @version 1.0.0
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+
+    private static final int PROBATION = 1;
+
+    private static final int PROTECTED = 2;
+
+    private final int maximumSize;
+
+    private final int windowMaximum;
+
+    private final int protectedMaximum;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+
+    private final FrequencySketch sketch;
+
+    private final ReentrantLock policyLock = new ReentrantLock();
+
+    /** 三个LRU段均按插入顺序排列，队首为最久未访问，访问时移除后重新放入队尾 */
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>();
+
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * 读取缓存
+     *
+     * @return 缓存值，不存在时返回null
+     */
+    public V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (policyLock.tryLock()) {
+            try {
+                onAccess(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * 写入缓存，超出容量时按W-TinyLFU淘汰
+     */
+    public void put(K key, V value) {
+        policyLock.lock();
+        try {
+            Node<K, V> existing = data.get(key);
+            if (existing != null) {
+                existing.value = value;
+                onAccess(existing);
+                return;
+            }
+            Node<K, V> node = new Node<>(key, value);
+            data.put(key, node);
+            window.put(key, node);
+            evictFromWindow();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * 删除缓存
+     */
+    public void invalidate(K key) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                segmentOf(node).remove(key);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (data.get(node.key) != node) {
+            return;
+        }
+        switch (node.segment) {
+            case WINDOW -> moveToTail(window, node);
+            case PROBATION -> {
+                probation.remove(node.key);
+                node.segment = PROTECTED;
+                protectedSegment.put(node.key, node);
+                if (protectedSegment.size() > protectedMaximum) {
+                    Node<K, V> demoted = pollFirst(protectedSegment);
+                    demoted.segment = PROBATION;
+                    probation.put(demoted.key, demoted);
+                }
+            }
+            default -> moveToTail(protectedSegment, node);
+        }
+    }
+
+    /**
+     * 窗口段超限时，把队首移入主区域：主区域已满则与试用段队首比较频率，淘汰频率较低者
+     */
+    private void evictFromWindow() {
+        while (window.size() > windowMaximum) {
+            Node<K, V> candidate = pollFirst(window);
+            if (data.size() <= maximumSize) {
+                candidate.segment = PROBATION;
+                probation.put(candidate.key, candidate);
+                continue;
+            }
+            if (probation.isEmpty() && protectedSegment.isEmpty()) {
+                // 容量很小时主区域可能为空（如 maximumSize == 1），窗口段内按LRU淘汰
+                data.remove(candidate.key, candidate);
+                evictions.increment();
+                continue;
+            }
+            LinkedHashMap<K, Node<K, V>> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+            Node<K, V> victim = victimSegment.values().iterator().next();
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                victimSegment.remove(victim.key);
+                data.remove(victim.key, victim);
+                candidate.segment = PROBATION;
+                probation.put(candidate.key, candidate);
+            } else {
+                data.remove(candidate.key, candidate);
+            }
+            evictions.increment();
+        }
+    }
+
+    private LinkedHashMap<K, Node<K, V>> segmentOf(Node<K, V> node) {
+        return switch (node.segment) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedSegment;
+        };
+    }
+
+    private static <K, V> void moveToTail(LinkedHashMap<K, Node<K, V>> segment, Node<K, V> node) {
+        segment.remove(node.key);
+        segment.put(node.key, node);
+    }
+
+    private static <K, V> Node<K, V> pollFirst(LinkedHashMap<K, Node<K, V>> segment) {
+        Iterator<Node<K, V>> iterator = segment.values().iterator();
+        Node<K, V> first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+
+    /**
+     * 缓存节点
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+
+        private volatile V value;
+
+        /** 所在段，只在策略锁内读写 */
+        private int segment = WINDOW;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.cao.ecommerce.product.infrastructure.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.cao.ecommerce.product.domain.model.Product;
+import com.cao.ecommerce.product.domain.repository.ProductRepository;
+import com.cao.ecommerce.product.infrastructure.mq.producer.ProductCacheEvictProducer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 商品详情两级缓存
+ *
+ * 读路径：近端缓存（进程内W-TinyLFU） → 远程缓存（Redis） → 数据库
+ *
+ * 技术要点：
+ * 1. 近端缓存命中直接返回，不经过网络；条目超过刷新时间后返回旧值，同时异步刷新（refresh-ahead），
+ *    热点商品不会在过期瞬间集中回源
+ * 2. 同一商品的并发未命中只有一个线程回源（single-flight），其余线程等待同一个结果
+ * 3. 不存在的商品写入空值标记并使用较短的过期时间，防止缓存穿透
+ * 4. 远程缓存过期时间增加随机抖动，避免批量写入的商品同时过期造成雪崩
+ * 5. 更新后失效：先删远程缓存再广播失效消息，各节点删除近端缓存；
+ *    延迟一段时间后再删一次（延迟双删），清理更新期间被并发读回填的旧值
+ *
+ * 面试要点：
+ * - 为什么删除而不是更新缓存：并发更新下写缓存的顺序无法保证与写库一致，删除让下一次读取回源
+ * - 近端缓存的一致性依赖失效广播，消息丢失时由近端过期时间兜底，过期时间即最大不一致窗口
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class TwoLevelProductCache {
+
+    /** 远程缓存键前缀 */
+    public static final String KEY_PREFIX = "product:detail:";
+
+    /** 远程缓存中的空值标记 */
+    private static final String NULL_MARKER = "";
+
+    private final ProductRepository productRepository;
+
+    private final RemoteCache remoteCache;
+
+    private final ProductCacheEvictProducer evictProducer;
+
+    private final TinyLfuCache<Long, NearEntry> nearCache;
+
+    private final long nearExpireMillis;
+
+    private final long nearRefreshMillis;
+
+    private final long negativeNearExpireMillis;
+
+    private final long remoteTtlMillis;
+
+    private final int ttlJitterPercent;
+
+    private final long negativeTtlMillis;
+
+    private final long doubleDeleteDelayMillis;
+
+    /** 进行中的回源加载 */
+    private final ConcurrentHashMap<Long, CompletableFuture<Product>> loading = new ConcurrentHashMap<>();
+
+    /** 进行中的异步刷新，同一商品同时只刷新一次 */
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService refreshExecutor;
+
+    private final ScheduledExecutorService evictScheduler;
+
+    /**
+     * @param nearMaximumSize         近端缓存容量
+     * @param nearExpireMillis        近端缓存过期时间（毫秒）
+     * @param nearRefreshMillis       近端缓存刷新时间（毫秒），超过后异步刷新
+     * @param remoteTtlMillis         远程缓存过期时间（毫秒）
+     * @param ttlJitterPercent        远程缓存过期时间随机抖动（百分比）
+     * @param negativeTtlMillis       空值缓存过期时间（毫秒）
+     * @param doubleDeleteDelayMillis 延迟双删的延迟（毫秒），0表示不做第二次删除
+     */
+    public TwoLevelProductCache(ProductRepository productRepository, RemoteCache remoteCache,
+                                ProductCacheEvictProducer evictProducer,
+                                int nearMaximumSize, long nearExpireMillis, long nearRefreshMillis,
+                                long remoteTtlMillis, int ttlJitterPercent, long negativeTtlMillis,
+                                long doubleDeleteDelayMillis) {
+        this.productRepository = productRepository;
+        this.remoteCache = remoteCache;
+        this.evictProducer = evictProducer;
+        this.nearCache = new TinyLfuCache<>(nearMaximumSize);
+        this.nearExpireMillis = nearExpireMillis;
+        this.nearRefreshMillis = Math.min(nearRefreshMillis, nearExpireMillis);
+        this.negativeNearExpireMillis = Math.min(nearExpireMillis, negativeTtlMillis);
+        this.remoteTtlMillis = remoteTtlMillis;
+        this.ttlJitterPercent = Math.max(0, Math.min(ttlJitterPercent, 50));
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.doubleDeleteDelayMillis = doubleDeleteDelayMillis;
+        // 刷新只是优化，队列满时拒绝本次刷新（见refreshAsync），由下次读取或过期兜底
+        this.refreshExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1024), daemonThreads("product-cache-refresh"),
+                new ThreadPoolExecutor.AbortPolicy());
+        ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(1, daemonThreads("product-cache-evict"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.evictScheduler = scheduler;
+    }
+
+    /**
+     * 查询商品详情
+     *
+     * @return 商品，不存在时返回null
+     */
+    public Product get(long productId) {
+        long now = System.currentTimeMillis();
+        NearEntry entry = nearCache.get(productId);
+        if (entry != null && now < entry.expireAtMillis) {
+            if (now >= entry.refreshAtMillis && refreshing.add(productId)) {
+                refreshAsync(productId);
+            }
+            return entry.product;
+        }
+        return load(productId);
+    }
+
+    /**
+     * 商品变更后失效缓存（数据库事务提交后调用）
+     */
+    public void invalidate(long productId) {
+        remoteCache.delete(remoteKey(productId));
+        nearCache.invalidate(productId);
+        evictProducer.send(productId);
+        if (doubleDeleteDelayMillis > 0) {
+            evictScheduler.schedule(() -> {
+                try {
+                    remoteCache.delete(remoteKey(productId));
+                } catch (RuntimeException e) {
+                    log.warn("商品缓存延迟双删失败: productId={}", productId, e);
+                }
+                nearCache.invalidate(productId);
+                evictProducer.send(productId);
+            }, doubleDeleteDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 收到失效广播时删除本节点的近端缓存
+     */
+    public void evictNear(long productId) {
+        nearCache.invalidate(productId);
+    }
+
+    public long getNearHitCount() {
+        return nearCache.getHitCount();
+    }
+
+    public long getNearMissCount() {
+        return nearCache.getMissCount();
+    }
+
+    public int getNearSize() {
+        return nearCache.size();
+    }
+
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+        evictScheduler.shutdownNow();
+    }
+
+    private Product load(long productId) {
+        CompletableFuture<Product> future = new CompletableFuture<>();
+        CompletableFuture<Product> existing = loading.putIfAbsent(productId, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+        try {
+            Product product = loadThrough(productId);
+            future.complete(product);
+            return product;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(productId, future);
+        }
+    }
+
+    private void refreshAsync(long productId) {
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loadThrough(productId);
+                } catch (RuntimeException e) {
+                    log.warn("商品缓存异步刷新失败，继续使用旧值: productId={}", productId, e);
+                } finally {
+                    refreshing.remove(productId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(productId);
+        }
+    }
+
+    /**
+     * 远程缓存 → 数据库，结果回填两级缓存
+     */
+    private Product loadThrough(long productId) {
+        String key = remoteKey(productId);
+        String cached = null;
+        try {
+            cached = remoteCache.get(key);
+        } catch (RuntimeException e) {
+            // 远程缓存不可用时降级为直接查库，近端缓存仍然挡住大部分读
+            log.warn("远程缓存读取失败，降级查库: productId={}", productId, e);
+        }
+        Product product;
+        if (cached != null) {
+            product = NULL_MARKER.equals(cached) ? null : JSON.parseObject(cached, Product.class);
+        } else {
+            product = productRepository.findById(productId);
+            try {
+                if (product == null) {
+                    remoteCache.set(key, NULL_MARKER, negativeTtlMillis);
+                } else {
+                    remoteCache.set(key, JSON.toJSONString(product), jitter(remoteTtlMillis));
+                }
+            } catch (RuntimeException e) {
+                log.warn("远程缓存写入失败: productId={}", productId, e);
+            }
+        }
+        long now = System.currentTimeMillis();
+        long expire = product == null ? negativeNearExpireMillis : nearExpireMillis;
+        nearCache.put(productId, new NearEntry(product, now + Math.min(nearRefreshMillis, expire), now + expire));
+        return product;
+    }
+
+    private long jitter(long ttlMillis) {
+        if (ttlJitterPercent == 0) {
+            return ttlMillis;
+        }
+        long range = ttlMillis * ttlJitterPercent / 100;
+        return ttlMillis + ThreadLocalRandom.current().nextLong(-range, range + 1);
+    }
+
+    private static String remoteKey(long productId) {
+        return KEY_PREFIX + productId;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 近端缓存条目，product为null表示商品不存在
+     */
+    private record NearEntry(Product product, long refreshAtMillis, long expireAtMillis) {
+    }
+}
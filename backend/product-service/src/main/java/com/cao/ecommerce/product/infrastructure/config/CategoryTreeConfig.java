@@ -0,0 +1,43 @@
+package com.cao.ecommerce.product.infrastructure.config;
+
+import com.cao.ecommerce.product.application.scheduler.CategoryTreeRefreshScheduler;
+import com.cao.ecommerce.product.application.service.CategoryTreeService;
+import com.cao.ecommerce.product.domain.repository.CategoryRepository;
+import com.cao.ecommerce.product.infrastructure.persistence.JdbcCategoryRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 商品分类树装配
+ *
+ * 默认关闭，开启数据源后通过 ecommerce.product.category.enabled=true 启用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(CategoryTreeProperties.class)
+@ConditionalOnProperty(prefix = CategoryTreeProperties.PREFIX, name = "enabled", havingValue = "true")
+public class CategoryTreeConfig {
+
+    @Bean
+    public CategoryRepository categoryRepository(DataSource dataSource) {
+        return new JdbcCategoryRepository(new JdbcTemplate(dataSource));
+    }
+
+    @Bean
+    public CategoryTreeService categoryTreeService(CategoryRepository categoryRepository) {
+        return new CategoryTreeService(categoryRepository);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public CategoryTreeRefreshScheduler categoryTreeRefreshScheduler(CategoryTreeService categoryTreeService,
+                                                                     CategoryTreeProperties properties) {
+        return new CategoryTreeRefreshScheduler(categoryTreeService, properties.getRefreshIntervalMs());
+    }
+}
@@ -0,0 +1,23 @@
+package com.cao.ecommerce.product.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 商品分类树配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = CategoryTreeProperties.PREFIX)
+public class CategoryTreeProperties {
+
+    public static final String PREFIX = "ecommerce.product.category";
+
+    /** 是否启用分类树快照（依赖数据源，第三阶段启用） */
+    private boolean enabled = false;
+
+    /** 检查分类表变更的间隔（毫秒），即分类修改后菜单的最大延迟 */
+    private long refreshIntervalMs = 10000;
+}
@@ -0,0 +1,99 @@
+package com.cao.ecommerce.product.infrastructure.config;
+
+import com.cao.ecommerce.product.application.event.handler.ProductCacheInvalidationHandler;
+import com.cao.ecommerce.product.domain.repository.ProductRepository;
+import com.cao.ecommerce.product.infrastructure.cache.InMemoryRemoteCache;
+import com.cao.ecommerce.product.infrastructure.cache.RedisRemoteCache;
+import com.cao.ecommerce.product.infrastructure.cache.RemoteCache;
+import com.cao.ecommerce.product.infrastructure.cache.TwoLevelProductCache;
+import com.cao.ecommerce.product.infrastructure.mq.consumer.ProductCacheEvictConsumer;
+import com.cao.ecommerce.product.infrastructure.mq.producer.ProductCacheEvictProducer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 商品两级缓存装配
+ *
+ * 默认关闭，开启数据源后通过 ecommerce.product.cache.enabled=true 启用；
+ * 多节点部署时设置 remote-type=redis，失效消息通过Redis Pub/Sub广播到所有节点；
+ * 商品仓储和应用服务见 {@link ProductPersistenceConfig}
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(ProductCacheProperties.class)
+@ConditionalOnProperty(prefix = ProductCacheProperties.PREFIX, name = "enabled", havingValue = "true")
+public class ProductCacheConfig {
+
+    @Bean
+    public RemoteCache productRemoteCache(ProductCacheProperties properties,
+                                          ObjectProvider<StringRedisTemplate> redisTemplate) {
+        if (isRedis(properties)) {
+            return new RedisRemoteCache(redisTemplate.getObject());
+        }
+        return new InMemoryRemoteCache();
+    }
+
+    @Bean
+    public ProductCacheEvictProducer productCacheEvictProducer(ProductCacheProperties properties,
+                                                               ObjectProvider<StringRedisTemplate> redisTemplate) {
+        return new ProductCacheEvictProducer(isRedis(properties) ? redisTemplate.getObject() : null);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public TwoLevelProductCache twoLevelProductCache(ProductRepository productRepository, RemoteCache productRemoteCache,
+                                                     ProductCacheEvictProducer productCacheEvictProducer,
+                                                     ProductCacheProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        TwoLevelProductCache cache = new TwoLevelProductCache(productRepository, productRemoteCache,
+                productCacheEvictProducer, properties.getNearMaximumSize(),
+                properties.getNearExpireSeconds() * 1000, properties.getNearRefreshSeconds() * 1000,
+                properties.getRemoteTtlSeconds() * 1000, properties.getTtlJitterPercent(),
+                properties.getNegativeTtlSeconds() * 1000, properties.getDoubleDeleteDelayMs());
+        FunctionCounter.builder("product.cache.near.requests", cache, TwoLevelProductCache::getNearHitCount)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("product.cache.near.requests", cache, TwoLevelProductCache::getNearMissCount)
+                .tag("result", "miss").register(meterRegistry);
+        Gauge.builder("product.cache.near.size", cache, TwoLevelProductCache::getNearSize)
+                .description("近端缓存条目数").register(meterRegistry);
+        return cache;
+    }
+
+    @Bean
+    public ProductCacheInvalidationHandler productCacheInvalidationHandler(TwoLevelProductCache twoLevelProductCache) {
+        return new ProductCacheInvalidationHandler(twoLevelProductCache);
+    }
+
+    private static boolean isRedis(ProductCacheProperties properties) {
+        return "redis".equalsIgnoreCase(properties.getRemoteType());
+    }
+
+    /**
+     * 多节点失效广播订阅
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = ProductCacheProperties.PREFIX, name = "remote-type", havingValue = "redis")
+    static class EvictListenerConfig {
+
+        @Bean
+        public RedisMessageListenerContainer productCacheEvictListenerContainer(
+                RedisConnectionFactory connectionFactory, TwoLevelProductCache twoLevelProductCache) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(new ProductCacheEvictConsumer(twoLevelProductCache),
+                    new ChannelTopic(ProductCacheEvictProducer.CHANNEL));
+            return container;
+        }
+    }
+}
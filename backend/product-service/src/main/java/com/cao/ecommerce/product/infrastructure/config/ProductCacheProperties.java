@@ -0,0 +1,44 @@
+package com.cao.ecommerce.product.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 商品两级缓存配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = ProductCacheProperties.PREFIX)
+public class ProductCacheProperties {
+
+    public static final String PREFIX = "ecommerce.product.cache";
+
+    /** 是否启用商品缓存（依赖数据源，第三阶段启用） */
+    private boolean enabled = false;
+
+    /** 远程缓存类型：memory（进程内，单节点）/ redis（多节点，通过Pub/Sub广播失效） */
+    private String remoteType = "memory";
+
+    /** 近端缓存容量（商品数） */
+    private int nearMaximumSize = 10000;
+
+    /** 近端缓存过期时间（秒），即失效广播丢失时的最大不一致窗口 */
+    private long nearExpireSeconds = 300;
+
+    /** 近端缓存刷新时间（秒），超过后读取返回旧值并异步刷新 */
+    private long nearRefreshSeconds = 30;
+
+    /** 远程缓存过期时间（秒） */
+    private long remoteTtlSeconds = 1800;
+
+    /** 远程缓存过期时间随机抖动（百分比） */
+    private int ttlJitterPercent = 10;
+
+    /** 不存在商品的空值缓存时间（秒） */
+    private long negativeTtlSeconds = 60;
+
+    /** 延迟双删的延迟（毫秒），应大于一次回源读取的耗时，0表示关闭 */
+    private long doubleDeleteDelayMs = 1000;
+}
@@ -0,0 +1,42 @@
+package com.cao.ecommerce.product.infrastructure.config;
+
+import com.cao.ecommerce.common.spring.datasource.ReadWriteSplittingAutoConfiguration;
+import com.cao.ecommerce.product.application.service.ProductService;
+import com.cao.ecommerce.product.domain.repository.ProductRepository;
+import com.cao.ecommerce.product.infrastructure.cache.TwoLevelProductCache;
+import com.cao.ecommerce.product.infrastructure.persistence.JdbcProductRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 商品仓储和应用服务装配
+ *
+ * 依赖数据源，商品缓存或商品搜索任一启用时装配；启用读写分离（{@link ReadWriteSplittingAutoConfiguration}）时商品读取走从库
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@ConditionalOnExpression("${ecommerce.product.cache.enabled:false} or ${ecommerce.product.search.enabled:false}")
+public class ProductPersistenceConfig {
+
+    @Bean
+    public ProductRepository productRepository(DataSource dataSource) throws SQLException {
+        return new JdbcProductRepository(new JdbcTemplate(dataSource),
+                ReadWriteSplittingAutoConfiguration.readOnlyTransaction(dataSource));
+    }
+
+    @Bean
+    public ProductService productService(ProductRepository productRepository,
+                                         ObjectProvider<TwoLevelProductCache> productCache,
+                                         ApplicationEventPublisher eventPublisher) {
+        return new ProductService(productRepository, productCache.getIfAvailable(), eventPublisher);
+    }
+}
@@ -0,0 +1,75 @@
+package com.cao.ecommerce.product.infrastructure.config;
+
+import com.cao.ecommerce.product.application.event.handler.ProductSearchIndexHandler;
+import com.cao.ecommerce.product.application.service.ProductSearchService;
+import com.cao.ecommerce.product.domain.repository.ProductRepository;
+import com.cao.ecommerce.product.infrastructure.mq.consumer.ProductSearchUpdateConsumer;
+import com.cao.ecommerce.product.infrastructure.mq.producer.ProductSearchUpdateProducer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 商品搜索装配
+ *
+ * 默认关闭，开启数据源后通过 ecommerce.product.search.enabled=true 启用；
+ * 多节点部署时设置 broadcast-type=redis，索引更新通过独立的Pub/Sub频道同步到所有节点，不依赖商品缓存配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(ProductSearchProperties.class)
+@ConditionalOnProperty(prefix = ProductSearchProperties.PREFIX, name = "enabled", havingValue = "true")
+public class ProductSearchConfig {
+
+    @Bean
+    public ProductSearchService productSearchService(ProductRepository productRepository,
+                                                     ProductSearchProperties properties) {
+        ProductSearchService service = new ProductSearchService(productRepository);
+        if (properties.isBuildOnStartup()) {
+            service.rebuild();
+        }
+        return service;
+    }
+
+    @Bean
+    public ProductSearchUpdateProducer productSearchUpdateProducer(ProductSearchProperties properties,
+                                                                   ObjectProvider<StringRedisTemplate> redisTemplate) {
+        boolean redis = "redis".equalsIgnoreCase(properties.getBroadcastType());
+        return new ProductSearchUpdateProducer(redis ? redisTemplate.getObject() : null);
+    }
+
+    @Bean
+    public ProductSearchIndexHandler productSearchIndexHandler(ProductSearchService productSearchService,
+                                                               ProductSearchUpdateProducer productSearchUpdateProducer) {
+        return new ProductSearchIndexHandler(productSearchService, productSearchUpdateProducer);
+    }
+
+    /**
+     * 多节点索引更新订阅
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = ProductSearchProperties.PREFIX, name = "broadcast-type", havingValue = "redis")
+    static class UpdateListenerConfig {
+
+        @Bean
+        public RedisMessageListenerContainer productSearchUpdateListenerContainer(
+                RedisConnectionFactory connectionFactory, ProductSearchUpdateProducer productSearchUpdateProducer,
+                ApplicationEventPublisher eventPublisher) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(
+                    new ProductSearchUpdateConsumer(productSearchUpdateProducer.getNodeId(), eventPublisher),
+                    new ChannelTopic(ProductSearchUpdateProducer.CHANNEL));
+            return container;
+        }
+    }
+}
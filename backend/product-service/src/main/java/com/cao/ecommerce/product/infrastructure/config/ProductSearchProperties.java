@@ -0,0 +1,26 @@
+package com.cao.ecommerce.product.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 商品搜索配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = ProductSearchProperties.PREFIX)
+public class ProductSearchProperties {
+
+    public static final String PREFIX = "ecommerce.product.search";
+
+    /** 是否启用内存倒排索引搜索（依赖数据源，第三阶段启用） */
+    private boolean enabled = false;
+
+    /** 启动时是否全量构建索引 */
+    private boolean buildOnStartup = true;
+
+    /** 索引更新广播方式：none（单节点）/ redis（多节点，通过独立的Pub/Sub频道同步，与商品缓存配置无关） */
+    private String broadcastType = "none";
+}
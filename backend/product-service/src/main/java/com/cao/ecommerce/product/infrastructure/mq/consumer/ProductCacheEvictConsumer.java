@@ -0,0 +1,39 @@
+package com.cao.ecommerce.product.infrastructure.mq.consumer;
+
+import com.cao.ecommerce.product.infrastructure.cache.TwoLevelProductCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 商品近端缓存失效消息消费者
+ *
+ * 删除本节点的近端缓存；搜索索引的跨节点更新使用独立频道，见 ProductSearchUpdateConsumer
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class ProductCacheEvictConsumer implements MessageListener {
+
+    private final TwoLevelProductCache productCache;
+
+    public ProductCacheEvictConsumer(TwoLevelProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        long productId;
+        try {
+            productId = Long.parseLong(body);
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法解析的商品缓存失效消息: {}", body);
+            return;
+        }
+        productCache.evictNear(productId);
+    }
+}
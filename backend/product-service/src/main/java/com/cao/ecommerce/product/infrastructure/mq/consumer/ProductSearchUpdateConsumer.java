@@ -0,0 +1,48 @@
+package com.cao.ecommerce.product.infrastructure.mq.consumer;
+
+import com.cao.ecommerce.product.domain.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 商品搜索索引更新消息消费者
+ *
+ * 以远程事件的形式转发其他节点的商品变更，由搜索索引增量更新；
+ * 本节点发出的消息直接跳过，本节点的变更已由本地事件更新过索引
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class ProductSearchUpdateConsumer implements MessageListener {
+
+    private final String nodeId;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductSearchUpdateConsumer(String nodeId, ApplicationEventPublisher eventPublisher) {
+        this.nodeId = nodeId;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        long productId;
+        try {
+            productId = Long.parseLong(body.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法解析的商品索引更新消息: {}", body);
+            return;
+        }
+        if (separator > 0 && nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, true));
+    }
+}
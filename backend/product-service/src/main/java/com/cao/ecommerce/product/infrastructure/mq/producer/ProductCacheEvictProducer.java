@@ -0,0 +1,42 @@
+package com.cao.ecommerce.product.infrastructure.mq.producer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 商品近端缓存失效消息发送者
+ *
+ * 商品价格、库存、状态变更后广播商品ID，所有节点（包括本节点）收到后删除各自的近端缓存。
+ * 消息通过Redis Pub/Sub发送：失效通知只关心"尽快送达在线节点"，不需要持久化和重放，
+ * 错过消息的节点最多在近端缓存过期时间内读到旧值
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class ProductCacheEvictProducer {
+
+    /** 失效消息频道 */
+    public static final String CHANNEL = "ecommerce:product:cache-evict";
+
+    /** 为null时为单节点模式，只失效本节点 */
+    private final StringRedisTemplate redisTemplate;
+
+    public ProductCacheEvictProducer(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 广播商品缓存失效
+     */
+    public void send(long productId) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, Long.toString(productId));
+        } catch (RuntimeException e) {
+            log.warn("商品缓存失效消息发送失败: productId={}", productId, e);
+        }
+    }
+}
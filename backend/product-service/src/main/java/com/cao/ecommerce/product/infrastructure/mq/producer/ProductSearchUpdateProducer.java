@@ -0,0 +1,51 @@
+package com.cao.ecommerce.product.infrastructure.mq.producer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * 商品搜索索引更新消息生产者
+ *
+ * 通过Redis Pub/Sub通知其他节点增量更新各自的内存索引，独立于商品缓存的失效广播：
+ * 缓存未启用或使用进程内远程缓存时，多节点的搜索索引同样保持同步。
+ * 消息体为 "节点ID:商品ID"，消费者据此跳过本节点发出的消息
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class ProductSearchUpdateProducer {
+
+    /** 索引更新消息频道 */
+    public static final String CHANNEL = "ecommerce:product:search-update";
+
+    /** 为null时为单节点模式，不广播 */
+    private final StringRedisTemplate redisTemplate;
+
+    /** 本节点标识，每个进程随机生成 */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public ProductSearchUpdateProducer(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 广播商品索引更新
+     */
+    public void send(long productId) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + ":" + productId);
+        } catch (RuntimeException e) {
+            log.warn("商品索引更新消息发送失败: productId={}", productId, e);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,51 @@
+package com.cao.ecommerce.product.infrastructure.persistence;
+
+import com.cao.ecommerce.product.domain.model.Category;
+import com.cao.ecommerce.product.domain.repository.CategoryRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+/**
+ * 基于JDBC的商品分类仓储实现
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class JdbcCategoryRepository implements CategoryRepository {
+
+    private static final String SELECT_ENABLED =
+            "SELECT id, name, parent_id, level, sort, icon FROM category WHERE status = 1 AND deleted = 0";
+
+    /** 逻辑删除、禁用都会更新 update_time，两者组合可以发现任意增删改 */
+    private static final String SELECT_FINGERPRINT =
+            "SELECT CONCAT(COUNT(*), '-', IFNULL(UNIX_TIMESTAMP(MAX(update_time)), 0)) FROM category";
+
+    private static final RowMapper<Category> CATEGORY_ROW_MAPPER = (rs, rowNum) -> {
+        Category category = new Category();
+        category.setId(rs.getLong("id"));
+        category.setName(rs.getString("name"));
+        category.setParentId(rs.getLong("parent_id"));
+        category.setLevel(rs.getInt("level"));
+        category.setSort(rs.getInt("sort"));
+        category.setIcon(rs.getString("icon"));
+        return category;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcCategoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Category> findAllEnabled() {
+        return jdbcTemplate.query(SELECT_ENABLED, CATEGORY_ROW_MAPPER);
+    }
+
+    @Override
+    public String fingerprint() {
+        return jdbcTemplate.queryForObject(SELECT_FINGERPRINT, String.class);
+    }
+}
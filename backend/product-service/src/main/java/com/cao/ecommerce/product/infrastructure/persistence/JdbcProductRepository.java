@@ -0,0 +1,131 @@
+package com.cao.ecommerce.product.infrastructure.persistence;
+
+import com.cao.ecommerce.product.domain.model.Product;
+import com.cao.ecommerce.product.domain.repository.ProductRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 基于JDBC的商品仓储实现
+ *
+ * 商品详情和搜索索引的全量遍历在读事务中执行：启用读写分离时为只读事务，路由到从库；
+ * 详情读从库时缓存可能回填延迟内的旧值，由写入后的延迟双删清除（从库最大延迟不应超过双删间隔）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class JdbcProductRepository implements ProductRepository {
+
+    private static final String SELECT_BY_ID =
+            "SELECT id, name, title, description, category_id, brand, price, stock, sales, image, images, status, "
+                    + "create_time, update_time FROM product WHERE id = ? AND deleted = 0";
+
+    private static final String SELECT_FOR_SEARCH =
+            "SELECT id, name, title, category_id, brand, price, sales, status FROM product WHERE deleted = 0";
+
+    private static final String UPDATE_PRICE =
+            "UPDATE product SET price = ? WHERE id = ? AND deleted = 0";
+
+    private static final String UPDATE_STOCK =
+            "UPDATE product SET stock = ? WHERE id = ? AND deleted = 0";
+
+    private static final String UPDATE_STATUS =
+            "UPDATE product SET status = ? WHERE id = ? AND deleted = 0";
+
+    private static final RowMapper<Product> PRODUCT_ROW_MAPPER = (rs, rowNum) -> {
+        Product product = new Product();
+        product.setId(rs.getLong("id"));
+        product.setName(rs.getString("name"));
+        product.setTitle(rs.getString("title"));
+        product.setDescription(rs.getString("description"));
+        product.setCategoryId(rs.getLong("category_id"));
+        product.setBrand(rs.getString("brand"));
+        product.setPrice(rs.getBigDecimal("price"));
+        product.setStock(rs.getInt("stock"));
+        product.setSales(rs.getInt("sales"));
+        product.setImage(rs.getString("image"));
+        product.setImages(rs.getString("images"));
+        product.setStatus(rs.getInt("status"));
+        product.setCreateTime(toLocalDateTime(rs.getTimestamp("create_time")));
+        product.setUpdateTime(toLocalDateTime(rs.getTimestamp("update_time")));
+        return product;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionOperations readTransaction;
+
+    public JdbcProductRepository(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, TransactionOperations.withoutTransaction());
+    }
+
+    /**
+     * @param readTransaction 读取所在的事务，读写分离时为只读事务
+     */
+    public JdbcProductRepository(JdbcTemplate jdbcTemplate, TransactionOperations readTransaction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = readTransaction;
+    }
+
+    @Override
+    public Product findById(long id) {
+        List<Product> result = readTransaction.execute(tx ->
+                jdbcTemplate.query(SELECT_BY_ID, PRODUCT_ROW_MAPPER, id));
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @Override
+    public void forEachForSearch(Consumer<Product> consumer) {
+        readTransaction.executeWithoutResult(tx -> scanForSearch(consumer));
+    }
+
+    private void scanForSearch(Consumer<Product> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_FOR_SEARCH,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL驱动只有fetchSize为Integer.MIN_VALUE时才逐行流式读取，否则一次性缓冲整个结果集
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Product product = new Product();
+            product.setId(rs.getLong("id"));
+            product.setName(rs.getString("name"));
+            product.setTitle(rs.getString("title"));
+            product.setCategoryId(rs.getLong("category_id"));
+            product.setBrand(rs.getString("brand"));
+            product.setPrice(rs.getBigDecimal("price"));
+            product.setSales(rs.getInt("sales"));
+            product.setStatus(rs.getInt("status"));
+            consumer.accept(product);
+        });
+    }
+
+    @Override
+    public boolean updatePrice(long id, BigDecimal price) {
+        return jdbcTemplate.update(UPDATE_PRICE, price, id) > 0;
+    }
+
+    @Override
+    public boolean updateStock(long id, int stock) {
+        return jdbcTemplate.update(UPDATE_STOCK, stock, id) > 0;
+    }
+
+    @Override
+    public boolean updateStatus(long id, int status) {
+        return jdbcTemplate.update(UPDATE_STATUS, status, id) > 0;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
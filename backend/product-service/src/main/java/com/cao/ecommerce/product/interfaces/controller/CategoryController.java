@@ -0,0 +1,51 @@
+package com.cao.ecommerce.product.interfaces.controller;
+
+import com.cao.ecommerce.product.application.service.CategoryTreeService;
+import com.cao.ecommerce.product.domain.service.CategoryTreeSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 商品分类控制器
+ *
+ * 导航菜单直接输出快照中预先序列化的字节，并支持 ETag / If-None-Match 条件请求
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/categories")
+@ConditionalOnProperty(prefix = "ecommerce.product.category", name = "enabled", havingValue = "true")
+public class CategoryController {
+
+    private final CategoryTreeService categoryTreeService;
+
+    public CategoryController(CategoryTreeService categoryTreeService) {
+        this.categoryTreeService = categoryTreeService;
+    }
+
+    /**
+     * 分类导航菜单
+     */
+    @GetMapping("/menu")
+    public ResponseEntity<byte[]> menu(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        CategoryTreeSnapshot snapshot = categoryTreeService.current();
+        String etag = snapshot.getEtag();
+        // If-None-Match 可能是多个ETag或弱校验形式（W/"..."），包含当前ETag即视为未变化
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getMenuJson());
+    }
+}
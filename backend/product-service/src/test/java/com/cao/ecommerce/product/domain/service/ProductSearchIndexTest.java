@@ -0,0 +1,164 @@
+package com.cao.ecommerce.product.domain.service;
+
+import com.cao.ecommerce.product.domain.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品倒排索引测试：分词、关键词交集、过滤条件、按销量Top-K、增量更新、删除和压缩
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void tokenizesWordsAndCjkBigrams() {
+        assertThat(ProductTokenizer.indexTerms("小米手机 iPhone15, Pro"))
+                .containsExactlyInAnyOrder("小", "米", "手", "机", "小米", "米手", "手机", "iphone15", "pro");
+        // 查询时连续两个字以上只用二元词，单字片段用单字
+        assertThat(ProductTokenizer.queryTerms("手机 壳")).containsExactly("手机", "壳");
+        assertThat(ProductTokenizer.queryTerms("  ,. ")).isEmpty();
+        assertThat(ProductTokenizer.queryTerms(null)).isEmpty();
+    }
+
+    @Test
+    void keywordsMatchNameTitleAndBrand() {
+        index.upsert(product(1, "小米手机14", "徕卡影像旗舰", "Xiaomi", 10, "3999.00", 500));
+        index.upsert(product(2, "小米手环8", "运动健康", "Xiaomi", 20, "249.00", 800));
+        index.upsert(product(3, "iPhone 15", "手机 A16芯片", "Apple", 10, "5999.00", 900));
+
+        assertThat(ids(keyword("手机"))).containsExactly(3L, 1L);
+        assertThat(ids(keyword("小米"))).containsExactly(2L, 1L);
+        // 多个关键词取交集，大小写不敏感
+        assertThat(ids(keyword("XIAOMI 手环"))).containsExactly(2L);
+        assertThat(ids(keyword("apple"))).containsExactly(3L);
+        // 单字查询命中建索引时写入的单字
+        assertThat(ids(keyword("环"))).containsExactly(2L);
+        assertThat(ids(keyword("华为"))).isEmpty();
+    }
+
+    @Test
+    void filtersByCategoryBrandPriceAndStatus() {
+        index.upsert(product(1, "手机A", null, "Xiaomi", 10, "1999.00", 100));
+        index.upsert(product(2, "手机B", null, "Apple", 10, "5999.00", 200));
+        index.upsert(product(3, "手机C", null, "Xiaomi", 20, "999.99", 300));
+        Product offSale = product(4, "手机D", null, "Xiaomi", 10, "1999.00", 400);
+        offSale.setStatus(Product.STATUS_OFF_SALE);
+        index.upsert(offSale);
+
+        ProductSearchQuery query = keyword("手机");
+        query.setCategoryId(10L);
+        assertThat(ids(query)).containsExactly(4L, 2L, 1L);
+
+        query.setBrand("XIAOMI");
+        assertThat(ids(query)).containsExactly(4L, 1L);
+
+        query.setStatus(Product.STATUS_ON_SALE);
+        assertThat(ids(query)).containsExactly(1L);
+
+        // 价格区间两端都包含
+        ProductSearchQuery price = new ProductSearchQuery();
+        price.setMinPrice(new BigDecimal("999.99"));
+        price.setMaxPrice(new BigDecimal("1999"));
+        assertThat(ids(price)).containsExactly(4L, 3L, 1L);
+
+        ProductSearchQuery unknownBrand = new ProductSearchQuery();
+        unknownBrand.setBrand("Huawei");
+        assertThat(index.search(unknownBrand).getTotal()).isZero();
+    }
+
+    @Test
+    void returnsTopKBySalesWithTotal() {
+        for (int id = 1; id <= 100; id++) {
+            index.upsert(product(id, "商品" + id, null, null, 10, "10.00", id % 10 == 0 ? 1000 + id : id));
+        }
+        ProductSearchQuery query = keyword("商品");
+        query.setLimit(3);
+
+        ProductSearchResult result = index.search(query);
+        assertThat(result.getTotal()).isEqualTo(100);
+        assertThat(result.getProductIds()).containsExactly(100L, 90L, 80L);
+
+        query.setLimit(0);
+        assertThat(index.search(query).getTotal()).isEqualTo(100);
+        assertThat(index.search(query).getProductIds()).isEmpty();
+    }
+
+    @Test
+    void upsertReplacesPreviousVersion() {
+        index.upsert(product(1, "旧款耳机", null, "Sony", 10, "899.00", 10));
+
+        index.upsert(product(1, "新款音箱", null, "Sony", 10, "1299.00", 10));
+
+        assertThat(ids(keyword("耳机"))).isEmpty();
+        assertThat(ids(keyword("音箱"))).containsExactly(1L);
+        ProductSearchQuery cheap = new ProductSearchQuery();
+        cheap.setMaxPrice(new BigDecimal("1000"));
+        assertThat(ids(cheap)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeHidesProduct() {
+        index.upsert(product(1, "机械键盘", null, null, 10, "399.00", 10));
+        index.upsert(product(2, "机械键盘Pro", null, null, 10, "599.00", 20));
+
+        index.remove(1);
+        index.remove(42);
+
+        assertThat(ids(keyword("键盘"))).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionKeepsResultsConsistent() {
+        for (int round = 0; round < 30; round++) {
+            for (int id = 1; id <= 100; id++) {
+                index.upsert(product(id, "商品" + round, null, "Brand" + (id % 3), id % 5, "1.00", id));
+            }
+        }
+        for (int id = 1; id <= 50; id++) {
+            index.remove(id);
+        }
+
+        assertThat(index.size()).isEqualTo(50);
+        // 旧版本的词条在压缩后不再命中
+        assertThat(ids(keyword("商品0"))).isEmpty();
+        ProductSearchQuery query = keyword("商品29");
+        query.setLimit(100);
+        query.setBrand("brand1");
+        query.setCategoryId(2L);
+        assertThat(ids(query)).containsExactly(97L, 82L, 67L, 52L);
+    }
+
+    private List<Long> ids(ProductSearchQuery query) {
+        return index.search(query).getProductIds();
+    }
+
+    private static ProductSearchQuery keyword(String keyword) {
+        ProductSearchQuery query = new ProductSearchQuery();
+        query.setKeyword(keyword);
+        return query;
+    }
+
+    private static Product product(long id, String name, String title, String brand, long categoryId,
+                                   String price, int sales) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setTitle(title);
+        product.setBrand(brand);
+        product.setCategoryId(categoryId);
+        product.setPrice(new BigDecimal(price));
+        product.setSales(sales);
+        product.setStatus(Product.STATUS_ON_SALE);
+        return product;
+    }
+}
@@ -0,0 +1,135 @@
+package com.cao.ecommerce.product.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * W-TinyLFU缓存测试：容量上限、按访问频率准入、热点不被扫描流量冲掉、极小容量和删除
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class TinyLfuCacheTest {
+
+    @Test
+    void sizeOneKeepsLatestEntry() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(1);
+        for (long key = 1; key <= 5; key++) {
+            cache.put(key, "v" + key);
+        }
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(5L)).isEqualTo("v5");
+        assertThat(cache.getEvictionCount()).isEqualTo(4);
+    }
+
+    @Test
+    void sizeTwoStaysWithinBound() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(2);
+        for (long key = 1; key <= 100; key++) {
+            cache.get(key);
+            cache.put(key, "v" + key);
+            assertThat(cache.size()).isLessThanOrEqualTo(2);
+        }
+        assertThat(cache.get(100L)).isEqualTo("v100");
+    }
+
+    @Test
+    void rejectsNonPositiveSize() {
+        assertThatThrownBy(() -> new TinyLfuCache<Long, String>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sizeNeverExceedsMaximum() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(100);
+        for (long key = 0; key < 1_000; key++) {
+            cache.put(key, "v" + key);
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.getEvictionCount()).isEqualTo(900);
+    }
+
+    @Test
+    void frequentCandidateIsAdmittedAndColdCandidateRejected() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(100);
+        for (long key = 0; key < 100; key++) {
+            cache.put(key, "v" + key);
+        }
+        // 未命中也计入频率：frequent被访问3次后写入
+        for (int i = 0; i < 3; i++) {
+            cache.get(1_000L);
+        }
+        cache.put(1_000L, "frequent");
+        cache.put(2_000L, "cold");
+        cache.put(3_000L, "cold");
+
+        // frequent挤出窗口时频率高于试用段队首（key 0），被准入
+        assertThat(cache.get(1_000L)).isEqualTo("frequent");
+        assertThat(cache.get(0L)).isNull();
+        // 一次都没被读过的条目与同样冷的试用段队首比较时被拒绝
+        assertThat(cache.get(2_000L)).isNull();
+        assertThat(cache.size()).isEqualTo(100);
+    }
+
+    @Test
+    void hotKeysSurviveScan() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(100);
+        for (long key = 0; key < 50; key++) {
+            cache.put(key, "hot" + key);
+        }
+        // 最后写入的热点留在窗口段，再写入一个条目把它推入主区域
+        cache.put(50L, "warm");
+        for (int round = 0; round < 5; round++) {
+            for (long key = 0; key < 50; key++) {
+                assertThat(cache.get(key)).isEqualTo("hot" + key);
+            }
+        }
+        // 一次性扫描：每个键未命中一次后写入
+        for (long key = 10_000; key < 20_000; key++) {
+            cache.get(key);
+            cache.put(key, "scan");
+        }
+
+        for (long key = 0; key < 50; key++) {
+            assertThat(cache.get(key)).as("hot key %d", key).isEqualTo("hot" + key);
+        }
+        assertThat(cache.size()).isEqualTo(100);
+    }
+
+    @Test
+    void invalidateRemovesEntries() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(100);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(2L);
+        cache.put(3L, "c");
+
+        cache.invalidate(2L);
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(1L)).isNull();
+        // 清空后仍可正常写入和淘汰
+        for (long key = 0; key < 200; key++) {
+            cache.put(key, "v");
+        }
+        assertThat(cache.size()).isEqualTo(100);
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(10);
+        cache.put(1L, "a");
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,216 @@
+package com.cao.ecommerce.product.infrastructure.cache;
+
+import com.cao.ecommerce.product.domain.model.Product;
+import com.cao.ecommerce.product.domain.repository.ProductRepository;
+import com.cao.ecommerce.product.infrastructure.mq.producer.ProductCacheEvictProducer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品两级缓存测试：InMemoryRemoteCache作为远程缓存，验证并发未命中只回源一次、空值缓存、失效后重新加载和远程缓存故障降级
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class TwoLevelProductCacheTest {
+
+    private static final int THREADS = 16;
+
+    private final CountingRepository repository = new CountingRepository();
+
+    private final InMemoryRemoteCache remoteCache = new InMemoryRemoteCache();
+
+    private TwoLevelProductCache cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        repository.save(product(1L, "9.90"));
+        repository.gate = new CountDownLatch(1);
+        cache = newCache(remoteCache);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Product>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> cache.get(1L)));
+            }
+            assertThat(repository.entered.await(10, TimeUnit.SECONDS)).isTrue();
+            // 给其余线程留出时间进入等待；来得晚的线程直接命中近端缓存，同样不会回源
+            Thread.sleep(200);
+            repository.gate.countDown();
+
+            for (Future<Product> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS).getPrice()).isEqualByComparingTo("9.90");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(repository.calls.get()).isEqualTo(1);
+        assertThat(remoteCache.get(TwoLevelProductCache.KEY_PREFIX + 1)).isNotNull();
+    }
+
+    @Test
+    void missingProductIsCachedAsNull() {
+        cache = newCache(remoteCache);
+
+        assertThat(cache.get(404L)).isNull();
+        assertThat(cache.get(404L)).isNull();
+        assertThat(repository.calls.get()).isEqualTo(1);
+        assertThat(remoteCache.get(TwoLevelProductCache.KEY_PREFIX + 404)).isEmpty();
+
+        // 近端缓存被清掉后由远程缓存的空值标记挡住，仍不回源
+        cache.evictNear(404L);
+        assertThat(cache.get(404L)).isNull();
+        assertThat(repository.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateReloadsFromDatabase() {
+        repository.save(product(1L, "9.90"));
+        cache = newCache(remoteCache);
+        assertThat(cache.get(1L).getPrice()).isEqualByComparingTo("9.90");
+        assertThat(cache.get(1L).getPrice()).isEqualByComparingTo("9.90");
+        assertThat(repository.calls.get()).isEqualTo(1);
+
+        repository.save(product(1L, "19.90"));
+        cache.invalidate(1L);
+
+        assertThat(remoteCache.get(TwoLevelProductCache.KEY_PREFIX + 1)).isNull();
+        assertThat(cache.get(1L).getPrice()).isEqualByComparingTo("19.90");
+        assertThat(repository.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void nearEvictionFallsBackToRemoteCache() {
+        repository.save(product(1L, "9.90"));
+        cache = newCache(remoteCache);
+        cache.get(1L);
+
+        cache.evictNear(1L);
+
+        assertThat(cache.get(1L).getPrice()).isEqualByComparingTo("9.90");
+        assertThat(repository.calls.get()).isEqualTo(1);
+        assertThat(cache.getNearSize()).isEqualTo(1);
+    }
+
+    @Test
+    void remoteCacheFailureFallsBackToDatabase() {
+        repository.save(product(1L, "9.90"));
+        cache = newCache(new FailingRemoteCache());
+
+        assertThat(cache.get(1L).getPrice()).isEqualByComparingTo("9.90");
+        // 近端缓存照常回填
+        assertThat(cache.get(1L).getPrice()).isEqualByComparingTo("9.90");
+        assertThat(repository.calls.get()).isEqualTo(1);
+    }
+
+    private TwoLevelProductCache newCache(RemoteCache remote) {
+        return new TwoLevelProductCache(repository, remote, new ProductCacheEvictProducer(null),
+                1_000, 60_000, 60_000, 300_000, 0, 30_000, 0);
+    }
+
+    private static Product product(long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("product-" + id);
+        product.setPrice(new BigDecimal(price));
+        product.setStatus(Product.STATUS_ON_SALE);
+        return product;
+    }
+
+    /**
+     * 记录回源次数的仓储，gate不为null时回源阻塞到放行
+     */
+    private static final class CountingRepository implements ProductRepository {
+
+        private final Map<Long, Product> products = new ConcurrentHashMap<>();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private volatile CountDownLatch gate;
+
+        void save(Product product) {
+            products.put(product.getId(), product);
+        }
+
+        @Override
+        public Product findById(long id) {
+            calls.incrementAndGet();
+            entered.countDown();
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return products.get(id);
+        }
+
+        @Override
+        public void forEachForSearch(Consumer<Product> consumer) {
+            products.values().forEach(consumer);
+        }
+
+        @Override
+        public boolean updatePrice(long id, BigDecimal price) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean updateStock(long id, int stock) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean updateStatus(long id, int status) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * 始终不可用的远程缓存
+     */
+    private static final class FailingRemoteCache implements RemoteCache {
+
+        @Override
+        public String get(String key) {
+            throw new IllegalStateException("remote cache down");
+        }
+
+        @Override
+        public void set(String key, String value, long ttlMillis) {
+            throw new IllegalStateException("remote cache down");
+        }
+
+        @Override
+        public void delete(String key) {
+            throw new IllegalStateException("remote cache down");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.cao.ecommerce.product.infrastructure.mq.consumer;
+
+import com.cao.ecommerce.product.domain.event.ProductChangedEvent;
+import com.cao.ecommerce.product.infrastructure.mq.producer.ProductSearchUpdateProducer;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品索引更新消息消费者测试：其他节点的消息转发为远程事件，本节点发出的消息和无法解析的消息被忽略
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class ProductSearchUpdateConsumerTest {
+
+    private final List<Object> events = new ArrayList<>();
+
+    private final ProductSearchUpdateConsumer consumer = new ProductSearchUpdateConsumer("node-a", events::add);
+
+    @Test
+    void otherNodeMessageBecomesRemoteEvent() {
+        consumer.onMessage(message("node-b:42"), null);
+
+        assertThat(events).singleElement().isInstanceOfSatisfying(ProductChangedEvent.class, event -> {
+            assertThat(event.getProductId()).isEqualTo(42);
+            assertThat(event.isRemote()).isTrue();
+        });
+    }
+
+    @Test
+    void ownMessageIsSkipped() {
+        consumer.onMessage(message("node-a:42"), null);
+
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void malformedMessageIsIgnored() {
+        consumer.onMessage(message("node-b:abc"), null);
+        consumer.onMessage(message(""), null);
+
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void producerNodeIdIsUniquePerInstance() {
+        assertThat(new ProductSearchUpdateProducer(null).getNodeId())
+                .isNotEqualTo(new ProductSearchUpdateProducer(null).getNodeId());
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(ProductSearchUpdateProducer.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
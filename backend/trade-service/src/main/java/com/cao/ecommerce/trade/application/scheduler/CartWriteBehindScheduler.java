@@ -0,0 +1,110 @@
+package com.cao.ecommerce.trade.application.scheduler;
+
+import com.cao.ecommerce.trade.domain.model.CartItem;
+import com.cao.ecommerce.trade.domain.repository.CartDurableRepository;
+import com.cao.ecommerce.trade.domain.repository.CartRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 购物车写回调度器
+ *
+ * 技术要点：
+ * 1. 每个周期从待持久化集合中取出一批用户，读取其购物车当前快照后整批写入MySQL；
+ *    同一用户在一个周期内的多次修改只写一次
+ * 2. 先取出标记再读快照：读取之后发生的修改会重新标记，下个周期补写，不会丢失
+ * 3. 写入失败时把这批用户重新标记，下个周期重试
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class CartWriteBehindScheduler {
+
+    /** 单个周期最多处理的批次数，避免积压时长时间占用数据库连接 */
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final CartRepository cartRepository;
+
+    private final CartDurableRepository cartDurableRepository;
+
+    private final long flushIntervalMs;
+
+    private final int batchSize;
+
+    private ScheduledExecutorService executor;
+
+    public CartWriteBehindScheduler(CartRepository cartRepository, CartDurableRepository cartDurableRepository,
+                                    long flushIntervalMs, int batchSize) {
+        this.cartRepository = cartRepository;
+        this.cartDurableRepository = cartDurableRepository;
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        flushQuietly();
+    }
+
+    /**
+     * 写回待持久化的购物车
+     *
+     * @return 写回的用户数
+     */
+    public int flush() {
+        int total = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            List<Long> userIds = cartRepository.pollDirtyUsers(batchSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            try {
+                Map<Long, List<CartItem>> carts = new HashMap<>(userIds.size() * 2);
+                for (Long userId : userIds) {
+                    List<CartItem> items = cartRepository.findAll(CartRepository.userCart(userId));
+                    // 购物车已过期：数据库中保留的就是最后一次写回的快照
+                    if (items != null) {
+                        carts.put(userId, items);
+                    }
+                }
+                cartDurableRepository.replaceAll(carts);
+                total += carts.size();
+            } catch (RuntimeException e) {
+                cartRepository.markDirty(userIds);
+                throw e;
+            }
+            if (userIds.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private void flushQuietly() {
+        try {
+            int flushed = flush();
+            if (flushed > 0) {
+                log.debug("购物车写回完成，用户数: {}", flushed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("购物车写回失败，等待下次重试", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.cao.ecommerce.trade.application.scheduler;
+
+import com.cao.ecommerce.trade.application.service.OrderTimeoutService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待支付订单超时调度器
+ *
+ * 按时间轮刻度推进，启动时先从数据库重建定时器；推进落后时（如取消耗时较长）
+ * 下一次推进会一并处理经过的所有刻度
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class OrderTimeoutScheduler {
+
+    private final OrderTimeoutService orderTimeoutService;
+
+    private final long tickMillis;
+
+    private ScheduledExecutorService executor;
+
+    public OrderTimeoutScheduler(OrderTimeoutService orderTimeoutService, long tickMillis) {
+        this.orderTimeoutService = orderTimeoutService;
+        this.tickMillis = tickMillis;
+    }
+
+    public void start() {
+        orderTimeoutService.rebuild();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::expireQuietly, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        log.info("订单超时调度器已停止，未到期订单数: {}", orderTimeoutService.getPendingCount());
+    }
+
+    private void expireQuietly() {
+        try {
+            int cancelled = orderTimeoutService.expire(System.currentTimeMillis());
+            if (cancelled > 0) {
+                log.debug("超时未支付订单已取消: {}", cancelled);
+            }
+        } catch (RuntimeException e) {
+            log.warn("订单超时处理失败，等待下次重试", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.cao.ecommerce.trade.application.service;
+
+import com.cao.ecommerce.trade.domain.model.CartItem;
+import com.cao.ecommerce.trade.domain.repository.CartDurableRepository;
+import com.cao.ecommerce.trade.domain.repository.CartRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 购物车应用服务
+ *
+ * 技术要点：
+ * 1. 读写都只访问Redis；用户购物车在Redis中不存在（首次访问或空闲过期）时从 cart 表加载一次
+ * 2. 持久化由写回任务异步批量完成，cart 表不再承担每次点击的单行写入
+ * 3. 登录时游客购物车原子合并到用户购物车，合并前先确保用户购物车已从数据库加载，
+ *    否则合并结果会遮住数据库中的历史条目
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class CartService {
+
+    private final CartRepository cartRepository;
+
+    /** 为null时不持久化（未启用数据源） */
+    private final CartDurableRepository cartDurableRepository;
+
+    public CartService(CartRepository cartRepository, CartDurableRepository cartDurableRepository) {
+        this.cartRepository = cartRepository;
+        this.cartDurableRepository = cartDurableRepository;
+    }
+
+    /**
+     * 用户购物车
+     */
+    public List<CartItem> getUserCart(long userId) {
+        String cartId = CartRepository.userCart(userId);
+        List<CartItem> items = cartRepository.findAll(cartId);
+        if (items != null) {
+            return items;
+        }
+        List<CartItem> loaded = loadDurable(userId);
+        cartRepository.initialize(cartId, loaded);
+        return loaded;
+    }
+
+    /**
+     * 加入商品，已存在的商品数量累加
+     */
+    public void addUserItems(long userId, Map<Long, Integer> quantities) {
+        cartRepository.addItems(ensureUserCart(userId), validated(quantities));
+    }
+
+    /**
+     * 修改商品数量，小于等于0时移除
+     */
+    public void updateUserQuantities(long userId, Map<Long, Integer> quantities) {
+        cartRepository.updateQuantities(ensureUserCart(userId), quantities);
+    }
+
+    /**
+     * 勾选或取消勾选
+     */
+    public void updateUserSelected(long userId, Collection<Long> productIds, boolean selected) {
+        cartRepository.updateSelected(ensureUserCart(userId), productIds, selected);
+    }
+
+    /**
+     * 移除商品
+     */
+    public void removeUserItems(long userId, Collection<Long> productIds) {
+        cartRepository.removeItems(ensureUserCart(userId), productIds);
+    }
+
+    /**
+     * 游客购物车
+     */
+    public List<CartItem> getGuestCart(String guestToken) {
+        List<CartItem> items = cartRepository.findAll(CartRepository.guestCart(guestToken));
+        return items == null ? List.of() : items;
+    }
+
+    /**
+     * 游客加入商品
+     */
+    public void addGuestItems(String guestToken, Map<Long, Integer> quantities) {
+        cartRepository.addItems(CartRepository.guestCart(guestToken), validated(quantities));
+    }
+
+    /**
+     * 登录后合并游客购物车
+     *
+     * @return 合并的商品数
+     */
+    public int mergeGuestCart(String guestToken, long userId) {
+        return cartRepository.merge(CartRepository.guestCart(guestToken), ensureUserCart(userId));
+    }
+
+    private String ensureUserCart(long userId) {
+        String cartId = CartRepository.userCart(userId);
+        if (!cartRepository.exists(cartId)) {
+            cartRepository.initialize(cartId, loadDurable(userId));
+        }
+        return cartId;
+    }
+
+    private List<CartItem> loadDurable(long userId) {
+        return cartDurableRepository == null ? List.of() : cartDurableRepository.load(userId);
+    }
+
+    private static Map<Long, Integer> validated(Map<Long, Integer> quantities) {
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("quantity must be positive: productId=" + entry.getKey());
+            }
+        }
+        return quantities;
+    }
+}
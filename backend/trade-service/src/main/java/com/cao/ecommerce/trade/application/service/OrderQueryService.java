@@ -0,0 +1,125 @@
+package com.cao.ecommerce.trade.application.service;
+
+import com.cao.ecommerce.trade.domain.model.OrderCursor;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.domain.model.OrderPage;
+import com.cao.ecommerce.trade.domain.model.OrderSummary;
+import com.cao.ecommerce.trade.domain.repository.OrderRepository;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单查询应用服务
+ *
+ * 一页订单固定两次查询：游标分页读取订单头（多读一行判断是否还有下一页），再一次取回整页明细
+ *
+ * 启用读写分离时两次查询在同一个只读事务中执行，使用同一个从库连接，不会出现订单头和明细来自延迟不同的从库
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+
+    private final int maxPageSize;
+
+    private final TransactionOperations readTransaction;
+
+    public OrderQueryService(OrderRepository orderRepository, int maxPageSize) {
+        this(orderRepository, maxPageSize, TransactionOperations.withoutTransaction());
+    }
+
+    /**
+     * @param readTransaction 查询所在的事务，读写分离时为只读事务
+     */
+    public OrderQueryService(OrderRepository orderRepository, int maxPageSize, TransactionOperations readTransaction) {
+        this.orderRepository = orderRepository;
+        this.maxPageSize = maxPageSize;
+        this.readTransaction = readTransaction;
+    }
+
+    /**
+     * 按下单时间倒序查询用户的订单
+     *
+     * @param cursor   上一页返回的游标，第一页传null
+     * @param pageSize 每页订单数，超过上限时按上限返回
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public OrderPage listByUser(long userId, String cursor, int pageSize) {
+        int size = clamp(pageSize);
+        OrderCursor after = decode(cursor);
+        return readTransaction.execute(tx ->
+                toPage(orderRepository.findPageByUserId(userId, after, size + 1), size));
+    }
+
+    /**
+     * 按下单时间倒序查询全部用户的订单（运营后台），分片时并行查询各分片后归并
+     *
+     * @param status 订单状态，null表示不限
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public OrderPage listAll(Integer status, String cursor, int pageSize) {
+        int size = clamp(pageSize);
+        OrderCursor after = decode(cursor);
+        return readTransaction.execute(tx -> toPage(orderRepository.findPage(status, after, size + 1), size));
+    }
+
+    /**
+     * 按订单号查询订单及明细
+     *
+     * @return 订单不存在时返回null
+     */
+    public OrderSummary getByOrderNo(String orderNo) {
+        return readTransaction.execute(tx -> {
+            OrderSummary order = orderRepository.findByOrderNo(orderNo);
+            if (order != null) {
+                fillItems(List.of(order));
+            }
+            return order;
+        });
+    }
+
+    private int clamp(int pageSize) {
+        return Math.max(1, Math.min(pageSize, maxPageSize));
+    }
+
+    private static OrderCursor decode(String cursor) {
+        return cursor == null || cursor.isEmpty() ? null : OrderCursor.decode(cursor);
+    }
+
+    /**
+     * 多读的一行只用于判断是否还有下一页
+     */
+    private OrderPage toPage(List<OrderSummary> rows, int size) {
+        boolean hasMore = rows.size() > size;
+        List<OrderSummary> orders = hasMore ? rows.subList(0, size) : rows;
+        fillItems(orders);
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummary last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getCreateTime(), last.getId()).encode();
+        }
+        return new OrderPage(new ArrayList<>(orders), nextCursor);
+    }
+
+    private void fillItems(List<OrderSummary> orders) {
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (OrderSummary order : orders) {
+            orderIds.add(order.getId());
+        }
+        Map<Long, List<OrderItem>> items = orderRepository.findItemsByOrderIds(orderIds);
+        for (OrderSummary order : orders) {
+            List<OrderItem> orderItems = items.getOrDefault(order.getId(), List.of());
+            int count = 0;
+            for (OrderItem item : orderItems) {
+                count += item.getQuantity();
+            }
+            order.setItems(orderItems);
+            order.setItemCount(count);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.cao.ecommerce.trade.application.service;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.domain.event.OrderCreatedEvent;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderGroupCommitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 订单应用服务
+ *
+ * 下单时在本地分配订单ID和订单号、计算金额并登记订单创建事件，再交给组提交写入器与其他并发订单一起落库；
+ * 调用线程等待自己的订单写入完成，写入失败时抛出该订单自己的异常；写入成功后登记支付超时定时器。
+ * 订单ID的低位带有用户ID的基因，按用户分片后凭订单号即可定位分片
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class OrderService {
+
+    private final SnowflakeIdGenerator idGenerator;
+
+    private final OrderGroupCommitter orderGroupCommitter;
+
+    private final OrderTimeoutService orderTimeoutService;
+
+    public OrderService(SnowflakeIdGenerator idGenerator, OrderGroupCommitter orderGroupCommitter,
+                        OrderTimeoutService orderTimeoutService) {
+        this.idGenerator = idGenerator;
+        this.orderGroupCommitter = orderGroupCommitter;
+        this.orderTimeoutService = orderTimeoutService;
+    }
+
+    /**
+     * 创建订单
+     *
+     * @param draft 包含用户、收货信息和明细（商品、单价、数量）的订单草稿
+     * @return 已写入的订单
+     */
+    public Order createOrder(Order draft) {
+        if (draft.getUserId() == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        if (draft.getItems() == null || draft.getItems().isEmpty()) {
+            throw new IllegalArgumentException("order must contain at least one item");
+        }
+        long id = idGenerator.nextId(draft.getUserId());
+        LocalDateTime now = LocalDateTime.now();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderItem item : draft.getItems()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("quantity must be positive: productId=" + item.getProductId());
+            }
+            item.setOrderId(id);
+            item.setTotalPrice(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            item.setCreateTime(now);
+            totalAmount = totalAmount.add(item.getTotalPrice());
+        }
+        draft.setId(id);
+        draft.setOrderNo(SnowflakeIdGenerator.toOrderNo(id));
+        draft.setTotalAmount(totalAmount);
+        draft.setPayAmount(totalAmount);
+        draft.setStatus(Order.STATUS_PENDING_PAYMENT);
+        draft.setCreateTime(now);
+        draft.registerEvent(OrderCreatedEvent.of(draft));
+        Order order;
+        try {
+            order = orderGroupCommitter.submit(draft).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+        orderTimeoutService.schedule(order.getId());
+        return order;
+    }
+}
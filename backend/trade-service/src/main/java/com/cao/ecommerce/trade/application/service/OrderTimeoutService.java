@@ -0,0 +1,115 @@
+package com.cao.ecommerce.trade.application.service;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.repository.OrderRepository;
+import com.cao.ecommerce.trade.infrastructure.util.HierarchicalTimingWheel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 待支付订单超时取消服务
+ *
+ * 技术要点：
+ * 1. 每个待支付订单在时间轮中登记一个定时器，支付成功时取消定时器，到期后批量取消订单，
+ *    不再定时扫描 create_time 索引，数据量增长不影响取消的及时性
+ * 2. 分区：每个节点只负责自己创建的订单（订单ID中的工作节点ID），下单和超时在同一节点完成，
+ *    不需要跨节点通知；节点重启时按工作节点ID从数据库重建时间轮，截止时间由订单ID中的时间戳推算
+ * 3. 取消失败的订单稍后重新登记，订单状态以数据库为准，重复取消或已支付的订单会被跳过
+ *
+ * 面试要点：
+ * - 分区依赖稳定的工作节点ID（Nacos实例元数据 worker-id），替换节点沿用原节点的ID即可接管其订单
+ * - 与延迟消息相比，时间轮不依赖消息队列，但定时器只存在于内存，需要启动时重建
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class OrderTimeoutService {
+
+    /** 取消失败后重新登记的延迟（毫秒） */
+    private static final long RETRY_DELAY_MS = 5000;
+
+    private final OrderRepository orderRepository;
+
+    private final HierarchicalTimingWheel timingWheel;
+
+    private final long workerId;
+
+    private final long paymentTimeoutMs;
+
+    private final int cancelBatchSize;
+
+    public OrderTimeoutService(OrderRepository orderRepository, HierarchicalTimingWheel timingWheel, long workerId,
+                               long paymentTimeoutMs, int cancelBatchSize) {
+        this.orderRepository = orderRepository;
+        this.timingWheel = timingWheel;
+        this.workerId = workerId;
+        this.paymentTimeoutMs = paymentTimeoutMs;
+        this.cancelBatchSize = cancelBatchSize;
+    }
+
+    /**
+     * 从数据库重建本节点的定时器
+     *
+     * @return 登记的订单数
+     */
+    public int rebuild() {
+        int[] count = {0};
+        orderRepository.forEachPendingPaymentId(workerId, orderId -> {
+            timingWheel.schedule(orderId, deadlineOf(orderId));
+            count[0]++;
+        });
+        log.info("待支付订单定时器重建完成: workerId={}, count={}", workerId, count[0]);
+        return count[0];
+    }
+
+    /**
+     * 下单成功后登记定时器
+     */
+    public void schedule(long orderId) {
+        timingWheel.schedule(orderId, deadlineOf(orderId));
+    }
+
+    /**
+     * 支付成功后取消定时器
+     */
+    public void unschedule(long orderId) {
+        timingWheel.cancel(orderId);
+    }
+
+    /**
+     * 推进时间轮，按批取消到期的订单
+     *
+     * @return 实际取消的订单数
+     */
+    public int expire(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        timingWheel.advance(nowMillis, expired::add);
+        int cancelled = 0;
+        for (int from = 0; from < expired.size(); from += cancelBatchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + cancelBatchSize, expired.size()));
+            try {
+                List<Order> orders = orderRepository.cancelPendingPayment(batch, LocalDateTime.now());
+                cancelled += orders.size();
+            } catch (RuntimeException e) {
+                log.warn("超时订单批量取消失败，{}毫秒后重试: size={}", RETRY_DELAY_MS, batch.size(), e);
+                for (Long orderId : batch) {
+                    timingWheel.schedule(orderId, nowMillis + RETRY_DELAY_MS);
+                }
+            }
+        }
+        return cancelled;
+    }
+
+    public int getPendingCount() {
+        return timingWheel.size();
+    }
+
+    private long deadlineOf(long orderId) {
+        return SnowflakeIdGenerator.extractTimestamp(orderId) + paymentTimeoutMs;
+    }
+}
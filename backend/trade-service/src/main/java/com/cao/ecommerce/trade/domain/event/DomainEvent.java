@@ -0,0 +1,28 @@
+package com.cao.ecommerce.trade.domain.event;
+
+/**
+ * 交易领域事件
+ *
+ * 事件随业务数据在同一个本地事务中写入发件箱（outbox_event），由中继异步投递；
+ * 同一聚合的事件按写入顺序投递
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface DomainEvent {
+
+    /**
+     * 聚合类型，投递时作为消息主题的后缀
+     */
+    String getAggregateType();
+
+    /**
+     * 聚合ID，投递时作为消息键，同一聚合的事件保持顺序
+     */
+    long getAggregateId();
+
+    /**
+     * 事件类型，投递时作为消息标签
+     */
+    String getEventType();
+}
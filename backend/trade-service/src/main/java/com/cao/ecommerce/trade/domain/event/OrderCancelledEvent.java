@@ -0,0 +1,43 @@
+package com.cao.ecommerce.trade.domain.event;
+
+import com.cao.ecommerce.trade.domain.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单取消事件（超时未支付自动取消），下游据此释放预占库存
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCancelledEvent implements DomainEvent {
+
+    public static final String EVENT_TYPE = "OrderCancelled";
+
+    private final long orderId;
+
+    private final String orderNo;
+
+    private final long userId;
+
+    private final LocalDateTime cancelTime;
+
+    @Override
+    public String getAggregateType() {
+        return Order.AGGREGATE_TYPE;
+    }
+
+    @Override
+    public long getAggregateId() {
+        return orderId;
+    }
+
+    @Override
+    public String getEventType() {
+        return EVENT_TYPE;
+    }
+}
@@ -0,0 +1,51 @@
+package com.cao.ecommerce.trade.domain.event;
+
+import com.cao.ecommerce.trade.domain.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 订单创建事件
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCreatedEvent implements DomainEvent {
+
+    public static final String EVENT_TYPE = "OrderCreated";
+
+    private final long orderId;
+
+    private final String orderNo;
+
+    private final long userId;
+
+    private final BigDecimal payAmount;
+
+    private final LocalDateTime createTime;
+
+    public static OrderCreatedEvent of(Order order) {
+        return new OrderCreatedEvent(order.getId(), order.getOrderNo(), order.getUserId(), order.getPayAmount(),
+                order.getCreateTime());
+    }
+
+    @Override
+    public String getAggregateType() {
+        return Order.AGGREGATE_TYPE;
+    }
+
+    @Override
+    public long getAggregateId() {
+        return orderId;
+    }
+
+    @Override
+    public String getEventType() {
+        return EVENT_TYPE;
+    }
+}
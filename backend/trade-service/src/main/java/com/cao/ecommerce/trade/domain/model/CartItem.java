@@ -0,0 +1,24 @@
+package com.cao.ecommerce.trade.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 购物车条目
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItem {
+
+    private Long productId;
+
+    private Integer quantity;
+
+    /** 是否勾选结算 */
+    private Boolean selected;
+}
@@ -0,0 +1,82 @@
+package com.cao.ecommerce.trade.domain.model;
+
+import com.cao.ecommerce.trade.domain.event.DomainEvent;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class Order {
+
+    /** 领域事件中的聚合类型 */
+    public static final String AGGREGATE_TYPE = "order";
+
+    /** 待支付 */
+    public static final int STATUS_PENDING_PAYMENT = 1;
+
+    /** 已支付 */
+    public static final int STATUS_PAID = 2;
+
+    /** 已发货 */
+    public static final int STATUS_SHIPPED = 3;
+
+    /** 已完成 */
+    public static final int STATUS_FINISHED = 4;
+
+    /** 已取消 */
+    public static final int STATUS_CANCELLED = 5;
+
+    private Long id;
+
+    private String orderNo;
+
+    private Long userId;
+
+    private BigDecimal totalAmount;
+
+    private BigDecimal payAmount;
+
+    /** 状态：1-待支付，2-已支付，3-已发货，4-已完成，5-已取消 */
+    private Integer status;
+
+    /** 支付方式：1-支付宝，2-微信，3-银行卡 */
+    private Integer payType;
+
+    private LocalDateTime payTime;
+
+    private LocalDateTime deliveryTime;
+
+    private LocalDateTime finishTime;
+
+    private LocalDateTime cancelTime;
+
+    private String receiverName;
+
+    private String receiverPhone;
+
+    private String receiverAddress;
+
+    private String remark;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime updateTime;
+
+    private List<OrderItem> items;
+
+    /** 待发布的领域事件，与订单在同一事务内写入发件箱，不属于订单表字段 */
+    private List<DomainEvent> events = new ArrayList<>();
+
+    public void registerEvent(DomainEvent event) {
+        events.add(event);
+    }
+}
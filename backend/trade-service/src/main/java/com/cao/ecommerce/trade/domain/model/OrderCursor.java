@@ -0,0 +1,56 @@
+package com.cao.ecommerce.trade.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * 订单列表游标：上一页最后一个订单的 (create_time, id)
+ *
+ * 对外是不透明的Base64URL字符串，前端只需原样回传；create_time 为秒级精度（DATETIME），
+ * 按 UTC 偏移换算成秒只用于编码，不涉及时区转换
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class OrderCursor {
+
+    private final LocalDateTime createTime;
+
+    private final long id;
+
+    public OrderCursor(LocalDateTime createTime, long id) {
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createTime.toEpochSecond(ZoneOffset.UTC) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static OrderCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+        int separator = raw.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("invalid order cursor");
+        }
+        long epochSecond = Long.parseLong(raw.substring(0, separator));
+        long id = Long.parseLong(raw.substring(separator + 1));
+        return new OrderCursor(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), id);
+    }
+}
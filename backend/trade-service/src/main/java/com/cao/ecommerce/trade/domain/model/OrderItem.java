@@ -0,0 +1,36 @@
+package com.cao.ecommerce.trade.domain.model;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 订单明细
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class OrderItem {
+
+    private Long id;
+
+    private Long orderId;
+
+    private Long productId;
+
+    private String productName;
+
+    private String productImage;
+
+    /** 下单时的商品单价 */
+    private BigDecimal price;
+
+    private Integer quantity;
+
+    /** 小计金额 = 单价 × 数量 */
+    private BigDecimal totalPrice;
+
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,23 @@
+package com.cao.ecommerce.trade.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 订单列表的一页
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class OrderPage {
+
+    /** 按下单时间倒序 */
+    private final List<OrderSummary> orders;
+
+    /** 下一页的游标，已是最后一页时为null */
+    private final String nextCursor;
+}
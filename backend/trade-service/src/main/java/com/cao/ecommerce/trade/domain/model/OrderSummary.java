@@ -0,0 +1,35 @@
+package com.cao.ecommerce.trade.domain.model;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 订单列表的读模型：订单头的列表字段 + 明细
+ *
+ * 不包含收货信息、备注等详情页字段，列表查询只读取需要的列
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class OrderSummary {
+
+    private Long id;
+
+    private String orderNo;
+
+    /** 状态：1-待支付，2-已支付，3-已发货，4-已完成，5-已取消 */
+    private Integer status;
+
+    private BigDecimal payAmount;
+
+    private LocalDateTime createTime;
+
+    /** 商品总件数 */
+    private int itemCount;
+
+    private List<OrderItem> items;
+}
@@ -0,0 +1,32 @@
+package com.cao.ecommerce.trade.domain.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱消息（outbox_event 表中待投递的一条事件）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class OutboxMessage {
+
+    /** 自增ID，同一聚合内即投递顺序 */
+    private Long id;
+
+    private String aggregateType;
+
+    private Long aggregateId;
+
+    private String eventType;
+
+    /** 事件内容（JSON） */
+    private String payload;
+
+    /** 已失败的投递次数 */
+    private Integer attempts;
+
+    private LocalDateTime createTime;
+}
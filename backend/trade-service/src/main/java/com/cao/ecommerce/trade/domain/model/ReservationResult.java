@@ -0,0 +1,24 @@
+package com.cao.ecommerce.trade.domain.model;
+
+/**
+ * 库存预占结果
+ *
+ * 热路径上用枚举返回结果，避免秒杀场景下抛异常带来的栈构建开销
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public enum ReservationResult {
+
+    /** 预占成功 */
+    SUCCESS,
+
+    /** 库存不足 */
+    INSUFFICIENT_STOCK,
+
+    /** 商品不存在 */
+    UNKNOWN_SKU,
+
+    /** 同一订单重复预占 */
+    DUPLICATE
+}
@@ -0,0 +1,29 @@
+package com.cao.ecommerce.trade.domain.repository;
+
+import com.cao.ecommerce.trade.domain.model.CartItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 购物车持久化仓储（cart 表）
+ *
+ * 只在两种情况下访问：Redis中没有该用户购物车时加载，写回任务批量同步
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface CartDurableRepository {
+
+    /**
+     * 加载用户购物车
+     */
+    List<CartItem> load(long userId);
+
+    /**
+     * 用快照整体替换多个用户的购物车
+     *
+     * @param carts 用户ID → 当前全部条目（空列表表示清空）
+     */
+    void replaceAll(Map<Long, List<CartItem>> carts);
+}
@@ -0,0 +1,89 @@
+package com.cao.ecommerce.trade.domain.repository;
+
+import com.cao.ecommerce.trade.domain.model.CartItem;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 购物车热数据仓储（Redis Hash）
+ *
+ * 购物车ID区分登录用户和游客：用户购物车为 "u:" + userId，游客购物车为 "g:" + 游客令牌；
+ * 只有用户购物车会被标记为待持久化，由写回任务批量同步到 cart 表
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface CartRepository {
+
+    /**
+     * 用户购物车ID
+     */
+    static String userCart(long userId) {
+        return "u:" + userId;
+    }
+
+    /**
+     * 游客购物车ID
+     */
+    static String guestCart(String guestToken) {
+        return "g:" + guestToken;
+    }
+
+    /**
+     * 购物车是否已初始化（空购物车也视为已初始化）
+     */
+    boolean exists(String cartId);
+
+    /**
+     * 查询购物车全部条目
+     *
+     * @return 条目列表；购物车不存在（从未加载或已过期）时返回null，空购物车返回空列表
+     */
+    List<CartItem> findAll(String cartId);
+
+    /**
+     * 累加商品数量（新加入的商品默认勾选），多个商品在一次网络往返内完成
+     *
+     * @param quantities 商品ID → 增加的数量（必须为正数）
+     */
+    void addItems(String cartId, Map<Long, Integer> quantities);
+
+    /**
+     * 设置商品数量，数量小于等于0时移除该商品
+     */
+    void updateQuantities(String cartId, Map<Long, Integer> quantities);
+
+    /**
+     * 勾选或取消勾选
+     */
+    void updateSelected(String cartId, Collection<Long> productIds, boolean selected);
+
+    /**
+     * 移除商品
+     */
+    void removeItems(String cartId, Collection<Long> productIds);
+
+    /**
+     * 从持久化数据初始化购物车；购物车中已存在的字段不会被覆盖（并发写入优先）
+     */
+    void initialize(String cartId, List<CartItem> items);
+
+    /**
+     * 原子地把游客购物车合并到用户购物车并删除游客购物车：相同商品数量相加，勾选状态以游客购物车为准
+     *
+     * @return 合并的商品数
+     */
+    int merge(String guestCartId, String userCartId);
+
+    /**
+     * 取出最多 max 个待持久化的用户ID（取出即从待持久化集合中移除）
+     */
+    List<Long> pollDirtyUsers(int max);
+
+    /**
+     * 重新标记为待持久化（持久化失败时调用）
+     */
+    void markDirty(Collection<Long> userIds);
+}
@@ -0,0 +1,59 @@
+package com.cao.ecommerce.trade.domain.repository;
+
+import java.util.Map;
+
+/**
+ * 库存仓储接口
+ *
+ * 领域层只依赖该接口，具体的JDBC实现位于infrastructure.persistence
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface InventoryRepository {
+
+    /**
+     * 流式加载全部商品库存（product.stock）
+     *
+     * @param consumer 逐行回调：商品ID、库存数量
+     */
+    void loadAllStock(StockConsumer consumer);
+
+    /**
+     * 加载单个商品库存
+     *
+     * @param skuId 商品ID
+     * @return 库存数量，商品不存在时返回null
+     */
+    Integer loadStock(long skuId);
+
+    /**
+     * 流式加载未确认的预占记录（待支付订单的订单明细）
+     *
+     * @param consumer 逐行回调：订单号、商品ID、数量
+     */
+    void loadPendingReservations(PendingReservationConsumer consumer);
+
+    /**
+     * 批量回写库存增量（stock = stock + delta）
+     *
+     * @param deltas 商品ID -> 库存增量（扣减为负数）
+     */
+    void applyStockDeltas(Map<Long, Integer> deltas);
+
+    /**
+     * 库存行回调
+     */
+    @FunctionalInterface
+    interface StockConsumer {
+        void accept(long skuId, int stock);
+    }
+
+    /**
+     * 预占行回调
+     */
+    @FunctionalInterface
+    interface PendingReservationConsumer {
+        void accept(String orderNo, long skuId, int quantity);
+    }
+}
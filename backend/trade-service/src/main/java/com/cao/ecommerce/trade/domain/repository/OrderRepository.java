@@ -0,0 +1,75 @@
+package com.cao.ecommerce.trade.domain.repository;
+
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderCursor;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.domain.model.OrderSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * 订单仓储
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface OrderRepository {
+
+    /**
+     * 在同一个事务内写入一批订单及其明细，任一订单失败时整批回滚
+     *
+     * @param orders 已分配订单ID的订单
+     */
+    void insertBatch(List<Order> orders);
+
+    /**
+     * 订单的写入分区：只有同一分区的订单才能在一个事务内批量写入，不分片时只有一个分区
+     */
+    default int partitionOf(Order order) {
+        return 0;
+    }
+
+    /**
+     * 流式遍历由指定工作节点创建的待支付订单ID（订单ID中包含工作节点ID）
+     */
+    void forEachPendingPaymentId(long workerId, LongConsumer consumer);
+
+    /**
+     * 在一个事务内取消仍处于待支付状态的订单，已支付或已取消的订单跳过
+     *
+     * @return 实际取消的订单（包含ID、订单号、用户ID）
+     */
+    List<Order> cancelPendingPayment(List<Long> orderIds, LocalDateTime cancelTime);
+
+    /**
+     * 按下单时间倒序查询用户的一页订单（不含明细），游标分页：从游标之后开始读取，不使用OFFSET
+     *
+     * @param after 上一页最后一个订单，第一页传null
+     */
+    List<OrderSummary> findPageByUserId(long userId, OrderCursor after, int limit);
+
+    /**
+     * 按下单时间倒序查询全部用户的一页订单（运营后台），游标分页
+     *
+     * @param status 订单状态，null表示不限
+     * @param after  上一页最后一个订单，第一页传null
+     */
+    List<OrderSummary> findPage(Integer status, OrderCursor after, int limit);
+
+    /**
+     * 按订单号查询订单（不含明细）
+     *
+     * @return 订单不存在时返回null
+     */
+    OrderSummary findByOrderNo(String orderNo);
+
+    /**
+     * 一次查询多个订单的明细
+     *
+     * @return 订单ID → 明细（按明细ID排序），没有明细的订单不在结果中
+     */
+    Map<Long, List<OrderItem>> findItemsByOrderIds(List<Long> orderIds);
+}
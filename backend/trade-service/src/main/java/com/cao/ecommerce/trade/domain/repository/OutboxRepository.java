@@ -0,0 +1,49 @@
+package com.cao.ecommerce.trade.domain.repository;
+
+import com.cao.ecommerce.trade.domain.event.DomainEvent;
+import com.cao.ecommerce.trade.domain.model.OutboxMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 事务发件箱仓储
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface OutboxRepository {
+
+    /**
+     * 写入事件，必须在业务数据所在的事务内调用
+     */
+    void append(List<DomainEvent> events);
+
+    /**
+     * 按ID顺序查询已到重试时间的待投递消息（退避中的消息不占用读取窗口）
+     */
+    List<OutboxMessage> findPending(int limit);
+
+    /**
+     * 批量标记为已投递
+     */
+    void markSent(List<Long> ids);
+
+    /**
+     * 记录一次投递失败：失败次数加一，推迟到 nextRetryTime 再投递；
+     * 同一聚合中ID更大的待投递消息一并推迟，保持聚合内顺序
+     */
+    void markFailed(OutboxMessage message, LocalDateTime nextRetryTime);
+
+    /**
+     * 停放消息：失败次数达到上限后不再自动投递，排查后把状态改回0即可重新投递
+     */
+    void markParked(long id);
+
+    /**
+     * 删除早于指定时间的已投递消息
+     *
+     * @return 删除的行数
+     */
+    int deleteSentBefore(LocalDateTime before, int limit);
+}
@@ -0,0 +1,423 @@
+package com.cao.ecommerce.trade.domain.service;
+
+import com.cao.ecommerce.trade.domain.model.ReservationResult;
+import com.cao.ecommerce.trade.domain.repository.InventoryRepository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内存库存预占引擎
+ *
+ * 设计要点：
+ * 1. 每个SKU的可用库存和预占库存打包进一个long（高32位可用、低32位预占），
+ *    预占/确认/释放都是单个CAS操作，不持有任何全局锁
+ * 2. 确认扣减只累加到SKU的待回写增量上，由定时任务批量执行
+ *    UPDATE product SET stock = stock + ?，同一SKU在一个周期内只写一次
+ * 3. 预占记录以订单号为键，状态迁移使用CAS，保证确认/释放幂等；确认、释放后的记录作为墓碑保留到下一次回写完成，
+ *    期间同一订单号重复预占仍返回 DUPLICATE（回写完成前订单状态可能还没有落库，重复请求不能据此判断）
+ * 4. 重启后通过 recover() 从product.stock和待支付订单明细重建计数器
+ *
+ * 面试要点：
+ * - 秒杀场景下行锁 UPDATE 会把所有请求串行化在同一行上，内存CAS把竞争降到CPU缓存行级别
+ * - 数据库只承载合并后的净增量，写入次数与SKU数量而非订单数量相关
+ * - 确认后、回写前宕机会丢失该周期内的增量，回写间隔即为最大不一致窗口，
+ *   优雅停机时会强制执行一次回写
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class InventoryReservationService {
+
+    /** 预占中（多SKU预占尚未全部完成） */
+    private static final int PENDING = 0;
+
+    /** 已预占 */
+    private static final int RESERVED = 1;
+
+    /** 已确认 */
+    private static final int CONFIRMED = 2;
+
+    /** 已释放 */
+    private static final int RELEASED = 3;
+
+    private final InventoryRepository repository;
+
+    private final int flushBatchSize;
+
+    private final ConcurrentHashMap<Long, SkuStock> stocks = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private final Set<SkuStock> dirty = ConcurrentHashMap.newKeySet();
+
+    /** 已确认、已释放的预占（墓碑），下一次回写成功后从 reservations 中移除 */
+    private final ConcurrentLinkedQueue<String> settled = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger settledCount = new AtomicInteger();
+
+    public InventoryReservationService(InventoryRepository repository, int flushBatchSize) {
+        if (flushBatchSize <= 0) {
+            throw new IllegalArgumentException("flushBatchSize must be positive: " + flushBatchSize);
+        }
+        this.repository = repository;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    /**
+     * 单SKU预占（秒杀场景）
+     */
+    public ReservationResult reserve(String orderNo, long skuId, int quantity) {
+        return reserve(orderNo, new long[]{skuId}, new int[]{quantity});
+    }
+
+    /**
+     * 多SKU预占，任一SKU失败时回滚已预占的部分
+     *
+     * @param items 商品ID -> 数量
+     */
+    public ReservationResult reserve(String orderNo, Map<Long, Integer> items) {
+        long[] skuIds = new long[items.size()];
+        int[] quantities = new int[items.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : items.entrySet()) {
+            skuIds[i] = entry.getKey();
+            quantities[i] = entry.getValue();
+            i++;
+        }
+        return reserve(orderNo, skuIds, quantities);
+    }
+
+    private ReservationResult reserve(String orderNo, long[] skuIds, int[] quantities) {
+        for (int quantity : quantities) {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("quantity must be positive: " + quantity);
+            }
+        }
+
+        SkuStock[] skus = new SkuStock[skuIds.length];
+        Reservation reservation = new Reservation(skus, quantities);
+        if (reservations.putIfAbsent(orderNo, reservation) != null) {
+            return ReservationResult.DUPLICATE;
+        }
+
+        for (int i = 0; i < skuIds.length; i++) {
+            SkuStock sku = getOrLoad(skuIds[i]);
+            ReservationResult failure = null;
+            if (sku == null) {
+                failure = ReservationResult.UNKNOWN_SKU;
+            } else if (!sku.tryReserve(quantities[i])) {
+                failure = ReservationResult.INSUFFICIENT_STOCK;
+            }
+            if (failure != null) {
+                for (int j = 0; j < i; j++) {
+                    skus[j].release(quantities[j]);
+                }
+                reservations.remove(orderNo, reservation);
+                return failure;
+            }
+            skus[i] = sku;
+        }
+
+        reservation.state.set(RESERVED);
+        return ReservationResult.SUCCESS;
+    }
+
+    /**
+     * 确认预占（支付成功），预占量转为待回写的库存扣减
+     *
+     * @return 是否由本次调用完成确认
+     */
+    public boolean confirm(String orderNo) {
+        Reservation reservation = reservations.get(orderNo);
+        if (reservation == null || !reservation.state.compareAndSet(RESERVED, CONFIRMED)) {
+            return false;
+        }
+        for (int i = 0; i < reservation.skus.length; i++) {
+            SkuStock sku = reservation.skus[i];
+            sku.confirm(reservation.quantities[i]);
+            dirty.add(sku);
+        }
+        // 先累加增量、标记脏SKU，再登记墓碑：回写取到墓碑时，它的增量一定在同一次回写中
+        settle(orderNo);
+        return true;
+    }
+
+    /**
+     * 释放预占（取消订单/支付超时），预占量退回可用库存
+     *
+     * @return 是否由本次调用完成释放
+     */
+    public boolean release(String orderNo) {
+        Reservation reservation = reservations.get(orderNo);
+        if (reservation == null || !reservation.state.compareAndSet(RESERVED, RELEASED)) {
+            return false;
+        }
+        for (int i = 0; i < reservation.skus.length; i++) {
+            reservation.skus[i].release(reservation.quantities[i]);
+        }
+        settle(orderNo);
+        return true;
+    }
+
+    /**
+     * 查询可用库存
+     *
+     * @return 可用库存，SKU未加载时返回-1
+     */
+    public int getAvailable(long skuId) {
+        SkuStock sku = stocks.get(skuId);
+        return sku == null ? -1 : available(sku.state);
+    }
+
+    /**
+     * 查询预占库存
+     *
+     * @return 预占库存，SKU未加载时返回-1
+     */
+    public int getReserved(long skuId) {
+        SkuStock sku = stocks.get(skuId);
+        return sku == null ? -1 : reserved(sku.state);
+    }
+
+    /**
+     * 未确认的预占记录数（不含等待回写的墓碑）
+     */
+    public int getPendingReservationCount() {
+        return Math.max(0, reservations.size() - settledCount.get());
+    }
+
+    /**
+     * 将已确认的净增量批量回写到product.stock
+     *
+     * 单线程调用（定时任务和停机钩子），回写失败时增量会退回计数器等待下次重试；
+     * 回写成功后清除本次回写之前登记的墓碑
+     *
+     * @return 本次回写的SKU数量
+     */
+    public synchronized int flush() {
+        // 先取墓碑再取增量：取到的墓碑对应的增量都在本次回写中
+        List<String> tombstones = new ArrayList<>();
+        for (String orderNo; (orderNo = settled.poll()) != null; ) {
+            tombstones.add(orderNo);
+        }
+        int flushed;
+        try {
+            flushed = flushDeltas();
+        } catch (RuntimeException e) {
+            settled.addAll(tombstones);
+            throw e;
+        }
+        for (String orderNo : tombstones) {
+            reservations.remove(orderNo);
+        }
+        settledCount.addAndGet(-tombstones.size());
+        return flushed;
+    }
+
+    private int flushDeltas() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        int flushed = 0;
+        Map<Long, Integer> batch = new HashMap<>();
+        Iterator<SkuStock> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            // 先移出脏集合再取增量：并发确认要么被本次取走，要么重新标记为脏
+            SkuStock sku = iterator.next();
+            iterator.remove();
+            int delta = sku.unflushed.getAndSet(0);
+            if (delta != 0) {
+                batch.put(sku.skuId, delta);
+            }
+            if (batch.size() >= flushBatchSize) {
+                flushed += write(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushed += write(batch);
+        }
+        return flushed;
+    }
+
+    /**
+     * 从数据库重建计数器
+     *
+     * 可用库存 = product.stock - 待支付订单占用量，需在接入流量之前调用
+     */
+    public synchronized void recover() {
+        flush();
+        stocks.clear();
+        reservations.clear();
+        dirty.clear();
+        settled.clear();
+        settledCount.set(0);
+
+        repository.loadAllStock((skuId, stock) -> stocks.put(skuId, new SkuStock(skuId, stock)));
+
+        Map<String, List<long[]>> pending = new HashMap<>();
+        repository.loadPendingReservations((orderNo, skuId, quantity) ->
+                pending.computeIfAbsent(orderNo, k -> new ArrayList<>()).add(new long[]{skuId, quantity}));
+
+        pending.forEach((orderNo, rows) -> {
+            List<SkuStock> skus = new ArrayList<>(rows.size());
+            List<Integer> quantities = new ArrayList<>(rows.size());
+            for (long[] row : rows) {
+                SkuStock sku = stocks.get(row[0]);
+                if (sku == null) {
+                    // 商品已删除，预占无从恢复
+                    continue;
+                }
+                sku.restore((int) row[1]);
+                skus.add(sku);
+                quantities.add((int) row[1]);
+            }
+            Reservation reservation = new Reservation(
+                    skus.toArray(new SkuStock[0]),
+                    quantities.stream().mapToInt(Integer::intValue).toArray());
+            reservation.state.set(RESERVED);
+            reservations.put(orderNo, reservation);
+        });
+    }
+
+    private void settle(String orderNo) {
+        settledCount.incrementAndGet();
+        settled.add(orderNo);
+    }
+
+    private int write(Map<Long, Integer> batch) {
+        try {
+            repository.applyStockDeltas(batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            batch.forEach((skuId, delta) -> {
+                SkuStock sku = stocks.get(skuId);
+                if (sku != null) {
+                    sku.unflushed.addAndGet(delta);
+                    dirty.add(sku);
+                }
+            });
+            throw e;
+        }
+    }
+
+    private SkuStock getOrLoad(long skuId) {
+        SkuStock sku = stocks.get(skuId);
+        if (sku != null) {
+            return sku;
+        }
+        // 新上架商品首次访问时加载，数据库查询不在ConcurrentHashMap的桶锁内执行
+        Integer stock = repository.loadStock(skuId);
+        if (stock == null) {
+            return null;
+        }
+        SkuStock created = new SkuStock(skuId, stock);
+        SkuStock existing = stocks.putIfAbsent(skuId, created);
+        return existing != null ? existing : created;
+    }
+
+    private static long pack(int available, int reserved) {
+        return ((long) available << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int available(long state) {
+        return (int) (state >> 32);
+    }
+
+    private static int reserved(long state) {
+        return (int) state;
+    }
+
+    /**
+     * 单个SKU的库存计数器
+     */
+    private static final class SkuStock {
+
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(SkuStock.class, "state", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final long skuId;
+
+        /** 已确认但尚未回写数据库的库存增量 */
+        private final AtomicInteger unflushed = new AtomicInteger();
+
+        private volatile long state;
+
+        private SkuStock(long skuId, int stock) {
+            this.skuId = skuId;
+            this.state = pack(stock, 0);
+        }
+
+        private boolean tryReserve(int quantity) {
+            for (;;) {
+                long current = state;
+                int available = available(current);
+                if (available < quantity) {
+                    return false;
+                }
+                if (STATE.compareAndSet(this, current, pack(available - quantity, reserved(current) + quantity))) {
+                    return true;
+                }
+            }
+        }
+
+        private void confirm(int quantity) {
+            for (;;) {
+                long current = state;
+                if (STATE.compareAndSet(this, current, pack(available(current), reserved(current) - quantity))) {
+                    unflushed.addAndGet(-quantity);
+                    return;
+                }
+            }
+        }
+
+        private void release(int quantity) {
+            for (;;) {
+                long current = state;
+                if (STATE.compareAndSet(this, current, pack(available(current) + quantity, reserved(current) - quantity))) {
+                    return;
+                }
+            }
+        }
+
+        /** 恢复阶段直接迁移占用量，数据不一致时可用库存允许为负 */
+        private void restore(int quantity) {
+            long current = state;
+            state = pack(available(current) - quantity, reserved(current) + quantity);
+        }
+    }
+
+    /**
+     * 一次订单预占
+     */
+    private static final class Reservation {
+
+        private final SkuStock[] skus;
+
+        private final int[] quantities;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private Reservation(SkuStock[] skus, int[] quantities) {
+            this.skus = skus;
+            this.quantities = quantities;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import com.cao.ecommerce.common.health.HealthProbe;
+import com.cao.ecommerce.trade.application.scheduler.CartWriteBehindScheduler;
+import com.cao.ecommerce.trade.application.service.CartService;
+import com.cao.ecommerce.trade.domain.repository.CartDurableRepository;
+import com.cao.ecommerce.trade.domain.repository.CartRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.InMemoryCartRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcCartDurableRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.RedisCartRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.RedisHealthProbe;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 购物车装配
+ *
+ * 默认关闭，通过 ecommerce.trade.cart.enabled=true 启用；多节点部署时设置 store=redis，
+ * 开启数据源后通过 write-behind-enabled=true 异步写回 cart 表
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(CartProperties.class)
+@ConditionalOnProperty(prefix = CartProperties.PREFIX, name = "enabled", havingValue = "true")
+public class CartConfig {
+
+    @Bean
+    public CartRepository cartRepository(CartProperties properties,
+                                         ObjectProvider<StringRedisTemplate> redisTemplate) {
+        if ("redis".equalsIgnoreCase(properties.getStore())) {
+            return new RedisCartRepository(redisTemplate.getObject(),
+                    TimeUnit.DAYS.toMillis(properties.getUserTtlDays()),
+                    TimeUnit.DAYS.toMillis(properties.getGuestTtlDays()));
+        }
+        return new InMemoryCartRepository();
+    }
+
+    @Bean
+    public CartService cartService(CartRepository cartRepository,
+                                   ObjectProvider<CartDurableRepository> cartDurableRepository) {
+        return new CartService(cartRepository, cartDurableRepository.getIfAvailable());
+    }
+
+    /**
+     * 购物车存放在Redis时，健康检查包含Redis探测
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = CartProperties.PREFIX, name = "store", havingValue = "redis")
+    static class RedisHealthConfig {
+
+        @Bean
+        public HealthProbe redisHealthProbe(StringRedisTemplate redisTemplate) {
+            return new RedisHealthProbe(redisTemplate);
+        }
+    }
+
+    /**
+     * cart 表异步写回
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = CartProperties.PREFIX, name = "write-behind-enabled", havingValue = "true")
+    static class WriteBehindConfig {
+
+        @Bean
+        public CartDurableRepository cartDurableRepository(DataSource dataSource) {
+            return new JdbcCartDurableRepository(new JdbcTemplate(dataSource),
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        public CartWriteBehindScheduler cartWriteBehindScheduler(CartRepository cartRepository,
+                                                                 CartDurableRepository cartDurableRepository,
+                                                                 CartProperties properties) {
+            return new CartWriteBehindScheduler(cartRepository, cartDurableRepository,
+                    properties.getFlushIntervalMs(), properties.getFlushBatchSize());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 购物车配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = CartProperties.PREFIX)
+public class CartProperties {
+
+    public static final String PREFIX = "ecommerce.trade.cart";
+
+    /** 是否启用购物车（Redis在第三阶段启用） */
+    private boolean enabled = false;
+
+    /** 存储类型：memory（进程内，单节点）/ redis */
+    private String store = "memory";
+
+    /** 用户购物车空闲过期时间（天），过期后从 cart 表重新加载 */
+    private long userTtlDays = 30;
+
+    /** 游客购物车空闲过期时间（天） */
+    private long guestTtlDays = 7;
+
+    /** 是否异步写回 cart 表（依赖数据源，第三阶段启用） */
+    private boolean writeBehindEnabled = false;
+
+    /** 写回间隔（毫秒），即Redis数据丢失时的最大丢失窗口 */
+    private long flushIntervalMs = 1000;
+
+    /** 单批写回的最大用户数 */
+    private int flushBatchSize = 200;
+}
@@ -0,0 +1,25 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 订单号生成器装配
+ *
+ * 工作节点ID取自Nacos实例元数据 worker-id（注册后可在控制台查看），
+ * 未配置时回退到环境变量 ECOMMERCE_WORKER_ID
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(
+            @Value("${spring.cloud.nacos.discovery.metadata.worker-id:}") String workerId) {
+        return new SnowflakeIdGenerator(SnowflakeIdGenerator.resolveWorkerId(workerId));
+    }
+}
@@ -0,0 +1,27 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 库存预占引擎配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.trade.inventory")
+public class InventoryProperties {
+
+    /** 是否启用内存库存预占（依赖数据源，第三阶段启用） */
+    private boolean enabled = false;
+
+    /** 启动时是否从数据库重建计数器 */
+    private boolean recoverOnStartup = true;
+
+    /** 库存增量回写间隔（毫秒），即宕机时的最大不一致窗口 */
+    private long flushIntervalMs = 200;
+
+    /** 单批回写的最大SKU数量 */
+    private int flushBatchSize = 500;
+}
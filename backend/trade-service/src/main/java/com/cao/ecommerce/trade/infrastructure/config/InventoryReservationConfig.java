@@ -0,0 +1,49 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import com.cao.ecommerce.trade.application.scheduler.InventoryFlushScheduler;
+import com.cao.ecommerce.trade.domain.repository.InventoryRepository;
+import com.cao.ecommerce.trade.domain.service.InventoryReservationService;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcInventoryRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 库存预占引擎装配
+ *
+ * 默认关闭，开启数据源后通过 ecommerce.trade.inventory.enabled=true 启用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(InventoryProperties.class)
+@ConditionalOnProperty(prefix = "ecommerce.trade.inventory", name = "enabled", havingValue = "true")
+public class InventoryReservationConfig {
+
+    @Bean
+    public InventoryRepository inventoryRepository(DataSource dataSource) {
+        return new JdbcInventoryRepository(new JdbcTemplate(dataSource));
+    }
+
+    @Bean
+    public InventoryReservationService inventoryReservationService(InventoryRepository inventoryRepository,
+                                                                   InventoryProperties properties) {
+        InventoryReservationService service =
+                new InventoryReservationService(inventoryRepository, properties.getFlushBatchSize());
+        if (properties.isRecoverOnStartup()) {
+            service.recover();
+        }
+        return service;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public InventoryFlushScheduler inventoryFlushScheduler(InventoryReservationService inventoryReservationService,
+                                                           InventoryProperties properties) {
+        return new InventoryFlushScheduler(inventoryReservationService, properties.getFlushIntervalMs());
+    }
+}
@@ -0,0 +1,129 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import com.cao.ecommerce.trade.domain.repository.OrderRepository;
+import com.cao.ecommerce.trade.infrastructure.mq.producer.MessagePublisher;
+import com.cao.ecommerce.trade.infrastructure.observability.LatencyClientHttpRequestInterceptor;
+import com.cao.ecommerce.trade.infrastructure.observability.LatencyEndpoint;
+import com.cao.ecommerce.trade.infrastructure.observability.LatencyMethodInterceptor;
+import com.cao.ecommerce.trade.infrastructure.observability.LatencyMetrics;
+import com.cao.ecommerce.trade.infrastructure.observability.LatencyServletFilter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热点路径延迟统计装配
+ *
+ * 设计要点：
+ * 1. 记录点：控制器（Servlet过滤器，按路由）、仓储（domain.repository 下的接口）、
+ *    服务间调用（RestClient/RestTemplate 拦截器，按服务名）、消息发送（{@link MessagePublisher}，按发送确认）
+ * 2. 仓储和消息发送通过接口代理记录，业务代码和实现类不感知
+ * 3. 输出：/actuator/latency 查看最近窗口的 p50/p99/p999；/actuator/prometheus 中为
+ *    trade_latency_seconds（累计样本数、总耗时）和 trade_latency_percentile_seconds（窗口分位数）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(ObservabilityProperties.class)
+@ConditionalOnProperty(prefix = ObservabilityProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ObservabilityConfig {
+
+    private static final String REPOSITORY_PACKAGE = OrderRepository.class.getPackageName();
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public LatencyMetrics latencyMetrics(ObservabilityProperties properties) {
+        int stripes = properties.getStripes() > 0 ? properties.getStripes() : Runtime.getRuntime().availableProcessors();
+        return new LatencyMetrics(stripes, TimeUnit.SECONDS.toMillis(properties.getWindowSeconds()));
+    }
+
+    /**
+     * 每个直方图创建时注册到 MeterRegistry
+     */
+    @Bean
+    public MeterBinder latencyMeterBinder(LatencyMetrics latencyMetrics) {
+        return meterRegistry -> latencyMetrics.addListener((name, target) -> {
+            FunctionTimer.builder("trade.latency", latencyMetrics,
+                            metrics -> metrics.cumulativeSnapshot(name, target).getCount(),
+                            metrics -> metrics.cumulativeSnapshot(name, target).getSum(), TimeUnit.NANOSECONDS)
+                    .tags("metric", name, "target", target)
+                    .description("热点路径耗时").register(meterRegistry);
+            for (double quantile : QUANTILES) {
+                Gauge.builder("trade.latency.percentile", latencyMetrics,
+                                metrics -> toSeconds(metrics.windowSnapshot(name, target).valueAt(quantile)))
+                        .tags("metric", name, "target", target, "quantile", String.valueOf(quantile))
+                        .description("最近窗口的耗时分位数").baseUnit("seconds").register(meterRegistry);
+            }
+        });
+    }
+
+    @Bean
+    public LatencyEndpoint latencyEndpoint(LatencyMetrics latencyMetrics) {
+        return new LatencyEndpoint(latencyMetrics);
+    }
+
+    @Bean
+    public FilterRegistrationBean<LatencyServletFilter> latencyServletFilter(LatencyMetrics latencyMetrics) {
+        FilterRegistrationBean<LatencyServletFilter> registration =
+                new FilterRegistrationBean<>(new LatencyServletFilter(latencyMetrics));
+        // 最外层，包含其他过滤器的耗时
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public LatencyClientHttpRequestInterceptor latencyClientHttpRequestInterceptor(LatencyMetrics latencyMetrics) {
+        return new LatencyClientHttpRequestInterceptor(latencyMetrics);
+    }
+
+    @Bean
+    public RestClientCustomizer latencyRestClientCustomizer(LatencyClientHttpRequestInterceptor interceptor) {
+        return builder -> builder.requestInterceptor(interceptor);
+    }
+
+    @Bean
+    public RestTemplateCustomizer latencyRestTemplateCustomizer(LatencyClientHttpRequestInterceptor interceptor) {
+        return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+    }
+
+    /**
+     * 为仓储和消息发送器创建接口代理；静态方法，避免配置类过早实例化
+     */
+    @Bean
+    public static BeanPostProcessor latencyProxyPostProcessor(ObjectProvider<LatencyMetrics> latencyMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                for (Class<?> type : bean.getClass().getInterfaces()) {
+                    String metricName = type == MessagePublisher.class ? "mq"
+                            : REPOSITORY_PACKAGE.equals(type.getPackageName()) ? "repository" : null;
+                    if (metricName != null) {
+                        ProxyFactory proxyFactory = new ProxyFactory(bean);
+                        proxyFactory.addAdvice(new LatencyMethodInterceptor(latencyMetrics.getObject(), metricName, type));
+                        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,26 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 热点路径延迟统计配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = ObservabilityProperties.PREFIX)
+public class ObservabilityProperties {
+
+    public static final String PREFIX = "ecommerce.trade.observability";
+
+    /** 是否启用延迟直方图 */
+    private boolean enabled = true;
+
+    /** 每个直方图的分段数，0表示取CPU核数 */
+    private int stripes = 0;
+
+    /** 分位数统计窗口（秒） */
+    private long windowSeconds = 60;
+}
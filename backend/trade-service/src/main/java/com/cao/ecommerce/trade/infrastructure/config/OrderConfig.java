@@ -0,0 +1,161 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import com.cao.ecommerce.common.spring.datasource.ReadWriteSplittingAutoConfiguration;
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.application.scheduler.OrderTimeoutScheduler;
+import com.cao.ecommerce.trade.application.service.OrderQueryService;
+import com.cao.ecommerce.trade.application.service.OrderService;
+import com.cao.ecommerce.trade.application.service.OrderTimeoutService;
+import com.cao.ecommerce.trade.domain.repository.OrderRepository;
+import com.cao.ecommerce.trade.domain.repository.OutboxRepository;
+import com.cao.ecommerce.trade.infrastructure.mq.producer.MessagePublisher;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOrderRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderGroupCommitter;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderShardCopier;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderShards;
+import com.cao.ecommerce.trade.infrastructure.persistence.ShardedOrderRepository;
+import com.cao.ecommerce.trade.infrastructure.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单写入装配
+ *
+ * 默认关闭，开启数据源后通过 ecommerce.trade.order.enabled=true 启用；
+ * 数据源URL需要带上 rewriteBatchedStatements=true，批处理才会合并为多行INSERT；
+ * 同时启用发件箱（{@link OutboxConfig}）时，订单事件与订单在同一事务内写入 outbox_event；
+ * sharding.enabled=true 时按用户ID分片（{@link ShardingConfig}）；
+ * 启用读写分离（{@link ReadWriteSplittingAutoConfiguration}）时订单查询在只读事务中执行，读从库
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(OrderProperties.class)
+@ConditionalOnProperty(prefix = OrderProperties.PREFIX, name = "enabled", havingValue = "true")
+public class OrderConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = OrderProperties.PREFIX, name = "sharding.enabled", havingValue = "false",
+            matchIfMissing = true)
+    public OrderRepository orderRepository(DataSource dataSource, ObjectProvider<OutboxRepository> outboxRepository) {
+        return new JdbcOrderRepository(new JdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                outboxRepository.getIfAvailable());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OrderGroupCommitter orderGroupCommitter(OrderRepository orderRepository, OrderProperties properties) {
+        return new OrderGroupCommitter(orderRepository, properties.getBatchWindowMicros(),
+                properties.getBatchSize(), properties.getQueueCapacity(), properties.getWriterThreads());
+    }
+
+    @Bean
+    public OrderTimeoutService orderTimeoutService(OrderRepository orderRepository,
+                                                  SnowflakeIdGenerator snowflakeIdGenerator,
+                                                  OrderProperties properties) {
+        HierarchicalTimingWheel timingWheel =
+                new HierarchicalTimingWheel(properties.getTimeoutTickMs(), System.currentTimeMillis());
+        return new OrderTimeoutService(orderRepository, timingWheel, snowflakeIdGenerator.getWorkerId(),
+                TimeUnit.MINUTES.toMillis(properties.getPaymentTimeoutMinutes()), properties.getCancelBatchSize());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OrderTimeoutScheduler orderTimeoutScheduler(OrderTimeoutService orderTimeoutService,
+                                                       OrderProperties properties) {
+        return new OrderTimeoutScheduler(orderTimeoutService, properties.getTimeoutTickMs());
+    }
+
+    @Bean
+    public OrderService orderService(SnowflakeIdGenerator snowflakeIdGenerator,
+                                     OrderGroupCommitter orderGroupCommitter,
+                                     OrderTimeoutService orderTimeoutService) {
+        return new OrderService(snowflakeIdGenerator, orderGroupCommitter, orderTimeoutService);
+    }
+
+    @Bean
+    public OrderQueryService orderQueryService(OrderRepository orderRepository, OrderProperties properties,
+                                               DataSource dataSource) throws SQLException {
+        return new OrderQueryService(orderRepository, properties.getMaxPageSize(),
+                ReadWriteSplittingAutoConfiguration.readOnlyTransaction(dataSource));
+    }
+
+    /**
+     * 按用户ID分片
+     *
+     * 扩容迁移：dual-write 阶段读写旧分片（shards），双写新分片（target-shards）并在后台复制存量；
+     * 复制器报告完成后切换为 cutover，读写新分片、双写旧分片以便回滚；最后把 shards 改为新分片、migration 改回 none
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = OrderProperties.PREFIX, name = "sharding.enabled", havingValue = "true")
+    static class ShardingConfig {
+
+        @Bean
+        public OrderShardFactory orderShardFactory(DataSource dataSource,
+                                                   ObjectProvider<OutboxRepository> outboxRepository,
+                                                   ObjectProvider<MessagePublisher> messagePublisher,
+                                                   ObjectProvider<OutboxProperties> outboxProperties) {
+            return new OrderShardFactory(dataSource, outboxRepository.getIfAvailable(),
+                    messagePublisher.getIfAvailable(), outboxProperties.getIfAvailable());
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        public OrderShards orderShards(OrderShardFactory orderShardFactory, OrderProperties properties) {
+            return orderShardFactory.create(properties.getSharding().getShards());
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        @ConditionalOnExpression("'${ecommerce.trade.order.sharding.migration:none}' != 'none'")
+        public OrderShards targetOrderShards(OrderShardFactory orderShardFactory, OrderProperties properties) {
+            return orderShardFactory.create(properties.getSharding().getTargetShards());
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        public ShardedOrderRepository orderRepository(@Qualifier("orderShards") OrderShards orderShards,
+                                                      @Qualifier("targetOrderShards")
+                                                      ObjectProvider<OrderShards> targetOrderShards,
+                                                      OrderProperties properties, MeterRegistry meterRegistry) {
+            OrderProperties.Sharding sharding = properties.getSharding();
+            OrderShards target = targetOrderShards.getIfAvailable();
+            ShardedOrderRepository repository = "cutover".equalsIgnoreCase(sharding.getMigration())
+                    ? new ShardedOrderRepository(target, orderShards, sharding.getFanOutTimeoutMs())
+                    : new ShardedOrderRepository(orderShards, target, sharding.getFanOutTimeoutMs());
+            FunctionCounter.builder("trade.order.shard.dual.write.failed", repository,
+                            ShardedOrderRepository::getDualWriteFailureCount)
+                    .description("双写失败的订单数，由迁移校验补齐").register(meterRegistry);
+            return repository;
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        @ConditionalOnProperty(prefix = OrderProperties.PREFIX, name = "sharding.migration", havingValue = "dual-write")
+        public OrderShardCopier orderShardCopier(@Qualifier("orderShards") OrderShards orderShards,
+                                                 @Qualifier("targetOrderShards") OrderShards targetOrderShards,
+                                                 OrderProperties properties, MeterRegistry meterRegistry) {
+            OrderProperties.Sharding sharding = properties.getSharding();
+            OrderShardCopier copier = new OrderShardCopier(orderShards, targetOrderShards,
+                    sharding.getCopyBatchSize(), sharding.getCopyPauseMs(), sharding.getVerifyPasses());
+            FunctionCounter.builder("trade.order.shard.copied", copier, OrderShardCopier::getCopiedCount)
+                    .description("迁移复制的订单数").register(meterRegistry);
+            FunctionCounter.builder("trade.order.shard.repaired", copier, OrderShardCopier::getRepairedCount)
+                    .description("迁移校验修复的订单数").register(meterRegistry);
+            Gauge.builder("trade.order.shard.copy.finished", copier, c -> c.isFinished() ? 1 : 0)
+                    .description("迁移复制和校验是否完成").register(meterRegistry);
+            return copier;
+        }
+    }
+}
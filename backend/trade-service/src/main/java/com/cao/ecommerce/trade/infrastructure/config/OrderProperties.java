@@ -0,0 +1,104 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单写入配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = OrderProperties.PREFIX)
+public class OrderProperties {
+
+    public static final String PREFIX = "ecommerce.trade.order";
+
+    /** 是否启用订单写入（依赖数据源，第三阶段启用） */
+    private boolean enabled = false;
+
+    /** 组提交收集窗口（微秒），0表示只合并已排队的订单 */
+    private long batchWindowMicros = 500;
+
+    /** 单批最大订单数 */
+    private int batchSize = 128;
+
+    /** 等待写入的订单队列容量，写满时拒绝下单 */
+    private int queueCapacity = 10000;
+
+    /** 写入线程数 */
+    private int writerThreads = 2;
+
+    /** 支付超时时间（分钟），超时未支付的订单自动取消 */
+    private long paymentTimeoutMinutes = 30;
+
+    /** 超时时间轮的刻度（毫秒），即取消时间的最大延后 */
+    private long timeoutTickMs = 100;
+
+    /** 单批取消的最大订单数 */
+    private int cancelBatchSize = 200;
+
+    /** 订单列表每页的最大订单数 */
+    private int maxPageSize = 50;
+
+    /** 按用户分片 */
+    private Sharding sharding = new Sharding();
+
+    /**
+     * 分片配置
+     */
+    @Data
+    public static class Sharding {
+
+        /** 是否按用户ID分片（关闭时只使用默认数据源上的 order / order_item） */
+        private boolean enabled = false;
+
+        /** 当前分片，数量为2的幂 */
+        private List<Shard> shards = new ArrayList<>();
+
+        /** 扩容后的分片，迁移期间使用 */
+        private List<Shard> targetShards = new ArrayList<>();
+
+        /** 迁移阶段：none / dual-write（读写旧分片，双写新分片并复制存量）/ cutover（读写新分片，双写旧分片） */
+        private String migration = "none";
+
+        /** 跨分片查询的超时（毫秒） */
+        private long fanOutTimeoutMs = 3000;
+
+        /** 存量复制的单批订单数 */
+        private int copyBatchSize = 500;
+
+        /** 存量复制的批次间隔（毫秒） */
+        private long copyPauseMs = 50;
+
+        /** 存量复制后的最多校验轮数 */
+        private int verifyPasses = 2;
+    }
+
+    /**
+     * 单个分片
+     */
+    @Data
+    public static class Shard {
+
+        /** 分片名称 */
+        private String name;
+
+        /** 数据源URL，为空时使用默认数据源（同库分表） */
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /** 表名后缀，如 _0 对应 order_0 和 order_item_0 */
+        private String tableSuffix = "";
+
+        /** 连接池最大连接数（仅独立数据源） */
+        private int maxPoolSize = 20;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import com.cao.ecommerce.trade.domain.repository.OutboxRepository;
+import com.cao.ecommerce.trade.infrastructure.mq.producer.MessagePublisher;
+import com.cao.ecommerce.trade.infrastructure.mq.producer.OutboxRelay;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOrderRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOutboxRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderShard;
+import com.cao.ecommerce.trade.infrastructure.persistence.OrderShards;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按配置创建订单分片
+ *
+ * 未配置URL的分片使用默认数据源（同库分表）；配置了URL的分片按URL共享一个连接池，
+ * 新旧分片在同一个库时也只创建一次。启用发件箱时，订单事件写入分片所在库的 outbox_event
+ * （与订单同一事务），每个独立数据源各有一个中继，默认数据源沿用 {@link OutboxConfig} 的中继
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class OrderShardFactory {
+
+    private final DataSource defaultDataSource;
+
+    /** 为null时未启用发件箱 */
+    private final OutboxRepository defaultOutboxRepository;
+
+    private final MessagePublisher messagePublisher;
+
+    private final OutboxProperties outboxProperties;
+
+    private final Map<String, ShardDataSource> dataSources = new HashMap<>();
+
+    public OrderShardFactory(DataSource defaultDataSource, OutboxRepository defaultOutboxRepository,
+                             MessagePublisher messagePublisher, OutboxProperties outboxProperties) {
+        this.defaultDataSource = defaultDataSource;
+        this.defaultOutboxRepository = defaultOutboxRepository;
+        this.messagePublisher = messagePublisher;
+        this.outboxProperties = outboxProperties;
+    }
+
+    /**
+     * 创建一组分片；本次新建的数据源和中继随返回的分片集合启动和关闭
+     */
+    public synchronized OrderShards create(List<OrderProperties.Shard> configs) {
+        List<OrderShard> shards = new ArrayList<>(configs.size());
+        List<OutboxRelay> relays = new ArrayList<>();
+        List<AutoCloseable> resources = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            OrderProperties.Shard config = configs.get(i);
+            DataSource dataSource = defaultDataSource;
+            OutboxRepository outboxRepository = defaultOutboxRepository;
+            if (StringUtils.hasText(config.getUrl())) {
+                ShardDataSource shared = dataSources.get(config.getUrl());
+                if (shared == null) {
+                    shared = createDataSource(config);
+                    dataSources.put(config.getUrl(), shared);
+                    resources.add(shared.dataSource()::close);
+                    if (shared.relay() != null) {
+                        relays.add(shared.relay());
+                    }
+                }
+                dataSource = shared.dataSource();
+                outboxRepository = shared.outboxRepository();
+            }
+            String name = StringUtils.hasText(config.getName()) ? config.getName() : "shard-" + i;
+            shards.add(new OrderShard(name, new JdbcOrderRepository(new JdbcTemplate(dataSource),
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)), outboxRepository,
+                    config.getTableSuffix())));
+        }
+        return new OrderShards(shards, relays, resources);
+    }
+
+    private ShardDataSource createDataSource(OrderProperties.Shard config) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(config.getUrl()).username(config.getUsername()).password(config.getPassword()).build();
+        dataSource.setPoolName(StringUtils.hasText(config.getName()) ? config.getName() : config.getUrl());
+        dataSource.setMaximumPoolSize(config.getMaxPoolSize());
+        if (defaultOutboxRepository == null) {
+            return new ShardDataSource(dataSource, null, null);
+        }
+        OutboxRepository outboxRepository = new JdbcOutboxRepository(new JdbcTemplate(dataSource));
+        OutboxRelay relay = new OutboxRelay(outboxRepository, messagePublisher, outboxProperties);
+        return new ShardDataSource(dataSource, outboxRepository, relay);
+    }
+
+    private record ShardDataSource(HikariDataSource dataSource, OutboxRepository outboxRepository, OutboxRelay relay) {
+    }
+}
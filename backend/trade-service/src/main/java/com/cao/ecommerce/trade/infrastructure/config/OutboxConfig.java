@@ -0,0 +1,63 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import com.cao.ecommerce.trade.domain.repository.OutboxRepository;
+import com.cao.ecommerce.trade.infrastructure.mq.producer.InMemoryMessagePublisher;
+import com.cao.ecommerce.trade.infrastructure.mq.producer.MessagePublisher;
+import com.cao.ecommerce.trade.infrastructure.mq.producer.OutboxRelay;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 事务发件箱装配
+ *
+ * 默认关闭，开启数据源后通过 ecommerce.trade.outbox.enabled=true 启用；
+ * RocketMQ接入前使用进程内消息代理，接入后注册 {@link MessagePublisher} 实现即可替换
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(prefix = OutboxProperties.PREFIX, name = "enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    public OutboxRepository outboxRepository(DataSource dataSource) {
+        return new JdbcOutboxRepository(new JdbcTemplate(dataSource));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MessagePublisher messagePublisher() {
+        return new InMemoryMessagePublisher();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OutboxRelay outboxRelay(OutboxRepository outboxRepository, MessagePublisher messagePublisher,
+                                   OutboxProperties properties, MeterRegistry meterRegistry) {
+        OutboxRelay relay = new OutboxRelay(outboxRepository, messagePublisher, properties);
+        FunctionCounter.builder("trade.outbox.published", relay, OutboxRelay::getPublishedCount)
+                .description("投递成功的消息数").register(meterRegistry);
+        FunctionCounter.builder("trade.outbox.failed", relay, OutboxRelay::getFailedCount)
+                .description("投递失败次数").register(meterRegistry);
+        FunctionCounter.builder("trade.outbox.parked", relay, OutboxRelay::getParkedCount)
+                .description("失败次数达到上限被停放的消息数").register(meterRegistry);
+        Gauge.builder("trade.outbox.lag", relay, OutboxRelay::getLagMillis)
+                .description("最早一条待投递消息的等待时间").baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("trade.outbox.batch.size", relay, OutboxRelay::getLastBatchSize)
+                .description("最近一轮读取的待投递消息数").register(meterRegistry);
+        Gauge.builder("trade.outbox.in.flight", relay, OutboxRelay::getInFlight)
+                .description("在途发送数").register(meterRegistry);
+        return relay;
+    }
+}
@@ -0,0 +1,44 @@
+package com.cao.ecommerce.trade.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 事务发件箱配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = OutboxProperties.PREFIX)
+public class OutboxProperties {
+
+    public static final String PREFIX = "ecommerce.trade.outbox";
+
+    /** 是否启用发件箱（依赖数据源，第三阶段启用） */
+    private boolean enabled = false;
+
+    /** 中继单批读取的消息数 */
+    private int batchSize = 200;
+
+    /** 中继最大在途发送数 */
+    private int maxInFlight = 32;
+
+    /** 没有积压时的轮询间隔（毫秒） */
+    private long pollIntervalMs = 100;
+
+    /** 已投递消息的保留时间（小时） */
+    private long retentionHours = 72;
+
+    /** 单条消息的发送超时（毫秒），超时按失败处理；一批消息最多等待两倍超时 */
+    private long sendTimeoutMs = 5000;
+
+    /** 失败次数达到上限后停放，不再自动重试 */
+    private int maxAttempts = 10;
+
+    /** 首次失败后的重试间隔（毫秒），之后每次翻倍 */
+    private long retryBackoffMs = 1000;
+
+    /** 重试间隔上限（毫秒） */
+    private long maxRetryBackoffMs = 600_000;
+}
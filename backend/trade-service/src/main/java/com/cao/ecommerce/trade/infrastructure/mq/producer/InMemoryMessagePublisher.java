@@ -0,0 +1,77 @@
+package com.cao.ecommerce.trade.infrastructure.mq.producer;
+
+import com.cao.ecommerce.trade.domain.model.OutboxMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内消息代理（消息队列的本地替身）
+ *
+ * 按聚合类型保存已发送的消息，供单节点开发、本地调试和基准测试使用；
+ * 可以模拟Broker的发送延迟，用来观察中继在慢Broker下的表现
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class InMemoryMessagePublisher implements MessagePublisher {
+
+    private final Map<String, List<OutboxMessage>> topics = new ConcurrentHashMap<>();
+
+    private final LongAdder publishedCount = new LongAdder();
+
+    private final Executor delayedExecutor;
+
+    public InMemoryMessagePublisher() {
+        this(0);
+    }
+
+    /**
+     * @param sendLatencyMicros 模拟的发送延迟（微秒），0表示立即确认
+     */
+    public InMemoryMessagePublisher(long sendLatencyMicros) {
+        this.delayedExecutor = sendLatencyMicros > 0
+                ? CompletableFuture.delayedExecutor(sendLatencyMicros, TimeUnit.MICROSECONDS)
+                : null;
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(OutboxMessage message) {
+        if (delayedExecutor == null) {
+            store(message);
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> store(message), delayedExecutor);
+    }
+
+    /**
+     * 某个聚合类型下已发送的消息（按发送顺序）
+     */
+    public List<OutboxMessage> getMessages(String aggregateType) {
+        List<OutboxMessage> messages = topics.get(aggregateType);
+        if (messages == null) {
+            return List.of();
+        }
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    private void store(OutboxMessage message) {
+        List<OutboxMessage> messages = topics.computeIfAbsent(message.getAggregateType(), key -> new ArrayList<>());
+        synchronized (messages) {
+            messages.add(message);
+        }
+        publishedCount.increment();
+    }
+}
@@ -0,0 +1,21 @@
+package com.cao.ecommerce.trade.infrastructure.mq.producer;
+
+import com.cao.ecommerce.trade.domain.model.OutboxMessage;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 消息发布接口
+ *
+ * 发件箱中继通过该接口异步投递消息，RocketMQ接入前由 {@link InMemoryMessagePublisher} 代替
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface MessagePublisher {
+
+    /**
+     * 异步发送一条消息，Broker确认后完成；发送失败时以异常完成
+     */
+    CompletableFuture<Void> publish(OutboxMessage message);
+}
@@ -0,0 +1,316 @@
+package com.cao.ecommerce.trade.infrastructure.mq.producer;
+
+import com.cao.ecommerce.trade.domain.model.OutboxMessage;
+import com.cao.ecommerce.trade.domain.repository.OutboxRepository;
+import com.cao.ecommerce.trade.infrastructure.config.OutboxProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 发件箱中继
+ *
+ * 循环读取 outbox_event 中待投递的消息，异步发送到消息队列，整批完成后一次性标记为已投递
+ *
+ * 技术要点：
+ * 1. 同一聚合的消息串行发送（前一条确认后才发下一条），不同聚合并发发送，
+ *    每个聚合同时最多一条在途，在途总数由信号量限制
+ * 2. 某条消息发送失败时，同一聚合的后续消息本轮不再发送；失败消息记录失败次数并按指数退避推迟重试，
+ *    同一聚合的后续消息（包括退避期间新写入的）一起等待，顺序不会被打乱
+ * 3. 退避中的消息不出现在读取结果里，不会反复占满读取窗口饿死后面的新消息；
+ *    失败次数达到上限的"毒消息"停放（status=2）并告警，不再阻塞所在聚合
+ * 4. 单条发送有超时，超时按失败处理；一批最多等待两倍超时，未完成的消息保持待投递状态下轮继续
+ * 5. 一批消息全部结束后才标记并读取下一批，同一条消息不会在一轮内被重复发送；
+ *    读满一批时立即进入下一轮，否则等待轮询间隔
+ * 6. 投递语义为至少一次：发送成功但标记前宕机的消息会再次发送，消费方按消息ID去重
+ *
+ * 面试要点：
+ * - 事务内直接发消息的问题：Broker慢会拖慢下单事务；消息发出后事务回滚会产生"幽灵消息"
+ * - 发件箱把"写业务数据 + 发消息"变成"写两张表"的本地事务，由中继保证最终投递
+ * - 同一聚合的事件在各自的业务事务中依次写入，后一个事件提交时前一个必然已提交，按自增ID读取即为聚合内顺序
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class OutboxRelay {
+
+    /** 已投递消息的清理间隔 */
+    private static final long PURGE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(10);
+
+    /** 单次清理的最大行数 */
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final OutboxRepository outboxRepository;
+
+    private final MessagePublisher messagePublisher;
+
+    private final int batchSize;
+
+    private final int maxInFlight;
+
+    private final Semaphore inFlight;
+
+    private final long pollIntervalMs;
+
+    private final long retentionMs;
+
+    private final long sendTimeoutMs;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMs;
+
+    private final long maxRetryBackoffMs;
+
+    /** 退避中的聚合 → 重试时间，期间该聚合新写入的消息也不发送（进程重启后由表中的重试时间兜底） */
+    private final Map<String, LocalDateTime> backoffAggregates = new ConcurrentHashMap<>();
+
+    private final LongAdder publishedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder parkedCount = new LongAdder();
+
+    /** 最近一轮读取时最早一条待投递消息的等待时间 */
+    private volatile long lagMillis;
+
+    private volatile int lastBatchSize;
+
+    private volatile boolean running;
+
+    private long lastPurgeMillis;
+
+    private Thread worker;
+
+    public OutboxRelay(OutboxRepository outboxRepository, MessagePublisher messagePublisher,
+                       OutboxProperties properties) {
+        this.outboxRepository = outboxRepository;
+        this.messagePublisher = messagePublisher;
+        this.batchSize = properties.getBatchSize();
+        this.maxInFlight = properties.getMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.pollIntervalMs = properties.getPollIntervalMs();
+        this.retentionMs = TimeUnit.HOURS.toMillis(properties.getRetentionHours());
+        this.sendTimeoutMs = properties.getSendTimeoutMs();
+        this.maxAttempts = properties.getMaxAttempts();
+        this.retryBackoffMs = properties.getRetryBackoffMs();
+        this.maxRetryBackoffMs = properties.getMaxRetryBackoffMs();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        lastPurgeMillis = System.currentTimeMillis();
+        worker = new Thread(this::run, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        log.info("发件箱中继已停止，累计投递 {} 条，失败 {} 次，停放 {} 条",
+                getPublishedCount(), getFailedCount(), getParkedCount());
+    }
+
+    /**
+     * 投递一批待发送消息
+     *
+     * @return 本轮投递成功的消息数
+     */
+    public int relayOnce() throws InterruptedException {
+        List<OutboxMessage> pending = outboxRepository.findPending(batchSize);
+        lastBatchSize = pending.size();
+        if (pending.isEmpty()) {
+            lagMillis = 0;
+            return 0;
+        }
+        lagMillis = Math.max(0, Duration.between(pending.get(0).getCreateTime(), LocalDateTime.now()).toMillis());
+
+        LocalDateTime now = LocalDateTime.now();
+        backoffAggregates.values().removeIf(retryTime -> !retryTime.isAfter(now));
+        Map<String, List<OutboxMessage>> byAggregate = new LinkedHashMap<>();
+        for (OutboxMessage message : pending) {
+            String aggregate = aggregateKey(message);
+            if (!backoffAggregates.containsKey(aggregate)) {
+                byAggregate.computeIfAbsent(aggregate, key -> new ArrayList<>()).add(message);
+            }
+        }
+        Round round = new Round();
+        List<CompletableFuture<Void>> chains = new ArrayList<>(byAggregate.size());
+        for (List<OutboxMessage> messages : byAggregate.values()) {
+            // 每个聚合占用一个许可，直到该聚合的消息全部发送完或遇到失败
+            inFlight.acquire();
+            chains.add(sendInOrder(messages, 0, round).whenComplete((ignored, e) -> inFlight.release()));
+        }
+        try {
+            CompletableFuture.allOf(chains.toArray(new CompletableFuture[0]))
+                    .get(2 * sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("发件箱本批投递超时，未完成的消息下轮继续: batch={}", pending.size());
+        } catch (ExecutionException e) {
+            log.warn("发件箱本批投递异常", e.getCause());
+        }
+        // 关闭后迟到的结果不再计入本轮，对应消息保持待投递状态
+        round.closed = true;
+
+        List<Long> ids = new ArrayList<>(round.sent);
+        outboxRepository.markSent(ids);
+        for (OutboxMessage message : round.failed) {
+            recordFailure(message);
+        }
+        return ids.size();
+    }
+
+    /** 累计投递成功的消息数，其速率即投递吞吐 */
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /** 失败次数达到上限被停放的消息数 */
+    public long getParkedCount() {
+        return parkedCount.sum();
+    }
+
+    /** 投递延迟：最近一轮读取时最早一条待投递消息已等待的毫秒数 */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /** 当前在途发送数 */
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private CompletableFuture<Void> sendInOrder(List<OutboxMessage> messages, int index, Round round) {
+        if (index == messages.size() || round.closed) {
+            return CompletableFuture.completedFuture(null);
+        }
+        OutboxMessage message = messages.get(index);
+        CompletableFuture<Void> future;
+        try {
+            future = messagePublisher.publish(message).orTimeout(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.handle((ignored, e) -> {
+            if (round.closed) {
+                return false;
+            }
+            if (e != null) {
+                failedCount.increment();
+                round.failed.add(message);
+                log.warn("发件箱消息投递失败: id={}, aggregate={}:{}, attempts={}",
+                        message.getId(), message.getAggregateType(), message.getAggregateId(),
+                        attemptsOf(message) + 1, e);
+                return false;
+            }
+            round.sent.add(message.getId());
+            publishedCount.increment();
+            return true;
+        }).thenCompose(ok -> ok ? sendInOrder(messages, index + 1, round) : CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * 记录失败：未达上限时按指数退避推迟重试，达到上限时停放
+     */
+    private void recordFailure(OutboxMessage message) {
+        int attempts = attemptsOf(message) + 1;
+        if (attempts >= maxAttempts) {
+            outboxRepository.markParked(message.getId());
+            parkedCount.increment();
+            log.error("发件箱消息连续投递失败 {} 次，已停放: id={}, aggregate={}:{}, eventType={}",
+                    attempts, message.getId(), message.getAggregateType(), message.getAggregateId(),
+                    message.getEventType());
+            return;
+        }
+        long backoffMs = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 30));
+        LocalDateTime retryTime = LocalDateTime.now().plus(Duration.ofMillis(backoffMs));
+        outboxRepository.markFailed(message, retryTime);
+        backoffAggregates.put(aggregateKey(message), retryTime);
+    }
+
+    private static int attemptsOf(OutboxMessage message) {
+        return message.getAttempts() == null ? 0 : message.getAttempts();
+    }
+
+    private static String aggregateKey(OutboxMessage message) {
+        return message.getAggregateType() + ':' + message.getAggregateId();
+    }
+
+    private void run() {
+        while (running) {
+            int relayed = 0;
+            try {
+                relayed = relayOnce();
+                purgeIfDue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("发件箱中继执行失败，等待下次重试", e);
+            }
+            if (relayed < batchSize) {
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeMillis < PURGE_INTERVAL_MS) {
+            return;
+        }
+        lastPurgeMillis = now;
+        int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minus(Duration.ofMillis(retentionMs)),
+                PURGE_BATCH_SIZE);
+        if (deleted > 0) {
+            log.debug("清理已投递的发件箱消息: {} 条", deleted);
+        }
+    }
+
+    /**
+     * 一轮投递的结果；批次等待超时后关闭，迟到的结果不再计入
+     */
+    private static final class Round {
+
+        private final ConcurrentLinkedQueue<Long> sent = new ConcurrentLinkedQueue<>();
+
+        private final ConcurrentLinkedQueue<OutboxMessage> failed = new ConcurrentLinkedQueue<>();
+
+        private volatile boolean closed;
+    }
+}
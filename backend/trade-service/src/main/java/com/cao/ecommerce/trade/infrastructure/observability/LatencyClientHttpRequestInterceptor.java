@@ -0,0 +1,40 @@
+package com.cao.ecommerce.trade.infrastructure.observability;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * 服务间调用耗时记录
+ *
+ * 由装配类注册到 RestClient.Builder、RestTemplateBuilder 的所有客户端；
+ * 按请求URI的主机名（@LoadBalanced 客户端中为服务名，如 product-service）记录
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class LatencyClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String METRIC_NAME = "http.client";
+
+    private final LatencyMetrics latencyMetrics;
+
+    public LatencyClientHttpRequestInterceptor(LatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        LatencyHistogram histogram = latencyMetrics.histogram(METRIC_NAME, String.valueOf(request.getURI().getHost()));
+        long start = System.nanoTime();
+        try {
+            return execution.execute(request, body);
+        } finally {
+            histogram.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.cao.ecommerce.trade.infrastructure.observability;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟分位数端点：GET /actuator/latency、/actuator/latency/{name}
+ *
+ * 分位数和最大值单位为毫秒，统计最近一个窗口；count 为窗口内的样本数
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final LatencyMetrics latencyMetrics;
+
+    public LatencyEndpoint(LatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Map<String, Object>>> latency() {
+        Map<String, Map<String, Map<String, Object>>> result = new LinkedHashMap<>();
+        latencyMetrics.names().forEach((name, targets) -> result.put(name, describe(name, targets)));
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> latencyByName(@Selector String name) {
+        List<String> targets = latencyMetrics.names().get(name);
+        return targets == null ? Map.of() : describe(name, targets);
+    }
+
+    private Map<String, Map<String, Object>> describe(String name, List<String> targets) {
+        Map<String, Map<String, Object>> byTarget = new LinkedHashMap<>();
+        for (String target : targets) {
+            LatencySnapshot snapshot = latencyMetrics.windowSnapshot(name, target);
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("count", snapshot.getCount());
+            view.put("p50", toMillis(snapshot.valueAt(0.5)));
+            view.put("p99", toMillis(snapshot.valueAt(0.99)));
+            view.put("p999", toMillis(snapshot.valueAt(0.999)));
+            view.put("max", toMillis(snapshot.getMax()));
+            byTarget.put(target, view);
+        }
+        return byTarget;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.cao.ecommerce.trade.infrastructure.observability;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟直方图（HDR风格的对数-线性分桶）
+ *
+ * 值域按2的幂分段，每段再线性分为64个子桶，任意值的相对误差不超过 1/64（约1.6%），
+ * 覆盖 1纳秒 ~ 约137秒，超出的值记入最后一个桶
+ *
+ * 技术要点：
+ * 1. 记录不分配对象：桶下标由位运算算出（numberOfLeadingZeros），计数在预分配的 AtomicLongArray 上原子自增
+ * 2. 分段计数：按线程ID选择分段，不同线程写不同数组，没有共享热点；读取时逐段累加合并，不加锁。
+ *    不使用 ThreadLocal：虚拟线程模式下每个请求都是新线程，ThreadLocal 会为每个请求创建一份直方图
+ * 3. 每个分段末尾附带总和与最大值，和计数一起合并到 {@link LatencySnapshot}
+ *
+ * 面试要点：
+ * - 平均值掩盖长尾，p99/p999 才反映用户感受到的最慢请求；分位数不能由多个实例的分位数求平均得到，
+ *   直方图可以合并，因此记录直方图而不是分位数
+ * - 固定桶数（2048个）与样本数无关，内存和合并开销可控
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class LatencyHistogram {
+
+    /** 子桶位数：每段 2^SUB_BUCKET_BITS 个可区分的值 */
+    static final int SUB_BUCKET_BITS = 7;
+
+    static final int SUB_BUCKET_HALF = 1 << (SUB_BUCKET_BITS - 1);
+
+    /** 最大可记录值的位数（2^37纳秒约137秒） */
+    static final int MAX_VALUE_BITS = 37;
+
+    static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private static final int SUM_SLOT = BUCKET_COUNT;
+
+    private static final int MAX_SLOT = BUCKET_COUNT + 1;
+
+    private final AtomicLongArray[] stripes;
+
+    private final int stripeMask;
+
+    /**
+     * @param stripes 分段数，向上取整为2的幂
+     */
+    public LatencyHistogram(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new AtomicLongArray(BUCKET_COUNT + 2);
+        }
+        this.stripeMask = size - 1;
+    }
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒），负值按0记录
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().threadId() & stripeMask];
+        stripe.getAndIncrement(indexOf(value));
+        stripe.getAndAdd(SUM_SLOT, value);
+        long max = stripe.get(MAX_SLOT);
+        while (value > max && !stripe.weakCompareAndSetVolatile(MAX_SLOT, max, value)) {
+            max = stripe.get(MAX_SLOT);
+        }
+    }
+
+    /**
+     * 记录从 startNanos（{@link System#nanoTime()}）到现在的耗时
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 合并所有分段，得到从创建起的累计快照
+     */
+    public LatencySnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+            sum += stripe.get(SUM_SLOT);
+            max = Math.max(max, stripe.get(MAX_SLOT));
+        }
+        return new LatencySnapshot(counts, sum, max);
+    }
+
+    /**
+     * 值所在的桶：小于 2^SUB_BUCKET_BITS 的值一一对应，更大的值右移到最高 SUB_BUCKET_BITS 位后按段偏移
+     */
+    static int indexOf(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    /**
+     * 桶内的最大值，分位数按该值报告（不会低估延迟）
+     */
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKET_HALF) {
+            return index;
+        }
+        int shift = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        long subBucket = index - ((long) shift << (SUB_BUCKET_BITS - 1));
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
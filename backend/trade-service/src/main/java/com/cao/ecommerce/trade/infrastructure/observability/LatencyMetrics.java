@@ -0,0 +1,167 @@
+package com.cao.ecommerce.trade.infrastructure.observability;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * 延迟直方图注册表
+ *
+ * 直方图按 名称（http.server、repository、client、mq）+ 目标（路由、方法、服务）两级索引，
+ * 首次使用时创建，之后查找只有两次 ConcurrentHashMap.get，不拼接字符串
+ *
+ * 技术要点：
+ * 1. 区间统计：后台线程按固定窗口对累计快照做差，分位数反映最近一个窗口，而不是进程启动以来的全部请求；
+ *    样本数和总和保持累计，符合Prometheus计数器语义
+ * 2. 创建直方图时回调监听器，由装配类注册到 MeterRegistry
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class LatencyMetrics {
+
+    private final int stripes;
+
+    private final long windowMillis;
+
+    private final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+
+    private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param stripes      每个直方图的分段数
+     * @param windowMillis 分位数统计窗口（毫秒）
+     */
+    public LatencyMetrics(int stripes, long windowMillis) {
+        this.stripes = stripes;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * 获取或创建直方图
+     *
+     * @param name   指标名
+     * @param target 目标（路由、方法、下游服务）
+     */
+    public LatencyHistogram histogram(String name, String target) {
+        Map<String, Entry> byTarget = entries.get(name);
+        if (byTarget == null) {
+            byTarget = entries.computeIfAbsent(name, key -> new ConcurrentHashMap<>());
+        }
+        Entry entry = byTarget.get(target);
+        if (entry == null) {
+            boolean[] created = {false};
+            entry = byTarget.computeIfAbsent(target, key -> {
+                created[0] = true;
+                return new Entry(new LatencyHistogram(stripes));
+            });
+            if (created[0]) {
+                listeners.forEach(listener -> listener.accept(name, target));
+            }
+        }
+        return entry.histogram;
+    }
+
+    /**
+     * 注册直方图创建监听器，对已存在的直方图立即回调
+     */
+    public synchronized void addListener(BiConsumer<String, String> listener) {
+        listeners.add(listener);
+        entries.forEach((name, byTarget) -> byTarget.keySet().forEach(target -> listener.accept(name, target)));
+    }
+
+    /**
+     * 最近一个窗口的区间快照
+     */
+    public LatencySnapshot windowSnapshot(String name, String target) {
+        Entry entry = find(name, target);
+        return entry == null ? LatencySnapshot.EMPTY : entry.window;
+    }
+
+    /**
+     * 从启动起的累计快照
+     */
+    public LatencySnapshot cumulativeSnapshot(String name, String target) {
+        Entry entry = find(name, target);
+        return entry == null ? LatencySnapshot.EMPTY : entry.histogram.snapshot();
+    }
+
+    /**
+     * 所有直方图的名称和目标
+     */
+    public Map<String, List<String>> names() {
+        Map<String, List<String>> names = new TreeMap<>();
+        entries.forEach((name, byTarget) -> names.put(name, byTarget.keySet().stream().sorted().toList()));
+        return names;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "latency-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rotateQuietly, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * 结束当前窗口：对每个直方图取累计快照，与上一窗口末的快照相减
+     */
+    public void rotate() {
+        for (Map<String, Entry> byTarget : entries.values()) {
+            for (Entry entry : byTarget.values()) {
+                LatencySnapshot current = entry.histogram.snapshot();
+                entry.window = current.minus(entry.windowStart);
+                entry.windowStart = current;
+            }
+        }
+    }
+
+    private void rotateQuietly() {
+        try {
+            rotate();
+        } catch (RuntimeException e) {
+            log.warn("延迟直方图窗口切换失败", e);
+        }
+    }
+
+    private Entry find(String name, String target) {
+        Map<String, Entry> byTarget = entries.get(name);
+        return byTarget == null ? null : byTarget.get(target);
+    }
+
+    private static final class Entry {
+
+        private final LatencyHistogram histogram;
+
+        private LatencySnapshot windowStart = LatencySnapshot.EMPTY;
+
+        private volatile LatencySnapshot window = LatencySnapshot.EMPTY;
+
+        private Entry(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+    }
+}
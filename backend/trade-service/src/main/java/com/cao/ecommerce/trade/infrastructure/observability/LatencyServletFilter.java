@@ -0,0 +1,45 @@
+package com.cao.ecommerce.trade.infrastructure.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 控制器耗时记录
+ *
+ * 按路由模板（如 /orders/{id}）而不是原始路径记录，避免路径参数导致直方图数量无限增长；
+ * 没有匹配到控制器的请求（404、静态资源）统一记为 UNMATCHED
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class LatencyServletFilter extends OncePerRequestFilter {
+
+    public static final String METRIC_NAME = "http.server";
+
+    private static final String UNMATCHED = "UNMATCHED";
+
+    private final LatencyMetrics latencyMetrics;
+
+    public LatencyServletFilter(LatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            latencyMetrics.histogram(METRIC_NAME, pattern == null ? UNMATCHED : pattern.toString())
+                    .recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.cao.ecommerce.trade.infrastructure.observability;
+
+/**
+ * 延迟直方图快照（不可变）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class LatencySnapshot {
+
+    static final LatencySnapshot EMPTY = new LatencySnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0, 0);
+
+    private final long[] counts;
+
+    private final long count;
+
+    private final long sum;
+
+    private final long max;
+
+    LatencySnapshot(long[] counts, long sum, long max) {
+        this.counts = counts;
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        this.count = total;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /** 样本数 */
+    public long getCount() {
+        return count;
+    }
+
+    /** 耗时总和（纳秒） */
+    public long getSum() {
+        return sum;
+    }
+
+    /** 最大耗时（纳秒），区间快照中为累计最大值 */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * 分位数
+     *
+     * @param quantile 0~1，如 0.99
+     * @return 耗时（纳秒），没有样本时为0
+     */
+    public long valueAt(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 与更早的累计快照相减，得到两次快照之间的区间快照
+     */
+    public LatencySnapshot minus(LatencySnapshot earlier) {
+        long[] delta = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            delta[i] = counts[i] - earlier.counts[i];
+        }
+        return new LatencySnapshot(delta, sum - earlier.sum, max);
+    }
+}
@@ -0,0 +1,73 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.trade.domain.model.CartItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 购物车Hash字段编码
+ *
+ * 每个商品占两个字段："q:商品ID" 为数量（可直接 HINCRBY），"s:商品ID" 为勾选状态（1/0）；
+ * 固定字段 "v" 表示购物车已初始化，空购物车也能与"不存在"区分开
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+final class CartHashCodec {
+
+    static final String INIT_FIELD = "v";
+
+    static final String QUANTITY_PREFIX = "q:";
+
+    static final String SELECTED_PREFIX = "s:";
+
+    private CartHashCodec() {
+    }
+
+    static String quantityField(long productId) {
+        return QUANTITY_PREFIX + productId;
+    }
+
+    static String selectedField(long productId) {
+        return SELECTED_PREFIX + productId;
+    }
+
+    /**
+     * 解析Hash全部字段；只有勾选状态没有数量的字段（商品已移除）被忽略
+     */
+    static List<CartItem> decode(Map<?, ?> entries) {
+        Map<Long, CartItem> items = new HashMap<>();
+        Map<Long, Boolean> selected = new HashMap<>();
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            String field = entry.getKey().toString();
+            String value = entry.getValue().toString();
+            if (field.startsWith(QUANTITY_PREFIX)) {
+                long productId = Long.parseLong(field.substring(QUANTITY_PREFIX.length()));
+                items.put(productId, new CartItem(productId, Integer.parseInt(value), Boolean.TRUE));
+            } else if (field.startsWith(SELECTED_PREFIX)) {
+                selected.put(Long.parseLong(field.substring(SELECTED_PREFIX.length())), "1".equals(value));
+            }
+        }
+        List<CartItem> result = new ArrayList<>(items.size());
+        for (CartItem item : items.values()) {
+            Boolean flag = selected.get(item.getProductId());
+            if (flag != null) {
+                item.setSelected(flag);
+            }
+            if (item.getQuantity() > 0) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 购物车ID对应的用户ID，游客购物车返回null
+     */
+    static Long userIdOf(String cartId) {
+        return cartId.startsWith("u:") ? Long.valueOf(cartId.substring(2)) : null;
+    }
+}
@@ -0,0 +1,163 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.trade.domain.model.CartItem;
+import com.cao.ecommerce.trade.domain.repository.CartRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 进程内购物车仓储（Redis的本地替身）
+ *
+ * 未启用Redis（单节点开发、本地调试、基准测试）时使用，数据布局和语义与 {@link RedisCartRepository} 一致，
+ * 不实现过期；每个购物车的修改在该购物车的锁内完成，合并时按购物车ID顺序加锁避免死锁
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class InMemoryCartRepository implements CartRepository {
+
+    private final ConcurrentHashMap<String, Map<String, String>> carts = new ConcurrentHashMap<>();
+
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean exists(String cartId) {
+        return carts.containsKey(cartId);
+    }
+
+    @Override
+    public List<CartItem> findAll(String cartId) {
+        Map<String, String> hash = carts.get(cartId);
+        if (hash == null) {
+            return null;
+        }
+        synchronized (hash) {
+            return CartHashCodec.decode(hash);
+        }
+    }
+
+    @Override
+    public void addItems(String cartId, Map<Long, Integer> quantities) {
+        write(cartId, hash -> {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                hash.merge(CartHashCodec.quantityField(entry.getKey()), entry.getValue().toString(),
+                        (current, delta) -> Integer.toString(Integer.parseInt(current) + Integer.parseInt(delta)));
+                hash.put(CartHashCodec.selectedField(entry.getKey()), "1");
+            }
+        });
+    }
+
+    @Override
+    public void updateQuantities(String cartId, Map<Long, Integer> quantities) {
+        write(cartId, hash -> {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                if (entry.getValue() <= 0) {
+                    hash.remove(CartHashCodec.quantityField(entry.getKey()));
+                    hash.remove(CartHashCodec.selectedField(entry.getKey()));
+                } else {
+                    hash.put(CartHashCodec.quantityField(entry.getKey()), entry.getValue().toString());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void updateSelected(String cartId, Collection<Long> productIds, boolean selected) {
+        write(cartId, hash -> {
+            for (Long productId : productIds) {
+                hash.put(CartHashCodec.selectedField(productId), selected ? "1" : "0");
+            }
+        });
+    }
+
+    @Override
+    public void removeItems(String cartId, Collection<Long> productIds) {
+        write(cartId, hash -> {
+            for (Long productId : productIds) {
+                hash.remove(CartHashCodec.quantityField(productId));
+                hash.remove(CartHashCodec.selectedField(productId));
+            }
+        });
+    }
+
+    @Override
+    public void initialize(String cartId, List<CartItem> items) {
+        Map<String, String> hash = carts.computeIfAbsent(cartId, key -> new HashMap<>());
+        synchronized (hash) {
+            for (CartItem item : items) {
+                hash.putIfAbsent(CartHashCodec.quantityField(item.getProductId()), item.getQuantity().toString());
+                hash.putIfAbsent(CartHashCodec.selectedField(item.getProductId()),
+                        Boolean.FALSE.equals(item.getSelected()) ? "0" : "1");
+            }
+            hash.put(CartHashCodec.INIT_FIELD, "1");
+        }
+    }
+
+    @Override
+    public int merge(String guestCartId, String userCartId) {
+        Map<String, String> guest = carts.computeIfAbsent(guestCartId, key -> new HashMap<>());
+        Map<String, String> user = carts.computeIfAbsent(userCartId, key -> new HashMap<>());
+        boolean guestFirst = guestCartId.compareTo(userCartId) < 0;
+        synchronized (guestFirst ? guest : user) {
+            synchronized (guestFirst ? user : guest) {
+                int merged = 0;
+                for (Iterator<Map.Entry<String, String>> it = guest.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, String> entry = it.next();
+                    String field = entry.getKey();
+                    if (field.startsWith(CartHashCodec.QUANTITY_PREFIX)) {
+                        user.merge(field, entry.getValue(),
+                                (current, delta) -> Integer.toString(Integer.parseInt(current) + Integer.parseInt(delta)));
+                        merged++;
+                    } else if (field.startsWith(CartHashCodec.SELECTED_PREFIX)) {
+                        user.put(field, entry.getValue());
+                    }
+                    it.remove();
+                }
+                user.put(CartHashCodec.INIT_FIELD, "1");
+                carts.remove(guestCartId, guest);
+                Long userId = CartHashCodec.userIdOf(userCartId);
+                if (merged > 0 && userId != null) {
+                    dirtyUsers.add(userId);
+                }
+                return merged;
+            }
+        }
+    }
+
+    @Override
+    public List<Long> pollDirtyUsers(int max) {
+        List<Long> result = new ArrayList<>(Math.min(max, 64));
+        for (Iterator<Long> it = dirtyUsers.iterator(); it.hasNext() && result.size() < max; ) {
+            Long userId = it.next();
+            if (dirtyUsers.remove(userId)) {
+                result.add(userId);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void markDirty(Collection<Long> userIds) {
+        dirtyUsers.addAll(userIds);
+    }
+
+    private void write(String cartId, Consumer<Map<String, String>> writes) {
+        Map<String, String> hash = carts.computeIfAbsent(cartId, key -> new HashMap<>());
+        synchronized (hash) {
+            writes.accept(hash);
+            hash.put(CartHashCodec.INIT_FIELD, "1");
+        }
+        Long userId = CartHashCodec.userIdOf(cartId);
+        if (userId != null) {
+            dirtyUsers.add(userId);
+        }
+    }
+}
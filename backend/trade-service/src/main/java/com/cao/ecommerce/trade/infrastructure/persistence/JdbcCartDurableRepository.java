@@ -0,0 +1,69 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.trade.domain.model.CartItem;
+import com.cao.ecommerce.trade.domain.repository.CartDurableRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于JDBC的购物车持久化仓储
+ *
+ * 写回时按用户快照整体替换：一个事务内先按用户ID批量删除，再批量插入快照中的条目，
+ * 一批用户只需一条DELETE和一次JDBC批处理（配合 rewriteBatchedStatements=true 合并为单次网络往返）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class JdbcCartDurableRepository implements CartDurableRepository {
+
+    private static final String SELECT_BY_USER =
+            "SELECT product_id, quantity, selected FROM cart WHERE user_id = ?";
+
+    private static final String DELETE_BY_USERS =
+            "DELETE FROM cart WHERE user_id IN (%s)";
+
+    private static final String INSERT =
+            "INSERT INTO cart (user_id, product_id, quantity, selected) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcCartDurableRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public List<CartItem> load(long userId) {
+        return jdbcTemplate.query(SELECT_BY_USER, (rs, rowNum) ->
+                new CartItem(rs.getLong("product_id"), rs.getInt("quantity"), rs.getInt("selected") == 1), userId);
+    }
+
+    @Override
+    public void replaceAll(Map<Long, List<CartItem>> carts) {
+        if (carts.isEmpty()) {
+            return;
+        }
+        Object[] userIds = carts.keySet().toArray();
+        String deleteSql = String.format(DELETE_BY_USERS, String.join(", ", Collections.nCopies(userIds.length, "?")));
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, List<CartItem>> cart : carts.entrySet()) {
+            for (CartItem item : cart.getValue()) {
+                rows.add(new Object[]{cart.getKey(), item.getProductId(), item.getQuantity(),
+                        Boolean.FALSE.equals(item.getSelected()) ? 0 : 1});
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(deleteSql, userIds);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT, rows);
+            }
+        });
+    }
+}
@@ -0,0 +1,435 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.domain.event.DomainEvent;
+import com.cao.ecommerce.trade.domain.event.OrderCancelledEvent;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderCursor;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.domain.model.OrderSummary;
+import com.cao.ecommerce.trade.domain.repository.OrderRepository;
+import com.cao.ecommerce.trade.domain.repository.OutboxRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * 基于JDBC的订单仓储
+ *
+ * 技术要点：
+ * 1. 订单ID由雪花算法预先分配，明细直接引用订单ID，不需要回读自增主键，
+ *    订单和明细各用一次JDBC批处理写入
+ * 2. 数据源URL开启 rewriteBatchedStatements=true 后，MySQL驱动把批处理改写为多行INSERT，
+ *    一批订单只需两次网络往返和一次事务提交（一次redo log刷盘）
+ * 3. 订单上登记的领域事件在同一事务内写入发件箱，不在事务内直接发送消息，
+ *    消息队列的延迟和故障不会影响下单
+ * 4. 超时取消按批执行：一次 SELECT ... FOR UPDATE 锁定仍待支付的订单，一次UPDATE批量取消
+ * 5. 订单列表使用游标分页：索引 (user_id, deleted, create_time, id) 上从游标位置开始倒序扫描 limit 行，
+ *    与页码无关；OFFSET 分页需要先扫描并丢弃前面所有行（每行还要回表），越往后越慢。
+ *    一页的明细用一次 IN 查询取回，不按订单逐个查询（N+1）
+ * 6. 分表时表名追加后缀（order_0、order_item_0），一个实例对应一个物理分片，
+ *    路由和跨分片查询见 {@link ShardedOrderRepository}；copyMissing、advanceStatus 供扩容迁移使用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class JdbcOrderRepository implements OrderRepository {
+
+    private static final String INSERT_ORDER = "INSERT INTO `order` (id, order_no, user_id, total_amount, "
+            + "pay_amount, status, receiver_name, receiver_phone, receiver_address, remark, create_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ITEM = "INSERT INTO order_item (order_id, product_id, product_name, "
+            + "product_image, price, quantity, total_price, create_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** 订单ID的第 SEQUENCE_BITS 位起为工作节点ID，只扫描待支付订单（idx_status） */
+    private static final String SELECT_PENDING_BY_WORKER = "SELECT id FROM `order` WHERE status = "
+            + Order.STATUS_PENDING_PAYMENT + " AND ((id >> " + SnowflakeIdGenerator.SEQUENCE_BITS + ") & "
+            + SnowflakeIdGenerator.MAX_WORKER_ID + ") = ?";
+
+    private static final String LOCK_PENDING = "SELECT id, order_no, user_id FROM `order` WHERE id IN (%s) "
+            + "AND status = " + Order.STATUS_PENDING_PAYMENT + " FOR UPDATE";
+
+    private static final String CANCEL = "UPDATE `order` SET status = " + Order.STATUS_CANCELLED
+            + ", cancel_time = ? WHERE id IN (%s)";
+
+    private static final String SELECT_PAGE_COLUMNS =
+            "SELECT id, order_no, status, pay_amount, create_time FROM `order` WHERE user_id = ? AND deleted = 0 ";
+
+    private static final String SELECT_FIRST_PAGE = SELECT_PAGE_COLUMNS
+            + "ORDER BY create_time DESC, id DESC LIMIT ?";
+
+    /** 展开写法，不用行构造器 (create_time, id) < (?, ?)，两种写法在各版本MySQL上都能走索引范围扫描 */
+    private static final String SELECT_PAGE_AFTER = SELECT_PAGE_COLUMNS
+            + "AND (create_time < ? OR (create_time = ? AND id < ?)) ORDER BY create_time DESC, id DESC LIMIT ?";
+
+    private static final String SELECT_ALL_PAGE_COLUMNS =
+            "SELECT id, order_no, status, pay_amount, create_time FROM `order` WHERE deleted = 0 ";
+
+    private static final String ORDER_BY_CREATE_TIME = "ORDER BY create_time DESC, id DESC LIMIT ?";
+
+    private static final String SELECT_BY_ORDER_NO =
+            "SELECT id, order_no, status, pay_amount, create_time FROM `order` WHERE order_no = ? AND deleted = 0";
+
+    private static final String SELECT_BATCH_AFTER_ID = "SELECT id, order_no, user_id, total_amount, pay_amount, "
+            + "status, pay_type, pay_time, delivery_time, finish_time, cancel_time, receiver_name, receiver_phone, "
+            + "receiver_address, remark, create_time FROM `order` WHERE id > ? AND deleted = 0 ORDER BY id LIMIT ?";
+
+    private static final String SELECT_STATUSES = "SELECT id, status FROM `order` WHERE id IN (%s)";
+
+    private static final String COPY_ORDER = "INSERT INTO `order` (id, order_no, user_id, total_amount, "
+            + "pay_amount, status, pay_type, pay_time, delivery_time, finish_time, cancel_time, receiver_name, "
+            + "receiver_phone, receiver_address, remark, create_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** 订单状态只会前进（待支付 → 已支付 → 已发货 → 已完成，待支付 → 已取消），只在目标状态更靠后时更新 */
+    private static final String ADVANCE_STATUS = "UPDATE `order` SET status = ?, pay_time = COALESCE(?, pay_time), "
+            + "delivery_time = COALESCE(?, delivery_time), finish_time = COALESCE(?, finish_time), "
+            + "cancel_time = COALESCE(?, cancel_time) WHERE id = ? AND status < ?";
+
+    private static final String SELECT_ITEMS_BY_ORDER_IDS = "SELECT id, order_id, product_id, product_name, "
+            + "product_image, price, quantity, total_price FROM order_item WHERE order_id IN (%s) ORDER BY order_id, id";
+
+    private static final RowMapper<OrderSummary> SUMMARY_ROW_MAPPER = (rs, rowNum) -> {
+        OrderSummary summary = new OrderSummary();
+        summary.setId(rs.getLong("id"));
+        summary.setOrderNo(rs.getString("order_no"));
+        summary.setStatus(rs.getInt("status"));
+        summary.setPayAmount(rs.getBigDecimal("pay_amount"));
+        summary.setCreateTime(rs.getTimestamp("create_time").toLocalDateTime());
+        return summary;
+    };
+
+    private static final RowMapper<Order> ORDER_ROW_MAPPER = (rs, rowNum) -> {
+        Order order = new Order();
+        order.setId(rs.getLong("id"));
+        order.setOrderNo(rs.getString("order_no"));
+        order.setUserId(rs.getLong("user_id"));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        order.setPayAmount(rs.getBigDecimal("pay_amount"));
+        order.setStatus(rs.getInt("status"));
+        order.setPayType(rs.getObject("pay_type", Integer.class));
+        order.setPayTime(toLocalDateTime(rs.getTimestamp("pay_time")));
+        order.setDeliveryTime(toLocalDateTime(rs.getTimestamp("delivery_time")));
+        order.setFinishTime(toLocalDateTime(rs.getTimestamp("finish_time")));
+        order.setCancelTime(toLocalDateTime(rs.getTimestamp("cancel_time")));
+        order.setReceiverName(rs.getString("receiver_name"));
+        order.setReceiverPhone(rs.getString("receiver_phone"));
+        order.setReceiverAddress(rs.getString("receiver_address"));
+        order.setRemark(rs.getString("remark"));
+        order.setCreateTime(toLocalDateTime(rs.getTimestamp("create_time")));
+        return order;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /** 为null时不写发件箱（未启用事件投递） */
+    private final OutboxRepository outboxRepository;
+
+    private final String insertOrder;
+
+    private final String insertItem;
+
+    private final String selectPendingByWorker;
+
+    private final String lockPending;
+
+    private final String cancel;
+
+    private final String selectFirstPage;
+
+    private final String selectPageAfter;
+
+    private final String selectAllPageColumns;
+
+    private final String selectByOrderNo;
+
+    private final String selectBatchAfterId;
+
+    private final String selectStatuses;
+
+    private final String copyOrder;
+
+    private final String advanceStatus;
+
+    private final String selectItemsByOrderIds;
+
+    public JdbcOrderRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               OutboxRepository outboxRepository) {
+        this(jdbcTemplate, transactionTemplate, outboxRepository, "");
+    }
+
+    /**
+     * @param tableSuffix 表名后缀，如 "_0" 对应 order_0 和 order_item_0；不分表时为空串
+     */
+    public JdbcOrderRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               OutboxRepository outboxRepository, String tableSuffix) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxRepository = outboxRepository;
+        this.insertOrder = withSuffix(INSERT_ORDER, tableSuffix);
+        this.insertItem = withSuffix(INSERT_ITEM, tableSuffix);
+        this.selectPendingByWorker = withSuffix(SELECT_PENDING_BY_WORKER, tableSuffix);
+        this.lockPending = withSuffix(LOCK_PENDING, tableSuffix);
+        this.cancel = withSuffix(CANCEL, tableSuffix);
+        this.selectFirstPage = withSuffix(SELECT_FIRST_PAGE, tableSuffix);
+        this.selectPageAfter = withSuffix(SELECT_PAGE_AFTER, tableSuffix);
+        this.selectAllPageColumns = withSuffix(SELECT_ALL_PAGE_COLUMNS, tableSuffix);
+        this.selectByOrderNo = withSuffix(SELECT_BY_ORDER_NO, tableSuffix);
+        this.selectBatchAfterId = withSuffix(SELECT_BATCH_AFTER_ID, tableSuffix);
+        this.selectStatuses = withSuffix(SELECT_STATUSES, tableSuffix);
+        this.copyOrder = withSuffix(COPY_ORDER, tableSuffix);
+        this.advanceStatus = withSuffix(ADVANCE_STATUS, tableSuffix);
+        this.selectItemsByOrderIds = withSuffix(SELECT_ITEMS_BY_ORDER_IDS, tableSuffix);
+    }
+
+    @Override
+    public void insertBatch(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Object[]> orderRows = new ArrayList<>(orders.size());
+        List<Object[]> itemRows = new ArrayList<>(orders.size() * 4);
+        List<DomainEvent> events = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderRows.add(new Object[]{order.getId(), order.getOrderNo(), order.getUserId(), order.getTotalAmount(),
+                    order.getPayAmount(), order.getStatus(), order.getReceiverName(), order.getReceiverPhone(),
+                    order.getReceiverAddress(), order.getRemark(), order.getCreateTime()});
+            for (OrderItem item : order.getItems()) {
+                itemRows.add(new Object[]{order.getId(), item.getProductId(), item.getProductName(),
+                        item.getProductImage(), item.getPrice(), item.getQuantity(), item.getTotalPrice(),
+                        order.getCreateTime()});
+            }
+            if (order.getEvents() != null) {
+                events.addAll(order.getEvents());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(insertOrder, orderRows);
+            if (!itemRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(insertItem, itemRows);
+            }
+            if (outboxRepository != null && !events.isEmpty()) {
+                outboxRepository.append(events);
+            }
+        });
+    }
+
+    @Override
+    public void forEachPendingPaymentId(long workerId, LongConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(selectPendingByWorker,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL驱动只有fetchSize为Integer.MIN_VALUE时才逐行流式读取，否则一次性缓冲整个结果集
+            statement.setFetchSize(Integer.MIN_VALUE);
+            statement.setLong(1, workerId);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getLong("id")));
+    }
+
+    @Override
+    public List<Order> cancelPendingPayment(List<Long> orderIds, LocalDateTime cancelTime) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            // 先锁定仍待支付的订单，与支付回调的状态更新互斥，再只取消锁定到的订单
+            List<Order> pending = jdbcTemplate.query(String.format(lockPending, placeholders(orderIds.size())),
+                    (rs, rowNum) -> {
+                        Order order = new Order();
+                        order.setId(rs.getLong("id"));
+                        order.setOrderNo(rs.getString("order_no"));
+                        order.setUserId(rs.getLong("user_id"));
+                        order.setStatus(Order.STATUS_CANCELLED);
+                        order.setCancelTime(cancelTime);
+                        return order;
+                    }, orderIds.toArray());
+            if (pending.isEmpty()) {
+                return pending;
+            }
+            Object[] args = new Object[pending.size() + 1];
+            args[0] = Timestamp.valueOf(cancelTime);
+            List<DomainEvent> events = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                Order order = pending.get(i);
+                args[i + 1] = order.getId();
+                events.add(new OrderCancelledEvent(order.getId(), order.getOrderNo(), order.getUserId(), cancelTime));
+            }
+            jdbcTemplate.update(String.format(cancel, placeholders(pending.size())), args);
+            if (outboxRepository != null) {
+                outboxRepository.append(events);
+            }
+            return pending;
+        });
+    }
+
+    @Override
+    public List<OrderSummary> findPageByUserId(long userId, OrderCursor after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query(selectFirstPage, SUMMARY_ROW_MAPPER, userId, limit);
+        }
+        Timestamp createTime = Timestamp.valueOf(after.getCreateTime());
+        return jdbcTemplate.query(selectPageAfter, SUMMARY_ROW_MAPPER, userId, createTime, createTime,
+                after.getId(), limit);
+    }
+
+    @Override
+    public List<OrderSummary> findPage(Integer status, OrderCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(selectAllPageColumns);
+        List<Object> args = new ArrayList<>(5);
+        if (status != null) {
+            sql.append("AND status = ? ");
+            args.add(status);
+        }
+        if (after != null) {
+            Timestamp createTime = Timestamp.valueOf(after.getCreateTime());
+            sql.append("AND (create_time < ? OR (create_time = ? AND id < ?)) ");
+            args.add(createTime);
+            args.add(createTime);
+            args.add(after.getId());
+        }
+        args.add(limit);
+        return jdbcTemplate.query(sql.append(ORDER_BY_CREATE_TIME).toString(), SUMMARY_ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public OrderSummary findByOrderNo(String orderNo) {
+        List<OrderSummary> orders = jdbcTemplate.query(selectByOrderNo, SUMMARY_ROW_MAPPER, orderNo);
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
+    @Override
+    public Map<Long, List<OrderItem>> findItemsByOrderIds(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<OrderItem>> items = new HashMap<>();
+        jdbcTemplate.query(String.format(selectItemsByOrderIds, placeholders(orderIds.size())),
+                (RowCallbackHandler) rs -> {
+                    OrderItem item = new OrderItem();
+                    item.setId(rs.getLong("id"));
+                    item.setOrderId(rs.getLong("order_id"));
+                    item.setProductId(rs.getLong("product_id"));
+                    item.setProductName(rs.getString("product_name"));
+                    item.setProductImage(rs.getString("product_image"));
+                    item.setPrice(rs.getBigDecimal("price"));
+                    item.setQuantity(rs.getInt("quantity"));
+                    item.setTotalPrice(rs.getBigDecimal("total_price"));
+                    items.computeIfAbsent(item.getOrderId(), key -> new ArrayList<>()).add(item);
+                }, orderIds.toArray());
+        return items;
+    }
+
+    /**
+     * 按主键顺序读取一批订单（不含明细），供迁移时遍历整个分片
+     */
+    public List<Order> findBatchAfterId(long afterId, int limit) {
+        return jdbcTemplate.query(selectBatchAfterId, ORDER_ROW_MAPPER, afterId, limit);
+    }
+
+    /**
+     * 查询订单的当前状态
+     *
+     * @return 订单ID → 状态，不存在的订单不在结果中
+     */
+    public Map<Long, Integer> findStatuses(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Integer> statuses = new HashMap<>();
+        jdbcTemplate.query(String.format(selectStatuses, placeholders(orderIds.size())),
+                (RowCallbackHandler) rs -> statuses.put(rs.getLong("id"), rs.getInt("status")), orderIds.toArray());
+        return statuses;
+    }
+
+    /**
+     * 写入本分片还没有的订单及其明细（迁移的复制和双写），不写发件箱
+     *
+     * 已存在的订单跳过；并发写入同一订单导致主键冲突时整批回滚，由调用方重试
+     *
+     * @param orders 包含明细的完整订单
+     * @return 实际写入的订单数
+     */
+    public int copyMissing(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+        }
+        return transactionTemplate.execute(status -> {
+            Map<Long, Integer> existing = findStatuses(orderIds);
+            List<Object[]> orderRows = new ArrayList<>(orders.size());
+            List<Object[]> itemRows = new ArrayList<>(orders.size() * 4);
+            for (Order order : orders) {
+                if (existing.containsKey(order.getId())) {
+                    continue;
+                }
+                orderRows.add(new Object[]{order.getId(), order.getOrderNo(), order.getUserId(),
+                        order.getTotalAmount(), order.getPayAmount(), order.getStatus(), order.getPayType(),
+                        order.getPayTime(), order.getDeliveryTime(), order.getFinishTime(), order.getCancelTime(),
+                        order.getReceiverName(), order.getReceiverPhone(), order.getReceiverAddress(),
+                        order.getRemark(), order.getCreateTime()});
+                for (OrderItem item : order.getItems()) {
+                    itemRows.add(new Object[]{order.getId(), item.getProductId(), item.getProductName(),
+                            item.getProductImage(), item.getPrice(), item.getQuantity(), item.getTotalPrice(),
+                            order.getCreateTime()});
+                }
+            }
+            if (!orderRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(copyOrder, orderRows);
+            }
+            if (!itemRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(insertItem, itemRows);
+            }
+            return orderRows.size();
+        });
+    }
+
+    /**
+     * 把订单状态推进到给定订单的状态，本分片的状态已经相同或更靠后时不变（迁移的双写和校验），
+     * 因此用旧数据重放也不会让状态倒退
+     */
+    public void advanceStatus(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            rows.add(new Object[]{order.getStatus(), order.getPayTime(), order.getDeliveryTime(),
+                    order.getFinishTime(), order.getCancelTime(), order.getId(), order.getStatus()});
+        }
+        jdbcTemplate.batchUpdate(advanceStatus, rows);
+    }
+
+    private static String withSuffix(String sql, String tableSuffix) {
+        if (tableSuffix == null || tableSuffix.isEmpty()) {
+            return sql;
+        }
+        return sql.replace("`order`", "`order" + tableSuffix + "`")
+                .replace("order_item ", "order_item" + tableSuffix + " ");
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
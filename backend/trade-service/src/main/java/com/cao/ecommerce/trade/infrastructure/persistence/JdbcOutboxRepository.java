@@ -0,0 +1,111 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.alibaba.fastjson2.JSON;
+import com.cao.ecommerce.trade.domain.event.DomainEvent;
+import com.cao.ecommerce.trade.domain.model.OutboxMessage;
+import com.cao.ecommerce.trade.domain.repository.OutboxRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于JDBC的事务发件箱仓储
+ *
+ * 与订单仓储共用同一个数据源，写入时加入调用方已开启的事务（DataSourceTransactionManager
+ * 把连接绑定在当前线程上，JdbcTemplate取到的是同一个连接），事件和订单要么都提交、要么都回滚
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class JdbcOutboxRepository implements OutboxRepository {
+
+    private static final String INSERT = "INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, "
+            + "payload, create_time, next_retry_time) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_PENDING = "SELECT id, aggregate_type, aggregate_id, event_type, payload, "
+            + "attempts, create_time FROM outbox_event WHERE status = 0 AND next_retry_time <= ? ORDER BY id LIMIT ?";
+
+    private static final String DELAY_FOLLOWERS = "UPDATE outbox_event SET next_retry_time = ? WHERE status = 0 "
+            + "AND aggregate_type = ? AND aggregate_id = ? AND id > ? AND next_retry_time < ?";
+
+    private static final String MARK_FAILED =
+            "UPDATE outbox_event SET attempts = attempts + 1, next_retry_time = ? WHERE id = ? AND status = 0";
+
+    private static final String MARK_PARKED =
+            "UPDATE outbox_event SET attempts = attempts + 1, status = 2 WHERE id = ? AND status = 0";
+
+    private static final String MARK_SENT = "UPDATE outbox_event SET status = 1, sent_time = ? WHERE id IN (%s)";
+
+    private static final String DELETE_SENT = "DELETE FROM outbox_event WHERE status = 1 AND sent_time < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void append(List<DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            rows.add(new Object[]{event.getAggregateType(), event.getAggregateId(), event.getEventType(),
+                    JSON.toJSONString(event), now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    @Override
+    public List<OutboxMessage> findPending(int limit) {
+        return jdbcTemplate.query(SELECT_PENDING, (rs, rowNum) -> {
+            OutboxMessage message = new OutboxMessage();
+            message.setId(rs.getLong("id"));
+            message.setAggregateType(rs.getString("aggregate_type"));
+            message.setAggregateId(rs.getLong("aggregate_id"));
+            message.setEventType(rs.getString("event_type"));
+            message.setPayload(rs.getString("payload"));
+            message.setAttempts(rs.getInt("attempts"));
+            message.setCreateTime(rs.getTimestamp("create_time").toLocalDateTime());
+            return message;
+        }, Timestamp.valueOf(LocalDateTime.now()), limit);
+    }
+
+    @Override
+    public void markSent(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Object[] args = new Object[ids.size() + 1];
+        args[0] = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 1] = ids.get(i);
+        }
+        jdbcTemplate.update(String.format(MARK_SENT, String.join(", ", Collections.nCopies(ids.size(), "?"))), args);
+    }
+
+    @Override
+    public void markFailed(OutboxMessage message, LocalDateTime nextRetryTime) {
+        Timestamp retryAt = Timestamp.valueOf(nextRetryTime);
+        // 先推迟后续消息再推迟本条：中途失败时最多是后续消息多等一轮，不会越过本条先发出
+        jdbcTemplate.update(DELAY_FOLLOWERS, retryAt, message.getAggregateType(), message.getAggregateId(),
+                message.getId(), retryAt);
+        jdbcTemplate.update(MARK_FAILED, retryAt, message.getId());
+    }
+
+    @Override
+    public void markParked(long id) {
+        jdbcTemplate.update(MARK_PARKED, id);
+    }
+
+    @Override
+    public int deleteSentBefore(LocalDateTime before, int limit) {
+        return jdbcTemplate.update(DELETE_SENT, Timestamp.valueOf(before), limit);
+    }
+}
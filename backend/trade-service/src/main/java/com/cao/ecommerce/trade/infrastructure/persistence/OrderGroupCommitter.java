@@ -0,0 +1,226 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 订单组提交写入器
+ *
+ * 并发的下单请求先进入队列，写入线程在一个短窗口内收集订单（或凑满一批），
+ * 用一个事务批量写入 order 和 order_item，再分别通知每个调用方
+ *
+ * 技术要点：
+ * 1. 逐单写入时每个订单是 1 + N 条INSERT和一次事务提交（一次redo log刷盘）；
+ *    组提交后一批订单共享两次批量INSERT和一次刷盘，吞吐随并发近似线性提升
+ * 2. 收集窗口从取到第一个订单开始计时，窗口为0时只合并队列中已有的订单，
+ *    低并发下不引入额外延迟
+ * 3. 整批失败时逐单重试，失败的订单（如订单号冲突）只影响自己的调用方，其余订单照常提交
+ * 4. 队列有界，写满时直接拒绝，数据库变慢时把压力反馈给调用方，而不是无限堆积
+ * 5. 分片后一个事务只能写入一个分片，一批订单按 {@link OrderRepository#partitionOf} 拆开分别提交，
+ *    某个分片失败不会让其他分片已提交的订单被重试
+ *
+ * 面试要点：
+ * - 组提交与MySQL的 binlog_group_commit_sync_delay 是同一思路：用几百微秒的等待换取刷盘次数的成倍下降
+ * - 窗口越大批次越大、吞吐越高，但每个请求的延迟下限也越高，需要结合压测确定
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class OrderGroupCommitter {
+
+    private final OrderRepository orderRepository;
+
+    private final long windowNanos;
+
+    private final int batchSize;
+
+    private final int writerThreads;
+
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final LongAdder commitCount = new LongAdder();
+
+    private final LongAdder orderCount = new LongAdder();
+
+    private volatile boolean running;
+
+    private Thread[] writers;
+
+    /**
+     * @param windowMicros  收集窗口（微秒）
+     * @param batchSize     单批最大订单数
+     * @param queueCapacity 等待队列容量
+     * @param writerThreads 写入线程数，多个线程时一批在提交的同时下一批在收集
+     */
+    public OrderGroupCommitter(OrderRepository orderRepository, long windowMicros, int batchSize,
+                               int queueCapacity, int writerThreads) {
+        this.orderRepository = orderRepository;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        this.batchSize = Math.max(1, batchSize);
+        this.writerThreads = Math.max(1, writerThreads);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writers = new Thread[writerThreads];
+        for (int i = 0; i < writerThreads; i++) {
+            Thread thread = new Thread(this::runWriter, "order-group-commit-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            writers[i] = thread;
+        }
+    }
+
+    /**
+     * 停止接收新订单，写完队列中已有的订单后退出
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        // 停止前一刻提交、写入线程退出后才入队的订单
+        PendingOrder pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("order writer stopped"));
+        }
+        log.info("订单组提交写入器已停止，累计提交 {} 次，写入订单 {} 个", getCommitCount(), getOrderCount());
+    }
+
+    /**
+     * 提交订单，写入成功后返回的Future以该订单完成
+     */
+    public CompletableFuture<Order> submit(Order order) {
+        CompletableFuture<Order> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("order writer not running"));
+        } else if (!queue.offer(new PendingOrder(order, future))) {
+            future.completeExceptionally(new RejectedExecutionException("order write queue is full"));
+        }
+        return future;
+    }
+
+    /** 累计事务提交次数 */
+    public long getCommitCount() {
+        return commitCount.sum();
+    }
+
+    /** 累计写入订单数，与提交次数之比即平均批大小 */
+    public long getOrderCount() {
+        return orderCount.sum();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void runWriter() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch, batchSize - batch.size());
+                commit(batch);
+                return;
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int partition = orderRepository.partitionOf(batch.get(0).order);
+        boolean samePartition = true;
+        for (int i = 1; i < batch.size() && samePartition; i++) {
+            samePartition = orderRepository.partitionOf(batch.get(i).order) == partition;
+        }
+        if (samePartition) {
+            commitPartition(batch);
+            return;
+        }
+        Map<Integer, List<PendingOrder>> partitions = new LinkedHashMap<>();
+        for (PendingOrder pending : batch) {
+            partitions.computeIfAbsent(orderRepository.partitionOf(pending.order), key -> new ArrayList<>())
+                    .add(pending);
+        }
+        for (List<PendingOrder> group : partitions.values()) {
+            commitPartition(group);
+        }
+    }
+
+    private void commitPartition(List<PendingOrder> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            orders.add(pending.order);
+        }
+        try {
+            orderRepository.insertBatch(orders);
+            commitCount.increment();
+            orderCount.add(orders.size());
+            for (PendingOrder pending : batch) {
+                pending.future.complete(pending.order);
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.warn("订单批量写入失败，逐单重试: size={}", batch.size(), e);
+            for (PendingOrder pending : batch) {
+                commitSingle(pending);
+            }
+        }
+    }
+
+    private void commitSingle(PendingOrder pending) {
+        try {
+            orderRepository.insertBatch(List.of(pending.order));
+            commitCount.increment();
+            orderCount.increment();
+            pending.future.complete(pending.order);
+        } catch (RuntimeException e) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private record PendingOrder(Order order, CompletableFuture<Order> future) {
+    }
+}
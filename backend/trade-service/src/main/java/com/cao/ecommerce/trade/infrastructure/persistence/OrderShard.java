@@ -0,0 +1,20 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 订单物理分片：一个数据源上的一组 order / order_item 表
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class OrderShard {
+
+    /** 分片名称，用于日志和监控 */
+    private final String name;
+
+    private final JdbcOrderRepository repository;
+}
@@ -0,0 +1,206 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 订单扩容迁移的后台复制器
+ *
+ * 迁移步骤：
+ * 1. 配置新分片为双写分片，新订单和状态变更同时写入新旧分片（{@link ShardedOrderRepository}）
+ * 2. 本复制器按主键顺序遍历旧分片的存量订单，写入新分片中还没有的订单，并把落后的状态推进到与旧分片一致
+ * 3. 之后再做若干轮校验（与复制是同一操作），补齐双写失败和复制期间并发变更遗漏的数据；
+ *    某一轮没有任何差异即结束
+ * 4. 切换读写到新分片，旧分片保留为双写分片以便回滚；确认无误后停止双写、清理旧分片中已迁走的数据
+ *
+ * 技术要点：
+ * 1. 复制是幂等的：已存在的订单跳过，状态只前进，重复执行、与双写交错执行都不会写坏数据
+ * 2. 每批之间暂停 pauseMs，限制对线上库的压力；单批失败时暂停后重试同一批
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class OrderShardCopier {
+
+    private final OrderShards source;
+
+    private final OrderShards target;
+
+    private final int batchSize;
+
+    private final long pauseMs;
+
+    private final int verifyPasses;
+
+    private final LongAdder copiedCount = new LongAdder();
+
+    private final LongAdder repairedCount = new LongAdder();
+
+    private volatile int pass;
+
+    private volatile boolean finished;
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    /**
+     * @param source       旧分片（数据以此为准）
+     * @param target       新分片
+     * @param batchSize    单批订单数
+     * @param pauseMs      批次之间的暂停（毫秒）
+     * @param verifyPasses 复制完成后的最多校验轮数
+     */
+    public OrderShardCopier(OrderShards source, OrderShards target, int batchSize, long pauseMs, int verifyPasses) {
+        this.source = source;
+        this.target = target;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.verifyPasses = verifyPasses;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "order-shard-copier");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join();
+            worker = null;
+        }
+    }
+
+    /**
+     * 执行一轮复制（或校验），后台线程之外也可以直接调用
+     *
+     * @return 本轮写入和修复的订单数，0表示新旧分片已一致
+     */
+    public long runPass() throws InterruptedException {
+        long changed = 0;
+        for (OrderShard shard : source.getShards()) {
+            long afterId = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Order> batch;
+                try {
+                    batch = shard.getRepository().findBatchAfterId(afterId, batchSize);
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    changed += sync(shard.getRepository(), batch);
+                } catch (RuntimeException e) {
+                    log.warn("订单迁移批次失败，稍后重试: shard={}, afterId={}", shard.getName(), afterId, e);
+                    Thread.sleep(Math.max(pauseMs, 1000));
+                    continue;
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+        }
+        return changed;
+    }
+
+    public long getCopiedCount() {
+        return copiedCount.sum();
+    }
+
+    public long getRepairedCount() {
+        return repairedCount.sum();
+    }
+
+    /** 当前轮次，0为复制，之后为校验 */
+    public int getPass() {
+        return pass;
+    }
+
+    /** 复制和校验是否已完成（可以切换读写） */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private void run() {
+        try {
+            for (pass = 0; pass <= verifyPasses && running; pass++) {
+                long changed = runPass();
+                log.info("订单迁移第 {} 轮完成: 变更 {} 个订单, 累计复制 {}, 累计修复 {}",
+                        pass, changed, getCopiedCount(), getRepairedCount());
+                if (changed == 0 && running) {
+                    finished = true;
+                    log.info("订单迁移完成，新旧分片数据一致，可以切换读写");
+                    return;
+                }
+            }
+            if (running) {
+                log.warn("订单迁移 {} 轮校验后仍有差异，双写期间可重新启动复制器", verifyPasses);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 把一批旧分片订单同步到新分片：补齐缺失的订单，推进落后的状态
+     */
+    private long sync(JdbcOrderRepository from, List<Order> batch) {
+        Map<Integer, List<Order>> groups = new LinkedHashMap<>();
+        for (Order order : batch) {
+            groups.computeIfAbsent(target.indexOfOrderId(order.getId()), key -> new ArrayList<>()).add(order);
+        }
+        long changed = 0;
+        for (Map.Entry<Integer, List<Order>> entry : groups.entrySet()) {
+            JdbcOrderRepository to = target.get(entry.getKey()).getRepository();
+            List<Order> orders = entry.getValue();
+            List<Long> orderIds = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                orderIds.add(order.getId());
+            }
+            Map<Long, Integer> existing = to.findStatuses(orderIds);
+            List<Order> missing = new ArrayList<>();
+            List<Order> behind = new ArrayList<>();
+            for (Order order : orders) {
+                Integer status = existing.get(order.getId());
+                if (status == null) {
+                    missing.add(order);
+                } else if (status < order.getStatus()) {
+                    behind.add(order);
+                }
+            }
+            if (!missing.isEmpty()) {
+                List<Long> missingIds = new ArrayList<>(missing.size());
+                for (Order order : missing) {
+                    missingIds.add(order.getId());
+                }
+                Map<Long, List<OrderItem>> items = from.findItemsByOrderIds(missingIds);
+                for (Order order : missing) {
+                    order.setItems(items.getOrDefault(order.getId(), List.of()));
+                }
+                int copied = to.copyMissing(missing);
+                copiedCount.add(copied);
+                changed += copied;
+            }
+            if (!behind.isEmpty()) {
+                to.advanceStatus(behind);
+                repairedCount.add(behind.size());
+                changed += behind.size();
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,232 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.trade.domain.model.CartItem;
+import com.cao.ecommerce.trade.domain.repository.CartRepository;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于Redis Hash的购物车仓储
+ *
+ * 技术要点：
+ * 1. 每个购物车一个Hash（trade:cart:购物车ID），加载购物车只需一次 HGETALL
+ * 2. 批量操作通过管道（pipeline）发送：N个商品的修改、续期、标记待持久化在一次网络往返内完成
+ * 3. 游客购物车合并使用Lua脚本，读取、累加、删除在Redis中原子执行，
+ *    同一游客在多个设备同时登录也不会重复合并
+ * 4. 用户购物车被修改时加入待持久化集合（trade:cart:dirty），由写回任务批量同步到MySQL，
+ *    集合在Redis中，任一节点宕机都不会丢失待同步标记
+ *
+ * 注意：合并脚本同时访问游客和用户两个key，Redis Cluster 下需要为两者设计相同的 hash tag
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class RedisCartRepository implements CartRepository {
+
+    private static final String KEY_PREFIX = "trade:cart:";
+
+    private static final String DIRTY_KEY = "trade:cart:dirty";
+
+    private static final byte[] DIRTY_KEY_BYTES = bytes(DIRTY_KEY);
+
+    private static final byte[] INIT_FIELD = bytes(CartHashCodec.INIT_FIELD);
+
+    private static final byte[] ONE = bytes("1");
+
+    private static final byte[] ZERO = bytes("0");
+
+    /**
+     * KEYS[1] 游客购物车，KEYS[2] 用户购物车，KEYS[3] 待持久化集合；
+     * ARGV[1] 用户购物车过期时间（毫秒），ARGV[2] 用户ID
+     */
+    private static final DefaultRedisScript<Long> MERGE_SCRIPT = new DefaultRedisScript<>(
+            "local guest = redis.call('HGETALL', KEYS[1]) "
+                    + "local merged = 0 "
+                    + "for i = 1, #guest, 2 do "
+                    + "  local field = guest[i] "
+                    + "  local prefix = string.sub(field, 1, 2) "
+                    + "  if prefix == 'q:' then "
+                    + "    redis.call('HINCRBY', KEYS[2], field, tonumber(guest[i + 1])) "
+                    + "    merged = merged + 1 "
+                    + "  elseif prefix == 's:' then "
+                    + "    redis.call('HSET', KEYS[2], field, guest[i + 1]) "
+                    + "  end "
+                    + "end "
+                    + "redis.call('HSET', KEYS[2], 'v', '1') "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[1]) "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "if merged > 0 then redis.call('SADD', KEYS[3], ARGV[2]) end "
+                    + "return merged",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final long userTtlMillis;
+
+    private final long guestTtlMillis;
+
+    /**
+     * @param userTtlMillis  用户购物车空闲过期时间（毫秒），过期后从MySQL重新加载
+     * @param guestTtlMillis 游客购物车空闲过期时间（毫秒）
+     */
+    public RedisCartRepository(StringRedisTemplate redisTemplate, long userTtlMillis, long guestTtlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.userTtlMillis = userTtlMillis;
+        this.guestTtlMillis = guestTtlMillis;
+    }
+
+    @Override
+    public boolean exists(String cartId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key(cartId)));
+    }
+
+    @Override
+    public List<CartItem> findAll(String cartId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(key(cartId));
+        return entries.isEmpty() ? null : CartHashCodec.decode(entries);
+    }
+
+    @Override
+    public void addItems(String cartId, Map<Long, Integer> quantities) {
+        pipelined(cartId, (connection, key) -> {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                connection.hashCommands().hIncrBy(key, bytes(CartHashCodec.quantityField(entry.getKey())),
+                        entry.getValue());
+                connection.hashCommands().hSet(key, bytes(CartHashCodec.selectedField(entry.getKey())), ONE);
+            }
+        });
+    }
+
+    @Override
+    public void updateQuantities(String cartId, Map<Long, Integer> quantities) {
+        pipelined(cartId, (connection, key) -> {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                byte[] quantityField = bytes(CartHashCodec.quantityField(entry.getKey()));
+                if (entry.getValue() <= 0) {
+                    connection.hashCommands().hDel(key, quantityField,
+                            bytes(CartHashCodec.selectedField(entry.getKey())));
+                } else {
+                    connection.hashCommands().hSet(key, quantityField, bytes(entry.getValue().toString()));
+                }
+            }
+        });
+    }
+
+    @Override
+    public void updateSelected(String cartId, Collection<Long> productIds, boolean selected) {
+        pipelined(cartId, (connection, key) -> {
+            for (Long productId : productIds) {
+                connection.hashCommands().hSet(key, bytes(CartHashCodec.selectedField(productId)),
+                        selected ? ONE : ZERO);
+            }
+        });
+    }
+
+    @Override
+    public void removeItems(String cartId, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        pipelined(cartId, (connection, key) -> {
+            byte[][] fields = new byte[productIds.size() * 2][];
+            int i = 0;
+            for (Long productId : productIds) {
+                fields[i++] = bytes(CartHashCodec.quantityField(productId));
+                fields[i++] = bytes(CartHashCodec.selectedField(productId));
+            }
+            connection.hashCommands().hDel(key, fields);
+        });
+    }
+
+    @Override
+    public void initialize(String cartId, List<CartItem> items) {
+        byte[] key = bytes(key(cartId));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            // HSETNX：初始化期间已经发生的写入优先，不被数据库中的旧值覆盖
+            for (CartItem item : items) {
+                connection.hashCommands().hSetNX(key, bytes(CartHashCodec.quantityField(item.getProductId())),
+                        bytes(item.getQuantity().toString()));
+                connection.hashCommands().hSetNX(key, bytes(CartHashCodec.selectedField(item.getProductId())),
+                        Boolean.FALSE.equals(item.getSelected()) ? ZERO : ONE);
+            }
+            connection.hashCommands().hSet(key, INIT_FIELD, ONE);
+            connection.keyCommands().pExpire(key, ttlOf(cartId));
+            return null;
+        });
+    }
+
+    @Override
+    public int merge(String guestCartId, String userCartId) {
+        Long userId = CartHashCodec.userIdOf(userCartId);
+        Long merged = redisTemplate.execute(MERGE_SCRIPT, List.of(key(guestCartId), key(userCartId), DIRTY_KEY),
+                Long.toString(userTtlMillis), String.valueOf(userId));
+        return merged == null ? 0 : merged.intValue();
+    }
+
+    @Override
+    public List<Long> pollDirtyUsers(int max) {
+        List<String> members = redisTemplate.opsForSet().pop(DIRTY_KEY, max);
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+        List<Long> userIds = new ArrayList<>(members.size());
+        for (String member : members) {
+            userIds.add(Long.valueOf(member));
+        }
+        return userIds;
+    }
+
+    @Override
+    public void markDirty(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForSet().add(DIRTY_KEY, userIds.stream().map(String::valueOf).toArray(String[]::new));
+    }
+
+    /**
+     * 在一个管道中执行修改，并附带初始化标记、续期和待持久化标记
+     */
+    private void pipelined(String cartId, HashWrites writes) {
+        byte[] key = bytes(key(cartId));
+        Long userId = CartHashCodec.userIdOf(cartId);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            writes.apply(connection, key);
+            connection.hashCommands().hSet(key, INIT_FIELD, ONE);
+            connection.keyCommands().pExpire(key, ttlOf(cartId));
+            if (userId != null) {
+                connection.setCommands().sAdd(DIRTY_KEY_BYTES, bytes(userId.toString()));
+            }
+            return null;
+        });
+    }
+
+    private long ttlOf(String cartId) {
+        return CartHashCodec.userIdOf(cartId) != null ? userTtlMillis : guestTtlMillis;
+    }
+
+    private static String key(String cartId) {
+        return KEY_PREFIX + cartId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 管道中的Hash写操作
+     */
+    @FunctionalInterface
+    private interface HashWrites {
+
+        void apply(RedisConnection connection, byte[] key);
+    }
+}
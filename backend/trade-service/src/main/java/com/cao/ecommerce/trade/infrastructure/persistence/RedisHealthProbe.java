@@ -0,0 +1,37 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.common.health.HealthProbe;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+
+/**
+ * Redis健康探测：PING
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class RedisHealthProbe implements HealthProbe {
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisHealthProbe(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return "redis";
+    }
+
+    @Override
+    public Map<String, Object> check() {
+        String reply = redisTemplate.execute((RedisCallback<String>) RedisConnection::ping);
+        if (!"PONG".equalsIgnoreCase(reply)) {
+            throw new IllegalStateException("unexpected PING reply: " + reply);
+        }
+        return Map.of();
+    }
+}
@@ -0,0 +1,252 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderCursor;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.domain.model.OrderSummary;
+import com.cao.ecommerce.trade.domain.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按用户分片的订单仓储
+ *
+ * 技术要点：
+ * 1. 用户的订单、明细在同一分片，下单、我的订单、按订单号查询都只访问一个分片（见 {@link OrderShards}）
+ * 2. 运营后台的全量列表并行查询所有分片，每个分片按 (create_time, id) 倒序取 limit 行，
+ *    再用小顶堆做k路归并取前 limit 行；配合游标分页，每个分片每页最多读 limit 行，与翻到第几页无关
+ * 3. 扩容迁移期间配置双写分片：写入先提交到读写分片（以它为准），再尽力写入双写分片，
+ *    双写失败只计数不影响下单，遗漏由 {@link OrderShardCopier} 的校验补齐；
+ *    取消等状态变更以"只前进"的方式同步，重放旧数据不会让状态倒退
+ *
+ * 面试要点：
+ * - 分片键选用户ID：C端查询都带用户ID；按订单号查询靠基因法，不需要"订单号 → 用户ID"映射表
+ * - 跨分片分页：OFFSET 分页需要每个分片都读 offset + limit 行再归并，页码越深代价越高，游标分页没有这个问题
+ * - 分片后一个事务只能写一个分片，组提交按分区拆批（{@link #partitionOf}）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class ShardedOrderRepository implements OrderRepository {
+
+    private static final Comparator<OrderSummary> NEWEST_FIRST = Comparator
+            .comparing(OrderSummary::getCreateTime, Comparator.reverseOrder())
+            .thenComparing(OrderSummary::getId, Comparator.reverseOrder());
+
+    private final OrderShards shards;
+
+    /** 扩容迁移的双写分片，为null时不双写 */
+    private final OrderShards dualWriteShards;
+
+    private final long fanOutTimeoutMs;
+
+    private final ExecutorService fanOutExecutor;
+
+    private final LongAdder dualWriteFailures = new LongAdder();
+
+    /**
+     * @param shards          读写分片
+     * @param dualWriteShards 双写分片，不迁移时传null
+     * @param fanOutTimeoutMs 跨分片查询的超时（毫秒）
+     */
+    public ShardedOrderRepository(OrderShards shards, OrderShards dualWriteShards, long fanOutTimeoutMs) {
+        this.shards = shards;
+        this.dualWriteShards = dualWriteShards;
+        this.fanOutTimeoutMs = fanOutTimeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.fanOutExecutor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "order-shard-query-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    @Override
+    public int partitionOf(Order order) {
+        return shards.indexOfOrderId(order.getId());
+    }
+
+    @Override
+    public void insertBatch(List<Order> orders) {
+        for (Map.Entry<Integer, List<Order>> entry : groupBy(orders, this::partitionOf).entrySet()) {
+            shards.get(entry.getKey()).getRepository().insertBatch(entry.getValue());
+        }
+        if (dualWriteShards != null) {
+            dualWrite(orders, (repository, group) -> repository.copyMissing(group));
+        }
+    }
+
+    @Override
+    public void forEachPendingPaymentId(long workerId, LongConsumer consumer) {
+        for (OrderShard shard : shards.getShards()) {
+            shard.getRepository().forEachPendingPaymentId(workerId, consumer);
+        }
+    }
+
+    @Override
+    public List<Order> cancelPendingPayment(List<Long> orderIds, LocalDateTime cancelTime) {
+        List<Order> cancelled = new ArrayList<>();
+        for (Map.Entry<Integer, List<Long>> entry : groupBy(orderIds, shards::indexOfOrderId).entrySet()) {
+            cancelled.addAll(shards.get(entry.getKey()).getRepository()
+                    .cancelPendingPayment(entry.getValue(), cancelTime));
+        }
+        if (dualWriteShards != null && !cancelled.isEmpty()) {
+            dualWrite(cancelled, (repository, group) -> repository.advanceStatus(group));
+        }
+        return cancelled;
+    }
+
+    @Override
+    public List<OrderSummary> findPageByUserId(long userId, OrderCursor after, int limit) {
+        return shards.get(shards.indexOfUser(userId)).getRepository().findPageByUserId(userId, after, limit);
+    }
+
+    @Override
+    public List<OrderSummary> findPage(Integer status, OrderCursor after, int limit) {
+        List<Callable<List<OrderSummary>>> queries = new ArrayList<>(shards.size());
+        for (OrderShard shard : shards.getShards()) {
+            queries.add(() -> shard.getRepository().findPage(status, after, limit));
+        }
+        return mergeNewestFirst(fanOut(queries), limit);
+    }
+
+    @Override
+    public OrderSummary findByOrderNo(String orderNo) {
+        int index = shards.indexOfOrderNo(orderNo);
+        return index < 0 ? null : shards.get(index).getRepository().findByOrderNo(orderNo);
+    }
+
+    @Override
+    public Map<Long, List<OrderItem>> findItemsByOrderIds(List<Long> orderIds) {
+        Map<Integer, List<Long>> groups = groupBy(orderIds, shards::indexOfOrderId);
+        if (groups.size() <= 1) {
+            return groups.isEmpty() ? Map.of()
+                    : shards.get(groups.keySet().iterator().next()).getRepository().findItemsByOrderIds(orderIds);
+        }
+        List<Callable<Map<Long, List<OrderItem>>>> queries = new ArrayList<>(groups.size());
+        for (Map.Entry<Integer, List<Long>> entry : groups.entrySet()) {
+            JdbcOrderRepository repository = shards.get(entry.getKey()).getRepository();
+            queries.add(() -> repository.findItemsByOrderIds(entry.getValue()));
+        }
+        Map<Long, List<OrderItem>> items = new HashMap<>();
+        for (Map<Long, List<OrderItem>> result : fanOut(queries)) {
+            items.putAll(result);
+        }
+        return items;
+    }
+
+    /** 双写失败次数 */
+    public long getDualWriteFailureCount() {
+        return dualWriteFailures.sum();
+    }
+
+    /**
+     * 每个分片的结果已按下单时间倒序排列，k路归并取前 limit 行
+     */
+    static List<OrderSummary> mergeNewestFirst(List<List<OrderSummary>> sorted, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> NEWEST_FIRST.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<OrderSummary> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<OrderSummary> source = sorted.get(head[0]);
+            merged.add(source.get(head[1]));
+            if (++head[1] < source.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 并行执行各分片的查询，任一分片失败或超时则整体失败
+     */
+    private <T> List<T> fanOut(List<Callable<T>> queries) {
+        List<Future<T>> futures = new ArrayList<>(queries.size());
+        for (Callable<T> query : queries) {
+            futures.add(fanOutExecutor.submit(query));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fanOutTimeoutMs);
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("interrupted while querying order shards");
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("order shard query timed out after " + fanOutTimeoutMs + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void dualWrite(List<Order> orders, DualWriteAction action) {
+        for (Map.Entry<Integer, List<Order>> entry
+                : groupBy(orders, order -> dualWriteShards.indexOfOrderId(order.getId())).entrySet()) {
+            OrderShard shard = dualWriteShards.get(entry.getKey());
+            try {
+                action.apply(shard.getRepository(), entry.getValue());
+            } catch (RuntimeException e) {
+                dualWriteFailures.add(entry.getValue().size());
+                log.warn("订单双写失败，等待迁移校验补齐: shard={}, size={}", shard.getName(), entry.getValue().size(), e);
+            }
+        }
+    }
+
+    private static <T> Map<Integer, List<T>> groupBy(List<T> values, ToIntFunction<T> shardOf) {
+        Map<Integer, List<T>> groups = new LinkedHashMap<>();
+        for (T value : values) {
+            groups.computeIfAbsent(shardOf.applyAsInt(value), key -> new ArrayList<>()).add(value);
+        }
+        return groups;
+    }
+
+    /**
+     * 写入双写分片的操作
+     */
+    @FunctionalInterface
+    private interface DualWriteAction {
+
+        void apply(JdbcOrderRepository repository, List<Order> orders);
+    }
+}
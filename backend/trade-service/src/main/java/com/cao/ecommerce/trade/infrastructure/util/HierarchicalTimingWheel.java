@@ -0,0 +1,326 @@
+package com.cao.ecommerce.trade.infrastructure.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * 分层时间轮
+ *
+ * 每层64个槽，第0层每槽一个刻度，第 l 层每槽 64^l 个刻度；定时器按剩余刻度数放入能容纳它的最低层，
+ * 当前刻度走到高层槽的起点时，把该槽中的定时器重新放入低层（降级），最终在第0层到期
+ *
+ * 技术要点：
+ * 1. 添加、取消都是O(1)：按到期刻度直接算出层和槽，槽内为双向链表
+ * 2. 定时器不创建对象：ID、到期刻度、链表指针都存放在按下标寻址的基本类型数组中，
+ *    空闲下标串成空闲链表复用；ID → 下标使用只存下标的开放寻址哈希表，
+ *    每个定时器约占 28 字节数组空间 + 8~16 字节哈希表空间，没有对象头和引用，也不增加GC压力
+ * 3. 超出最高层范围的定时器放在最高层的最远槽，降级时按真实到期刻度重新计算位置
+ * 4. 到期精度为一个刻度：定时器在到期刻度被推进到时触发，不会提前
+ *
+ * 面试要点：
+ * - 最小堆的添加和取消都是O(log n)，且取消需要先定位元素；时间轮用空间换时间，操作与定时器数量无关
+ * - 分层设计（与Kafka、Linux内核定时器相同）让槽的数量只随时间跨度对数增长
+ * - 时间轮不负责线程调度，由外部按刻度调用 {@link #advance}，因此可以批量处理到期的定时器
+ *
+ * 公开方法均为同步方法，可由下单线程、支付回调线程和推进线程并发调用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class HierarchicalTimingWheel {
+
+    /** 每层槽数的位数（64槽） */
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /** 层数：刻度为100毫秒时可覆盖 100ms × 64^4 ≈ 19天 */
+    private static final int LEVELS = 4;
+
+    /** 最高层可直接容纳的最大刻度差 */
+    private static final long MAX_SPAN = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private static final int NIL = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long tickMillis;
+
+    /** 已处理完的最后一个刻度 */
+    private long currentTick;
+
+    /** 各槽链表头，下标为 level * SLOTS + slot */
+    private final int[] heads = new int[LEVELS * SLOTS];
+
+    private long[] ids;
+
+    private long[] expireTicks;
+
+    private int[] next;
+
+    private int[] prev;
+
+    /** 定时器所在的槽，取消时判断是否为链表头 */
+    private int[] buckets;
+
+    private int freeHead;
+
+    /** 从未使用过的最小下标 */
+    private int highWater;
+
+    private int size;
+
+    /** ID → 下标的开放寻址哈希表（线性探测），只存下标，键直接从 ids 中读取 */
+    private int[] table;
+
+    private int tableMask;
+
+    /**
+     * @param tickMillis  刻度（毫秒）
+     * @param startMillis 起始时间（毫秒时间戳）
+     */
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        Arrays.fill(heads, NIL);
+        this.ids = new long[INITIAL_CAPACITY];
+        this.expireTicks = new long[INITIAL_CAPACITY];
+        this.next = new int[INITIAL_CAPACITY];
+        this.prev = new int[INITIAL_CAPACITY];
+        this.buckets = new int[INITIAL_CAPACITY];
+        this.freeHead = NIL;
+        this.table = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(table, NIL);
+        this.tableMask = table.length - 1;
+    }
+
+    /**
+     * 添加定时器，ID已存在时替换原有的到期时间
+     *
+     * @param id             定时器ID（如订单ID）
+     * @param deadlineMillis 到期时间（毫秒时间戳），早于当前刻度时在下一次推进时立即到期
+     */
+    public synchronized void schedule(long id, long deadlineMillis) {
+        // 向上取整：不早于截止时间触发
+        long expireTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        int node = find(id);
+        if (node != NIL) {
+            unlink(node);
+        } else {
+            node = allocate();
+            ids[node] = id;
+            index(node);
+            size++;
+        }
+        expireTicks[node] = expireTick;
+        link(node);
+    }
+
+    /**
+     * 取消定时器
+     *
+     * @return 定时器存在并已取消时返回true
+     */
+    public synchronized boolean cancel(long id) {
+        int node = unindex(id);
+        if (node == NIL) {
+            return false;
+        }
+        unlink(node);
+        release(node);
+        size--;
+        return true;
+    }
+
+    /**
+     * 推进到指定时间，依次处理经过的每个刻度
+     *
+     * @param nowMillis 当前时间（毫秒时间戳）
+     * @param expired   到期定时器的ID，按到期刻度顺序回调，回调时已从时间轮中移除
+     * @return 到期的定时器数量
+     */
+    public synchronized int advance(long nowMillis, LongConsumer expired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        int count = 0;
+        while (currentTick < targetTick) {
+            long tick = ++currentTick;
+            // 从高层到低层降级：刻度的低 SLOT_BITS * level 位全为0时，第 level 层的当前槽到达起点
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+            int bucket = (int) (tick & SLOT_MASK);
+            int node = heads[bucket];
+            heads[bucket] = NIL;
+            while (node != NIL) {
+                int following = next[node];
+                long id = ids[node];
+                unindex(id);
+                release(node);
+                size--;
+                count++;
+                expired.accept(id);
+                node = following;
+            }
+            if (size == 0) {
+                // 没有定时器时直接跳到目标刻度
+                currentTick = targetTick;
+            }
+        }
+        return count;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * 定时器存储占用的字节数（不含对象头），用于估算内存
+     */
+    public synchronized long getFootprintBytes() {
+        return (long) ids.length * (Long.BYTES * 2 + Integer.BYTES * 3)
+                + (long) (table.length + heads.length) * Integer.BYTES;
+    }
+
+    private void cascade(int bucket) {
+        int node = heads[bucket];
+        heads[bucket] = NIL;
+        while (node != NIL) {
+            int following = next[node];
+            link(node);
+            node = following;
+        }
+    }
+
+    private void link(int node) {
+        long expireTick = expireTicks[node];
+        long placeTick = Math.min(expireTick, currentTick + MAX_SPAN);
+        long delta = placeTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int bucket = level * SLOTS + (int) ((placeTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        int head = heads[bucket];
+        next[node] = head;
+        prev[node] = NIL;
+        if (head != NIL) {
+            prev[head] = node;
+        }
+        heads[bucket] = node;
+        buckets[node] = bucket;
+    }
+
+    private void unlink(int node) {
+        int before = prev[node];
+        int after = next[node];
+        if (before == NIL) {
+            heads[buckets[node]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NIL) {
+            prev[after] = before;
+        }
+    }
+
+    private int allocate() {
+        if (freeHead != NIL) {
+            int node = freeHead;
+            freeHead = next[node];
+            return node;
+        }
+        if (highWater == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            expireTicks = Arrays.copyOf(expireTicks, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+        }
+        return highWater++;
+    }
+
+    private void release(int node) {
+        next[node] = freeHead;
+        freeHead = node;
+    }
+
+    private int find(long id) {
+        for (int i = hash(id); ; i = (i + 1) & tableMask) {
+            int node = table[i];
+            if (node == NIL || ids[node] == id) {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * 登记新分配的定时器，调用前需确认ID不存在
+     */
+    private void index(int node) {
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length << 1);
+        }
+        int i = hash(ids[node]);
+        while (table[i] != NIL) {
+            i = (i + 1) & tableMask;
+        }
+        table[i] = node;
+    }
+
+    /**
+     * 删除ID的登记，删除后把同一探测链上的后续元素前移填补空位，不留墓碑
+     */
+    private int unindex(long id) {
+        int i = hash(id);
+        while (table[i] != NIL && ids[table[i]] != id) {
+            i = (i + 1) & tableMask;
+        }
+        int removed = table[i];
+        if (removed == NIL) {
+            return NIL;
+        }
+        int hole = i;
+        for (int j = (i + 1) & tableMask; table[j] != NIL; j = (j + 1) & tableMask) {
+            int home = hash(ids[table[j]]);
+            if (((j - home) & tableMask) >= ((j - hole) & tableMask)) {
+                table[hole] = table[j];
+                hole = j;
+            }
+        }
+        table[hole] = NIL;
+        return removed;
+    }
+
+    private int hash(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & tableMask;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        table = new int[capacity];
+        Arrays.fill(table, NIL);
+        tableMask = capacity - 1;
+        for (int node : old) {
+            if (node != NIL) {
+                int i = hash(ids[node]);
+                while (table[i] != NIL) {
+                    i = (i + 1) & tableMask;
+                }
+                table[i] = node;
+            }
+        }
+    }
+}
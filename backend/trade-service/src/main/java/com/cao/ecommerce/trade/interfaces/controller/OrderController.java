@@ -0,0 +1,49 @@
+package com.cao.ecommerce.trade.interfaces.controller;
+
+import com.cao.ecommerce.trade.application.service.OrderQueryService;
+import com.cao.ecommerce.trade.domain.model.OrderPage;
+import com.cao.ecommerce.trade.infrastructure.config.OrderProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 订单控制器
+ *
+ * 用户ID取自网关认证后转发的 X-User-Id 请求头；订单列表使用游标分页，
+ * 前端把上一页返回的 nextCursor 原样传回即可翻到下一页，nextCursor 为空表示没有更多订单
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/order")
+@ConditionalOnProperty(prefix = OrderProperties.PREFIX, name = "enabled", havingValue = "true")
+public class OrderController {
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    private final OrderQueryService orderQueryService;
+
+    public OrderController(OrderQueryService orderQueryService) {
+        this.orderQueryService = orderQueryService;
+    }
+
+    /**
+     * 我的订单
+     */
+    @GetMapping("/list")
+    public ResponseEntity<OrderPage> list(@RequestHeader(USER_ID_HEADER) long userId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(orderQueryService.listByUser(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.cao.ecommerce.trade.interfaces.rpc;
+
+import com.cao.ecommerce.trade.application.service.OrderQueryService;
+import com.cao.ecommerce.trade.domain.model.OrderPage;
+import com.cao.ecommerce.trade.domain.model.OrderSummary;
+import com.cao.ecommerce.trade.infrastructure.config.OrderProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 订单管理查询接口（供运营后台内部调用）
+ *
+ * 全量列表不带用户ID，分片时需要查询所有分片；按订单号查询由订单号中的基因直接定位分片。
+ * 只供服务间直接调用，经网关转发的 /trade/internal/** 请求由网关的 InternalPathFilter 拦截
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/internal/orders")
+@ConditionalOnProperty(prefix = OrderProperties.PREFIX, name = "enabled", havingValue = "true")
+public class OrderAdminController {
+
+    private final OrderQueryService orderQueryService;
+
+    public OrderAdminController(OrderQueryService orderQueryService) {
+        this.orderQueryService = orderQueryService;
+    }
+
+    /**
+     * 全部订单，按下单时间倒序，游标分页
+     */
+    @GetMapping
+    public ResponseEntity<OrderPage> list(@RequestParam(required = false) Integer status,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(orderQueryService.listAll(status, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 按订单号查询
+     */
+    @GetMapping("/{orderNo}")
+    public ResponseEntity<OrderSummary> get(@PathVariable String orderNo) {
+        OrderSummary order = orderQueryService.getByOrderNo(orderNo);
+        return order == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(order);
+    }
+}
@@ -0,0 +1,189 @@
+package com.cao.ecommerce.trade.application.service;
+
+import com.cao.ecommerce.trade.application.scheduler.CartWriteBehindScheduler;
+import com.cao.ecommerce.trade.domain.model.CartItem;
+import com.cao.ecommerce.trade.domain.repository.CartRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.InMemoryCartRepository;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcCartDurableRepository;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 购物车服务测试：进程内仓储 + H2 cart 表，覆盖读写语义、游客合并、写回和50件商品购物车的p99加载延迟
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class CartServiceTest {
+
+    private static final int ITEMS_PER_CART = 50;
+
+    private static final int USERS = 2_000;
+
+    private static final int LOADS = 200_000;
+
+    /** 进程内加载的p99上限；正常在几微秒量级，留足GC和共享CI机器的余量 */
+    private static final long P99_LIMIT_NANOS = 1_000_000L;
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private InMemoryCartRepository cartRepository;
+
+    private JdbcCartDurableRepository durableRepository;
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:cart-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE cart (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                + "product_id BIGINT NOT NULL, quantity INT NOT NULL DEFAULT 1, selected TINYINT DEFAULT 1, "
+                + "UNIQUE KEY uk_user_product (user_id, product_id))");
+        cartRepository = new InMemoryCartRepository();
+        durableRepository = new JdbcCartDurableRepository(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        cartService = new CartService(cartRepository, durableRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Test
+    void addUpdateSelectAndRemoveItems() {
+        cartService.addUserItems(1L, Map.of(10L, 2, 11L, 1));
+        cartService.addUserItems(1L, Map.of(10L, 3));
+        cartService.updateUserQuantities(1L, Map.of(11L, 4));
+        cartService.updateUserSelected(1L, List.of(11L), false);
+
+        assertThat(sorted(cartService.getUserCart(1L))).containsExactly(
+                new CartItem(10L, 5, true), new CartItem(11L, 4, false));
+
+        cartService.updateUserQuantities(1L, Map.of(10L, 0));
+        cartService.removeUserItems(1L, List.of(11L));
+        assertThat(cartService.getUserCart(1L)).isEmpty();
+    }
+
+    @Test
+    void rejectsNonPositiveQuantityOnAdd() {
+        assertThatThrownBy(() -> cartService.addUserItems(1L, Map.of(10L, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(cartService.getUserCart(1L)).isEmpty();
+    }
+
+    @Test
+    void missingUserCartIsHydratedOnceFromDatabase() {
+        jdbcTemplate.update("INSERT INTO cart (user_id, product_id, quantity, selected) VALUES (7, 100, 2, 0)");
+
+        assertThat(cartService.getUserCart(7L)).containsExactly(new CartItem(100L, 2, false));
+
+        // 已加载后以Redis为准，数据库的后续变化不再读取；再次加入的商品重新勾选
+        jdbcTemplate.update("DELETE FROM cart");
+        cartService.addUserItems(7L, Map.of(100L, 1));
+        assertThat(cartService.getUserCart(7L)).containsExactly(new CartItem(100L, 3, true));
+    }
+
+    @Test
+    void guestCartMergesIntoUserCartIncludingDatabaseItems() {
+        jdbcTemplate.update("INSERT INTO cart (user_id, product_id, quantity, selected) VALUES (5, 100, 1, 1)");
+        cartService.addGuestItems("token", Map.of(100L, 2, 200L, 1));
+
+        assertThat(cartService.mergeGuestCart("token", 5L)).isEqualTo(2);
+
+        assertThat(sorted(cartService.getUserCart(5L))).containsExactly(
+                new CartItem(100L, 3, true), new CartItem(200L, 1, true));
+        assertThat(cartService.getGuestCart("token")).isEmpty();
+        assertThat(cartRepository.exists(CartRepository.guestCart("token"))).isFalse();
+    }
+
+    @Test
+    void writeBehindFlushesLatestSnapshotPerUser() {
+        CartWriteBehindScheduler scheduler = new CartWriteBehindScheduler(cartRepository, durableRepository, 1000, 2);
+        cartService.addUserItems(1L, Map.of(10L, 1));
+        cartService.addUserItems(1L, Map.of(10L, 1, 11L, 1));
+        cartService.addUserItems(2L, Map.of(20L, 1));
+        cartService.addUserItems(3L, Map.of(30L, 1));
+        cartService.addGuestItems("guest", Map.of(40L, 1));
+
+        // 3个用户、批大小2：一次 flush 内分两批写完，游客购物车不写回
+        assertThat(scheduler.flush()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM cart WHERE user_id = 1 AND product_id = 10",
+                Integer.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart", Integer.class)).isEqualTo(4);
+        assertThat(scheduler.flush()).isZero();
+
+        cartService.removeUserItems(1L, List.of(10L, 11L));
+        assertThat(scheduler.flush()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart WHERE user_id = 1", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void failedFlushMarksUsersDirtyAgain() {
+        CartWriteBehindScheduler scheduler = new CartWriteBehindScheduler(cartRepository, durableRepository, 1000, 10);
+        cartService.addUserItems(1L, Map.of(10L, 1));
+        jdbcTemplate.execute("ALTER TABLE cart RENAME TO cart_offline");
+
+        assertThatThrownBy(scheduler::flush).isInstanceOf(RuntimeException.class);
+
+        jdbcTemplate.execute("ALTER TABLE cart_offline RENAME TO cart");
+        assertThat(scheduler.flush()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart WHERE user_id = 1", Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void loadingFiftyItemCartStaysWithinP99Budget() {
+        CartService service = new CartService(cartRepository, null);
+        for (long userId = 1; userId <= USERS; userId++) {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (int i = 0; i < ITEMS_PER_CART; i++) {
+                quantities.put(userId * 1000 + i, i % 5 + 1);
+            }
+            service.addUserItems(userId, quantities);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // 预热，让解码路径完成JIT编译
+        for (int i = 0; i < LOADS; i++) {
+            assertThat(service.getUserCart(random.nextLong(1, USERS + 1))).hasSize(ITEMS_PER_CART);
+        }
+
+        long[] samples = new long[LOADS];
+        int loaded = 0;
+        for (int i = 0; i < LOADS; i++) {
+            long start = System.nanoTime();
+            loaded += service.getUserCart(random.nextLong(1, USERS + 1)).size();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        long p99 = samples[(int) (LOADS * 0.99) - 1];
+
+        assertThat(loaded).isEqualTo(LOADS * ITEMS_PER_CART);
+        assertThat(p99).as("p99 load latency (ns)").isLessThan(P99_LIMIT_NANOS);
+    }
+
+    private static List<CartItem> sorted(List<CartItem> items) {
+        return items.stream().sorted(Comparator.comparing(CartItem::getProductId)).toList();
+    }
+}
@@ -0,0 +1,235 @@
+package com.cao.ecommerce.trade.application.service;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderCursor;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.domain.model.OrderPage;
+import com.cao.ecommerce.trade.domain.model.OrderSummary;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOrderRepository;
+import com.cao.ecommerce.trade.interfaces.controller.OrderController;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 订单游标分页测试：H2内存库（MySQL兼容模式），同一秒下单的订单跨越页边界时不重复不遗漏，
+ * 末页的 nextCursor 为null，格式错误的游标返回400
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class OrderQueryServiceTest {
+
+    private static final int MAX_PAGE_SIZE = 20;
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+
+    private final LocalDateTime start = LocalDateTime.now().withNano(0).minusDays(1);
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcOrderRepository orderRepository;
+
+    private OrderQueryService orderQueryService;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:order-query-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE `order` (id BIGINT PRIMARY KEY, order_no VARCHAR(50) NOT NULL, "
+                + "user_id BIGINT NOT NULL, total_amount DECIMAL(10,2) NOT NULL, pay_amount DECIMAL(10,2) NOT NULL, "
+                + "status TINYINT, pay_type TINYINT, pay_time TIMESTAMP, delivery_time TIMESTAMP, "
+                + "finish_time TIMESTAMP, cancel_time TIMESTAMP, receiver_name VARCHAR(50), "
+                + "receiver_phone VARCHAR(20), receiver_address VARCHAR(255), remark VARCHAR(500), "
+                + "create_time TIMESTAMP, deleted TINYINT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE INDEX idx_user_create_time ON `order` (user_id, deleted, create_time, id)");
+        jdbcTemplate.execute("CREATE TABLE order_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, product_name VARCHAR(100) NOT NULL, "
+                + "product_image VARCHAR(255), price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL, "
+                + "total_price DECIMAL(10,2) NOT NULL, create_time TIMESTAMP)");
+        orderRepository = new JdbcOrderRepository(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), null);
+        orderQueryService = new OrderQueryService(orderRepository, MAX_PAGE_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Test
+    void tiesOnCreateTimeAcrossPageBoundaries() {
+        // 每秒3个订单，每页4个：每一页的边界都落在同一秒的订单中间
+        List<Order> orders = insertOrders(1, 25, 3);
+        insertOrders(2, 10, 3);
+
+        List<OrderPage> pages = scan(1, 4);
+
+        assertThat(pages).hasSize(7);
+        assertThat(pages.subList(0, 6)).allSatisfy(page -> {
+            assertThat(page.getOrders()).hasSize(4);
+            assertThat(page.getNextCursor()).isNotNull();
+        });
+        assertThat(pages.get(6).getOrders()).hasSize(1);
+        assertThat(pages.get(6).getNextCursor()).isNull();
+        assertThat(pages.stream().flatMap(page -> page.getOrders().stream()).map(OrderSummary::getId).toList())
+                .containsExactlyElementsOf(newestFirst(orders));
+    }
+
+    @Test
+    void allOrdersInOneSecond() {
+        List<Order> orders = insertOrders(1, 9, 9);
+
+        List<OrderPage> pages = scan(1, 2);
+
+        assertThat(pages).hasSize(5);
+        assertThat(pages.stream().flatMap(page -> page.getOrders().stream()).map(OrderSummary::getId).toList())
+                .containsExactlyElementsOf(newestFirst(orders));
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        List<Order> orders = insertOrders(1, 12, 3);
+
+        // 订单数恰好是页大小的整数倍：多读的一行不存在，末页不返回游标，不会多出一个空页
+        List<OrderPage> pages = scan(1, 4);
+        assertThat(pages).hasSize(3);
+        assertThat(pages.get(2).getOrders()).hasSize(4);
+        assertThat(pages.get(2).getNextCursor()).isNull();
+
+        OrderPage single = orderQueryService.listByUser(1, null, MAX_PAGE_SIZE);
+        assertThat(single.getOrders()).hasSize(orders.size());
+        assertThat(single.getNextCursor()).isNull();
+        assertThat(single.getOrders().get(0).getItems()).hasSize(2);
+        assertThat(single.getOrders().get(0).getItemCount()).isEqualTo(3);
+
+        OrderPage empty = orderQueryService.listByUser(3, null, 10);
+        assertThat(empty.getOrders()).isEmpty();
+        assertThat(empty.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        insertOrders(1, 30, 3);
+
+        assertThat(orderQueryService.listByUser(1, null, 1000).getOrders()).hasSize(MAX_PAGE_SIZE);
+        assertThat(orderQueryService.listByUser(1, null, 0).getOrders()).hasSize(1);
+        // 空游标等同于第一页
+        assertThat(orderQueryService.listByUser(1, "", 5).getOrders()).extracting(OrderSummary::getId)
+                .containsExactlyElementsOf(orderQueryService.listByUser(1, null, 5).getOrders().stream()
+                        .map(OrderSummary::getId).toList());
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        OrderCursor cursor = new OrderCursor(start, 123456789L);
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+        assertThat(decoded.getCreateTime()).isEqualTo(start);
+        assertThat(decoded.getId()).isEqualTo(123456789L);
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        insertOrders(1, 5, 3);
+        OrderController controller = new OrderController(orderQueryService);
+
+        for (String cursor : malformedCursors()) {
+            assertThatThrownBy(() -> orderQueryService.listByUser(1, cursor, 10))
+                    .as(cursor).isInstanceOf(IllegalArgumentException.class);
+            assertThat(controller.list(1, cursor, 10).getStatusCode()).as(cursor).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+        assertThat(controller.list(1, null, 10).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static List<String> malformedCursors() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<String> cursors = new ArrayList<>();
+        cursors.add("not a cursor!");
+        for (String raw : new String[]{"1700000000", ":123", "abc:123", "1700000000:abc", "1700000000:"}) {
+            cursors.add(encoder.encodeToString(raw.getBytes(StandardCharsets.US_ASCII)));
+        }
+        return cursors;
+    }
+
+    /**
+     * 用游标翻完一个用户的全部订单
+     */
+    private List<OrderPage> scan(long userId, int pageSize) {
+        List<OrderPage> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPage page = orderQueryService.listByUser(userId, cursor, pageSize);
+            pages.add(page);
+            cursor = page.getNextCursor();
+        } while (cursor != null && pages.size() < 100);
+        return pages;
+    }
+
+    private static List<Long> newestFirst(List<Order> orders) {
+        return orders.stream()
+                .sorted(Comparator.comparing(Order::getCreateTime).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .toList();
+    }
+
+    /**
+     * 插入 count 个订单，每秒 perSecond 个，按随机顺序写入，返回结果只能依赖 (create_time, id) 排序
+     */
+    private List<Order> insertOrders(long userId, int count, int perSecond) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(newOrder(idGenerator.nextId(userId), userId, start.plusSeconds(i / perSecond)));
+        }
+        List<Order> shuffled = new ArrayList<>(orders);
+        Collections.shuffle(shuffled, new Random(userId));
+        orderRepository.insertBatch(shuffled);
+        return orders;
+    }
+
+    private static Order newOrder(long id, long userId, LocalDateTime createTime) {
+        List<OrderItem> items = new ArrayList<>(2);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= 2; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrderId(id);
+            item.setProductId((long) i);
+            item.setProductName("商品" + i);
+            item.setPrice(BigDecimal.valueOf(1000L * i, 2));
+            item.setQuantity(i);
+            item.setTotalPrice(item.getPrice().multiply(BigDecimal.valueOf(i)));
+            total = total.add(item.getTotalPrice());
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNo(SnowflakeIdGenerator.toOrderNo(id));
+        order.setUserId(userId);
+        order.setTotalAmount(total);
+        order.setPayAmount(total);
+        order.setStatus(Order.STATUS_PAID);
+        order.setCreateTime(createTime);
+        order.setItems(items);
+        return order;
+    }
+}
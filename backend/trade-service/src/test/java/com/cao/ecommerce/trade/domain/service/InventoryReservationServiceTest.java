@@ -0,0 +1,186 @@
+package com.cao.ecommerce.trade.domain.service;
+
+import com.cao.ecommerce.trade.domain.model.ReservationResult;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcInventoryRepository;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 库存预占引擎测试：H2内存库（MySQL兼容模式）上验证并发预占不超卖、释放、重复预占和落库
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class InventoryReservationServiceTest {
+
+    private static final long SKU = 1L;
+
+    private static final int STOCK = 1000;
+
+    private static final int THREADS = 32;
+
+    private static final int ATTEMPTS_PER_THREAD = 100;
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private InventoryReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:inventory-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", "sa", "");
+        dataSource.setMaxConnections(THREADS);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, stock INT NOT NULL, "
+                + "deleted TINYINT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE `order` (id BIGINT PRIMARY KEY, order_no VARCHAR(50), "
+                + "status TINYINT, deleted TINYINT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE order_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, order_id BIGINT, "
+                + "product_id BIGINT, quantity INT)");
+        jdbcTemplate.update("INSERT INTO product (id, stock) VALUES (?, ?)", SKU, STOCK);
+        service = new InventoryReservationService(new JdbcInventoryRepository(jdbcTemplate), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        AtomicInteger sequence = new AtomicInteger();
+        int succeeded = contend(() -> {
+            String orderNo = "O" + sequence.incrementAndGet();
+            if (service.reserve(orderNo, SKU, 1) != ReservationResult.SUCCESS) {
+                return false;
+            }
+            assertThat(service.confirm(orderNo)).isTrue();
+            return true;
+        });
+        service.flush();
+
+        assertThat(succeeded).isEqualTo(STOCK);
+        assertThat(service.getAvailable(SKU)).isZero();
+        assertThat(service.getReserved(SKU)).isZero();
+        assertThat(stockInDatabase()).isZero();
+
+    }
+
+    @Test
+    void releaseReturnsStockAndConfirmAfterReleaseFails() {
+        assertThat(service.reserve("O1", SKU, 10)).isEqualTo(ReservationResult.SUCCESS);
+        assertThat(service.getAvailable(SKU)).isEqualTo(STOCK - 10);
+        assertThat(service.getReserved(SKU)).isEqualTo(10);
+
+        assertThat(service.release("O1")).isTrue();
+        assertThat(service.release("O1")).isFalse();
+        assertThat(service.confirm("O1")).isFalse();
+        assertThat(service.getAvailable(SKU)).isEqualTo(STOCK);
+        assertThat(service.getReserved(SKU)).isZero();
+        assertThat(service.getPendingReservationCount()).isZero();
+    }
+
+    @Test
+    void duplicateReserveIsRejectedUntilFlushCompletes() {
+        assertThat(service.reserve("O1", SKU, 1)).isEqualTo(ReservationResult.SUCCESS);
+        assertThat(service.reserve("O1", SKU, 1)).isEqualTo(ReservationResult.DUPLICATE);
+        assertThat(service.confirm("O1")).isTrue();
+        assertThat(service.reserve("O1", SKU, 1)).isEqualTo(ReservationResult.DUPLICATE);
+
+        assertThat(service.reserve("O2", SKU, 1)).isEqualTo(ReservationResult.SUCCESS);
+        assertThat(service.release("O2")).isTrue();
+        assertThat(service.reserve("O2", SKU, 1)).isEqualTo(ReservationResult.DUPLICATE);
+        assertThat(service.getAvailable(SKU)).isEqualTo(STOCK - 1);
+
+        service.flush();
+        assertThat(stockInDatabase()).isEqualTo(STOCK - 1);
+        assertThat(service.reserve("O2", SKU, 1)).isEqualTo(ReservationResult.SUCCESS);
+    }
+
+    @Test
+    void failedFlushKeepsDeltasAndTombstones() {
+        assertThat(service.reserve("O1", SKU, 5)).isEqualTo(ReservationResult.SUCCESS);
+        assertThat(service.confirm("O1")).isTrue();
+        jdbcTemplate.execute("ALTER TABLE product RENAME TO product_offline");
+        try {
+            service.flush();
+        } catch (RuntimeException expected) {
+            // 回写失败，增量和墓碑都应保留
+        }
+        assertThat(service.reserve("O1", SKU, 5)).isEqualTo(ReservationResult.DUPLICATE);
+
+        jdbcTemplate.execute("ALTER TABLE product_offline RENAME TO product");
+        assertThat(service.flush()).isEqualTo(1);
+        assertThat(stockInDatabase()).isEqualTo(STOCK - 5);
+    }
+
+    @Test
+    void recoverRebuildsCountersFromPendingOrders() {
+        jdbcTemplate.update("INSERT INTO `order` (id, order_no, status) VALUES (1, 'P1', 1), (2, 'D1', 2)");
+        jdbcTemplate.update("INSERT INTO order_item (order_id, product_id, quantity) VALUES (1, ?, 3), (2, ?, 4)",
+                SKU, SKU);
+
+        service.recover();
+
+        assertThat(service.getAvailable(SKU)).isEqualTo(STOCK - 3);
+        assertThat(service.getReserved(SKU)).isEqualTo(3);
+        assertThat(service.getPendingReservationCount()).isEqualTo(1);
+        assertThat(service.reserve("P1", SKU, 1)).isEqualTo(ReservationResult.DUPLICATE);
+        assertThat(service.confirm("P1")).isTrue();
+        service.flush();
+        assertThat(stockInDatabase()).isEqualTo(STOCK - 3);
+    }
+
+    private int stockInDatabase() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM product WHERE id = ?", Integer.class, SKU);
+    }
+
+    /**
+     * THREADS 个线程同时开始，每个线程尝试 ATTEMPTS_PER_THREAD 次，返回成功次数
+     */
+    private static int contend(Callable<Boolean> attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    int succeeded = 0;
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (attempt.call()) {
+                            succeeded++;
+                        }
+                    }
+                    return succeeded;
+                }));
+            }
+            startGate.countDown();
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(60, TimeUnit.SECONDS);
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.cao.ecommerce.trade.infrastructure.mq.producer;
+
+import com.cao.ecommerce.trade.domain.model.OutboxMessage;
+import com.cao.ecommerce.trade.infrastructure.config.OutboxProperties;
+import com.cao.ecommerce.trade.infrastructure.persistence.JdbcOutboxRepository;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 发件箱中继测试：H2内存库上验证毒消息停放、退避不饿死新消息、聚合内顺序和发送超时
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class OutboxRelayTest {
+
+    private static final long RETRY_BACKOFF_MS = 50;
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ScriptedPublisher publisher;
+
+    private OutboxProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:outbox-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE outbox_event (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "aggregate_type VARCHAR(50) NOT NULL, aggregate_id BIGINT NOT NULL, event_type VARCHAR(100) NOT NULL, "
+                + "payload TEXT NOT NULL, status TINYINT NOT NULL DEFAULT 0, attempts INT NOT NULL DEFAULT 0, "
+                + "next_retry_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+                + "create_time DATETIME DEFAULT CURRENT_TIMESTAMP, sent_time DATETIME)");
+        publisher = new ScriptedPublisher();
+        properties = new OutboxProperties();
+        properties.setBatchSize(1);
+        properties.setMaxAttempts(3);
+        properties.setRetryBackoffMs(RETRY_BACKOFF_MS);
+        properties.setMaxRetryBackoffMs(RETRY_BACKOFF_MS * 4);
+        properties.setSendTimeoutMs(200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Test
+    void poisonMessageBacksOffWithoutStarvingNewerEventsAndIsParked() throws Exception {
+        long poison = insert(1L);
+        long healthy = insert(2L);
+        publisher.failing.add(poison);
+        OutboxRelay relay = newRelay();
+
+        // 单批只读1条：毒消息失败退避后让出读取窗口，下一轮立即读到后面的新消息
+        assertThat(relay.relayOnce()).isZero();
+        assertThat(relay.relayOnce()).isEqualTo(1);
+        assertThat(publisher.published).containsExactly(healthy);
+
+        for (int round = 0; round < 20 && relay.getParkedCount() == 0; round++) {
+            Thread.sleep(RETRY_BACKOFF_MS * 4);
+            relay.relayOnce();
+        }
+        assertThat(relay.getParkedCount()).isEqualTo(1);
+        assertThat(relay.getFailedCount()).isEqualTo(3);
+        assertThat(statusOf(poison)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT attempts FROM outbox_event WHERE id = ?", Integer.class, poison))
+                .isEqualTo(3);
+
+        // 停放后不再读取
+        Thread.sleep(RETRY_BACKOFF_MS * 4);
+        assertThat(relay.relayOnce()).isZero();
+        assertThat(relay.getFailedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void failedMessageHoldsBackLaterEventsOfSameAggregate() throws Exception {
+        properties.setBatchSize(10);
+        // 退避要长于两轮之间的耗时（首轮含连接和JIT预热）
+        properties.setRetryBackoffMs(1000);
+        long first = insert(1L);
+        long second = insert(1L);
+        publisher.failing.add(first);
+        OutboxRelay relay = newRelay();
+
+        assertThat(relay.relayOnce()).isZero();
+        publisher.failing.clear();
+        // 退避期间新写入的同一聚合消息也要等待
+        long third = insert(1L);
+        long other = insert(2L);
+        assertThat(relay.relayOnce()).isEqualTo(1);
+        assertThat(publisher.published).containsExactly(other);
+
+        Thread.sleep(properties.getRetryBackoffMs() + 100);
+        assertThat(relay.relayOnce()).isEqualTo(3);
+        assertThat(publisher.published).containsExactly(other, first, second, third);
+    }
+
+    @Test
+    void hungSendTimesOutAndCountsAsFailedAttempt() throws Exception {
+        properties.setBatchSize(10);
+        long hung = insert(1L);
+        long healthy = insert(2L);
+        publisher.hanging.add(hung);
+        OutboxRelay relay = newRelay();
+
+        long start = System.nanoTime();
+        assertThat(relay.relayOnce()).isEqualTo(1);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(properties.getSendTimeoutMs() * 2 + 1000);
+        assertThat(publisher.published).containsExactly(healthy);
+        assertThat(statusOf(hung)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT attempts FROM outbox_event WHERE id = ?", Integer.class, hung))
+                .isEqualTo(1);
+    }
+
+    private OutboxRelay newRelay() {
+        return new OutboxRelay(new JdbcOutboxRepository(jdbcTemplate), publisher, properties);
+    }
+
+    private long insert(long aggregateId) {
+        jdbcTemplate.update("INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload) "
+                + "VALUES ('order', ?, 'OrderCreated', '{}')", aggregateId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_event", Long.class);
+    }
+
+    private int statusOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM outbox_event WHERE id = ?", Integer.class, id);
+    }
+
+    /**
+     * 按消息ID决定成功、失败或永不完成的发布器，记录成功发布的顺序
+     */
+    private static final class ScriptedPublisher implements MessagePublisher {
+
+        private final Set<Long> failing = ConcurrentHashMap.newKeySet();
+
+        private final Set<Long> hanging = ConcurrentHashMap.newKeySet();
+
+        private final List<Long> published = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public CompletableFuture<Void> publish(OutboxMessage message) {
+            if (failing.contains(message.getId())) {
+                return CompletableFuture.failedFuture(new IllegalStateException("broker rejected"));
+            }
+            if (hanging.contains(message.getId())) {
+                return new CompletableFuture<>();
+            }
+            published.add(message.getId());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.cao.ecommerce.trade.infrastructure.observability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 延迟直方图测试：分段边界（127/128/255/256）、超过上限的值、分位数的相对误差上界、多个分段的合并
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketBoundaries() {
+        // 小于128的值一一对应
+        assertThat(LatencyHistogram.indexOf(0)).isZero();
+        assertThat(LatencyHistogram.indexOf(127)).isEqualTo(127);
+        assertThat(LatencyHistogram.highestValueOf(127)).isEqualTo(127);
+
+        // 128~255 每个桶宽2
+        assertThat(LatencyHistogram.indexOf(128)).isEqualTo(128);
+        assertThat(LatencyHistogram.indexOf(129)).isEqualTo(128);
+        assertThat(LatencyHistogram.highestValueOf(128)).isEqualTo(129);
+        assertThat(LatencyHistogram.indexOf(255)).isEqualTo(191);
+        assertThat(LatencyHistogram.highestValueOf(191)).isEqualTo(255);
+
+        // 256 开始下一段，桶宽4
+        assertThat(LatencyHistogram.indexOf(256)).isEqualTo(192);
+        assertThat(LatencyHistogram.indexOf(259)).isEqualTo(192);
+        assertThat(LatencyHistogram.indexOf(260)).isEqualTo(193);
+        assertThat(LatencyHistogram.highestValueOf(192)).isEqualTo(259);
+    }
+
+    @Test
+    void everyValueFallsInsideItsBucket() {
+        for (int index = 0; index < LatencyHistogram.BUCKET_COUNT; index++) {
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertThat(LatencyHistogram.indexOf(highest)).as("bucket %d", index).isEqualTo(index);
+            assertThat(LatencyHistogram.indexOf(highest + 1)).as("bucket %d", index).isEqualTo(index + 1);
+        }
+    }
+
+    @Test
+    void valuesBeyondRangeAreClamped() {
+        assertThat(LatencyHistogram.BUCKET_COUNT).isEqualTo(2048);
+        assertThat(LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+        assertThat(LatencyHistogram.highestValueOf(LatencyHistogram.BUCKET_COUNT - 1))
+                .isEqualTo(LatencyHistogram.MAX_VALUE);
+
+        LatencyHistogram histogram = new LatencyHistogram(1);
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(LatencyHistogram.MAX_VALUE + 1);
+        histogram.record(-5);
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(3);
+        assertThat(snapshot.getMax()).isEqualTo(LatencyHistogram.MAX_VALUE);
+        assertThat(snapshot.getSum()).isEqualTo(2 * LatencyHistogram.MAX_VALUE);
+        assertThat(snapshot.valueAt(0.1)).isZero();
+        assertThat(snapshot.valueAt(1.0)).isEqualTo(LatencyHistogram.MAX_VALUE);
+    }
+
+    @Test
+    void quantilesNeverUnderestimateAndStayWithinRelativeError() {
+        Random random = new Random(42);
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // 对数均匀分布：1微秒 ~ 10秒，覆盖大部分分段
+            values[i] = (long) Math.pow(10, 3 + random.nextDouble() * 7);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        for (double quantile : new double[]{0.01, 0.25, 0.5, 0.9, 0.99, 0.999, 0.9999, 1.0}) {
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            long reported = snapshot.valueAt(quantile);
+            assertThat(reported).as("p%s", quantile * 100).isGreaterThanOrEqualTo(exact);
+            assertThat((double) (reported - exact) / exact).as("p%s", quantile * 100).isLessThanOrEqualTo(1.0 / 64);
+        }
+        // 最高分位数不超过实际最大值
+        assertThat(snapshot.valueAt(1.0)).isEqualTo(values[values.length - 1]);
+        assertThat(snapshot.getMax()).isEqualTo(values[values.length - 1]);
+        assertThat(new LatencyHistogram(1).snapshot().valueAt(0.99)).isZero();
+    }
+
+    @Test
+    void mergesStripesWrittenByConcurrentThreads() throws InterruptedException {
+        int threads = 8;
+        int perThread = 20_000;
+        LatencyHistogram striped = new LatencyHistogram(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            long base = (t + 1) * 1000L;
+            Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    striped.record(base + i % 100);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // 同样的数据写入单个分段，合并后的快照应完全一致
+        LatencyHistogram single = new LatencyHistogram(1);
+        long expectedSum = 0;
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                long value = (t + 1) * 1000L + i % 100;
+                single.record(value);
+                expectedSum += value;
+            }
+        }
+        LatencySnapshot merged = striped.snapshot();
+        LatencySnapshot reference = single.snapshot();
+        assertThat(merged.getCount()).isEqualTo((long) threads * perThread);
+        assertThat(merged.getSum()).isEqualTo(expectedSum);
+        assertThat(merged.getMax()).isEqualTo(threads * 1000L + 99);
+        for (double quantile : new double[]{0.001, 0.1, 0.5, 0.875, 0.99, 1.0}) {
+            assertThat(merged.valueAt(quantile)).isEqualTo(reference.valueAt(quantile));
+        }
+    }
+
+    @Test
+    void intervalSnapshotSubtractsEarlierCounts() {
+        LatencyHistogram histogram = new LatencyHistogram(2);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1000);
+        }
+        LatencySnapshot earlier = histogram.snapshot();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(50_000);
+        }
+
+        LatencySnapshot interval = histogram.snapshot().minus(earlier);
+        assertThat(interval.getCount()).isEqualTo(10);
+        assertThat(interval.getSum()).isEqualTo(500_000);
+        assertThat(interval.valueAt(0.5)).isBetween(50_000L, 50_000L + 50_000L / 64);
+    }
+}
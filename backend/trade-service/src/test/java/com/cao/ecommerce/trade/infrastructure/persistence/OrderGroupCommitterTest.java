@@ -0,0 +1,342 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 订单组提交测试：4个H2分片库，写入线程先被第一批订单阻塞在事务中，期间提交的订单在放行后合成下一批，
+ * 验证并发提交共享事务、坏订单逐单重试只影响自己、队列满时拒绝、一批订单不跨分区
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class OrderGroupCommitterTest {
+
+    private static final int SHARDS = 4;
+
+    private final List<JdbcConnectionPool> dataSources = new ArrayList<>();
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+
+    private GatedRepository repository;
+
+    private OrderGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        List<OrderShard> shards = new ArrayList<>(SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            JdbcConnectionPool dataSource = JdbcConnectionPool.create("jdbc:h2:mem:group-commit-" + i + "-"
+                    + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+            dataSources.add(dataSource);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            createTables(jdbcTemplate);
+            shards.add(new OrderShard("group-commit-" + i, new JdbcOrderRepository(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)), null)));
+        }
+        repository = new GatedRepository(new OrderShards(shards, List.of(), List.of()));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        repository.release.countDown();
+        if (committer != null) {
+            committer.stop();
+        }
+        repository.shutdown();
+        for (JdbcConnectionPool dataSource : dataSources) {
+            new JdbcTemplate(dataSource).execute("SHUTDOWN");
+            dataSource.dispose();
+        }
+    }
+
+    @Test
+    void concurrentSubmitsShareOneTransaction() throws Exception {
+        committer = start(64, 1024);
+        CompletableFuture<Order> blocker = blockWriter();
+
+        // 写入线程阻塞期间并发下单
+        int callers = 20;
+        List<CompletableFuture<Order>> futures = new CopyOnWriteArrayList<>();
+        CountDownLatch ready = new CountDownLatch(callers);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                await(go);
+                futures.add(committer.submit(newOrder(1)));
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        ready.await();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(committer.getQueueSize()).isEqualTo(callers);
+
+        repository.release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Order> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS).getUserId()).isEqualTo(1);
+        }
+        assertThat(repository.batches).hasSize(2);
+        assertThat(repository.batches.get(1)).hasSize(callers);
+        assertThat(committer.getCommitCount()).isEqualTo(2);
+        assertThat(committer.getOrderCount()).isEqualTo(callers + 1);
+        assertThat(countOrders()).isEqualTo(callers + 1);
+    }
+
+    @Test
+    void badOrderFailsOnlyItsOwnCaller() throws Exception {
+        committer = start(64, 1024);
+        Order existing = newOrder(1);
+        repository.insertBatch(List.of(existing));
+        repository.batches.clear();
+        CompletableFuture<Order> blocker = blockWriter();
+
+        List<CompletableFuture<Order>> good = new ArrayList<>();
+        good.add(committer.submit(newOrder(1)));
+        good.add(committer.submit(newOrder(1)));
+        // 订单号与已有订单冲突，整批事务回滚后逐单重试
+        Order duplicate = newOrder(1);
+        duplicate.setOrderNo(existing.getOrderNo());
+        CompletableFuture<Order> bad = committer.submit(duplicate);
+        good.add(committer.submit(newOrder(1)));
+
+        repository.release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DuplicateKeyException.class);
+        for (CompletableFuture<Order> future : good) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isNotNull();
+        }
+
+        // 阻塞批、失败的整批、4次逐单重试
+        assertThat(repository.batches).extracting(List::size).containsExactly(1, 4, 1, 1, 1, 1);
+        assertThat(committer.getCommitCount()).isEqualTo(1 + 3);
+        assertThat(committer.getOrderCount()).isEqualTo(1 + 3);
+        assertThat(countOrders()).isEqualTo(1 + 1 + 3);
+    }
+
+    @Test
+    void fullQueueRejectsImmediately() throws Exception {
+        committer = start(64, 2);
+        CompletableFuture<Order> blocker = blockWriter();
+
+        CompletableFuture<Order> first = committer.submit(newOrder(1));
+        CompletableFuture<Order> second = committer.submit(newOrder(1));
+        CompletableFuture<Order> rejected = committer.submit(newOrder(1));
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+
+        repository.release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        assertThat(first.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(countOrders()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsWhenNotRunning() throws InterruptedException {
+        committer = new OrderGroupCommitter(repository, 0, 64, 16, 1);
+        assertThatThrownBy(committer.submit(newOrder(1))::join).hasCauseInstanceOf(IllegalStateException.class);
+
+        committer.start();
+        assertThat(committer.submit(newOrder(1)).join()).isNotNull();
+        committer.stop();
+        assertThatThrownBy(committer.submit(newOrder(1))::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void batchNeverSpansTwoPartitions() throws Exception {
+        committer = start(64, 1024);
+        CompletableFuture<Order> blocker = blockWriter();
+
+        List<CompletableFuture<Order>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            futures.add(committer.submit(newOrder(1 + i)));
+        }
+        repository.release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Order> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // 32个订单取自同一批，按分区拆成每个分片一次提交
+        List<List<Order>> batches = repository.batches.subList(1, repository.batches.size());
+        assertThat(batches).hasSize(SHARDS);
+        for (List<Order> batch : batches) {
+            assertThat(partitions(batch)).hasSize(1);
+        }
+        assertThat(committer.getCommitCount()).isEqualTo(1 + SHARDS);
+        assertThat(countOrders()).isEqualTo(33);
+    }
+
+    @Test
+    void failingPartitionDoesNotRetryOtherPartitions() throws Exception {
+        committer = start(64, 1024);
+        CompletableFuture<Order> blocker = blockWriter();
+        int failing = repository.partitionOf(newOrder(2));
+        new JdbcTemplate(dataSources.get(failing)).execute("DROP TABLE order_item");
+
+        List<CompletableFuture<Order>> futures = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Order order = newOrder(1 + i);
+            orders.add(order);
+            futures.add(committer.submit(order));
+        }
+        repository.release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < orders.size(); i++) {
+            CompletableFuture<Order> future = futures.get(i);
+            if (repository.partitionOf(orders.get(i)) == failing) {
+                assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(DataAccessException.class);
+            } else {
+                assertThat(future.get(5, TimeUnit.SECONDS)).isNotNull();
+            }
+        }
+        // 其他分区各写入一次，只有失败分区的订单被逐单重试
+        for (List<Order> batch : repository.batches.subList(1, repository.batches.size())) {
+            Set<Integer> partitions = partitions(batch);
+            assertThat(partitions).hasSize(1);
+            if (!partitions.contains(failing)) {
+                assertThat(repository.batches.stream().filter(b -> b.contains(batch.get(0)))).hasSize(1);
+            }
+        }
+        long failed = orders.stream().filter(order -> repository.partitionOf(order) == failing).count();
+        assertThat(countOrders()).isEqualTo(1 + orders.size() - failed);
+    }
+
+    private OrderGroupCommitter start(int batchSize, int queueCapacity) {
+        OrderGroupCommitter started = new OrderGroupCommitter(repository, 0, batchSize, queueCapacity, 1);
+        started.start();
+        return started;
+    }
+
+    /**
+     * 提交一个订单并等待写入线程阻塞在它的事务中，之后提交的订单都留在队列里
+     */
+    private CompletableFuture<Order> blockWriter() throws InterruptedException {
+        repository.gate.set(true);
+        CompletableFuture<Order> blocker = committer.submit(newOrder(1));
+        assertThat(repository.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        return blocker;
+    }
+
+    private Set<Integer> partitions(List<Order> batch) {
+        return batch.stream().map(repository::partitionOf).collect(Collectors.toSet());
+    }
+
+    private long countOrders() {
+        long total = 0;
+        for (JdbcConnectionPool dataSource : dataSources) {
+            total += new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM `order`", Long.class);
+        }
+        return total;
+    }
+
+    private Order newOrder(long userId) {
+        long id = idGenerator.nextId(userId);
+        OrderItem item = new OrderItem();
+        item.setOrderId(id);
+        item.setProductId(1L);
+        item.setProductName("商品1");
+        item.setPrice(new BigDecimal("10.00"));
+        item.setQuantity(1);
+        item.setTotalPrice(item.getPrice());
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNo(SnowflakeIdGenerator.toOrderNo(id));
+        order.setUserId(userId);
+        order.setTotalAmount(item.getTotalPrice());
+        order.setPayAmount(item.getTotalPrice());
+        order.setStatus(Order.STATUS_PENDING_PAYMENT);
+        order.setCreateTime(LocalDateTime.now().withNano(0));
+        order.setItems(List.of(item));
+        return order;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void createTables(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE `order` (id BIGINT PRIMARY KEY, order_no VARCHAR(50) NOT NULL, "
+                + "user_id BIGINT NOT NULL, total_amount DECIMAL(10,2) NOT NULL, pay_amount DECIMAL(10,2) NOT NULL, "
+                + "status TINYINT, pay_type TINYINT, pay_time TIMESTAMP, delivery_time TIMESTAMP, "
+                + "finish_time TIMESTAMP, cancel_time TIMESTAMP, receiver_name VARCHAR(50), "
+                + "receiver_phone VARCHAR(20), receiver_address VARCHAR(255), remark VARCHAR(500), "
+                + "create_time TIMESTAMP, deleted TINYINT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_order_no ON `order` (order_no)");
+        jdbcTemplate.execute("CREATE TABLE order_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, product_name VARCHAR(100) NOT NULL, "
+                + "product_image VARCHAR(255), price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL, "
+                + "total_price DECIMAL(10,2) NOT NULL, create_time TIMESTAMP)");
+    }
+
+    /**
+     * 记录每次批量写入；打开闸门后，下一次写入在事务开始前阻塞，直到放行
+     */
+    private static final class GatedRepository extends ShardedOrderRepository {
+
+        private final List<List<Order>> batches = new CopyOnWriteArrayList<>();
+
+        private final AtomicBoolean gate = new AtomicBoolean();
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private GatedRepository(OrderShards shards) {
+            super(shards, null, 5000);
+        }
+
+        @Override
+        public void insertBatch(List<Order> orders) {
+            batches.add(List.copyOf(orders));
+            if (gate.compareAndSet(true, false)) {
+                entered.countDown();
+                OrderGroupCommitterTest.await(release);
+            }
+            super.insertBatch(orders);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.cao.ecommerce.trade.infrastructure.persistence;
+
+import com.cao.ecommerce.common.util.SnowflakeIdGenerator;
+import com.cao.ecommerce.trade.application.service.OrderQueryService;
+import com.cao.ecommerce.trade.domain.model.Order;
+import com.cao.ecommerce.trade.domain.model.OrderItem;
+import com.cao.ecommerce.trade.domain.model.OrderPage;
+import com.cao.ecommerce.trade.domain.model.OrderSummary;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 订单分片测试：每个分片是一个独立的H2内存库（MySQL兼容模式），验证按用户路由、订单号定位、
+ * 跨分片归并分页、跨分片取消，以及双写 + 后台复制的扩容
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class ShardedOrderRepositoryTest {
+
+    private static final int USERS = 40;
+
+    private static final int ORDERS_PER_USER = 3;
+
+    private static final int ITEMS_PER_ORDER = 2;
+
+    private final List<JdbcConnectionPool> dataSources = new ArrayList<>();
+
+    private final List<ShardedOrderRepository> repositories = new ArrayList<>();
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+
+    private final LocalDateTime start = LocalDateTime.now().withNano(0).minusDays(1);
+
+    private int created;
+
+    @AfterEach
+    void tearDown() {
+        repositories.forEach(ShardedOrderRepository::shutdown);
+        for (JdbcConnectionPool dataSource : dataSources) {
+            new JdbcTemplate(dataSource).execute("SHUTDOWN");
+            dataSource.dispose();
+        }
+    }
+
+    @Test
+    void ordersLiveOnTheShardOfTheirUser() {
+        OrderShards shards = createShards("route", 4);
+        ShardedOrderRepository repository = newRepository(shards, null);
+        List<Order> orders = insertOrders(repository);
+
+        for (int i = 0; i < shards.size(); i++) {
+            JdbcTemplate jdbcTemplate = jdbcTemplate(i);
+            for (Long userId : jdbcTemplate.queryForList("SELECT user_id FROM `order`", Long.class)) {
+                assertThat(shards.indexOfUser(userId)).isEqualTo(i);
+            }
+            for (Long orderId : jdbcTemplate.queryForList("SELECT order_id FROM order_item", Long.class)) {
+                assertThat(shards.indexOfOrderId(orderId)).isEqualTo(i);
+            }
+            assertThat(count(jdbcTemplate, "`order`")).isEqualTo((long) USERS / 4 * ORDERS_PER_USER);
+        }
+
+        OrderQueryService queryService = new OrderQueryService(repository, 20);
+        OrderPage page = queryService.listByUser(7, null, 20);
+        assertThat(page.getOrders()).extracting(OrderSummary::getId).containsExactlyElementsOf(orders.stream()
+                .filter(order -> order.getUserId() == 7)
+                .sorted(Comparator.comparing(Order::getCreateTime).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .toList());
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void orderNoResolvesToSingleShard() {
+        OrderShards shards = createShards("lookup", 4);
+        ShardedOrderRepository repository = newRepository(shards, null);
+        List<Order> orders = insertOrders(repository);
+        OrderQueryService queryService = new OrderQueryService(repository, 20);
+
+        for (Order order : orders.subList(0, 10)) {
+            OrderSummary found = queryService.getByOrderNo(order.getOrderNo());
+            assertThat(found.getId()).isEqualTo(order.getId());
+            assertThat(found.getItems()).hasSize(ITEMS_PER_ORDER);
+            assertThat(found.getItemCount()).isEqualTo(order.getItems().stream().mapToInt(OrderItem::getQuantity).sum());
+        }
+        assertThat(queryService.getByOrderNo(SnowflakeIdGenerator.toOrderNo(idGenerator.nextId(7)))).isNull();
+        assertThat(queryService.getByOrderNo("12ab")).isNull();
+        assertThat(queryService.getByOrderNo("")).isNull();
+        assertThat(queryService.getByOrderNo("99999999999999999999")).isNull();
+    }
+
+    @Test
+    void adminListMergesShardsNewestFirstAcrossPages() {
+        OrderShards shards = createShards("admin", 4);
+        ShardedOrderRepository repository = newRepository(shards, null);
+        List<Order> orders = insertOrders(repository);
+        List<Long> expected = orders.stream()
+                .sorted(Comparator.comparing(Order::getCreateTime).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .toList();
+        OrderQueryService queryService = new OrderQueryService(repository, 20);
+
+        List<Long> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPage page = queryService.listAll(null, cursor, 7);
+            assertThat(page.getOrders()).hasSizeLessThanOrEqualTo(7);
+            page.getOrders().forEach(order -> listed.add(order.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(listed).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void cancelAcrossShardsOnlyTouchesPendingOrders() {
+        OrderShards shards = createShards("cancel", 4);
+        ShardedOrderRepository repository = newRepository(shards, null);
+        List<Order> orders = insertOrders(repository);
+        List<Long> ids = orders.subList(0, 20).stream().map(Order::getId).toList();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        assertThat(repository.cancelPendingPayment(ids, now)).extracting(Order::getId)
+                .containsExactlyInAnyOrderElementsOf(ids);
+        // 已取消的订单不再被取消
+        assertThat(repository.cancelPendingPayment(ids, now)).isEmpty();
+
+        OrderQueryService queryService = new OrderQueryService(repository, 200);
+        assertThat(queryService.listAll(Order.STATUS_CANCELLED, null, 200).getOrders())
+                .extracting(OrderSummary::getId).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(queryService.listAll(Order.STATUS_PENDING_PAYMENT, null, 200).getOrders())
+                .hasSize(orders.size() - ids.size())
+                .extracting(OrderSummary::getId).doesNotContainAnyElementsOf(ids);
+    }
+
+    @Test
+    void failingShardFailsFanOutQuery() {
+        OrderShards shards = createShards("failing", 4);
+        ShardedOrderRepository repository = newRepository(shards, null);
+        insertOrders(repository);
+        jdbcTemplate(2).execute("DROP TABLE `order`");
+
+        // 缺一个分片的结果会让归并后的分页静默丢单，必须整体失败
+        assertThatThrownBy(() -> repository.findPage(null, null, 10)).isInstanceOf(DataAccessException.class);
+        assertThat(repository.findPageByUserId(1, null, 10)).hasSize(ORDERS_PER_USER);
+    }
+
+    @Test
+    void reshardingWithDualWriteAndCopierConverges() throws InterruptedException {
+        OrderShards source = createShards("source", 4);
+        ShardedOrderRepository repository = newRepository(source, null);
+        insertOrders(repository);
+
+        OrderShards target = createShards("target", 8);
+        ShardedOrderRepository migrating = newRepository(source, target);
+        OrderShardCopier copier = new OrderShardCopier(source, target, 16, 0, 2);
+        copier.start();
+        // 复制期间继续下单和取消，新订单和状态变更通过双写进入新分片
+        List<Long> createdDuringCopy = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Order order = newOrder(1 + i % USERS, LocalDateTime.now().withNano(0));
+            migrating.insertBatch(List.of(order));
+            createdDuringCopy.add(order.getId());
+        }
+        List<Long> cancelled = createdDuringCopy.subList(0, 30);
+        assertThat(migrating.cancelPendingPayment(cancelled, LocalDateTime.now().withNano(0))).hasSize(30);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!copier.isFinished() && copier.getPass() <= 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        copier.stop();
+        // 双写失败（与复制器并发写入同一订单）由校验补齐：再跑校验直到没有差异
+        long changed = copier.runPass();
+        for (int i = 0; i < 3 && changed > 0; i++) {
+            changed = copier.runPass();
+        }
+        assertThat(changed).isZero();
+
+        long total = 0;
+        long items = 0;
+        long cancelledInTarget = 0;
+        for (int i = 0; i < target.size(); i++) {
+            JdbcTemplate jdbcTemplate = jdbcTemplate(source.size() + i);
+            for (Long id : jdbcTemplate.queryForList("SELECT id FROM `order`", Long.class)) {
+                assertThat(target.indexOfOrderId(id)).as("order %d in shard %d", id, i).isEqualTo(i);
+                total++;
+            }
+            items += count(jdbcTemplate, "order_item");
+            cancelledInTarget += jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `order` WHERE status = "
+                    + Order.STATUS_CANCELLED, Long.class);
+        }
+        assertThat(total).isEqualTo(created);
+        assertThat(items).isEqualTo((long) created * ITEMS_PER_ORDER);
+        assertThat(cancelledInTarget).isEqualTo(cancelled.size());
+        // 翻倍后原分片 i 的订单只会落到新分片 i 和 i + 4
+        for (int i = 0; i < source.size(); i++) {
+            assertThat(count(jdbcTemplate(source.size() + i), "`order`")
+                    + count(jdbcTemplate(source.size() + i + source.size()), "`order`"))
+                    .isEqualTo(count(jdbcTemplate(i), "`order`"));
+        }
+
+        // 切换后新分片上的查询结果与旧分片一致
+        ShardedOrderRepository switched = newRepository(target, null);
+        assertThat(new OrderQueryService(switched, 200).listAll(null, null, 200).getOrders())
+                .extracting(OrderSummary::getId)
+                .containsExactlyElementsOf(new OrderQueryService(repository, 200).listAll(null, null, 200)
+                        .getOrders().stream().map(OrderSummary::getId).toList());
+    }
+
+    @Test
+    void shardCountMustBePowerOfTwoWithinGeneBits() {
+        assertThatThrownBy(() -> new OrderShards(List.of(), List.of(), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        List<OrderShard> three = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            three.add(new OrderShard("s" + i, null));
+        }
+        assertThatThrownBy(() -> new OrderShards(three, List.of(), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        List<OrderShard> tooMany = new ArrayList<>();
+        for (int i = 0; i < 2 << SnowflakeIdGenerator.GENE_BITS; i++) {
+            tooMany.add(new OrderShard("s" + i, null));
+        }
+        assertThatThrownBy(() -> new OrderShards(tooMany, List.of(), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 每个用户 ORDERS_PER_USER 个订单，下单时间交错，使全局排序跨越所有分片
+     */
+    private List<Order> insertOrders(ShardedOrderRepository repository) {
+        List<Order> orders = new ArrayList<>(USERS * ORDERS_PER_USER);
+        for (int i = 0; i < ORDERS_PER_USER; i++) {
+            for (int userId = 1; userId <= USERS; userId++) {
+                // 每两个订单同一秒下单，验证按ID打破平局
+                orders.add(newOrder(userId, start.plusSeconds((i * USERS + userId) / 2)));
+            }
+        }
+        repository.insertBatch(orders);
+        return orders;
+    }
+
+    private Order newOrder(long userId, LocalDateTime createTime) {
+        long id = idGenerator.nextId(userId);
+        List<OrderItem> items = new ArrayList<>(ITEMS_PER_ORDER);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= ITEMS_PER_ORDER; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrderId(id);
+            item.setProductId((long) i);
+            item.setProductName("商品" + i);
+            item.setPrice(BigDecimal.valueOf(1000 * i, 2));
+            item.setQuantity(i);
+            item.setTotalPrice(item.getPrice().multiply(BigDecimal.valueOf(i)));
+            total = total.add(item.getTotalPrice());
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNo(SnowflakeIdGenerator.toOrderNo(id));
+        order.setUserId(userId);
+        order.setTotalAmount(total);
+        order.setPayAmount(total);
+        order.setStatus(Order.STATUS_PENDING_PAYMENT);
+        order.setCreateTime(createTime);
+        order.setItems(items);
+        created++;
+        return order;
+    }
+
+    private ShardedOrderRepository newRepository(OrderShards shards, OrderShards dualWriteShards) {
+        ShardedOrderRepository repository = new ShardedOrderRepository(shards, dualWriteShards, 5000);
+        repositories.add(repository);
+        return repository;
+    }
+
+    private OrderShards createShards(String prefix, int count) {
+        List<OrderShard> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JdbcConnectionPool dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + prefix + "-" + i + "-"
+                    + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+            dataSources.add(dataSource);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            createTables(jdbcTemplate);
+            shards.add(new OrderShard(prefix + "-" + i, new JdbcOrderRepository(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)), null)));
+        }
+        return new OrderShards(shards, List.of(), List.of());
+    }
+
+    /**
+     * 按创建顺序编号的分片数据库
+     */
+    private JdbcTemplate jdbcTemplate(int dataSourceIndex) {
+        return new JdbcTemplate(dataSources.get(dataSourceIndex));
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    /**
+     * 与部署脚本中的 order / order_item 表结构一致
+     */
+    private static void createTables(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE `order` (id BIGINT PRIMARY KEY, order_no VARCHAR(50) NOT NULL, "
+                + "user_id BIGINT NOT NULL, total_amount DECIMAL(10,2) NOT NULL, pay_amount DECIMAL(10,2) NOT NULL, "
+                + "status TINYINT, pay_type TINYINT, pay_time TIMESTAMP, delivery_time TIMESTAMP, "
+                + "finish_time TIMESTAMP, cancel_time TIMESTAMP, receiver_name VARCHAR(50), "
+                + "receiver_phone VARCHAR(20), receiver_address VARCHAR(255), remark VARCHAR(500), "
+                + "create_time TIMESTAMP, deleted TINYINT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_order_no ON `order` (order_no)");
+        jdbcTemplate.execute("CREATE INDEX idx_user_create_time ON `order` (user_id, deleted, create_time, id)");
+        jdbcTemplate.execute("CREATE TABLE order_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, product_name VARCHAR(100) NOT NULL, "
+                + "product_image VARCHAR(255), price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL, "
+                + "total_price DECIMAL(10,2) NOT NULL, create_time TIMESTAMP)");
+    }
+}
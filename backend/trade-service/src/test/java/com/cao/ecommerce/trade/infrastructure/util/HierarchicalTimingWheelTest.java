@@ -0,0 +1,173 @@
+package com.cao.ecommerce.trade.infrastructure.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 分层时间轮测试：虚拟时间上验证触发精度（不提前、延后不超过一个刻度）、取消和重新登记、500万定时器的内存占用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MILLIS = 100;
+
+    private static final int TIMER_COUNT = 5_000_000;
+
+    /** 数组统计的每个定时器字节数上限（约28字节数组 + 8~16字节哈希表） */
+    private static final long MAX_FOOTPRINT_BYTES_PER_TIMER = 48;
+
+    /** 实测堆占用的每个定时器字节数上限；PriorityQueue<long[]> 约需70字节以上 */
+    private static final long MAX_HEAP_BYTES_PER_TIMER = 64;
+
+    @Test
+    void timersFireWithinOneTickAndNeverEarly() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, 0);
+        Random random = new Random(42);
+        int count = 1_000_000;
+        long[] deadlines = new long[count];
+        for (int i = 0; i < count; i++) {
+            // 跨越全部4层，其中一部分超出最高层范围（约19天）
+            long horizon = i % 100 == 0 ? TimeUnit.DAYS.toMillis(25) : TimeUnit.DAYS.toMillis(2);
+            deadlines[i] = 1 + (long) (random.nextDouble() * horizon);
+            wheel.schedule(i, deadlines[i]);
+        }
+        assertThat(wheel.size()).isEqualTo(count);
+
+        long[] firedAt = new long[count];
+        long[] now = {0};
+        int fired = 0;
+        while (wheel.size() > 0) {
+            now[0] += TICK_MILLIS;
+            fired += wheel.advance(now[0], id -> {
+                assertThat(firedAt[(int) id]).as("timer %d fired twice", id).isZero();
+                firedAt[(int) id] = now[0];
+            });
+        }
+
+        assertThat(fired).isEqualTo(count);
+        for (int i = 0; i < count; i++) {
+            long lateness = firedAt[i] - deadlines[i];
+            if (lateness < 0 || lateness >= TICK_MILLIS) {
+                throw new AssertionError("timer " + i + " deadline " + deadlines[i] + " fired at " + firedAt[i]);
+            }
+        }
+    }
+
+    @Test
+    void coarseAdvanceFiresInDeadlineOrder() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, 1_000);
+        wheel.schedule(3, 1_000 + TimeUnit.HOURS.toMillis(1));
+        wheel.schedule(1, 1_050);
+        wheel.schedule(2, 1_000 + TimeUnit.MINUTES.toMillis(5));
+        // 早于当前刻度的截止时间在下一次推进时立即到期
+        wheel.schedule(0, 10);
+
+        List<Long> order = new ArrayList<>();
+        assertThat(wheel.advance(1_000 + TimeUnit.HOURS.toMillis(2), order::add)).isEqualTo(4);
+        assertThat(order).containsExactly(0L, 1L, 2L, 3L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelAndRescheduleReplaceTheDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, 0);
+        wheel.schedule(1, 1_000);
+        wheel.schedule(2, 1_000);
+        wheel.schedule(2, 5_000);
+
+        assertThat(wheel.size()).isEqualTo(2);
+        assertThat(wheel.cancel(1)).isTrue();
+        assertThat(wheel.cancel(1)).isFalse();
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(4_900, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(5_000, fired::add);
+        assertThat(fired).containsExactly(2L);
+        assertThat(wheel.cancel(2)).isFalse();
+    }
+
+    @Test
+    void randomOperationsMatchReferenceModel() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, 0);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        long now = 0;
+        for (int step = 0; step < 500_000; step++) {
+            // ID集中在小范围内，反复触发哈希表的删除和探测链前移
+            long id = random.nextInt(20_000);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                long deadline = now + 1 + random.nextInt(600_000);
+                wheel.schedule(id, deadline);
+                expected.put(id, Math.max(ceilTick(deadline), now / TICK_MILLIS + 1));
+            } else if (op < 8) {
+                assertThat(wheel.cancel(id)).isEqualTo(expected.remove(id) != null);
+            } else {
+                now += random.nextInt(5_000);
+                long tick = now / TICK_MILLIS;
+                wheel.advance(now, firedId -> {
+                    Long expireTick = expected.remove(firedId);
+                    assertThat(expireTick).as("unexpected timer %d", firedId).isNotNull();
+                    assertThat(expireTick).isLessThanOrEqualTo(tick);
+                });
+                if (step % 1000 == 0) {
+                    // 抽样检查：到期刻度已过的定时器都必须已经触发
+                    expected.values().forEach(expireTick -> assertThat(expireTick).isGreaterThan(tick));
+                }
+            }
+            assertThat(wheel.size()).isEqualTo(expected.size());
+        }
+    }
+
+    @Test
+    void fiveMillionTimersStayWithinMemoryBudget() {
+        long before = usedHeap();
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MILLIS, 0);
+        long timeout = TimeUnit.MINUTES.toMillis(30);
+        for (long id = 0; id < TIMER_COUNT; id++) {
+            // 下单时间均匀分布在最近30分钟内
+            wheel.schedule(id, timeout - id * timeout / TIMER_COUNT);
+        }
+        long used = usedHeap() - before;
+
+        assertThat(wheel.size()).isEqualTo(TIMER_COUNT);
+        assertThat(wheel.getFootprintBytes() / TIMER_COUNT).isLessThanOrEqualTo(MAX_FOOTPRINT_BYTES_PER_TIMER);
+        assertThat(used / TIMER_COUNT).as("heap bytes per timer").isLessThanOrEqualTo(MAX_HEAP_BYTES_PER_TIMER);
+
+        // 取消一半后再全部到期，数量仍然准确
+        for (long id = 0; id < TIMER_COUNT; id += 2) {
+            assertThat(wheel.cancel(id)).isTrue();
+        }
+        assertThat(wheel.advance(timeout, id -> { })).isEqualTo(TIMER_COUNT / 2);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rejectsNonPositiveTick() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel(0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long ceilTick(long deadlineMillis) {
+        return Math.floorDiv(deadlineMillis + TICK_MILLIS - 1, TICK_MILLIS);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
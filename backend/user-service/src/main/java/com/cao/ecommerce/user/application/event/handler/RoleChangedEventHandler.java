@@ -0,0 +1,38 @@
+package com.cao.ecommerce.user.application.event.handler;
+
+import com.cao.ecommerce.user.application.service.AuthorizationService;
+import com.cao.ecommerce.user.domain.event.RoleChangedEvent;
+import com.cao.ecommerce.user.infrastructure.mq.producer.RoleChangedProducer;
+import org.springframework.context.event.EventListener;
+
+/**
+ * 角色变更后更新授权索引
+ *
+ * 本节点和其他节点的变更都需要更新本地索引，本节点的变更额外广播给其他节点
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class RoleChangedEventHandler {
+
+    private final AuthorizationService authorizationService;
+
+    private final RoleChangedProducer roleChangedProducer;
+
+    public RoleChangedEventHandler(AuthorizationService authorizationService, RoleChangedProducer roleChangedProducer) {
+        this.authorizationService = authorizationService;
+        this.roleChangedProducer = roleChangedProducer;
+    }
+
+    @EventListener
+    public void onRoleChanged(RoleChangedEvent event) {
+        if (event.getType() == RoleChangedEvent.Type.USER_ROLES) {
+            authorizationService.onUserRolesChanged(event.getId());
+        } else {
+            authorizationService.onRoleChanged(event.getId());
+        }
+        if (!event.isRemote()) {
+            roleChangedProducer.send(event);
+        }
+    }
+}
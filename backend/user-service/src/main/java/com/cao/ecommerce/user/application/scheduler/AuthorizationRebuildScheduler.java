@@ -0,0 +1,67 @@
+package com.cao.ecommerce.user.application.scheduler;
+
+import com.cao.ecommerce.user.application.service.AuthorizationService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户授权索引定期重建调度器
+ *
+ * 角色变更广播使用Pub/Sub，节点离线期间错过的消息不会重放；定期全量重建兜底，
+ * 同时回收收回全部角色后保留的空槽位
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class AuthorizationRebuildScheduler {
+
+    private final AuthorizationService authorizationService;
+
+    private final boolean buildOnStartup;
+
+    private final long rebuildIntervalMs;
+
+    private ScheduledExecutorService executor;
+
+    public AuthorizationRebuildScheduler(AuthorizationService authorizationService, boolean buildOnStartup,
+                                         long rebuildIntervalMs) {
+        this.authorizationService = authorizationService;
+        this.buildOnStartup = buildOnStartup;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+    }
+
+    public void start() {
+        if (buildOnStartup) {
+            authorizationService.rebuild();
+        }
+        if (rebuildIntervalMs <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "authorization-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::rebuildQuietly, rebuildIntervalMs, rebuildIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            authorizationService.rebuild();
+        } catch (RuntimeException e) {
+            // 重建失败时继续使用当前索引
+            log.warn("用户授权索引重建失败，继续使用当前索引", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.cao.ecommerce.user.application.service;
+
+import com.cao.ecommerce.user.domain.repository.UserRoleRepository;
+import com.cao.ecommerce.user.domain.service.AuthorizationIndex;
+import com.cao.ecommerce.user.domain.service.UserAuthorization;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户授权应用服务
+ *
+ * 技术要点：
+ * 1. 全量构建时流式遍历 user_role 表，构建期间旧索引继续提供服务，完成后整体替换
+ * 2. 用户角色变更时按用户ID重新查询角色并替换位图；重建期间到达的变更记录下来，新索引替换后重放
+ * 3. 角色定义变更时只替换角色快照，角色被删除或位用完时才全量重建
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class AuthorizationService {
+
+    private final UserRoleRepository userRoleRepository;
+
+    private final Map<String, List<String>> rolePermissions;
+
+    private volatile AuthorizationIndex index;
+
+    /** 重建期间发生变更的用户ID，不在重建时为null */
+    private volatile Set<Long> changedDuringRebuild;
+
+    public AuthorizationService(UserRoleRepository userRoleRepository, Map<String, List<String>> rolePermissions) {
+        this.userRoleRepository = userRoleRepository;
+        this.rolePermissions = rolePermissions;
+        this.index = new AuthorizationIndex(List.of(), rolePermissions, 0);
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        // 按当前规模预分配，避免加载过程中反复扩容
+        AuthorizationIndex rebuilt = new AuthorizationIndex(userRoleRepository.findAllRoles(), rolePermissions,
+                index.size());
+        try {
+            userRoleRepository.forEachUserRole(rebuilt::grant);
+            index = rebuilt;
+        } finally {
+            changedDuringRebuild = null;
+        }
+        for (Long userId : changed) {
+            onUserRolesChanged(userId);
+        }
+        log.info("用户授权索引构建完成: 用户数={}, 角色数={}, 权限数={}, 耗时={}ms",
+                rebuilt.size(), rebuilt.roleCount(), rebuilt.permissionCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 用户角色分配变更后更新该用户的位图
+     */
+    public void onUserRolesChanged(long userId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(userId);
+        }
+        index.setUserRoles(userId, userRoleRepository.findRoleIdsByUserId(userId));
+    }
+
+    /**
+     * 角色定义变更后更新角色快照（与重建互斥，避免重建读到旧的角色定义后覆盖本次变更）
+     */
+    public synchronized void onRoleChanged(long roleId) {
+        if (!index.updateRoles(userRoleRepository.findAllRoles())) {
+            log.info("角色被删除或角色位已用完，全量重建授权索引: roleId={}", roleId);
+            rebuild();
+        }
+    }
+
+    public UserAuthorization resolve(long userId) {
+        return index.resolve(userId);
+    }
+
+    public List<UserAuthorization> resolveAll(long[] userIds) {
+        return index.resolveAll(userIds);
+    }
+
+    public boolean hasPermission(long userId, String permission) {
+        return index.hasPermission(userId, permission);
+    }
+
+    public boolean hasRole(long userId, String roleName) {
+        return index.hasRole(userId, roleName);
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.cao.ecommerce.user.application.service;
+
+import com.cao.ecommerce.user.domain.model.UserCredential;
+import com.cao.ecommerce.user.domain.repository.UserCredentialRepository;
+import com.cao.ecommerce.user.infrastructure.util.PasswordHashingExecutor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 登录应用服务
+ *
+ * 技术要点：
+ * 1. 密码验证提交到专用的哈希线程池，请求线程只等待结果；线程池饱和时抛出
+ *    PasswordHashingRejectedException，由接口层快速返回503
+ * 2. 用户不存在、已禁用与密码错误走相同的计算路径和返回值，不暴露用户名是否存在
+ * 3. 验证成功且存储的哈希低于当前工作因子时，透明地写回新哈希（条件更新，不覆盖并发修改的密码）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class LoginService {
+
+    private final UserCredentialRepository credentialRepository;
+
+    private final PasswordHashingExecutor hashingExecutor;
+
+    public LoginService(UserCredentialRepository credentialRepository, PasswordHashingExecutor hashingExecutor) {
+        this.credentialRepository = credentialRepository;
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    /**
+     * 校验用户名和密码
+     *
+     * @return 用户ID，校验失败时返回null
+     */
+    public Long authenticate(String username, String password) {
+        UserCredential credential = credentialRepository.findByUsername(username);
+        String encoded = credential != null && credential.isEnabled() ? credential.getPasswordHash() : null;
+        PasswordHashingExecutor.Verification verification = hashingExecutor.verify(password, encoded);
+        if (!verification.isMatched()) {
+            return null;
+        }
+        if (verification.getUpgradedHash() != null) {
+            try {
+                boolean upgraded = credentialRepository.updatePasswordHash(credential.getId(), encoded,
+                        verification.getUpgradedHash());
+                log.debug("密码哈希升级: userId={}, upgraded={}", credential.getId(), upgraded);
+            } catch (RuntimeException e) {
+                // 升级失败不影响本次登录，下次登录再尝试
+                log.warn("密码哈希升级失败: userId={}", credential.getId(), e);
+            }
+        }
+        return credential.getId();
+    }
+}
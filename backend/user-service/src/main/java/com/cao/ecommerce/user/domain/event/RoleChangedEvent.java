@@ -0,0 +1,46 @@
+package com.cao.ecommerce.user.domain.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 角色变更事件
+ *
+ * 用户被授予或收回角色后发布 USER_ROLES 事件，角色新增、启用、禁用或删除后发布 ROLE 事件
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class RoleChangedEvent {
+
+    /** 变更类型 */
+    private final Type type;
+
+    /** USER_ROLES 时为用户ID，ROLE 时为角色ID */
+    private final long id;
+
+    /** 是否由其他节点广播而来：本节点的变更需要广播，其他节点的变更只需更新本地索引 */
+    private final boolean remote;
+
+    public static RoleChangedEvent userRoles(long userId) {
+        return new RoleChangedEvent(Type.USER_ROLES, userId, false);
+    }
+
+    public static RoleChangedEvent role(long roleId) {
+        return new RoleChangedEvent(Type.ROLE, roleId, false);
+    }
+
+    /**
+     * 变更类型
+     */
+    public enum Type {
+
+        /** 某个用户的角色分配变化（user_role） */
+        USER_ROLES,
+
+        /** 角色定义变化（role） */
+        ROLE
+    }
+}
@@ -0,0 +1,30 @@
+package com.cao.ecommerce.user.domain.model;
+
+import lombok.Data;
+
+/**
+ * 角色
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class Role {
+
+    /** 启用状态 */
+    public static final int STATUS_ENABLED = 1;
+
+    private Long id;
+
+    /** 角色名称，如 ADMIN、USER，与权限配置按名称对应 */
+    private String roleName;
+
+    private String roleDesc;
+
+    /** 状态：0-禁用，1-启用 */
+    private Integer status;
+
+    public boolean isEnabled() {
+        return status != null && status == STATUS_ENABLED;
+    }
+}
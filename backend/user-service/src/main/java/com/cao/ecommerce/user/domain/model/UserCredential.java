@@ -0,0 +1,30 @@
+package com.cao.ecommerce.user.domain.model;
+
+import lombok.Data;
+
+/**
+ * 用户登录凭证（用户表中登录需要的字段）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+public class UserCredential {
+
+    /** 正常状态 */
+    public static final int STATUS_ENABLED = 1;
+
+    private Long id;
+
+    private String username;
+
+    /** 密码哈希，格式见 PasswordHasher */
+    private String passwordHash;
+
+    /** 状态：0-禁用，1-正常 */
+    private Integer status;
+
+    public boolean isEnabled() {
+        return status != null && status == STATUS_ENABLED;
+    }
+}
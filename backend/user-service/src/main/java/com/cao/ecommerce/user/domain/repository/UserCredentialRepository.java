@@ -0,0 +1,26 @@
+package com.cao.ecommerce.user.domain.repository;
+
+import com.cao.ecommerce.user.domain.model.UserCredential;
+
+/**
+ * 用户凭证仓储
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface UserCredentialRepository {
+
+    /**
+     * 按用户名查询未删除的用户凭证
+     *
+     * @return 凭证，不存在时返回null
+     */
+    UserCredential findByUsername(String username);
+
+    /**
+     * 替换密码哈希，只有当前哈希仍为 expectedHash 时才修改，避免覆盖并发修改的新密码
+     *
+     * @return 是否有记录被修改
+     */
+    boolean updatePasswordHash(long userId, String expectedHash, String newHash);
+}
@@ -0,0 +1,40 @@
+package com.cao.ecommerce.user.domain.repository;
+
+import com.cao.ecommerce.user.domain.model.Role;
+
+import java.util.List;
+
+/**
+ * 用户角色仓储
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public interface UserRoleRepository {
+
+    /**
+     * 查询全部角色（包括已禁用的角色）
+     */
+    List<Role> findAllRoles();
+
+    /**
+     * 流式遍历全部用户角色关系，不会把整表加载到内存
+     */
+    void forEachUserRole(UserRoleConsumer consumer);
+
+    /**
+     * 查询用户的角色ID
+     *
+     * @return 角色ID，用户没有角色时返回空数组
+     */
+    long[] findRoleIdsByUserId(long userId);
+
+    /**
+     * 用户角色关系回调，参数为基本类型，遍历时不产生装箱对象
+     */
+    @FunctionalInterface
+    interface UserRoleConsumer {
+
+        void accept(long userId, long roleId);
+    }
+}
@@ -0,0 +1,464 @@
+package com.cao.ecommerce.user.domain.service;
+
+import com.cao.ecommerce.user.domain.model.Role;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 用户授权索引：用户 → 角色位图，角色 → 权限位图
+ *
+ * 技术要点：
+ * 1. 每个角色分配一个位（最多64个），用户的角色集合编码为一个long；权限按名称排序后同样分配位，
+ *    每个角色的权限集合也是一个long，用户权限 = 所拥有角色的权限位图按位或
+ * 2. 用户表是以long为键的开放寻址表（线性探测），用户ID和角色位图交替存放在同一个long[]中，
+ *    不产生Long、Node、HashSet对象；每个用户占16字节的槽位，负载因子不超过0.75，约21~43字节/用户
+ * 3. 读多写少：读路径使用StampedLock乐观读，没有写入时既不加锁也不写共享变量；
+ *    授予/收回角色和扩容持有写锁，乐观读校验失败时退化为读锁重读
+ * 4. 角色位在索引的生命周期内不变：新角色分配空闲位，禁用的角色保留位但查询时屏蔽；
+ *    角色被删除（位可能仍残留在用户位图中）或64个位用完时，由调用方全量重建
+ *
+ * 面试要点：
+ * - 为什么用位图：角色和权限数量少而用户数量大，"是否拥有某权限"变成一次按位与，批量查询不产生中间集合
+ * - 为什么不用 HashMap&lt;Long, Set&lt;Long&gt;&gt;：每个用户至少一个Node、一个Long键和一个HashSet，
+ *   约200字节以上，百万用户需要数百MB，且全量加载时产生大量短命对象
+ * - 用户收回全部角色后保留值为0的槽位而不删除，线性探测不需要墓碑，下次重建时清理
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class AuthorizationIndex {
+
+    /** 角色数量上限（一个long的位数） */
+    public static final int MAX_ROLES = Long.SIZE;
+
+    /** 权限数量上限（一个long的位数） */
+    public static final int MAX_PERMISSIONS = Long.SIZE;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int MAX_LOAD_PERCENT = 75;
+
+    /** 空槽标记，用户ID为正数 */
+    private static final long EMPTY = 0L;
+
+    /** 角色名称 → 权限名称，构建后不变 */
+    private final Map<String, List<String>> rolePermissions;
+
+    /** 按位排列的权限名称 */
+    private final String[] permissionNames;
+
+    /** 权限名称 → 位 */
+    private final Map<String, Integer> permissionBits;
+
+    private final StampedLock lock = new StampedLock();
+
+    private volatile RoleTable roleTable;
+
+    /** 槽位：slots[2i]为用户ID，slots[2i+1]为角色位图；单个数组保证乐观读看到的键和值来自同一张表 */
+    private long[] slots;
+
+    private int size;
+
+    /**
+     * @param roles           全部角色（包括禁用的角色）
+     * @param rolePermissions 角色名称 → 权限名称
+     * @param expectedUsers   预计的用户数，用于预分配槽位，避免全量加载时反复扩容
+     */
+    public AuthorizationIndex(Collection<Role> roles, Map<String, List<String>> rolePermissions, int expectedUsers) {
+        this.rolePermissions = rolePermissions == null ? Map.of() : rolePermissions;
+        TreeSet<String> names = new TreeSet<>();
+        this.rolePermissions.values().forEach(names::addAll);
+        if (names.size() > MAX_PERMISSIONS) {
+            throw new IllegalStateException("权限数量 " + names.size() + " 超过位图上限 " + MAX_PERMISSIONS);
+        }
+        this.permissionNames = names.toArray(new String[0]);
+        Map<String, Integer> bits = new HashMap<>();
+        for (int i = 0; i < permissionNames.length; i++) {
+            bits.put(permissionNames[i], i);
+        }
+        this.permissionBits = bits;
+
+        List<Role> sorted = new ArrayList<>(roles);
+        sorted.sort(Comparator.comparing(Role::getId));
+        if (sorted.size() > MAX_ROLES) {
+            throw new IllegalStateException("角色数量 " + sorted.size() + " 超过位图上限 " + MAX_ROLES);
+        }
+        Map<Long, Integer> roleBits = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            roleBits.put(sorted.get(i).getId(), i);
+        }
+        this.roleTable = createRoleTable(sorted, roleBits);
+        this.slots = new long[tableCapacity(Math.max(expectedUsers, DEFAULT_CAPACITY)) * 2];
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 给用户追加一个角色（全量加载时逐行调用），未知的角色忽略
+     */
+    public void grant(long userId, long roleId) {
+        int bit = roleTable.bitOf(roleId);
+        if (bit < 0 || userId <= 0) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int index = findSlot(userId);
+            if (slots[index] == EMPTY) {
+                index = insert(userId, index);
+            }
+            slots[index + 1] |= 1L << bit;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 替换用户的全部角色，未知的角色忽略
+     */
+    public void setUserRoles(long userId, long[] roleIds) {
+        if (userId <= 0) {
+            return;
+        }
+        RoleTable table = roleTable;
+        long mask = 0;
+        for (long roleId : roleIds) {
+            int bit = table.bitOf(roleId);
+            if (bit >= 0) {
+                mask |= 1L << bit;
+            }
+        }
+        long stamp = lock.writeLock();
+        try {
+            int index = findSlot(userId);
+            if (slots[index] == EMPTY) {
+                if (mask == 0) {
+                    return;
+                }
+                index = insert(userId, index);
+            }
+            slots[index + 1] = mask;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 更新角色定义（新增、启用、禁用）
+     *
+     * @return false 表示有角色被删除或角色位已用完，需要全量重建索引
+     */
+    public synchronized boolean updateRoles(Collection<Role> roles) {
+        RoleTable current = roleTable;
+        Map<Long, Integer> roleBits = new HashMap<>();
+        long used = 0;
+        for (Role role : roles) {
+            int bit = current.bitOf(role.getId());
+            if (bit >= 0) {
+                roleBits.put(role.getId(), bit);
+                used |= 1L << bit;
+            }
+        }
+        if (roleBits.size() < current.roleIds.length) {
+            return false;
+        }
+        List<Role> sorted = new ArrayList<>(roles);
+        sorted.sort(Comparator.comparing(Role::getId));
+        for (Role role : sorted) {
+            if (!roleBits.containsKey(role.getId())) {
+                if (used == -1L) {
+                    return false;
+                }
+                int bit = Long.numberOfTrailingZeros(~used);
+                roleBits.put(role.getId(), bit);
+                used |= 1L << bit;
+            }
+        }
+        roleTable = createRoleTable(sorted, roleBits);
+        return true;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 用户的角色位图（已屏蔽禁用的角色），位的含义只在本索引内有效
+     */
+    public long roleMask(long userId) {
+        return read(userId) & roleTable.enabledMask;
+    }
+
+    /**
+     * 用户的权限位图
+     */
+    public long permissionMask(long userId) {
+        return roleTable.permissionsOf(read(userId));
+    }
+
+    public boolean hasRole(long userId, String roleName) {
+        RoleTable table = roleTable;
+        Integer bit = table.bitByName.get(roleName);
+        return bit != null && (read(userId) & table.enabledMask & (1L << bit)) != 0;
+    }
+
+    public boolean hasPermission(long userId, String permission) {
+        Integer bit = permissionBits.get(permission);
+        return bit != null && (permissionMask(userId) & (1L << bit)) != 0;
+    }
+
+    /**
+     * 解析单个用户的角色和权限名称
+     */
+    public UserAuthorization resolve(long userId) {
+        return toAuthorization(roleTable, userId, read(userId));
+    }
+
+    /**
+     * 批量解析，整批只做一次乐观读校验
+     */
+    public List<UserAuthorization> resolveAll(long[] userIds) {
+        long[] masks = new long[userIds.length];
+        long stamp = lock.tryOptimisticRead();
+        readAll(slots, userIds, masks);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                readAll(slots, userIds, masks);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        RoleTable table = roleTable;
+        List<UserAuthorization> result = new ArrayList<>(userIds.length);
+        for (int i = 0; i < userIds.length; i++) {
+            result.add(toAuthorization(table, userIds[i], masks[i]));
+        }
+        return result;
+    }
+
+    /**
+     * 已登记的用户数（包括收回全部角色后保留的槽位）
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int roleCount() {
+        return roleTable.roleIds.length;
+    }
+
+    public int permissionCount() {
+        return permissionNames.length;
+    }
+
+    /**
+     * 用户表数组占用的字节数（不含数组对象头）
+     */
+    public long getFootprintBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) slots.length * Long.BYTES;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ==================== 内部实现 ====================
+
+    private long read(long userId) {
+        long stamp = lock.tryOptimisticRead();
+        long mask = lookup(slots, userId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                mask = lookup(slots, userId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return mask;
+    }
+
+    private static void readAll(long[] table, long[] userIds, long[] masks) {
+        for (int i = 0; i < userIds.length; i++) {
+            masks[i] = lookup(table, userIds[i]);
+        }
+    }
+
+    /**
+     * 查找用户的原始角色位图；乐观读期间表可能正在被修改，探测次数以槽位数为上限，结果由调用方校验
+     */
+    private static long lookup(long[] table, long userId) {
+        int capacity = table.length >>> 1;
+        int mask = capacity - 1;
+        int slot = hash(userId) & mask;
+        for (int probes = 0; probes < capacity; probes++) {
+            long key = table[slot << 1];
+            if (key == userId) {
+                return table[(slot << 1) + 1];
+            }
+            if (key == EMPTY) {
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * 返回用户所在槽位或应插入的空槽位在数组中的下标（持有写锁时调用）
+     */
+    private int findSlot(long userId) {
+        int mask = (slots.length >>> 1) - 1;
+        int slot = hash(userId) & mask;
+        while (slots[slot << 1] != EMPTY && slots[slot << 1] != userId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot << 1;
+    }
+
+    /**
+     * 在空槽位登记用户，必要时扩容（持有写锁时调用）
+     *
+     * @return 用户所在槽位的下标
+     */
+    private int insert(long userId, int index) {
+        if ((size + 1) * 100L > (long) (slots.length >>> 1) * MAX_LOAD_PERCENT) {
+            resize();
+            index = findSlot(userId);
+        }
+        slots[index] = userId;
+        size++;
+        return index;
+    }
+
+    private void resize() {
+        long[] old = slots;
+        long[] resized = new long[old.length * 2];
+        int mask = (resized.length >>> 1) - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            long key = old[i];
+            if (key != EMPTY) {
+                int slot = hash(key) & mask;
+                while (resized[slot << 1] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                resized[slot << 1] = key;
+                resized[(slot << 1) + 1] = old[i + 1];
+            }
+        }
+        slots = resized;
+    }
+
+    /**
+     * 自增ID是连续的，乘以黄金分割常数后取高位，打散到整张表
+     */
+    private static int hash(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableCapacity(int expectedUsers) {
+        long needed = expectedUsers * 100L / MAX_LOAD_PERCENT + 1;
+        return (int) Math.min(1L << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    private RoleTable createRoleTable(List<Role> sortedRoles, Map<Long, Integer> roleBits) {
+        long[] roleIds = new long[sortedRoles.size()];
+        int[] bits = new int[sortedRoles.size()];
+        String[] roleNames = new String[MAX_ROLES];
+        long[] permissionMasks = new long[MAX_ROLES];
+        Map<String, Integer> bitByName = new HashMap<>();
+        long enabledMask = 0;
+        for (int i = 0; i < sortedRoles.size(); i++) {
+            Role role = sortedRoles.get(i);
+            int bit = roleBits.get(role.getId());
+            roleIds[i] = role.getId();
+            bits[i] = bit;
+            roleNames[bit] = role.getRoleName();
+            bitByName.put(role.getRoleName(), bit);
+            for (String permission : rolePermissions.getOrDefault(role.getRoleName(), List.of())) {
+                permissionMasks[bit] |= 1L << permissionBits.get(permission);
+            }
+            if (role.isEnabled()) {
+                enabledMask |= 1L << bit;
+            }
+        }
+        return new RoleTable(roleIds, bits, roleNames, permissionMasks, bitByName, enabledMask);
+    }
+
+    private UserAuthorization toAuthorization(RoleTable table, long userId, long rawMask) {
+        long roles = rawMask & table.enabledMask;
+        long permissions = table.permissionsOf(rawMask);
+        return new UserAuthorization(userId, names(table.roleNames, roles), names(permissionNames, permissions));
+    }
+
+    private static List<String> names(String[] byBit, long mask) {
+        if (mask == 0) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>(Long.bitCount(mask));
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            names.add(byBit[Long.numberOfTrailingZeros(remaining)]);
+        }
+        return names;
+    }
+
+    /**
+     * 角色定义快照，角色变更时整体替换
+     */
+    private static final class RoleTable {
+
+        /** 按ID升序排列，二分查找角色的位 */
+        private final long[] roleIds;
+
+        private final int[] bits;
+
+        /** 按位排列的角色名称 */
+        private final String[] roleNames;
+
+        /** 按位排列的角色权限位图 */
+        private final long[] permissionMasks;
+
+        private final Map<String, Integer> bitByName;
+
+        /** 启用的角色位 */
+        private final long enabledMask;
+
+        private RoleTable(long[] roleIds, int[] bits, String[] roleNames, long[] permissionMasks,
+                          Map<String, Integer> bitByName, long enabledMask) {
+            this.roleIds = roleIds;
+            this.bits = bits;
+            this.roleNames = roleNames;
+            this.permissionMasks = permissionMasks;
+            this.bitByName = bitByName;
+            this.enabledMask = enabledMask;
+        }
+
+        private int bitOf(long roleId) {
+            int index = Arrays.binarySearch(roleIds, roleId);
+            return index < 0 ? -1 : bits[index];
+        }
+
+        private long permissionsOf(long rawMask) {
+            long permissions = 0;
+            for (long remaining = rawMask & enabledMask; remaining != 0; remaining &= remaining - 1) {
+                permissions |= permissionMasks[Long.numberOfTrailingZeros(remaining)];
+            }
+            return permissions;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.cao.ecommerce.user.domain.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 用户授权信息（对外返回名称而不是位图，位的分配只在单个节点的索引内有效）
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class UserAuthorization {
+
+    private final long userId;
+
+    /** 启用的角色名称 */
+    private final List<String> roles;
+
+    /** 角色合并后的权限名称 */
+    private final List<String> permissions;
+}
@@ -0,0 +1,92 @@
+package com.cao.ecommerce.user.infrastructure.config;
+
+import com.cao.ecommerce.user.application.event.handler.RoleChangedEventHandler;
+import com.cao.ecommerce.user.application.scheduler.AuthorizationRebuildScheduler;
+import com.cao.ecommerce.user.application.service.AuthorizationService;
+import com.cao.ecommerce.user.domain.repository.UserRoleRepository;
+import com.cao.ecommerce.user.infrastructure.mq.consumer.RoleChangedConsumer;
+import com.cao.ecommerce.user.infrastructure.mq.producer.RoleChangedProducer;
+import com.cao.ecommerce.user.infrastructure.persistence.JdbcUserRoleRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 用户授权索引装配
+ *
+ * 默认关闭，开启数据源后通过 ecommerce.user.authorization.enabled=true 启用；
+ * 多节点部署时设置 remote-type=redis，角色变更通过Redis Pub/Sub广播到所有节点
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(AuthorizationProperties.class)
+@ConditionalOnProperty(prefix = AuthorizationProperties.PREFIX, name = "enabled", havingValue = "true")
+public class AuthorizationConfig {
+
+    @Bean
+    public UserRoleRepository userRoleRepository(DataSource dataSource) {
+        return new JdbcUserRoleRepository(new JdbcTemplate(dataSource));
+    }
+
+    @Bean
+    public AuthorizationService authorizationService(UserRoleRepository userRoleRepository,
+                                                     AuthorizationProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        AuthorizationService service = new AuthorizationService(userRoleRepository, properties.getRolePermissions());
+        Gauge.builder("user.authorization.index.size", service, AuthorizationService::size)
+                .description("授权索引中的用户数").register(meterRegistry);
+        return service;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AuthorizationRebuildScheduler authorizationRebuildScheduler(AuthorizationService authorizationService,
+                                                                       AuthorizationProperties properties) {
+        return new AuthorizationRebuildScheduler(authorizationService, properties.isBuildOnStartup(),
+                properties.getRebuildIntervalMs());
+    }
+
+    @Bean
+    public RoleChangedProducer roleChangedProducer(AuthorizationProperties properties,
+                                                   ObjectProvider<StringRedisTemplate> redisTemplate) {
+        return new RoleChangedProducer("redis".equalsIgnoreCase(properties.getRemoteType())
+                ? redisTemplate.getObject() : null);
+    }
+
+    @Bean
+    public RoleChangedEventHandler roleChangedEventHandler(AuthorizationService authorizationService,
+                                                           RoleChangedProducer roleChangedProducer) {
+        return new RoleChangedEventHandler(authorizationService, roleChangedProducer);
+    }
+
+    /**
+     * 多节点角色变更订阅
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = AuthorizationProperties.PREFIX, name = "remote-type", havingValue = "redis")
+    static class RoleChangedListenerConfig {
+
+        @Bean
+        public RedisMessageListenerContainer roleChangedListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                          ApplicationEventPublisher eventPublisher) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(new RoleChangedConsumer(eventPublisher),
+                    new ChannelTopic(RoleChangedProducer.CHANNEL));
+            return container;
+        }
+    }
+}
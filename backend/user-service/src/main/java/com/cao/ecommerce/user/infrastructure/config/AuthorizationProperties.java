@@ -0,0 +1,39 @@
+package com.cao.ecommerce.user.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户授权索引配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = AuthorizationProperties.PREFIX)
+public class AuthorizationProperties {
+
+    public static final String PREFIX = "ecommerce.user.authorization";
+
+    /** 是否启用内存授权索引（依赖数据源，第三阶段启用） */
+    private boolean enabled = false;
+
+    /** memory：单节点；redis：多节点，角色变更通过Pub/Sub广播 */
+    private String remoteType = "memory";
+
+    /** 启动时是否全量构建索引 */
+    private boolean buildOnStartup = true;
+
+    /** 定期全量重建的间隔（毫秒），兜底错过的变更广播，0表示不重建 */
+    private long rebuildIntervalMs = 3600000;
+
+    /** 批量查询单次最多的用户数 */
+    private int maxBatchSize = 1000;
+
+    /** 角色名称 → 权限名称（库中没有权限表，权限随版本发布），全部角色合计最多64种权限 */
+    private Map<String, List<String>> rolePermissions = new LinkedHashMap<>();
+}
@@ -0,0 +1,62 @@
+package com.cao.ecommerce.user.infrastructure.config;
+
+import com.cao.ecommerce.user.application.service.LoginService;
+import com.cao.ecommerce.user.domain.repository.UserCredentialRepository;
+import com.cao.ecommerce.user.infrastructure.persistence.JdbcUserCredentialRepository;
+import com.cao.ecommerce.user.infrastructure.util.PasswordHashingExecutor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 登录与密码哈希装配
+ *
+ * 默认关闭，开启数据源后通过 ecommerce.user.password.enabled=true 启用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+@ConditionalOnProperty(prefix = PasswordHashingProperties.PREFIX, name = "enabled", havingValue = "true")
+public class PasswordHashingConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public PasswordHashingExecutor passwordHashingExecutor(PasswordHashingProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(properties.getThreads(),
+                properties.getQueueCapacity(), properties.getMaxQueueWaitMs(), properties.getMinIterations(),
+                properties.getMaxIterations(), properties.getTargetLatencyMs());
+        Gauge.builder("user.password.hash.iterations", executor, PasswordHashingExecutor::getIterations)
+                .description("当前PBKDF2迭代次数").register(meterRegistry);
+        Gauge.builder("user.password.hash.queue", executor, PasswordHashingExecutor::getQueueSize)
+                .description("等待哈希的任务数").register(meterRegistry);
+        Gauge.builder("user.password.hash.active", executor, PasswordHashingExecutor::getActiveCount)
+                .description("正在哈希的线程数").register(meterRegistry);
+        FunctionCounter.builder("user.password.hash.count", executor, PasswordHashingExecutor::getHashCount)
+                .register(meterRegistry);
+        FunctionCounter.builder("user.password.hash.rejected", executor, PasswordHashingExecutor::getRejectedCount)
+                .tag("reason", "queue_full").register(meterRegistry);
+        FunctionCounter.builder("user.password.hash.rejected", executor, PasswordHashingExecutor::getExpiredCount)
+                .tag("reason", "queue_timeout").register(meterRegistry);
+        return executor;
+    }
+
+    @Bean
+    public UserCredentialRepository userCredentialRepository(DataSource dataSource) {
+        return new JdbcUserCredentialRepository(new JdbcTemplate(dataSource));
+    }
+
+    @Bean
+    public LoginService loginService(UserCredentialRepository userCredentialRepository,
+                                     PasswordHashingExecutor passwordHashingExecutor) {
+        return new LoginService(userCredentialRepository, passwordHashingExecutor);
+    }
+}
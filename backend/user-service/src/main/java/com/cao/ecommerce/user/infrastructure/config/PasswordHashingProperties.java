@@ -0,0 +1,38 @@
+package com.cao.ecommerce.user.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 密码哈希配置
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = PasswordHashingProperties.PREFIX)
+public class PasswordHashingProperties {
+
+    public static final String PREFIX = "ecommerce.user.password";
+
+    /** 是否启用登录和密码哈希线程池（依赖数据源，第三阶段启用） */
+    private boolean enabled = false;
+
+    /** 哈希线程数，0表示CPU核数 */
+    private int threads = 0;
+
+    /** 等待哈希的任务数上限，超出后立即拒绝 */
+    private int queueCapacity = 64;
+
+    /** 任务的最长排队时间（毫秒），超时丢弃 */
+    private long maxQueueWaitMs = 1000;
+
+    /** PBKDF2迭代次数下限（安全底线） */
+    private int minIterations = 600000;
+
+    /** PBKDF2迭代次数上限 */
+    private int maxIterations = 5000000;
+
+    /** 单次哈希的目标耗时（毫秒），工作因子在上下限之间自动调整 */
+    private long targetLatencyMs = 250;
+}
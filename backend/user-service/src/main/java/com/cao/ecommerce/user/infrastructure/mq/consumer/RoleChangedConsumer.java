@@ -0,0 +1,42 @@
+package com.cao.ecommerce.user.infrastructure.mq.consumer;
+
+import com.cao.ecommerce.user.domain.event.RoleChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 角色变更消息消费者
+ *
+ * 以远程事件的形式转发角色变更，供授权索引增量更新
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class RoleChangedConsumer implements MessageListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RoleChangedConsumer(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        RoleChangedEvent event;
+        try {
+            event = new RoleChangedEvent(RoleChangedEvent.Type.valueOf(body.substring(0, separator)),
+                    Long.parseLong(body.substring(separator + 1)), true);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            log.warn("忽略无法解析的角色变更消息: {}", body);
+            return;
+        }
+        eventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,42 @@
+package com.cao.ecommerce.user.infrastructure.mq.producer;
+
+import com.cao.ecommerce.user.domain.event.RoleChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 角色变更消息发送者
+ *
+ * 广播角色变更，其他节点收到后更新各自的授权索引。消息通过Redis Pub/Sub发送，格式为"类型:ID"；
+ * 错过消息的节点在下一次定期重建时追平。本节点也会收到自己的消息，重复更新是幂等的
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class RoleChangedProducer {
+
+    /** 角色变更消息频道 */
+    public static final String CHANNEL = "ecommerce:user:role-changed";
+
+    /** 为null时为单节点模式，不广播 */
+    private final StringRedisTemplate redisTemplate;
+
+    public RoleChangedProducer(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 广播角色变更
+     */
+    public void send(RoleChangedEvent event) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, event.getType().name() + ':' + event.getId());
+        } catch (RuntimeException e) {
+            log.warn("角色变更消息发送失败: type={}, id={}", event.getType(), event.getId(), e);
+        }
+    }
+}
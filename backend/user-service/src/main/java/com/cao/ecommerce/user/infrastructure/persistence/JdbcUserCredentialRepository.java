@@ -0,0 +1,49 @@
+package com.cao.ecommerce.user.infrastructure.persistence;
+
+import com.cao.ecommerce.user.domain.model.UserCredential;
+import com.cao.ecommerce.user.domain.repository.UserCredentialRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+/**
+ * 基于JDBC的用户凭证仓储实现
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class JdbcUserCredentialRepository implements UserCredentialRepository {
+
+    private static final String SELECT_BY_USERNAME =
+            "SELECT id, username, password, status FROM user WHERE username = ? AND deleted = 0";
+
+    private static final String UPDATE_PASSWORD =
+            "UPDATE user SET password = ? WHERE id = ? AND password = ? AND deleted = 0";
+
+    private static final RowMapper<UserCredential> CREDENTIAL_ROW_MAPPER = (rs, rowNum) -> {
+        UserCredential credential = new UserCredential();
+        credential.setId(rs.getLong("id"));
+        credential.setUsername(rs.getString("username"));
+        credential.setPasswordHash(rs.getString("password"));
+        credential.setStatus(rs.getInt("status"));
+        return credential;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcUserCredentialRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public UserCredential findByUsername(String username) {
+        List<UserCredential> result = jdbcTemplate.query(SELECT_BY_USERNAME, CREDENTIAL_ROW_MAPPER, username);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @Override
+    public boolean updatePasswordHash(long userId, String expectedHash, String newHash) {
+        return jdbcTemplate.update(UPDATE_PASSWORD, newHash, userId, expectedHash) > 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.cao.ecommerce.user.infrastructure.persistence;
+
+import com.cao.ecommerce.user.domain.model.Role;
+import com.cao.ecommerce.user.domain.repository.UserRoleRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * 基于JDBC的用户角色仓储实现
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class JdbcUserRoleRepository implements UserRoleRepository {
+
+    private static final String SELECT_ALL_ROLES = "SELECT id, role_name, role_desc, status FROM role";
+
+    private static final String SELECT_ALL_USER_ROLES = "SELECT user_id, role_id FROM user_role";
+
+    private static final String SELECT_ROLE_IDS_BY_USER_ID = "SELECT role_id FROM user_role WHERE user_id = ?";
+
+    private static final RowMapper<Role> ROLE_ROW_MAPPER = (rs, rowNum) -> {
+        Role role = new Role();
+        role.setId(rs.getLong("id"));
+        role.setRoleName(rs.getString("role_name"));
+        role.setRoleDesc(rs.getString("role_desc"));
+        role.setStatus(rs.getInt("status"));
+        return role;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcUserRoleRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Role> findAllRoles() {
+        return jdbcTemplate.query(SELECT_ALL_ROLES, ROLE_ROW_MAPPER);
+    }
+
+    @Override
+    public void forEachUserRole(UserRoleConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ALL_USER_ROLES,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL驱动只有fetchSize为Integer.MIN_VALUE时才逐行流式读取，否则一次性缓冲整个结果集
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getLong(2)));
+    }
+
+    @Override
+    public long[] findRoleIdsByUserId(long userId) {
+        return jdbcTemplate.query(SELECT_ROLE_IDS_BY_USER_ID, (rs, rowNum) -> rs.getLong(1), userId)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,105 @@
+package com.cao.ecommerce.user.infrastructure.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 密码哈希
+ *
+ * 存储格式：pbkdf2-sha256$迭代次数$Base64(盐)$Base64(哈希)，迭代次数随哈希一起保存，
+ * 工作因子调整后旧哈希仍可验证，并能识别出需要升级的哈希
+ *
+ * 技术要点：
+ * 1. 每个密码使用16字节随机盐，相同密码的哈希不同，预计算的彩虹表失效
+ * 2. 迭代次数就是工作因子：单次验证耗时线性增长，离线暴力破解的成本同比增长
+ * 3. 使用JDK自带实现，不引入额外依赖；比较哈希使用常量时间比较
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public final class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2-sha256";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final int SALT_BYTES = 16;
+
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * 使用随机盐计算密码哈希
+     *
+     * @return 存储格式的哈希
+     */
+    public static String hash(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + '$' + iterations + '$' + encoder.encodeToString(salt) + '$'
+                + encoder.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * 验证密码，格式无法识别时返回false
+     */
+    public static boolean matches(String password, String encoded) {
+        String[] parts = split(encoded);
+        if (parts == null) {
+            return false;
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] salt;
+        byte[] expected;
+        try {
+            salt = decoder.decode(parts[2]);
+            expected = decoder.decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (salt.length == 0) {
+            return false;
+        }
+        return MessageDigest.isEqual(derive(password, salt, Integer.parseInt(parts[1])), expected);
+    }
+
+    /**
+     * 哈希使用的迭代次数，格式无法识别时返回-1
+     */
+    public static int iterationsOf(String encoded) {
+        String[] parts = split(encoded);
+        return parts == null ? -1 : Integer.parseInt(parts[1]);
+    }
+
+    private static String[] split(String encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0]) || parts[1].isEmpty() || parts[1].length() > 9
+                || !parts[1].chars().allMatch(Character::isDigit) || Integer.parseInt(parts[1]) == 0) {
+            return null;
+        }
+        return parts;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
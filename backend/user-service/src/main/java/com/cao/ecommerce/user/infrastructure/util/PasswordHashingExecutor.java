@@ -0,0 +1,248 @@
+package com.cao.ecommerce.user.infrastructure.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码哈希专用线程池（有界队列 + 自适应工作因子）
+ *
+ * 技术要点：
+ * 1. 密码哈希是刻意放慢的纯CPU计算，线程数等于CPU核数即可跑满CPU，更多线程只会增加切换；
+ *    与请求线程隔离后，撞库流量最多占满这个线程池，其他接口的请求线程和CPU时间片不受影响
+ * 2. 有界队列，队列满时立即拒绝（调用方返回503），不在请求线程上无限排队；
+ *    任务开始执行时检查排队时间，超过 maxQueueWait 的任务直接丢弃，此时客户端多半已经超时
+ * 3. 工作因子（PBKDF2迭代次数）按实测的单次迭代耗时（指数加权平均，只统计执行时间不含排队）
+ *    调整到目标延迟，并限制在 [minIterations, maxIterations]；下限即安全底线，机器变慢时也不会低于它。
+ *    偏差超过10%才调整，避免抖动
+ * 4. 登录验证成功时，如果存储的哈希迭代次数低于当前工作因子，用明文密码重新计算一次哈希，由调用方写回
+ *
+ * 面试要点：
+ * - 为什么不在请求线程上直接计算：Tomcat线程数远大于CPU核数，攻击流量会让所有请求线程都在算哈希，
+ *   健康检查、商品查询等接口一起超时
+ * - 为什么用户不存在时也要计算一次哈希：否则响应时间暴露用户名是否存在
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@Slf4j
+public class PasswordHashingExecutor {
+
+    /** 单次迭代耗时的平滑系数 */
+    private static final double ALPHA = 0.1;
+
+    /** 工作因子的调整粒度 */
+    private static final int ITERATION_STEP = 10000;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long maxQueueWaitNanos;
+
+    private final int minIterations;
+
+    private final int maxIterations;
+
+    private final long targetNanos;
+
+    private volatile int iterations;
+
+    /** 单次迭代耗时（纳秒）的加权平均，0表示尚未采样 */
+    private double nanosPerIteration;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    private final LongAdder hashCount = new LongAdder();
+
+    /**
+     * @param threads         线程数，0表示CPU核数
+     * @param queueCapacity   队列容量
+     * @param maxQueueWaitMs  任务的最长排队时间（毫秒）
+     * @param minIterations   迭代次数下限（安全底线）
+     * @param maxIterations   迭代次数上限
+     * @param targetLatencyMs 单次哈希的目标耗时（毫秒）
+     */
+    public PasswordHashingExecutor(int threads, int queueCapacity, long maxQueueWaitMs, int minIterations,
+                                   int maxIterations, long targetLatencyMs) {
+        if (minIterations <= 0 || maxIterations < minIterations) {
+            throw new IllegalArgumentException("invalid iteration range: " + minIterations + "-" + maxIterations);
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("password-hash"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.minIterations = minIterations;
+        this.maxIterations = maxIterations;
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.iterations = minIterations;
+    }
+
+    /**
+     * 使用当前工作因子计算密码哈希（注册、修改密码）
+     *
+     * @throws PasswordHashingRejectedException 线程池饱和
+     */
+    public String hash(String password) {
+        return await(submit(() -> timedHash(password, iterations)));
+    }
+
+    /**
+     * 验证密码
+     *
+     * @param encoded 存储的哈希，用户不存在或已禁用时传null（仍然计算一次哈希，响应时间与用户存在时一致）
+     * @throws PasswordHashingRejectedException 线程池饱和
+     */
+    public Verification verify(String password, String encoded) {
+        return await(submit(() -> {
+            int stored = PasswordHasher.iterationsOf(encoded);
+            if (stored <= 0) {
+                timedHash(password, iterations);
+                return Verification.MISMATCH;
+            }
+            long start = System.nanoTime();
+            boolean matched = PasswordHasher.matches(password, encoded);
+            record(System.nanoTime() - start, stored);
+            if (!matched) {
+                return Verification.MISMATCH;
+            }
+            int current = iterations;
+            return new Verification(true, stored < current ? timedHash(password, current) : null);
+        }));
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** 当前工作因子（迭代次数） */
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /** 队列已满被拒绝的次数 */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /** 排队超时被丢弃的次数 */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /** 已计算的哈希次数 */
+    public long getHashCount() {
+        return hashCount.sum();
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                if (System.nanoTime() - enqueuedAt > maxQueueWaitNanos) {
+                    expiredCount.increment();
+                    throw new PasswordHashingRejectedException("password hashing task expired in queue");
+                }
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new PasswordHashingRejectedException("password hashing queue is full");
+        }
+    }
+
+    /**
+     * 等待哈希结果；执行时间受排队超时和工作因子上限约束，不需要额外的超时
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String timedHash(String password, int rounds) {
+        long start = System.nanoTime();
+        String encoded = PasswordHasher.hash(password, rounds);
+        record(System.nanoTime() - start, rounds);
+        return encoded;
+    }
+
+    /**
+     * 记录一次哈希的执行时间，按平滑后的单次迭代耗时调整工作因子
+     */
+    private synchronized void record(long nanos, int rounds) {
+        hashCount.increment();
+        double sample = (double) nanos / rounds;
+        nanosPerIteration = nanosPerIteration == 0 ? sample : nanosPerIteration + ALPHA * (sample - nanosPerIteration);
+        long target = (long) (targetNanos / nanosPerIteration) / ITERATION_STEP * ITERATION_STEP;
+        int adjusted = (int) Math.max(minIterations, Math.min(maxIterations, target));
+        int current = iterations;
+        if (Math.abs((long) adjusted - current) * 10 > current) {
+            iterations = adjusted;
+            log.info("密码哈希工作因子调整: {} -> {}, 单次迭代约 {} ns", current, adjusted,
+                    String.format("%.1f", nanosPerIteration));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 验证结果
+     */
+    public static final class Verification {
+
+        private static final Verification MISMATCH = new Verification(false, null);
+
+        private final boolean matched;
+
+        /** 使用当前工作因子重新计算的哈希，存储的哈希不需要升级时为null */
+        private final String upgradedHash;
+
+        private Verification(boolean matched, String upgradedHash) {
+            this.matched = matched;
+            this.upgradedHash = upgradedHash;
+        }
+
+        public boolean isMatched() {
+            return matched;
+        }
+
+        public String getUpgradedHash() {
+            return upgradedHash;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.cao.ecommerce.user.infrastructure.util;
+
+/**
+ * 密码哈希线程池饱和：队列已满，或任务排队超时
+ *
+ * 撞库攻击时每秒可能抛出大量该异常，不填充栈
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,71 @@
+package com.cao.ecommerce.user.interfaces.controller;
+
+import com.cao.ecommerce.user.application.service.LoginService;
+import com.cao.ecommerce.user.infrastructure.config.PasswordHashingProperties;
+import com.cao.ecommerce.user.infrastructure.util.PasswordHashingRejectedException;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 登录控制器
+ *
+ * 网关的 /user/login 去掉前缀后转发到这里；目前只校验凭证并返回用户ID，令牌签发在签发方上线后接入
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@RestController
+@ConditionalOnProperty(prefix = PasswordHashingProperties.PREFIX, name = "enabled", havingValue = "true")
+public class LoginController {
+
+    /** 密码长度上限，超长的输入直接拒绝，不进入哈希线程池 */
+    private static final int MAX_PASSWORD_LENGTH = 128;
+
+    private final LoginService loginService;
+
+    public LoginController(LoginService loginService) {
+        this.loginService = loginService;
+    }
+
+    /**
+     * 用户名密码登录
+     */
+    @PostMapping("/login")
+    public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequest request) {
+        if (request.getUsername() == null || request.getUsername().isEmpty()
+                || request.getPassword() == null || request.getPassword().isEmpty()
+                || request.getPassword().length() > MAX_PASSWORD_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long userId;
+        try {
+            userId = loginService.authenticate(request.getUsername(), request.getPassword());
+        } catch (PasswordHashingRejectedException e) {
+            // 哈希线程池饱和：快速失败，不占用请求线程排队
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(Map.of("userId", userId));
+    }
+
+    /**
+     * 登录请求
+     */
+    @Data
+    public static class LoginRequest {
+
+        private String username;
+
+        private String password;
+    }
+}
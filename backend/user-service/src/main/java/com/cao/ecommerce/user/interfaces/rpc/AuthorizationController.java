@@ -0,0 +1,57 @@
+package com.cao.ecommerce.user.interfaces.rpc;
+
+import com.cao.ecommerce.user.application.service.AuthorizationService;
+import com.cao.ecommerce.user.domain.service.UserAuthorization;
+import com.cao.ecommerce.user.infrastructure.config.AuthorizationProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 用户授权查询接口（供其他服务内部调用）
+ *
+ * 批量接口一次解析多个用户，调用方把一页数据涉及的用户合并为一次请求，避免逐个调用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/internal/authorizations")
+@ConditionalOnProperty(prefix = AuthorizationProperties.PREFIX, name = "enabled", havingValue = "true")
+public class AuthorizationController {
+
+    private final AuthorizationService authorizationService;
+
+    private final AuthorizationProperties properties;
+
+    public AuthorizationController(AuthorizationService authorizationService, AuthorizationProperties properties) {
+        this.authorizationService = authorizationService;
+        this.properties = properties;
+    }
+
+    /**
+     * 查询单个用户的角色和权限
+     */
+    @GetMapping("/{userId}")
+    public UserAuthorization get(@PathVariable long userId) {
+        return authorizationService.resolve(userId);
+    }
+
+    /**
+     * 批量查询，请求体为用户ID数组，结果与请求顺序一致
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserAuthorization>> batch(@RequestBody long[] userIds) {
+        if (userIds.length > properties.getMaxBatchSize()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(authorizationService.resolveAll(userIds));
+    }
+}
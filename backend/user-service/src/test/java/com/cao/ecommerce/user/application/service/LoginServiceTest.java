@@ -0,0 +1,161 @@
+package com.cao.ecommerce.user.application.service;
+
+import com.cao.ecommerce.user.infrastructure.persistence.JdbcUserCredentialRepository;
+import com.cao.ecommerce.user.infrastructure.util.PasswordHasher;
+import com.cao.ecommerce.user.infrastructure.util.PasswordHashingExecutor;
+import com.cao.ecommerce.user.infrastructure.util.PasswordHashingRejectedException;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 登录测试：H2内存库上验证旧哈希透明升级、失败路径不写库，以及哈希线程池的工作因子调整和饱和拒绝
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class LoginServiceTest {
+
+    private static final int OLD_ITERATIONS = 1000;
+
+    private static final int CURRENT_ITERATIONS = 2000;
+
+    /** 单次哈希明显长于排队上限的工作因子 */
+    private static final int SLOW_ITERATIONS = 300_000;
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:login-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE user (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "username VARCHAR(50) NOT NULL UNIQUE, password VARCHAR(100) NOT NULL, "
+                + "status TINYINT DEFAULT 1, deleted TINYINT DEFAULT 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Test
+    void successfulLoginUpgradesHashBelowCurrentWorkFactor() {
+        executor = new PasswordHashingExecutor(1, 10, 10000, CURRENT_ITERATIONS, CURRENT_ITERATIONS, 1);
+        LoginService loginService = newLoginService();
+        long id = insertUser("alice", PasswordHasher.hash("correct horse", OLD_ITERATIONS), 1);
+
+        assertThat(loginService.authenticate("alice", "correct horse")).isEqualTo(id);
+
+        String upgraded = passwordOf(id);
+        assertThat(PasswordHasher.iterationsOf(upgraded)).isEqualTo(CURRENT_ITERATIONS);
+        assertThat(PasswordHasher.matches("correct horse", upgraded)).isTrue();
+
+        // 已是当前工作因子，不再写库
+        assertThat(loginService.authenticate("alice", "correct horse")).isEqualTo(id);
+        assertThat(passwordOf(id)).isEqualTo(upgraded);
+    }
+
+    @Test
+    void failedLoginsHashOnceAndLeaveStoredHashUntouched() {
+        executor = new PasswordHashingExecutor(1, 10, 10000, CURRENT_ITERATIONS, CURRENT_ITERATIONS, 1);
+        LoginService loginService = newLoginService();
+        String stored = PasswordHasher.hash("correct horse", OLD_ITERATIONS);
+        long alice = insertUser("alice", stored, 1);
+        long bob = insertUser("bob", PasswordHasher.hash("battery staple", OLD_ITERATIONS), 0);
+
+        assertThat(loginService.authenticate("alice", "wrong")).isNull();
+        assertThat(loginService.authenticate("bob", "battery staple")).isNull();
+        assertThat(loginService.authenticate("carol", "anything")).isNull();
+
+        // 密码错误、用户禁用、用户不存在都计算一次哈希，响应时间不暴露用户是否存在
+        assertThat(executor.getHashCount()).isEqualTo(3);
+        assertThat(passwordOf(alice)).isEqualTo(stored);
+        assertThat(PasswordHasher.iterationsOf(passwordOf(bob))).isEqualTo(OLD_ITERATIONS);
+    }
+
+    @Test
+    void workFactorAdaptsToLatencyTargetWithinBounds() {
+        executor = new PasswordHashingExecutor(1, 10, 10000, OLD_ITERATIONS, 10_000_000, 20);
+        for (int i = 0; i < 5; i++) {
+            executor.hash("pw");
+        }
+        assertThat(executor.getIterations()).isGreaterThan(OLD_ITERATIONS).isLessThanOrEqualTo(10_000_000);
+        executor.shutdown();
+
+        // 目标耗时低于下限的耗时：保持安全底线，不会降到下限以下
+        executor = new PasswordHashingExecutor(1, 10, 10000, CURRENT_ITERATIONS, 10_000_000, 0);
+        for (int i = 0; i < 5; i++) {
+            executor.hash("pw");
+        }
+        assertThat(executor.getIterations()).isEqualTo(CURRENT_ITERATIONS);
+        assertThat(PasswordHasher.iterationsOf(executor.hash("pw"))).isEqualTo(CURRENT_ITERATIONS);
+    }
+
+    @Test
+    void saturatedPoolRejectsImmediately() throws Exception {
+        executor = new PasswordHashingExecutor(1, 1, 60000, SLOW_ITERATIONS, SLOW_ITERATIONS, 1000);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.hash("a"));
+        awaitBusy(1, 0);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.hash("b"));
+        awaitBusy(1, 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> executor.hash("c")).isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(System.nanoTime() - start).isLessThan(50_000_000L);
+        assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+        assertThat(PasswordHasher.matches("a", running.get())).isTrue();
+        assertThat(PasswordHasher.matches("b", queued.get())).isTrue();
+    }
+
+    @Test
+    void taskQueuedBeyondMaxWaitIsDropped() throws Exception {
+        executor = new PasswordHashingExecutor(1, 1, 20, SLOW_ITERATIONS, SLOW_ITERATIONS, 1000);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.hash("a"));
+        awaitBusy(1, 0);
+
+        assertThatThrownBy(() -> executor.hash("b")).isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(executor.getExpiredCount()).isEqualTo(1);
+        assertThat(PasswordHasher.matches("a", running.get())).isTrue();
+    }
+
+    private LoginService newLoginService() {
+        return new LoginService(new JdbcUserCredentialRepository(jdbcTemplate), executor);
+    }
+
+    private void awaitBusy(int active, int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getActiveCount() != active || executor.getQueueSize() != queued) {
+            assertThat(System.currentTimeMillis()).as("pool never reached active=%d queued=%d", active, queued)
+                    .isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private long insertUser(String username, String password, int status) {
+        jdbcTemplate.update("INSERT INTO user (username, password, status) VALUES (?, ?, ?)",
+                username, password, status);
+        return jdbcTemplate.queryForObject("SELECT id FROM user WHERE username = ?", Long.class, username);
+    }
+
+    private String passwordOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT password FROM user WHERE id = ?", String.class, id);
+    }
+}
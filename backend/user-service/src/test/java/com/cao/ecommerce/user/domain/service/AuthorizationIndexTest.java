@@ -0,0 +1,262 @@
+package com.cao.ecommerce.user.domain.service;
+
+import com.cao.ecommerce.user.domain.model.Role;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 用户授权索引测试：角色/权限位图、角色变更、批量解析、扩容、并发读和百万用户的内存占用
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class AuthorizationIndexTest {
+
+    private static final long ADMIN_ROLE_ID = 1;
+
+    private static final long USER_ROLE_ID = 2;
+
+    private static final long AUDITOR_ROLE_ID = 3;
+
+    private static final int MILLION = 1_000_000;
+
+    /** 槽位数组：16字节/槽，负载因子0.375~0.75 */
+    private static final long MAX_FOOTPRINT_BYTES_PER_USER = 43;
+
+    /** 加载后的堆增量，扩容时丢弃的旧数组已回收 */
+    private static final long MAX_HEAP_BYTES_PER_USER = 48;
+
+    @Test
+    void rolesAndPermissionsFollowGrantedRoles() {
+        AuthorizationIndex index = newIndex(0);
+        index.grant(10, USER_ROLE_ID);
+        index.grant(11, USER_ROLE_ID);
+        index.grant(11, ADMIN_ROLE_ID);
+        // 未知角色和非法用户ID忽略
+        index.grant(12, 99);
+        index.grant(0, USER_ROLE_ID);
+
+        assertThat(index.hasRole(10, "USER")).isTrue();
+        assertThat(index.hasRole(10, "ADMIN")).isFalse();
+        assertThat(index.hasPermission(10, "order:read")).isTrue();
+        assertThat(index.hasPermission(10, "order:write")).isFalse();
+        assertThat(index.hasPermission(11, "order:write")).isTrue();
+        assertThat(index.hasPermission(11, "unknown")).isFalse();
+        assertThat(index.hasRole(11, "UNKNOWN")).isFalse();
+
+        UserAuthorization admin = index.resolve(11);
+        assertThat(admin.getRoles()).containsExactlyInAnyOrder("ADMIN", "USER");
+        assertThat(admin.getPermissions()).containsExactlyInAnyOrder(
+                "order:read", "order:write", "product:write", "user:read", "user:write");
+
+        UserAuthorization unknown = index.resolve(12);
+        assertThat(unknown.getRoles()).isEmpty();
+        assertThat(unknown.getPermissions()).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void setUserRolesReplacesMaskAndSkipsUsersWithoutRoles() {
+        AuthorizationIndex index = newIndex(0);
+        index.grant(10, ADMIN_ROLE_ID);
+
+        index.setUserRoles(10, new long[]{USER_ROLE_ID, 99});
+        assertThat(index.resolve(10).getRoles()).containsExactly("USER");
+
+        // 收回全部角色后保留槽位
+        index.setUserRoles(10, new long[0]);
+        assertThat(index.roleMask(10)).isZero();
+        assertThat(index.size()).isEqualTo(1);
+
+        // 没有角色的新用户不占槽位
+        index.setUserRoles(20, new long[0]);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledRoleIsMaskedUntilEnabledAgain() {
+        AuthorizationIndex index = newIndex(0);
+        index.grant(10, ADMIN_ROLE_ID);
+        index.grant(10, USER_ROLE_ID);
+
+        assertThat(index.updateRoles(List.of(role(ADMIN_ROLE_ID, "ADMIN", 0), role(USER_ROLE_ID, "USER", 1))))
+                .isTrue();
+        assertThat(index.hasRole(10, "ADMIN")).isFalse();
+        assertThat(index.hasPermission(10, "order:write")).isFalse();
+        assertThat(index.hasPermission(10, "order:read")).isTrue();
+        assertThat(index.resolve(10).getRoles()).containsExactly("USER");
+
+        assertThat(index.updateRoles(roles())).isTrue();
+        assertThat(index.hasRole(10, "ADMIN")).isTrue();
+        assertThat(index.hasPermission(10, "order:write")).isTrue();
+    }
+
+    @Test
+    void newRoleGetsFreeBitAndDeletedRoleRequiresRebuild() {
+        AuthorizationIndex index = newIndex(0);
+        index.grant(10, USER_ROLE_ID);
+
+        List<Role> withAuditor = new ArrayList<>(roles());
+        withAuditor.add(role(AUDITOR_ROLE_ID, "AUDITOR", 1));
+        assertThat(index.updateRoles(withAuditor)).isTrue();
+        assertThat(index.roleCount()).isEqualTo(3);
+        index.grant(10, AUDITOR_ROLE_ID);
+        assertThat(index.resolve(10).getRoles()).containsExactlyInAnyOrder("USER", "AUDITOR");
+        assertThat(index.hasRole(10, "USER")).isTrue();
+
+        assertThat(index.updateRoles(List.of(role(USER_ROLE_ID, "USER", 1)))).isFalse();
+        // 拒绝更新时保留原有的角色快照
+        assertThat(index.roleCount()).isEqualTo(3);
+    }
+
+    @Test
+    void roleBitsRunningOutRequiresRebuild() {
+        List<Role> roles = new ArrayList<>();
+        for (long id = 1; id <= AuthorizationIndex.MAX_ROLES; id++) {
+            roles.add(role(id, "R" + id, 1));
+        }
+        AuthorizationIndex index = new AuthorizationIndex(roles, Map.of(), 0);
+
+        roles.add(role(AuthorizationIndex.MAX_ROLES + 1, "R65", 1));
+        assertThat(index.updateRoles(roles)).isFalse();
+        assertThatThrownBy(() -> new AuthorizationIndex(roles, Map.of(), 0))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void resolveAllMatchesSingleLookups() {
+        AuthorizationIndex index = newIndex(0);
+        for (long userId = 1; userId <= 1000; userId++) {
+            index.grant(userId, userId % 3 == 0 ? ADMIN_ROLE_ID : USER_ROLE_ID);
+        }
+        long[] userIds = {3, 4, 999, 1000, 5000, 3};
+
+        List<UserAuthorization> batch = index.resolveAll(userIds);
+
+        assertThat(batch).hasSize(userIds.length);
+        for (int i = 0; i < userIds.length; i++) {
+            UserAuthorization single = index.resolve(userIds[i]);
+            assertThat(batch.get(i).getUserId()).isEqualTo(userIds[i]);
+            assertThat(batch.get(i).getRoles()).isEqualTo(single.getRoles());
+            assertThat(batch.get(i).getPermissions()).isEqualTo(single.getPermissions());
+        }
+        assertThat(batch.get(4).getRoles()).isEmpty();
+    }
+
+    @Test
+    void growthKeepsEveryUserForSparseIds() {
+        AuthorizationIndex index = newIndex(0);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(21);
+        for (int i = 0; i < 200_000; i++) {
+            long userId = 1 + (random.nextLong() >>> 1);
+            long roleId = random.nextBoolean() ? ADMIN_ROLE_ID : USER_ROLE_ID;
+            index.grant(userId, roleId);
+            expected.merge(userId, 1L << (roleId - 1), (a, b) -> a | b);
+        }
+
+        assertThat(index.size()).isEqualTo(expected.size());
+        expected.forEach((userId, bits) -> assertThat(index.roleMask(userId)).as("user %d", userId).isEqualTo(bits));
+        assertThat(index.roleMask(Long.MAX_VALUE)).isZero();
+    }
+
+    @Test
+    void readersSeeStableUsersWhileTableGrows() throws InterruptedException {
+        AuthorizationIndex index = newIndex(0);
+        for (long userId = 1; userId <= 1000; userId++) {
+            index.grant(userId, USER_ROLE_ID);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong misses = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            Random random = new Random(3);
+            while (!done.get()) {
+                if (!index.hasRole(1 + random.nextInt(1000), "USER")) {
+                    misses.incrementAndGet();
+                }
+                reads.incrementAndGet();
+            }
+        });
+        reader.start();
+        // 写入触发多次扩容
+        for (long userId = 1001; userId <= 500_000; userId++) {
+            index.grant(userId, ADMIN_ROLE_ID);
+        }
+        done.set(true);
+        reader.join();
+
+        assertThat(reads.get()).isPositive();
+        assertThat(misses.get()).isZero();
+    }
+
+    @Test
+    void millionUsersStayWithinMemoryBudget() {
+        long before = usedHeap();
+        AuthorizationIndex index = newIndex(0);
+        // 与 user_role 的行顺序相同：每个用户都有 USER 角色，每100个用户中有一个额外拥有 ADMIN 角色
+        for (long userId = 1; userId <= MILLION; userId++) {
+            index.grant(userId, USER_ROLE_ID);
+            if (userId % 100 == 0) {
+                index.grant(userId, ADMIN_ROLE_ID);
+            }
+        }
+        long used = usedHeap() - before;
+
+        assertThat(index.size()).isEqualTo(MILLION);
+        assertThat(index.getFootprintBytes() / MILLION).isLessThanOrEqualTo(MAX_FOOTPRINT_BYTES_PER_USER);
+        assertThat(used / MILLION).as("heap bytes per user").isLessThanOrEqualTo(MAX_HEAP_BYTES_PER_USER);
+        assertThat(index.hasPermission(MILLION, "order:write")).isTrue();
+        assertThat(index.hasPermission(MILLION - 1, "order:write")).isFalse();
+        assertThat(index.hasPermission(MILLION - 1, "order:read")).isTrue();
+
+        // 按预计用户数预分配时不扩容，占用不超过同样的上限
+        AuthorizationIndex presized = newIndex(MILLION);
+        long presizedFootprint = presized.getFootprintBytes();
+        for (long userId = 1; userId <= MILLION; userId++) {
+            presized.grant(userId, USER_ROLE_ID);
+        }
+        assertThat(presized.getFootprintBytes()).isEqualTo(presizedFootprint);
+        assertThat(presizedFootprint / MILLION).isLessThanOrEqualTo(MAX_FOOTPRINT_BYTES_PER_USER);
+    }
+
+    private static AuthorizationIndex newIndex(int expectedUsers) {
+        return new AuthorizationIndex(roles(), rolePermissions(), expectedUsers);
+    }
+
+    private static List<Role> roles() {
+        return List.of(role(ADMIN_ROLE_ID, "ADMIN", 1), role(USER_ROLE_ID, "USER", 1));
+    }
+
+    private static Role role(long id, String name, int status) {
+        Role role = new Role();
+        role.setId(id);
+        role.setRoleName(name);
+        role.setStatus(status);
+        return role;
+    }
+
+    private static Map<String, List<String>> rolePermissions() {
+        return Map.of(
+                "ADMIN", List.of("user:read", "user:write", "product:write", "order:read", "order:write"),
+                "USER", List.of("order:read"));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
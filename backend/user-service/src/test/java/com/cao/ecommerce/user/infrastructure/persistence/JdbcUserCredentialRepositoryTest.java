@@ -0,0 +1,97 @@
+package com.cao.ecommerce.user.infrastructure.persistence;
+
+import com.cao.ecommerce.user.domain.model.UserCredential;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用户凭证仓储测试：H2内存库（MySQL兼容模式）上验证按用户名查询和条件更新密码哈希
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class JdbcUserCredentialRepositoryTest {
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcUserCredentialRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:credential-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        createUserTable(jdbcTemplate);
+        repository = new JdbcUserCredentialRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Test
+    void findsActiveUserByUsername() {
+        long id = insertUser(jdbcTemplate, "alice", "hash-a", 1, 0);
+        insertUser(jdbcTemplate, "bob", "hash-b", 0, 0);
+
+        UserCredential alice = repository.findByUsername("alice");
+        assertThat(alice.getId()).isEqualTo(id);
+        assertThat(alice.getUsername()).isEqualTo("alice");
+        assertThat(alice.getPasswordHash()).isEqualTo("hash-a");
+        assertThat(alice.isEnabled()).isTrue();
+
+        // 禁用的用户仍然返回，由调用方按状态处理
+        assertThat(repository.findByUsername("bob").isEnabled()).isFalse();
+        assertThat(repository.findByUsername("carol")).isNull();
+    }
+
+    @Test
+    void deletedUserIsInvisible() {
+        long id = insertUser(jdbcTemplate, "alice", "hash-a", 1, 1);
+
+        assertThat(repository.findByUsername("alice")).isNull();
+        assertThat(repository.updatePasswordHash(id, "hash-a", "hash-new")).isFalse();
+        assertThat(passwordOf(id)).isEqualTo("hash-a");
+    }
+
+    @Test
+    void updateOnlyReplacesExpectedHash() {
+        long id = insertUser(jdbcTemplate, "alice", "hash-old", 1, 0);
+
+        assertThat(repository.updatePasswordHash(id, "hash-old", "hash-upgraded")).isTrue();
+        assertThat(passwordOf(id)).isEqualTo("hash-upgraded");
+
+        // 期间密码已被修改：基于旧哈希的升级不能覆盖新密码
+        assertThat(repository.updatePasswordHash(id, "hash-old", "hash-stale")).isFalse();
+        assertThat(passwordOf(id)).isEqualTo("hash-upgraded");
+        assertThat(repository.updatePasswordHash(id + 1, "hash-upgraded", "hash-other")).isFalse();
+    }
+
+    private String passwordOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT password FROM user WHERE id = ?", String.class, id);
+    }
+
+    /**
+     * 与部署脚本中的 user 表结构一致（登录相关字段）
+     */
+    static void createUserTable(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE user (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "username VARCHAR(50) NOT NULL UNIQUE, password VARCHAR(100) NOT NULL, "
+                + "status TINYINT DEFAULT 1, deleted TINYINT DEFAULT 0)");
+    }
+
+    static long insertUser(JdbcTemplate jdbcTemplate, String username, String password, int status, int deleted) {
+        jdbcTemplate.update("INSERT INTO user (username, password, status, deleted) VALUES (?, ?, ?, ?)",
+                username, password, status, deleted);
+        return jdbcTemplate.queryForObject("SELECT id FROM user WHERE username = ?", Long.class, username);
+    }
+}
@@ -0,0 +1,80 @@
+package com.cao.ecommerce.user.infrastructure.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 密码哈希测试：标准测试向量、随机盐、迭代次数解析和非法格式
+ *
+ * @author cao
+ * @version 1.0.0
+ */
+class PasswordHasherTest {
+
+    private static final int ITERATIONS = 1000;
+
+    @Test
+    void matchesPbkdf2Sha256TestVector() {
+        // 公开的 PBKDF2-HMAC-SHA256 测试向量：P="password", S="salt", c=1, dkLen=32
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        byte[] derived = HexFormat.of().parseHex("120fb6cffcf8b32c43e7225256c4f837a86548c92ccc35480805987cb70be17b");
+        String encoded = "pbkdf2-sha256$1$" + encoder.encodeToString("salt".getBytes()) + '$'
+                + encoder.encodeToString(derived);
+
+        assertThat(PasswordHasher.matches("password", encoded)).isTrue();
+        assertThat(PasswordHasher.matches("Password", encoded)).isFalse();
+    }
+
+    @Test
+    void hashRoundTripsWithRandomSalt() {
+        String first = PasswordHasher.hash("s3cret!", ITERATIONS);
+        String second = PasswordHasher.hash("s3cret!", ITERATIONS);
+
+        assertThat(first).startsWith("pbkdf2-sha256$1000$").isNotEqualTo(second);
+        assertThat(first.split("\\$")).hasSize(4);
+        assertThat(PasswordHasher.matches("s3cret!", first)).isTrue();
+        assertThat(PasswordHasher.matches("s3cret!", second)).isTrue();
+        assertThat(PasswordHasher.matches("s3cret?", first)).isFalse();
+        assertThat(PasswordHasher.matches("", first)).isFalse();
+    }
+
+    @Test
+    void iterationsTravelWithTheHash() {
+        assertThat(PasswordHasher.iterationsOf(PasswordHasher.hash("pw", ITERATIONS))).isEqualTo(ITERATIONS);
+        assertThat(PasswordHasher.iterationsOf(PasswordHasher.hash("pw", ITERATIONS * 2))).isEqualTo(ITERATIONS * 2);
+    }
+
+    @Test
+    void unrecognisedFormatsNeverMatch() {
+        String valid = PasswordHasher.hash("pw", ITERATIONS);
+        String[] parts = valid.split("\\$");
+        String[] malformed = {
+                null,
+                "",
+                "pw",
+                // 明文或其他算法的旧数据
+                "$2a$10$abcdefghijklmnopqrstuv",
+                "pbkdf2-sha1$1000$" + parts[2] + '$' + parts[3],
+                "pbkdf2-sha256$0$" + parts[2] + '$' + parts[3],
+                "pbkdf2-sha256$-1$" + parts[2] + '$' + parts[3],
+                "pbkdf2-sha256$1e3$" + parts[2] + '$' + parts[3],
+                "pbkdf2-sha256$9999999999$" + parts[2] + '$' + parts[3],
+                "pbkdf2-sha256$$" + parts[2] + '$' + parts[3],
+                "pbkdf2-sha256$1000$" + parts[2],
+                "pbkdf2-sha256$1000$" + parts[2] + '$' + parts[3] + "$extra",
+        };
+        for (String encoded : malformed) {
+            assertThat(PasswordHasher.iterationsOf(encoded)).as("iterations of %s", encoded).isEqualTo(-1);
+            assertThat(PasswordHasher.matches("pw", encoded)).as("matches %s", encoded).isFalse();
+        }
+
+        // 格式正确但内容损坏
+        assertThat(PasswordHasher.matches("pw", "pbkdf2-sha256$1000$!!!$" + parts[3])).isFalse();
+        assertThat(PasswordHasher.matches("pw", "pbkdf2-sha256$1000$$" + parts[3])).isFalse();
+        assertThat(PasswordHasher.matches("pw", "pbkdf2-sha256$1000$" + parts[2] + "$AAAA")).isFalse();
+    }
+}
@@ -123,7 +123,7 @@ CREATE TABLE IF NOT EXISTS `order` (
   `deleted` tinyint DEFAULT '0' COMMENT '是否删除：0-未删除，1-已删除',
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_order_no` (`order_no`),
-  KEY `idx_user_id` (`user_id`),
+  KEY `idx_user_create_time` (`user_id`,`deleted`,`create_time`,`id`) COMMENT '订单列表游标分页，覆盖 user_id 单列查询',
   KEY `idx_status` (`status`),
   KEY `idx_create_time` (`create_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单表';
@@ -144,6 +144,30 @@ CREATE TABLE IF NOT EXISTS `order_item` (
   KEY `idx_product_id` (`product_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单详情表';
 
+-- 事务发件箱表（领域事件与业务数据在同一事务内写入，由中继异步投递到消息队列）
+CREATE TABLE IF NOT EXISTS `outbox_event` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT 'ID（同一聚合内即投递顺序）',
+  `aggregate_type` varchar(50) NOT NULL COMMENT '聚合类型',
+  `aggregate_id` bigint NOT NULL COMMENT '聚合ID',
+  `event_type` varchar(100) NOT NULL COMMENT '事件类型',
+  `payload` text NOT NULL COMMENT '事件内容（JSON）',
+  `status` tinyint NOT NULL DEFAULT '0' COMMENT '状态：0-待投递，1-已投递，2-已停放（失败次数达到上限）',
+  `attempts` int NOT NULL DEFAULT '0' COMMENT '已失败的投递次数',
+  `next_retry_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '下次投递时间（失败后指数退避）',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `sent_time` datetime DEFAULT NULL COMMENT '投递时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status_id` (`status`, `id`),
+  KEY `idx_status_sent_time` (`status`, `sent_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='事务发件箱表';
+
+-- 复制心跳表（读写分离：各服务实例定期在主库写入心跳，从库读回的心跳即复制位置和延迟）
+CREATE TABLE IF NOT EXISTS `replication_heartbeat` (
+  `id` varchar(64) NOT NULL COMMENT '服务实例标识',
+  `ts` bigint NOT NULL COMMENT '心跳时刻（毫秒时间戳）',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='复制心跳表';
+
 -- 初始化数据
 INSERT IGNORE INTO `role` (`role_name`, `role_desc`) VALUES
 ('ADMIN', '管理员'),